@@ -0,0 +1,103 @@
+package de.chrlembeck.codegen.benchmarks;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.chrlembeck.codegen.generator.ExecutionMode;
+import de.chrlembeck.codegen.generator.Generator;
+import de.chrlembeck.codegen.generator.SimpleTemplateResolver;
+import de.chrlembeck.codegen.generator.TemplateCache;
+import de.chrlembeck.codegen.generator.lang.TemplateFile;
+import de.chrlembeck.codegen.generator.output.BasicOutputPreferences;
+import de.chrlembeck.codegen.generator.output.GeneratorOutput;
+import de.chrlembeck.codegen.model.Model;
+
+/**
+ * Gemeinsame Grundlage der Benchmarks, die ein Template auf ein synthetisches Datenbankmodell anwenden. Modell und
+ * Template-Datei werden einmalig pro Messreihe erstellt, so dass nur die Ausführung des Templates gemessen wird.
+ *
+ * @author Christoph Lembeck
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public abstract class AbstractTemplateBenchmark {
+
+    /**
+     * Anzahl der Tabellen im Modell.
+     */
+    @Param({ "1000", "10000", "100000" })
+    public int tableCount;
+
+    /**
+     * Art der Ausführung der Templates.
+     */
+    @Param({ "INTERPRETED", "COMPILED" })
+    public ExecutionMode executionMode;
+
+    /**
+     * Modell, auf das das Template angewendet wird.
+     */
+    protected Model model;
+
+    /**
+     * Resolver, über den die Template-Datei geladen wurde.
+     */
+    protected SimpleTemplateResolver templateResolver;
+
+    /**
+     * Vorab geladene Template-Datei.
+     */
+    protected TemplateFile templateFile;
+
+    /**
+     * Erstellt das Modell und lädt die Template-Datei.
+     * 
+     * @throws IOException
+     *             Falls die Template-Datei nicht gelesen werden kann.
+     */
+    @Setup
+    public void setUpTemplate() throws IOException {
+        model = SchemaModelFactory.createModel(tableCount);
+        final URI resourceIdentifier = getTemplate().getResourceIdentifier();
+        templateResolver = new SimpleTemplateResolver(resourceIdentifier, new TemplateCache());
+        templateFile = templateResolver.getOrLoadTemplateFile(resourceIdentifier);
+    }
+
+    /**
+     * Wendet das Template {@code root} der Template-Datei auf das Modell an.
+     * 
+     * @param output
+     *            Verwalter für die Ausgaben des Generators.
+     * @throws IOException
+     *             Falls bei der Ausgabe ein Problem auftritt.
+     */
+    protected void generate(final GeneratorOutput output) throws IOException {
+        final Generator generator = new Generator(templateResolver, output, new BasicOutputPreferences());
+        generator.setExecutionMode(executionMode);
+        generator.generate(templateFile, "root", model);
+        output.closeAll();
+    }
+
+    /**
+     * Gibt die Template-Datei zurück, die durch den Benchmark ausgeführt wird.
+     * 
+     * @return Auszuführende Template-Datei.
+     */
+    protected abstract BenchmarkTemplate getTemplate();
+}
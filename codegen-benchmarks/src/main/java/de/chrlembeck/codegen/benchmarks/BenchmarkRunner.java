@@ -0,0 +1,58 @@
+package de.chrlembeck.codegen.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Startet die Benchmarks des Generators. Alle Kommandozeilenparameter von JMH werden unterstützt (z.B.
+ * {@code -p tableCount=1000} oder ein regulärer Ausdruck zur Auswahl der Benchmarks). Falls nichts anderes angegeben
+ * wird, werden die Ergebnisse zusätzlich im JSON-Format in die Datei {@value #DEFAULT_RESULT_FILE} geschrieben, so
+ * dass sie zwischen verschiedenen Versionen maschinell verglichen werden können.
+ *
+ * <pre>
+ * java -jar codegen-benchmarks/target/benchmarks.jar -p tableCount=1000 -rff result-0.0.1.json
+ * </pre>
+ *
+ * @author Christoph Lembeck
+ */
+public final class BenchmarkRunner {
+
+    /**
+     * Name der Ergebnisdatei, falls keine andere angegeben wird.
+     */
+    public static final String DEFAULT_RESULT_FILE = "codegen-benchmarks.json";
+
+    /**
+     * Verhindert das Erzeugen von Instanzen der Klasse.
+     */
+    private BenchmarkRunner() {
+        // nur statische Methoden
+    }
+
+    /**
+     * Führt die Benchmarks mit den übergebenen Kommandozeilenparametern aus.
+     * 
+     * @param args
+     *            Kommandozeilenparameter von JMH.
+     * @throws CommandLineOptionException
+     *             Falls die Parameter ungültig sind.
+     * @throws RunnerException
+     *             Falls bei der Ausführung der Benchmarks ein Fehler auftritt.
+     */
+    public static void main(final String[] args) throws CommandLineOptionException, RunnerException {
+        final CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        final ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLineOptions);
+        if (!commandLineOptions.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLineOptions.getResult().hasValue()) {
+            options.result(DEFAULT_RESULT_FILE);
+        }
+        new Runner(options.build()).run();
+    }
+}
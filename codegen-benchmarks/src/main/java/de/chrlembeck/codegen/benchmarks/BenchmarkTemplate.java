@@ -0,0 +1,66 @@
+package de.chrlembeck.codegen.benchmarks;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+
+/**
+ * Template-Dateien, die von den Benchmarks verwendet werden. Alle Dateien enthalten ein Template {@code root} für
+ * das durch die {@link SchemaModelFactory} erzeugte Modell.
+ *
+ * @author Christoph Lembeck
+ */
+public enum BenchmarkTemplate {
+
+    /**
+     * Methodenaufrufe, Arithmetik und String-Verkettungen pro Tabelle.
+     */
+    EXPRESSIONS("expressions.codegen"),
+
+    /**
+     * Geschachtelte FOREACH-Schleifen über Tabellen und Spalten.
+     */
+    FOREACH("foreach.codegen"),
+
+    /**
+     * Geschachtelte Aufrufe weiterer Templates über EXEC für Katalog, Schema, Tabelle und Spalte.
+     */
+    EXECUTE("execute.codegen"),
+
+    /**
+     * Eigener Ausgabekanal für jede Tabelle.
+     */
+    OUTPUT("output.codegen");
+
+    /**
+     * Name der Template-Datei im Classpath relativ zu diesem Package.
+     */
+    private final String fileName;
+
+    /**
+     * Erstellt einen neuen Eintrag für die übergebene Template-Datei.
+     * 
+     * @param fileName
+     *            Name der Template-Datei im Classpath relativ zu diesem Package.
+     */
+    BenchmarkTemplate(final String fileName) {
+        this.fileName = fileName;
+    }
+
+    /**
+     * Gibt den Identifier zurück, über den die Template-Datei geladen werden kann.
+     * 
+     * @return Identifier der Template-Datei.
+     */
+    public URI getResourceIdentifier() {
+        final URL url = BenchmarkTemplate.class.getResource(fileName);
+        if (url == null) {
+            throw new IllegalStateException("Die Template-Datei " + fileName + " wurde nicht gefunden.");
+        }
+        try {
+            return url.toURI();
+        } catch (final URISyntaxException e) {
+            throw new IllegalStateException("Ungültiger Identifier für die Template-Datei " + fileName + ".", e);
+        }
+    }
+}
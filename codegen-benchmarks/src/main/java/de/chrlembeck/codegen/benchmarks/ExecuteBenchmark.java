@@ -0,0 +1,38 @@
+package de.chrlembeck.codegen.benchmarks;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+import de.chrlembeck.codegen.generator.output.BufferedOutput;
+
+/**
+ * Misst den Aufruf weiterer Templates über geschachtelte EXEC-Anweisungen für Katalog, Schema, Tabelle und Spalte. Die
+ * Ausgabe erfolgt in einen {@link BufferedOutput}.
+ *
+ * @author Christoph Lembeck
+ */
+public class ExecuteBenchmark extends AbstractTemplateBenchmark {
+
+    /**
+     * Führt das Template einmal vollständig aus.
+     * 
+     * @return Gesammelte Ausgaben des Generators.
+     * @throws IOException
+     *             Falls bei der Ausgabe ein Problem auftritt.
+     */
+    @Benchmark
+    public BufferedOutput dispatchNestedTemplates() throws IOException {
+        final BufferedOutput output = new BufferedOutput();
+        generate(output);
+        return output;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected BenchmarkTemplate getTemplate() {
+        return BenchmarkTemplate.EXECUTE;
+    }
+}
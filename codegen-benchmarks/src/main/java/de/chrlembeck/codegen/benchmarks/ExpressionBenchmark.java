@@ -0,0 +1,38 @@
+package de.chrlembeck.codegen.benchmarks;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+import de.chrlembeck.codegen.generator.output.BufferedOutput;
+
+/**
+ * Misst die Auswertung von Ausdrücken (Methodenaufrufe, Arithmetik und String-Verkettungen) für jede Tabelle des
+ * Modells. Die Ausgabe erfolgt in einen {@link BufferedOutput}.
+ *
+ * @author Christoph Lembeck
+ */
+public class ExpressionBenchmark extends AbstractTemplateBenchmark {
+
+    /**
+     * Führt das Template einmal vollständig aus.
+     * 
+     * @return Gesammelte Ausgaben des Generators.
+     * @throws IOException
+     *             Falls bei der Ausgabe ein Problem auftritt.
+     */
+    @Benchmark
+    public BufferedOutput evaluateExpressions() throws IOException {
+        final BufferedOutput output = new BufferedOutput();
+        generate(output);
+        return output;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected BenchmarkTemplate getTemplate() {
+        return BenchmarkTemplate.EXPRESSIONS;
+    }
+}
@@ -0,0 +1,138 @@
+package de.chrlembeck.codegen.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+import de.chrlembeck.codegen.generator.Generator;
+import de.chrlembeck.codegen.generator.output.AsyncGeneratorOutput;
+import de.chrlembeck.codegen.generator.output.BasicOutputPreferences;
+import de.chrlembeck.codegen.generator.output.BufferedOutput;
+import de.chrlembeck.codegen.generator.output.FileOutput;
+import de.chrlembeck.codegen.generator.output.GeneratorOutput;
+import de.chrlembeck.codegen.generator.output.OverwritePreferences;
+import de.chrlembeck.codegen.generator.output.TextGeneratorWriter;
+import de.chrlembeck.codegen.generator.output.ZipOutput;
+
+/**
+ * Misst das Schreiben einer eigenen Ausgabedatei pro Tabelle des Modells in die verschiedenen Ausgabeverwalter.
+ *
+ * @author Christoph Lembeck
+ */
+public class OutputBenchmark extends AbstractTemplateBenchmark {
+
+    /**
+     * Verwendeter Ausgabeverwalter.
+     */
+    @Param({ "BUFFERED", "FILE", "FILE_IF_CHANGED", "ASYNC_FILE", "ZIP" })
+    public OutputType outputType;
+
+    /**
+     * Verzeichnis für die Ausgabe in Dateien.
+     */
+    private Path outputDirectory;
+
+    /**
+     * Legt das Verzeichnis für die Ausgabe in Dateien an.
+     * 
+     * @throws IOException
+     *             Falls das Verzeichnis nicht angelegt werden kann.
+     */
+    @Setup
+    public void setUpOutputDirectory() throws IOException {
+        outputDirectory = Files.createTempDirectory("codegen-benchmark");
+    }
+
+    /**
+     * Löscht das Verzeichnis für die Ausgabe in Dateien mitsamt Inhalt.
+     * 
+     * @throws IOException
+     *             Falls das Verzeichnis nicht gelöscht werden kann.
+     */
+    @TearDown
+    public void deleteOutputDirectory() throws IOException {
+        try (Stream<Path> paths = Files.walk(outputDirectory)) {
+            for (final Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Führt das Template einmal vollständig aus.
+     * 
+     * @return Verwendeter Ausgabeverwalter.
+     * @throws IOException
+     *             Falls bei der Ausgabe ein Problem auftritt.
+     */
+    @Benchmark
+    public GeneratorOutput writeOutputs() throws IOException {
+        final GeneratorOutput output;
+        if (outputType == OutputType.BUFFERED) {
+            output = new BufferedOutput();
+        } else if (outputType == OutputType.ZIP) {
+            output = ZipOutput.simpleTextOutput(outputDirectory.resolve("output.zip"));
+        } else {
+            final FileOutput<TextGeneratorWriter> fileOutput = FileOutput.simpleTextOutput(outputDirectory);
+            fileOutput.setWriteOnlyChanged(outputType == OutputType.FILE_IF_CHANGED);
+            output = outputType == OutputType.ASYNC_FILE ? new AsyncGeneratorOutput(fileOutput) : fileOutput;
+        }
+        final BasicOutputPreferences preferences = new BasicOutputPreferences();
+        preferences.setDefaultCharset(StandardCharsets.UTF_8);
+        preferences.setDefaultOverwritePreferences(OverwritePreferences.OVERWRITE);
+        final Generator generator = new Generator(templateResolver, output, preferences);
+        generator.setExecutionMode(executionMode);
+        generator.generate(templateFile, "root", model);
+        output.closeAll();
+        return output;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected BenchmarkTemplate getTemplate() {
+        return BenchmarkTemplate.OUTPUT;
+    }
+
+    /**
+     * Die verglichenen Ausgabeverwalter.
+     *
+     * @author Christoph Lembeck
+     */
+    public enum OutputType {
+
+        /**
+         * Sammeln der Ausgaben im Speicher über {@link BufferedOutput}.
+         */
+        BUFFERED,
+
+        /**
+         * Schreiben der Dateien über {@link FileOutput}.
+         */
+        FILE,
+
+        /**
+         * Schreiben der Dateien über {@link FileOutput}, wobei nur Dateien mit geändertem Inhalt ersetzt werden.
+         */
+        FILE_IF_CHANGED,
+
+        /**
+         * Schreiben der Dateien über {@link FileOutput} in einem eigenen Thread über {@link AsyncGeneratorOutput}.
+         */
+        ASYNC_FILE,
+
+        /**
+         * Schreiben aller Dateien als Einträge in ein ZIP-Archiv über {@link ZipOutput}.
+         */
+        ZIP;
+    }
+}
@@ -0,0 +1,111 @@
+package de.chrlembeck.codegen.benchmarks;
+
+import java.sql.Types;
+
+import de.chrlembeck.codegen.model.Model;
+import de.chrlembeck.codegen.model.impl.CatalogImpl;
+import de.chrlembeck.codegen.model.impl.ColumnImpl;
+import de.chrlembeck.codegen.model.impl.ModelImpl;
+import de.chrlembeck.codegen.model.impl.SchemaImpl;
+import de.chrlembeck.codegen.model.impl.TableImpl;
+
+/**
+ * Erzeugt synthetische Datenbankmodelle in der Form, wie sie auch der {@code GenericDBModelReader} aus den Metadaten
+ * einer Datenbank erstellt. Die Tabellen werden gleichmäßig auf mehrere Schemata verteilt und besitzen jeweils eine
+ * feste Auswahl typischer Spalten, von denen die erste als Primärschlüsselspalte gekennzeichnet ist.
+ *
+ * @author Christoph Lembeck
+ */
+public final class SchemaModelFactory {
+
+    /**
+     * Maximale Anzahl an Tabellen pro Schema.
+     */
+    public static final int TABLES_PER_SCHEMA = 1000;
+
+    /**
+     * Namen, SQL-Typen und Java-Typen der Spalten, die jede Tabelle besitzt. Die erste Spalte ist die
+     * Primärschlüsselspalte.
+     */
+    private static final Object[][] COLUMNS = {
+            { "ID", "id", Integer.valueOf(Types.BIGINT), "BIGINT", "long" },
+            { "NAME", "name", Integer.valueOf(Types.VARCHAR), "VARCHAR", "java.lang.String" },
+            { "DESCRIPTION", "description", Integer.valueOf(Types.VARCHAR), "VARCHAR", "java.lang.String" },
+            { "AMOUNT", "amount", Integer.valueOf(Types.DECIMAL), "DECIMAL", "java.math.BigDecimal" },
+            { "QUANTITY", "quantity", Integer.valueOf(Types.INTEGER), "INTEGER", "int" },
+            { "ACTIVE", "active", Integer.valueOf(Types.BOOLEAN), "BOOLEAN", "boolean" },
+            { "CREATED_AT", "createdAt", Integer.valueOf(Types.TIMESTAMP), "TIMESTAMP",
+                    "java.time.LocalDateTime" },
+            { "VERSION", "version", Integer.valueOf(Types.INTEGER), "INTEGER", "int" } };
+
+    /**
+     * Anzahl der Spalten pro Tabelle.
+     */
+    public static final int COLUMNS_PER_TABLE = COLUMNS.length;
+
+    /**
+     * Verhindert das Erzeugen von Instanzen der Hilfsklasse.
+     */
+    private SchemaModelFactory() {
+        // nur statische Methoden
+    }
+
+    /**
+     * Erstellt ein Modell mit einem Katalog und der gewünschten Anzahl an Tabellen.
+     * 
+     * @param tableCount
+     *            Anzahl der Tabellen im Modell.
+     * @return Neu erstelltes Modell.
+     */
+    public static Model createModel(final int tableCount) {
+        final ModelImpl model = new ModelImpl();
+        final CatalogImpl catalog = new CatalogImpl();
+        catalog.setCatalogName("BENCHMARK");
+        model.addCatalog(catalog);
+        SchemaImpl schema = null;
+        for (int tableIdx = 0; tableIdx < tableCount; tableIdx++) {
+            if (tableIdx % TABLES_PER_SCHEMA == 0) {
+                final int schemaIdx = tableIdx / TABLES_PER_SCHEMA;
+                schema = new SchemaImpl();
+                schema.setSchemaName("SCHEMA_" + schemaIdx);
+                schema.setPackageName("de.chrlembeck.benchmark.schema" + schemaIdx);
+                schema.setCatalog(catalog);
+                catalog.addSchema(schema);
+            }
+            schema.addTable(createTable(schema, tableIdx));
+        }
+        return model;
+    }
+
+    /**
+     * Erstellt eine Tabelle mit den Standardspalten.
+     * 
+     * @param schema
+     *            Schema, zu dem die Tabelle gehört.
+     * @param tableIdx
+     *            Laufende Nummer der Tabelle im Modell.
+     * @return Neu erstellte Tabelle.
+     */
+    private static TableImpl createTable(final SchemaImpl schema, final int tableIdx) {
+        final TableImpl table = new TableImpl();
+        table.setSchema(schema);
+        table.setTableName("TABLE_" + tableIdx);
+        table.setJavaName("Table" + tableIdx);
+        table.setTableType("TABLE");
+        for (int columnIdx = 0; columnIdx < COLUMNS.length; columnIdx++) {
+            final Object[] definition = COLUMNS[columnIdx];
+            final ColumnImpl column = new ColumnImpl();
+            column.setColumnName((String) definition[0]);
+            column.setJavaName((String) definition[1]);
+            column.setDataType(((Integer) definition[2]).intValue());
+            column.setTypeName((String) definition[3]);
+            column.setJavaType((String) definition[4]);
+            column.setOrdinalPosition(columnIdx + 1);
+            column.setColumnSize(definition[2].equals(Integer.valueOf(Types.VARCHAR)) ? 255 : 0);
+            column.setIsNullable(columnIdx == 0 ? "NO" : "YES");
+            column.setPrimaryKeyColumn(Boolean.valueOf(columnIdx == 0));
+            table.addColumn(column);
+        }
+        return table;
+    }
+}
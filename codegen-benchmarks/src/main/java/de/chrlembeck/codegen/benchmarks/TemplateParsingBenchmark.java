@@ -0,0 +1,117 @@
+package de.chrlembeck.codegen.benchmarks;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.chrlembeck.codegen.generator.ParseTreeStore;
+import de.chrlembeck.codegen.generator.SimpleTemplateResolver;
+import de.chrlembeck.codegen.generator.TemplateCache;
+import de.chrlembeck.codegen.generator.lang.TemplateFile;
+
+/**
+ * Misst das Laden der Template-Dateien über den {@link SimpleTemplateResolver}, einmal durch vollständiges Lexen und
+ * Parsen und einmal über die im {@link ParseTreeStore} abgelegten Syntaxbäume. Jeder Aufruf verwendet einen neuen
+ * {@link TemplateCache}, damit die Datei tatsächlich geladen wird.
+ *
+ * @author Christoph Lembeck
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TemplateParsingBenchmark {
+
+    /**
+     * Zu ladende Template-Datei.
+     */
+    @Param({ "EXPRESSIONS", "FOREACH", "EXECUTE", "OUTPUT" })
+    public BenchmarkTemplate template;
+
+    /**
+     * Gibt an, ob die Syntaxbäume aus dem {@link ParseTreeStore} gelesen werden.
+     */
+    @Param({ "false", "true" })
+    public boolean useParseTreeStore;
+
+    /**
+     * Identifier der Template-Datei.
+     */
+    private URI resourceIdentifier;
+
+    /**
+     * Verzeichnis des Speichers für die Syntaxbäume.
+     */
+    private Path storeDirectory;
+
+    /**
+     * Speicher für die Syntaxbäume oder null, falls die Datei immer geparst wird.
+     */
+    private ParseTreeStore parseTreeStore;
+
+    /**
+     * Ermittelt die Template-Datei und füllt bei Bedarf den Speicher für die Syntaxbäume.
+     * 
+     * @throws IOException
+     *             Falls die Template-Datei nicht gelesen werden kann.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        resourceIdentifier = template.getResourceIdentifier();
+        if (useParseTreeStore) {
+            storeDirectory = Files.createTempDirectory("codegen-benchmark-store");
+            parseTreeStore = new ParseTreeStore(storeDirectory);
+            loadTemplateFile();
+        }
+    }
+
+    /**
+     * Löscht den Speicher für die Syntaxbäume.
+     * 
+     * @throws IOException
+     *             Falls das Verzeichnis nicht gelöscht werden kann.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        if (storeDirectory != null) {
+            try (Stream<Path> paths = Files.walk(storeDirectory)) {
+                for (final Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+
+    /**
+     * Lädt die Template-Datei über einen neuen Resolver mit leerem Cache.
+     * 
+     * @return Geladene Template-Datei.
+     * @throws IOException
+     *             Falls die Template-Datei nicht gelesen werden kann.
+     */
+    @Benchmark
+    public TemplateFile loadTemplateFile() throws IOException {
+        final SimpleTemplateResolver resolver = new SimpleTemplateResolver(resourceIdentifier, new TemplateCache());
+        resolver.setParseTreeStore(parseTreeStore);
+        return resolver.getOrLoadTemplateFile(resourceIdentifier);
+    }
+}
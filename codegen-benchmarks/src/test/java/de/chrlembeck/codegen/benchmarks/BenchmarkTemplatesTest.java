@@ -0,0 +1,135 @@
+package de.chrlembeck.codegen.benchmarks;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.chrlembeck.codegen.generator.ExecutionMode;
+import de.chrlembeck.codegen.generator.output.BufferedOutput;
+
+/**
+ * Prüft, dass die Templates der Benchmarks auf kleinen Modellen die erwarteten Ausgaben erzeugen.
+ *
+ * @author Christoph Lembeck
+ */
+public class BenchmarkTemplatesTest {
+
+    /**
+     * Auswertung der Ausdrücke.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testExpressions() throws Exception {
+        for (final ExecutionMode mode : ExecutionMode.values()) {
+            final ExpressionBenchmark benchmark = setUp(new ExpressionBenchmark(), mode);
+            final String content = benchmark.evaluateExpressions().getContent("expressions.txt");
+            Assertions.assertTrue(content.contains("Table1 table_1 24 T_TABLE_1_8 "
+                    + "de.chrlembeck.benchmark.schema0.Table1"), content);
+            Assertions.assertTrue(content.contains("Table1001 table_1001 24 T_TABLE_1001_8 "
+                    + "de.chrlembeck.benchmark.schema1.Table1001"), content);
+        }
+    }
+
+    /**
+     * Geschachtelte Schleifen.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testForeach() throws Exception {
+        for (final ExecutionMode mode : ExecutionMode.values()) {
+            final ForeachBenchmark benchmark = setUp(new ForeachBenchmark(), mode);
+            final String content = benchmark.iterateTablesAndColumns().getContent("foreach.txt");
+            Assertions.assertTrue(content.contains(
+                    "TABLE_1001(ID, NAME, DESCRIPTION, AMOUNT, QUANTITY, ACTIVE, CREATED_AT, VERSION)"), content);
+        }
+    }
+
+    /**
+     * Geschachtelte Template-Aufrufe.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testExecute() throws Exception {
+        for (final ExecutionMode mode : ExecutionMode.values()) {
+            final ExecuteBenchmark benchmark = setUp(new ExecuteBenchmark(), mode);
+            final String content = benchmark.dispatchNestedTemplates().getContent("execute.txt");
+            Assertions.assertTrue(content.contains("class Table1001 {"), content);
+            Assertions.assertTrue(content.contains("java.math.BigDecimal amount;"), content);
+        }
+    }
+
+    /**
+     * Ein Ausgabekanal pro Tabelle.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testOutput() throws Exception {
+        for (final OutputBenchmark.OutputType outputType : OutputBenchmark.OutputType.values()) {
+            final OutputBenchmark benchmark = setUp(new OutputBenchmark(), ExecutionMode.INTERPRETED);
+            benchmark.outputType = outputType;
+            benchmark.setUpOutputDirectory();
+            try {
+                benchmark.writeOutputs();
+                benchmark.writeOutputs();
+            } finally {
+                benchmark.deleteOutputDirectory();
+            }
+        }
+        final OutputBenchmark benchmark = setUp(new OutputBenchmark(), ExecutionMode.INTERPRETED);
+        benchmark.outputType = OutputBenchmark.OutputType.BUFFERED;
+        final BufferedOutput output = (BufferedOutput) benchmark.writeOutputs();
+        Assertions.assertEquals(1010, output.getChannelNames().size());
+        Assertions.assertTrue(output.getContent("SCHEMA_1/Table1001.java")
+                .contains("package de.chrlembeck.benchmark.schema1;"));
+    }
+
+    /**
+     * Laden der Template-Dateien mit und ohne gespeicherte Syntaxbäume.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testTemplateParsing() throws Exception {
+        for (final BenchmarkTemplate template : BenchmarkTemplate.values()) {
+            for (final boolean useParseTreeStore : new boolean[] { false, true }) {
+                final TemplateParsingBenchmark benchmark = new TemplateParsingBenchmark();
+                benchmark.template = template;
+                benchmark.useParseTreeStore = useParseTreeStore;
+                benchmark.setUp();
+                try {
+                    Assertions.assertNotNull(benchmark.loadTemplateFile().findTemplate("root",
+                            SchemaModelFactory.createModel(1).getClass()));
+                } finally {
+                    benchmark.tearDown();
+                }
+            }
+        }
+    }
+
+    /**
+     * Bereitet einen Benchmark für ein Modell mit zwei Schemata vor.
+     *
+     * @param benchmark
+     *            Vorzubereitender Benchmark.
+     * @param mode
+     *            Art der Ausführung der Templates.
+     * @return Der vorbereitete Benchmark.
+     * @throws Exception
+     *             Bei einem Problem beim Laden der Template-Datei.
+     */
+    private static <T extends AbstractTemplateBenchmark> T setUp(final T benchmark, final ExecutionMode mode)
+            throws Exception {
+        benchmark.tableCount = SchemaModelFactory.TABLES_PER_SCHEMA + 10;
+        benchmark.executionMode = mode;
+        benchmark.setUpTemplate();
+        return benchmark;
+    }
+}
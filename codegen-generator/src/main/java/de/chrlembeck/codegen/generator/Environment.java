@@ -1,12 +1,15 @@
 package de.chrlembeck.codegen.generator;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
-import java.util.Stack;
 
 import de.chrlembeck.codegen.generator.lang.Executable;
 import de.chrlembeck.codegen.generator.lang.ObjectWithType;
+import de.chrlembeck.codegen.generator.output.GeneratorWriter;
 
 /**
  * Ausführungsumgebung mit den Laufzeitinformationen während der Ausführung eines Templates einer Template-Datei.
@@ -16,92 +19,129 @@ import de.chrlembeck.codegen.generator.lang.ObjectWithType;
 public class Environment {
 
     /**
-     * Stack der aktuell bei der Ausführung angefallenen Frames. Verschiedene Statements können entscheiden, ob sie z.B.
-     * einen neuen Variablen-Scope benötigen und daher einen neuen Frame auf den Stack legen. Die Statements sind dann
-     * selbst in der Verantwortung, diese Frames auch passend wieder zu entfernen.
+     * Stack der aktuell bei der Ausführung angefallenen Frames. Jede Ausführung eines Templates legt einen eigenen
+     * Frame mit den Slots für die in dem Template verwendeten Variablen an und entfernt ihn nach der Ausführung wieder.
      */
-    private final Stack<Frame> frameStack = new Stack<>();
+    private final Deque<Frame> frameStack = new ArrayDeque<>();
+
+    /**
+     * Der aktuell oberste Frame des Stacks.
+     */
+    private Frame currentFrame;
 
     /**
      * Speichert den aktuellen Aufrufstack. Anhand des Stacks kann zurückverfolgt werden, woher letztendlich der Aufruf
      * der aktuellen Komponente kommt und welche Template-Definitionen zwischenzeitlich aufgerufen wurden.
      */
-    private final Stack<Executable<?>> generatorStack = new Stack<>();
+    private final List<Executable<?>> generatorStack = new ArrayList<>();
+
+    /**
+     * Rekorder für das Laufzeitprofil oder null, falls kein Profil erstellt wird.
+     */
+    private TemplateProfiler.Recorder profilerRecorder;
+
+    /**
+     * Erstellt eine neue, leere Laufzeitumgebung ohne Laufzeitprofil.
+     */
+    public Environment() {
+        // leere Umgebung
+    }
+
+    /**
+     * Erstellt eine neue, leere Laufzeitumgebung, deren Ausführung im übergebenen Profiler erfasst wird.
+     * 
+     * @param profiler
+     *            Profiler für das Laufzeitprofil oder null, falls kein Profil erstellt werden soll.
+     */
+    public Environment(final TemplateProfiler profiler) {
+        this.profilerRecorder = profiler == null ? null : profiler.newRecorder();
+    }
 
     /**
-     * Legt einen neuen Frame auf den Stack und verknüpft ihn, falls gewünscht, mit dem vorangegangenen Frame. Eine
-     * Verknüpfung ist dann notwendig, wenn der Frame Zugriff auf die Daten des vorangegangenen Frames erlauben möchte.
+     * Legt einen neuen Frame mit der übergebenen Anzahl an Slots für Variablen auf den Stack.
      * 
-     * @param inheritVariables
-     *            Legt fest, ob der neue Frame Zugriff auf die Variablen des vorangegangenen Frames bekommen soll.
+     * @param size
+     *            Anzahl der benötigten Slots, wie sie beim Laden der Template-Datei für das Template ermittelt wurde.
      * @see Environment#frameStack
+     * @see de.chrlembeck.codegen.generator.lang.TemplateStatement#getFrameSize()
      */
-    public void createFrame(final boolean inheritVariables) {
-        if (inheritVariables) {
-            frameStack.push(new Frame(frameStack.isEmpty() ? null : frameStack.peek()));
-        } else {
-            frameStack.push(new Frame(null));
+    public void createFrame(final int size) {
+        if (currentFrame != null) {
+            frameStack.push(currentFrame);
         }
+        currentFrame = size == 0 ? Frame.EMPTY : new Frame(size);
     }
 
     /**
-     * Setzt in dem aktuellen Frame einen neuen Wert für die übergebene Variable. Alle Statements, die später auf dem
-     * gleichen (oder erbenden) Frame ausgeführt werden, können den Wert dieser Variable nutzen.
+     * Setzt in dem aktuellen Frame einen neuen Wert für die Variable mit dem übergebenen Slot. Alle Ausdrücke, die
+     * beim Laden der Template-Datei diesem Slot zugeordnet wurden, erhalten anschließend diesen Wert.
      * 
-     * @param varName
-     *            Name der Variable.
+     * @param slot
+     *            Slot-Nummer der Variable.
      * @param item
      *            Wert der Variable.
      * @param type
      *            Laufzeittyp der Variable. Dieser ist besonders bei primitiven Datentypen wichtig, da er nicht aus den
      *            Wrapper-Klassen abgeleitet werden kann.
      */
-    public void addVariable(final String varName, final Object item, final Class<?> type) {
-        getCurrentFrame().addVariable(varName, item, type);
+    public void setVariable(final int slot, final Object item, final Class<?> type) {
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        final ObjectWithType<?> owt = new ObjectWithType(item, type);
+        currentFrame.setVariable(slot, owt);
     }
 
     /**
-     * Sucht im aktuellen Frame nach der übergebenen Variable und gibt bei Erfolg den zu ihr gespeicherten Wert zurück.
+     * Legt einen bereits verpackten Wert im übergebenen Slot des aktuellen Frames ab. Schleifen verwenden diese
+     * Methode, um einmalig eine {@link de.chrlembeck.codegen.generator.lang.LoopVariable} im Slot abzulegen, deren
+     * Wert sie anschließend für jeden Durchlauf selbst aktualisieren.
      * 
-     * @param varName
-     *            Name der zu suchenden Variable.
-     * @return Wert der Variable, falls diese im Frame bekannt ist.
+     * @param slot
+     *            Slot-Nummer der Variable.
+     * @param value
+     *            Wert der Variable zusammen mit ihrem Laufzeittyp.
      */
-    public ObjectWithType<?> lookupVariable(final String varName) {
-        return getCurrentFrame().lookupVariable(varName);
+    public void setVariable(final int slot, final ObjectWithType<?> value) {
+        currentFrame.setVariable(slot, value);
     }
 
     /**
-     * Prüft, ob die übergebene Variable in dem aktuell gültigen Frame bekannt ist.
+     * Gibt den aktuell im übergebenen Slot des aktuellen Frames gespeicherten Wert zurück.
      * 
-     * @param name
-     *            Name der zu suchenden Variablen.
-     * @return true, falls der Frame die Variable kennt, false, falls die Variable unbekannt ist.
+     * @param slot
+     *            Slot-Nummer der Variable.
+     * @return Wert der Variable oder null, falls der Slot aktuell nicht belegt ist.
      */
-    public boolean containsVariable(final String name) {
-        return getCurrentFrame().containsVariable(name);
+    public ObjectWithType<?> lookupVariable(final int slot) {
+        return currentFrame.getVariable(slot);
     }
 
     /**
-     * Gibt den aktuell gültigen Frame vom Stack zurück.
+     * Entfernt den aktuellen Frame vom Frame-Stack.
      * 
-     * @return Für die aktuelle Umgebung gültiger Frame.
+     * @see #frameStack
      */
-    public Frame getCurrentFrame() {
-        return frameStack.peek();
+    public void dropFrame() {
+        currentFrame = frameStack.poll();
     }
 
     /**
-     * Entfernt den aktuellen Frame vom Frame-Stack.
+     * Erstellt eine neue Laufzeitumgebung mit den aktuellen Variablenbelegungen und dem aktuellen Aufrufstack dieser
+     * Umgebung. Die neue Umgebung kann unabhängig von dieser in einem anderen Thread verwendet werden, z.B. für die
+     * parallele Ausführung von OUTPUT-Blöcken.
      * 
-     * @see #frameStack
+     * @return Unabhängige Kopie des aktuellen Zustands der Laufzeitumgebung.
      */
-    public void dropFrame() {
-        frameStack.pop();
+    public Environment fork() {
+        final Environment fork = new Environment();
+        fork.currentFrame = currentFrame == null ? null : currentFrame.copy();
+        fork.generatorStack.addAll(generatorStack);
+        fork.profilerRecorder = profilerRecorder == null ? null : profilerRecorder.fork();
+        return fork;
     }
 
     /**
-     * Führt einen Code-Teil oder ein Statement aus und protokolliert diesen Aufruf auf dem GeneratorStack.
+     * Führt einen Code-Teil oder ein Statement aus und protokolliert diesen Aufruf auf dem GeneratorStack und
+     * gegebenenfalls im Laufzeitprofil.
      * 
      * @param codeOrStatement
      *            Code oder Statement, welcher oder welches ausgeführt werden soll.
@@ -115,9 +155,57 @@ public class Environment {
      */
     public void execute(final Executable<?> codeOrStatement, final Generator generator, final Object model)
             throws IOException {
-        generatorStack.push(codeOrStatement);
+        pushExecutable(codeOrStatement);
         codeOrStatement.execute(generator, model, this);
-        generatorStack.pop();
+        popExecutable();
+    }
+
+    /**
+     * Protokolliert den Beginn der Ausführung eines Code-Teils oder Statements auf dem GeneratorStack, ohne diesen
+     * selbst auszuführen. Wird von Ausführungsvarianten verwendet, die die Statements nicht über
+     * {@link #execute(Executable, Generator, Object)} abarbeiten, wie z.B. die übersetzten Templates.
+     * 
+     * @param codeOrStatement
+     *            Code oder Statement, dessen Ausführung beginnt.
+     * @see #popExecutable()
+     */
+    public void pushExecutable(final Executable<?> codeOrStatement) {
+        generatorStack.add(codeOrStatement);
+        if (profilerRecorder != null) {
+            profilerRecorder.enter(codeOrStatement);
+        }
+    }
+
+    /**
+     * Entfernt das zuletzt mit {@link #pushExecutable(Executable)} protokollierte Element wieder vom GeneratorStack.
+     */
+    public void popExecutable() {
+        if (profilerRecorder != null) {
+            profilerRecorder.exit();
+        }
+        generatorStack.remove(generatorStack.size() - 1);
+    }
+
+    /**
+     * Zählt einen Fehlzugriff auf die Caches für Attribute und Methoden, bei dem das Ziel per Reflection gesucht werden
+     * musste, für das aktuell ausgeführte Element im Laufzeitprofil.
+     */
+    public void countCacheMiss() {
+        if (profilerRecorder != null) {
+            profilerRecorder.countCacheMiss();
+        }
+    }
+
+    /**
+     * Bereitet einen neu geöffneten Ausgabekanal für die Verwendung in dieser Umgebung vor. Wird ein Laufzeitprofil
+     * erstellt, werden die ausgegebenen Zeichen dem jeweils ausgeführten Element zugeordnet.
+     * 
+     * @param writer
+     *            Vom Generator geöffneter Ausgabekanal.
+     * @return Der übergebene Kanal oder ein Kanal, der die Ausgaben zählt und an diesen weiterreicht.
+     */
+    public GeneratorWriter trackOutput(final GeneratorWriter writer) {
+        return profilerRecorder == null ? writer : profilerRecorder.countCharacters(writer);
     }
 
     /**
@@ -0,0 +1,24 @@
+package de.chrlembeck.codegen.generator;
+
+/**
+ * Legt fest, auf welche Weise der Generator die Templates einer Template-Datei ausführt.
+ *
+ * @author Christoph Lembeck
+ * @see Generator#setExecutionMode(ExecutionMode)
+ */
+public enum ExecutionMode {
+
+    /**
+     * Die Templates werden direkt durch Abarbeiten der Elemente der geparsten Template-Datei ausgeführt. Dies ist das
+     * Standardverhalten des Generators.
+     */
+    INTERPRETED,
+
+    /**
+     * Die Templates werden vor ihrer ersten Ausführung einmalig in eine ausführbare Form übersetzt, die ohne erneutes
+     * Durchlaufen der Template-Struktur direkt in die Ausgabekanäle schreibt.
+     *
+     * @see de.chrlembeck.codegen.generator.compiler.TemplateCompiler
+     */
+    COMPILED;
+}
@@ -1,92 +1,76 @@
 package de.chrlembeck.codegen.generator;
 
-import java.util.Map;
-import java.util.TreeMap;
-
+import de.chrlembeck.codegen.generator.lang.LoopVariable;
 import de.chrlembeck.codegen.generator.lang.ObjectWithType;
 
 /**
- * Repräsentiert einen Frame, der Zustandsinformationen zum aktuell ausgeführten Template speichert
+ * Repräsentiert einen Frame, der Zustandsinformationen zum aktuell ausgeführten Template speichert. Die Variablen des
+ * Templates werden bereits beim Laden der Template-Datei festen Slots zugeordnet (siehe
+ * {@link de.chrlembeck.codegen.generator.lang.VariableResolver}), so dass der Frame die Werte in einem einfachen Array
+ * ablegen kann und beim Zugriff keine Namen verglichen werden müssen.
  *
  * @author Christoph Lembeck
  */
 class Frame {
 
     /**
-     * Verknüpft im Frame definierte Variablennamen mit den ihnen zugewiesenen Werten.
-     */
-    private final Map<String, ObjectWithType<?>> variables = new TreeMap<>();
-
-    /**
-     * Verknüpfung des Frames mit dem vorangegangenen Frame, falls dieser Frame auf die Daten des Vorgängers Zugriff
-     * haben soll.
+     * Frame ohne Slots für Templates, die keine Variablen verwenden.
      */
-    private final Frame parent;
+    static final Frame EMPTY = new Frame(0);
 
     /**
-     * Erstell einen neuen Frame und hinterlegt die Referenz auf den Vorgänger.
-     * 
-     * @param parent
-     *            Optionale Referenz auf den vorangegangenen Frame.
+     * Werte der Variablen, indiziert über die Slot-Nummer der jeweiligen Variable.
      */
-    public Frame(final Frame parent) {
-        this.parent = parent;
-    }
+    private final ObjectWithType<?>[] slots;
 
     /**
-     * Gibt, falls vorhanden, die Referenz auf einen vorangegangenen Frame zurück. Frames, die keinen Zugriff auf ihre
-     * Vorgänger haben, geben hier null zurück.
-     * 
-     * @return Vorgänger des Frames, falls vorhanden und Zugriff darauf erlaubt.
+     * Erstellt einen neuen Frame mit der übergebenen Anzahl an Slots.
+     *
+     * @param size
+     *            Anzahl der Slots für Variablen.
      */
-    public Frame getParent() {
-        return parent;
+    Frame(final int size) {
+        this.slots = new ObjectWithType<?>[size];
     }
 
     /**
-     * Setzt in dem aktuellen Frame einen neuen Wert für die übergebene Variable. Alle Statements, die später auf dem
-     * gleichen (oder erbenden) Frame ausgeführt werden, können den Wert dieser Variable nutzen.
-     * 
-     * @param varName
-     *            Name der Variable.
-     * @param item
-     *            Wert der Variable.
-     * @param type
-     *            Laufzeittyp der Variable. Dieser ist besonders bei primitiven Datentypen wichtig, da er nicht aus den
-     *            Wrapper-Klassen abgeleitet werden kann.
+     * Setzt den Wert der Variable im übergebenen Slot.
+     *
+     * @param slot
+     *            Slot-Nummer der Variable.
+     * @param value
+     *            Wert der Variable zusammen mit ihrem Laufzeittyp.
      */
-    public void addVariable(final String varName, final Object item, final Class<?> type) {
-        @SuppressWarnings({ "rawtypes", "unchecked" })
-        final ObjectWithType<?> owt = new ObjectWithType(item, type);
-        variables.put(varName, owt);
+    void setVariable(final int slot, final ObjectWithType<?> value) {
+        slots[slot] = value;
     }
 
     /**
-     * Prüft, ob die übergebene Variable in dem aktuellen Frame bekannt ist.
-     * 
-     * @param name
-     *            Name der zu suchenden Variablen.
-     * @return true, falls der Frame die Variable kennt, false, falls die Variable unbekannt ist.
+     * Gibt den Wert der Variable im übergebenen Slot zurück.
+     *
+     * @param slot
+     *            Slot-Nummer der Variable.
+     * @return Wert der Variable oder null, falls der Slot aktuell nicht belegt ist.
      */
-    public boolean containsVariable(final String name) {
-        return variables.containsKey(name) || (parent != null && parent.containsVariable(name));
+    ObjectWithType<?> getVariable(final int slot) {
+        return slots[slot];
     }
 
     /**
-     * Sucht im aktuellen Frame nach der übergebenen Variable und gibt bei Erfolg den zu ihr gespeicherten Wert zurück.
-     * Hat der Frame Zugriff auf die Variablen des Vorgängerframes, wird auch dort gesucht.
-     * 
-     * @param varName
-     *            Name der zu suchenden Variable.
-     * @return Wert der Variable, falls diese im Frame oder seinen Vorgängern bekannt ist.
+     * Erstellt eine Kopie des Frames mit den aktuellen Belegungen der Variablen. Änderungen an der Kopie wirken sich
+     * nicht auf diesen Frame aus. Die Werte laufender Schleifen werden dabei als unveränderliche Momentaufnahme
+     * übernommen, da ihre Schleifenvariablen in diesem Frame weiter aktualisiert werden.
+     *
+     * @return Kopie des Frames.
      */
-    public ObjectWithType<?> lookupVariable(final String varName) {
-        if (variables.containsKey(varName)) {
-            return variables.get(varName);
-        } else if (parent == null) {
-            throw new RuntimeException("Variable '" + varName + "' could not be found.");
-        } else {
-            return parent.lookupVariable(varName);
+    Frame copy() {
+        if (slots.length == 0) {
+            return this;
+        }
+        final Frame copy = new Frame(slots.length);
+        for (int i = 0; i < slots.length; i++) {
+            copy.slots[i] = slots[i] instanceof LoopVariable ? ((LoopVariable) slots[i]).snapshot() : slots[i];
         }
+        return copy;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,433 @@
+package de.chrlembeck.codegen.generator;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Beschreibt den Stand einer Generierung für die inkrementelle Ausführung des Generators in einem Build. Das Manifest
+ * enthält eine Prüfsumme über die Konfiguration der Generierung und die Version des Generators, einen Fingerabdruck
+ * des Modells, die Prüfsummen aller verwendeten Template-Dateien sowie Prüfsumme, Größe und Änderungszeitpunkt aller
+ * erzeugten Dateien. Stimmen beim nächsten Build alle diese Angaben überein, kann die Generierung vollständig
+ * übersprungen werden.
+ *
+ * <p>
+ * Das Manifest wird als einfache Textdatei gespeichert. Fehlt die Datei oder ist sie nicht lesbar, wird die Generierung
+ * wie gewohnt ausgeführt.
+ * </p>
+ *
+ * @author Christoph Lembeck
+ */
+public class GenerationManifest {
+
+    /**
+     * Der Logger für diese Klasse.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(GenerationManifest.class);
+
+    /**
+     * Erste Zeile jeder Manifest-Datei mit der Version des Formats.
+     */
+    private static final String HEADER = "codegen-manifest 1";
+
+    /**
+     * Algorithmus für die Berechnung der Prüfsummen.
+     */
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    /**
+     * Kennzeichnung eines fehlenden Fingerabdrucks für das Modell.
+     */
+    private static final String NO_FINGERPRINT = "-";
+
+    /**
+     * Prüfsumme über die Konfiguration der Generierung und die Version des Generators.
+     */
+    private String configuration;
+
+    /**
+     * Fingerabdruck des Modells oder null, falls für das Modell kein Fingerabdruck ermittelt werden kann.
+     */
+    private final String modelFingerprint;
+
+    /**
+     * Prüfsummen der verwendeten Template-Dateien.
+     */
+    private final Map<URI, String> templates = new TreeMap<>();
+
+    /**
+     * Beschreibungen der erzeugten Dateien.
+     */
+    private final Map<Path, OutputEntry> outputs = new TreeMap<>();
+
+    /**
+     * Erstellt ein neues, leeres Manifest.
+     *
+     * @param configuration
+     *            Textuelle Beschreibung aller Einstellungen, die Einfluss auf das Ergebnis der Generierung haben.
+     * @param modelFingerprint
+     *            Fingerabdruck des Modells (siehe {@link #fingerprint(Object)}) oder null.
+     */
+    public GenerationManifest(final String configuration, final String modelFingerprint) {
+        final String version = Generator.class.getPackage().getImplementationVersion();
+        this.configuration = hex(digest((version == null ? "dev" : version) + "\n" + configuration));
+        this.modelFingerprint = modelFingerprint;
+    }
+
+    /**
+     * Berechnet einen Fingerabdruck für das Modell. Dazu wird das Modell serialisiert und eine Prüfsumme über die
+     * serialisierten Daten gebildet. Ist das Modell nicht vollständig serialisierbar, kann kein Fingerabdruck ermittelt
+     * werden und die Generierung wird immer ausgeführt.
+     *
+     * @param model
+     *            Modell der Generierung.
+     * @return Fingerabdruck des Modells oder null, falls das Modell nicht serialisierbar ist.
+     */
+    public static String fingerprint(final Object model) {
+        final MessageDigest digest = newDigest();
+        try (ObjectOutputStream out = new ObjectOutputStream(
+                new DigestOutputStream(OutputStream.nullOutputStream(), digest))) {
+            out.writeObject(model);
+        } catch (final NotSerializableException e) {
+            LOGGER.info("Das Modell ist nicht serialisierbar, Änderungen können nicht erkannt werden: "
+                    + e.getMessage());
+            return null;
+        } catch (final IOException e) {
+            LOGGER.warn("Für das Modell kann kein Fingerabdruck ermittelt werden.", e);
+            return null;
+        }
+        return hex(digest.digest());
+    }
+
+    /**
+     * Nimmt eine verwendete Template-Datei mit der Prüfsumme über ihren aktuellen Inhalt in das Manifest auf.
+     *
+     * @param templateResourceIdentifier
+     *            Absoluter Identifier der Template-Datei.
+     * @throws IOException
+     *             Falls die Datei nicht gelesen werden kann.
+     */
+    public void addTemplate(final URI templateResourceIdentifier) throws IOException {
+        templates.put(templateResourceIdentifier, hashTemplate(templateResourceIdentifier));
+    }
+
+    /**
+     * Nimmt eine erzeugte Datei in das Manifest auf. Größe und Änderungszeitpunkt werden von der Datei übernommen.
+     *
+     * @param path
+     *            Pfad der erzeugten Datei.
+     * @param contentHash
+     *            Prüfsumme über den Inhalt der Datei (SHA-256).
+     * @throws IOException
+     *             Falls die Attribute der Datei nicht gelesen werden können.
+     */
+    public void addOutput(final Path path, final byte[] contentHash) throws IOException {
+        final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        outputs.put(path.toAbsolutePath(), new OutputEntry(hex(contentHash), attributes.size(),
+                attributes.lastModifiedTime().toMillis()));
+    }
+
+    /**
+     * Nimmt eine erzeugte Datei in das Manifest auf, deren Inhalt bereits im Speicher vorliegt, wie z.B. eine
+     * übersetzte Klasse. Die Prüfsumme wird über den übergebenen Inhalt berechnet.
+     *
+     * @param path
+     *            Pfad der erzeugten Datei.
+     * @param content
+     *            Inhalt der Datei.
+     * @throws IOException
+     *             Falls die Attribute der Datei nicht gelesen werden können.
+     */
+    public void addOutputContent(final Path path, final byte[] content) throws IOException {
+        addOutput(path, newDigest().digest(content));
+    }
+
+    /**
+     * Gibt die Prüfsummen der im Manifest enthaltenen Template-Dateien zurück.
+     *
+     * @return Zuordnung der Identifier der Template-Dateien zu den Prüfsummen über ihren Inhalt.
+     */
+    public Map<URI, String> getTemplates() {
+        return Collections.unmodifiableMap(templates);
+    }
+
+    /**
+     * Gibt die Pfade der im Manifest enthaltenen erzeugten Dateien zurück.
+     *
+     * @return Pfade der erzeugten Dateien.
+     */
+    public Set<Path> getOutputs() {
+        return Collections.unmodifiableSet(outputs.keySet());
+    }
+
+    /**
+     * Prüft, ob eine Generierung mit der übergebenen Konfiguration und dem übergebenen Modell zum gleichen Ergebnis
+     * führen würde wie die in diesem Manifest beschriebene. Dazu müssen Konfiguration und Modell übereinstimmen, die
+     * Template-Dateien unverändert sein und alle erzeugten Dateien noch mit ihrem ursprünglichen Inhalt existieren.
+     *
+     * @param current
+     *            Manifest mit Konfiguration und Fingerabdruck des Modells für die aktuelle Generierung.
+     * @return {@code true}, falls die Generierung übersprungen werden kann, sonst {@code false}.
+     */
+    public boolean isUpToDate(final GenerationManifest current) {
+        if (modelFingerprint == null || !configuration.equals(current.configuration)
+                || !modelFingerprint.equals(current.modelFingerprint) || templates.isEmpty()) {
+            return false;
+        }
+        try {
+            for (final Entry<URI, String> template : templates.entrySet()) {
+                if (!template.getValue().equals(hashTemplate(template.getKey()))) {
+                    LOGGER.debug("Template-Datei wurde verändert: " + template.getKey());
+                    return false;
+                }
+            }
+            for (final Entry<Path, OutputEntry> output : outputs.entrySet()) {
+                if (!output.getValue().matches(output.getKey())) {
+                    LOGGER.debug("Erzeugte Datei wurde verändert oder gelöscht: " + output.getKey());
+                    return false;
+                }
+            }
+        } catch (final IOException e) {
+            LOGGER.debug("Manifest kann nicht geprüft werden.", e);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Schreibt das Manifest in die übergebene Datei. Die Datei wird zunächst unter einem temporären Namen geschrieben
+     * und anschließend umbenannt, so dass kein halb geschriebenes Manifest zurückbleiben kann.
+     *
+     * @param file
+     *            Zieldatei für das Manifest.
+     * @throws IOException
+     *             Falls beim Schreiben ein Fehler auftritt.
+     */
+    public void write(final Path file) throws IOException {
+        final Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        final Path tempFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+                writer.write(HEADER);
+                writer.newLine();
+                writer.write("configuration " + configuration);
+                writer.newLine();
+                writer.write("model " + (modelFingerprint == null ? NO_FINGERPRINT : modelFingerprint));
+                writer.newLine();
+                for (final Entry<URI, String> template : templates.entrySet()) {
+                    writer.write("template " + template.getValue() + " " + template.getKey());
+                    writer.newLine();
+                }
+                for (final Entry<Path, OutputEntry> output : outputs.entrySet()) {
+                    final OutputEntry entry = output.getValue();
+                    writer.write("output " + entry.hash + " " + entry.size + " " + entry.lastModified + " "
+                            + output.getKey());
+                    writer.newLine();
+                }
+            }
+            try {
+                Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (final AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Liest ein Manifest aus der übergebenen Datei.
+     *
+     * @param file
+     *            Datei mit dem Manifest.
+     * @return Gelesenes Manifest oder null, falls die Datei nicht existiert oder kein gültiges Manifest enthält.
+     */
+    public static GenerationManifest read(final Path file) {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            if (!HEADER.equals(reader.readLine())) {
+                return null;
+            }
+            final String configuration = value(reader.readLine(), "configuration ");
+            final String model = value(reader.readLine(), "model ");
+            final GenerationManifest manifest = new GenerationManifest("",
+                    NO_FINGERPRINT.equals(model) ? null : model);
+            manifest.configuration = configuration;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final String[] parts = line.split(" ", line.startsWith("output ") ? 5 : 3);
+                if (parts.length == 3 && "template".equals(parts[0])) {
+                    manifest.templates.put(new URI(parts[2]), parts[1]);
+                } else if (parts.length == 5 && "output".equals(parts[0])) {
+                    manifest.outputs.put(Paths.get(parts[4]),
+                            new OutputEntry(parts[1], Long.parseLong(parts[2]), Long.parseLong(parts[3])));
+                } else {
+                    throw new IOException("Ungültige Zeile im Manifest: " + line);
+                }
+            }
+            return manifest;
+        } catch (final NoSuchFileException e) {
+            return null;
+        } catch (final Exception e) {
+            LOGGER.warn("Manifest kann nicht gelesen werden: " + file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Liest den Wert aus einer Zeile des Manifests mit dem erwarteten Präfix.
+     *
+     * @param line
+     *            Gelesene Zeile.
+     * @param prefix
+     *            Erwarteter Anfang der Zeile.
+     * @return Wert hinter dem Präfix.
+     * @throws IOException
+     *             Falls die Zeile nicht mit dem erwarteten Präfix beginnt.
+     */
+    private static String value(final String line, final String prefix) throws IOException {
+        if (line == null || !line.startsWith(prefix)) {
+            throw new IOException("Ungültige Zeile im Manifest: " + line);
+        }
+        return line.substring(prefix.length());
+    }
+
+    /**
+     * Berechnet die Prüfsumme über den Inhalt einer Template-Datei.
+     *
+     * @param templateResourceIdentifier
+     *            Absoluter Identifier der Template-Datei.
+     * @return Prüfsumme in hexadezimaler Darstellung.
+     * @throws IOException
+     *             Falls die Datei nicht gelesen werden kann.
+     */
+    private static String hashTemplate(final URI templateResourceIdentifier) throws IOException {
+        try (InputStream input = templateResourceIdentifier.toURL().openStream()) {
+            return hex(newDigest().digest(input.readAllBytes()));
+        }
+    }
+
+    /**
+     * Berechnet die Prüfsumme über einen Text.
+     *
+     * @param text
+     *            Text, über den die Prüfsumme gebildet werden soll.
+     * @return Prüfsumme über den Text.
+     */
+    private static byte[] digest(final String text) {
+        return newDigest().digest(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Erzeugt ein neues Objekt zur Berechnung der Prüfsummen.
+     *
+     * @return Neues MessageDigest-Objekt.
+     */
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Der Algorithmus " + DIGEST_ALGORITHM + " wird nicht unterstützt.", e);
+        }
+    }
+
+    /**
+     * Wandelt eine Prüfsumme in ihre hexadezimale Darstellung um.
+     *
+     * @param bytes
+     *            Prüfsumme.
+     * @return Hexadezimale Darstellung der Prüfsumme.
+     */
+    private static String hex(final byte[] bytes) {
+        return HexFormat.of().formatHex(bytes);
+    }
+
+    /**
+     * Beschreibung einer erzeugten Datei im Manifest.
+     *
+     * @author Christoph Lembeck
+     */
+    private static final class OutputEntry {
+
+        /**
+         * Prüfsumme über den Inhalt der Datei in hexadezimaler Darstellung.
+         */
+        private final String hash;
+
+        /**
+         * Größe der Datei in Bytes.
+         */
+        private final long size;
+
+        /**
+         * Zeitpunkt der letzten Änderung in Millisekunden.
+         */
+        private final long lastModified;
+
+        /**
+         * Erstellt eine neue Beschreibung.
+         *
+         * @param hash
+         *            Prüfsumme über den Inhalt der Datei.
+         * @param size
+         *            Größe der Datei in Bytes.
+         * @param lastModified
+         *            Zeitpunkt der letzten Änderung in Millisekunden.
+         */
+        OutputEntry(final String hash, final long size, final long lastModified) {
+            this.hash = Objects.requireNonNull(hash);
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        /**
+         * Prüft, ob die Datei noch mit dem beschriebenen Inhalt existiert. Stimmen Größe und Änderungszeitpunkt
+         * überein, wird auf das Lesen der Datei verzichtet.
+         *
+         * @param path
+         *            Pfad der Datei.
+         * @return {@code true}, falls die Datei unverändert ist, sonst {@code false}.
+         * @throws IOException
+         *             Falls die Datei nicht gelesen werden kann.
+         */
+        boolean matches(final Path path) throws IOException {
+            if (!Files.isRegularFile(path)) {
+                return false;
+            }
+            final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            if (attributes.size() != size) {
+                return false;
+            }
+            if (attributes.lastModifiedTime().toMillis() == lastModified) {
+                return true;
+            }
+            return hash.equals(hex(newDigest().digest(Files.readAllBytes(path))));
+        }
+    }
+}
@@ -2,7 +2,9 @@ package de.chrlembeck.codegen.generator;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.concurrent.Executor;
 
+import de.chrlembeck.codegen.generator.compiler.TemplateCompiler;
 import de.chrlembeck.codegen.generator.lang.TemplateFile;
 import de.chrlembeck.codegen.generator.lang.TemplateStatement;
 import de.chrlembeck.codegen.generator.output.GeneratorOutput;
@@ -38,6 +40,32 @@ public class Generator {
      */
     private GeneratorWriter currentWriter;
 
+    /**
+     * Legt fest, ob die Templates direkt interpretiert oder vor der Ausführung übersetzt werden.
+     */
+    private ExecutionMode executionMode = ExecutionMode.INTERPRETED;
+
+    /**
+     * Compiler für die Übersetzung der Templates im Modus {@link ExecutionMode#COMPILED}.
+     */
+    private TemplateCompiler templateCompiler;
+
+    /**
+     * Executor für die parallele Ausführung der OUTPUT-Blöcke oder null, falls die Blöcke sequentiell ausgeführt werden
+     * sollen.
+     */
+    private Executor outputExecutor;
+
+    /**
+     * Scheduler für die parallele Ausführung der OUTPUT-Blöcke während eines laufenden Generatorlaufs.
+     */
+    private ParallelOutputScheduler outputScheduler;
+
+    /**
+     * Profiler für die Erfassung des Laufzeitprofils oder null, falls kein Profil erstellt werden soll.
+     */
+    private TemplateProfiler profiler;
+
     /**
      * Erstellt einen neuen Generator und übergibt ihm die benötigten Einstellungen.
      * 
@@ -94,8 +122,196 @@ public class Generator {
             throw new RuntimeException(
                     "No template definition '" + templateName + "' found for type " + model.getClass().getName() + ".");
         }
-        final Environment environment = new Environment();
-        environment.execute(templateStatement, this, model);
+        if (outputExecutor == null || outputScheduler != null || currentWriter != null) {
+            execute(templateStatement, model);
+            return;
+        }
+        final ParallelOutputScheduler scheduler = new ParallelOutputScheduler(this, outputExecutor);
+        outputScheduler = scheduler;
+        try {
+            execute(templateStatement, model);
+        } catch (final IOException | RuntimeException | Error e) {
+            scheduler.abort(e);
+            throw e;
+        } finally {
+            outputScheduler = null;
+        }
+        scheduler.finish();
+    }
+
+    /**
+     * Wendet das Template im eingestellten Ausführungsmodus auf das übergebene Modell an.
+     * 
+     * @param templateStatement
+     *            Auszuführendes Template.
+     * @param model
+     *            Modell, dass durch das Template bearbeitet werden soll.
+     * @throws IOException
+     *             Falls bei der Ausgabe ein Problem auftritt.
+     */
+    private void execute(final TemplateStatement templateStatement, final Object model) throws IOException {
+        execute(templateStatement, model, new Environment(profiler));
+    }
+
+    /**
+     * Wendet das Template im eingestellten Ausführungsmodus innerhalb einer bestehenden Laufzeitumgebung auf das
+     * übergebene Modell an. Das Template erhält einen eigenen Frame für seine Variablen, der nach der Ausführung
+     * wieder entfernt wird. Wird für den Aufruf von Templates aus anderen Templates heraus verwendet.
+     * 
+     * @param templateStatement
+     *            Auszuführendes Template.
+     * @param model
+     *            Modell, dass durch das Template bearbeitet werden soll.
+     * @param environment
+     *            Laufzeitumgebung des aufrufenden Templates.
+     * @throws IOException
+     *             Falls bei der Ausgabe ein Problem auftritt.
+     */
+    public void execute(final TemplateStatement templateStatement, final Object model,
+            final Environment environment) throws IOException {
+        if (executionMode == ExecutionMode.COMPILED) {
+            getTemplateCompiler().compile(templateStatement).execute(this, model, environment);
+        } else {
+            environment.execute(templateStatement, this, model);
+        }
+    }
+
+    /**
+     * Gibt zurück, ob der nächste OUTPUT-Block parallel zum weiteren Generatorlauf ausgeführt werden kann. Dies ist
+     * nur dann der Fall, wenn die parallele Ausführung aktiviert wurde und der Block nicht innerhalb eines anderen
+     * OUTPUT-Blocks liegt.
+     * 
+     * @return {@code true}, falls der Block über {@link #executeOutputInParallel(OutputTask, Environment)} ausgeführt
+     *         werden kann, sonst {@code false}.
+     */
+    public boolean isParallelOutputPossible() {
+        return outputScheduler != null && currentWriter == null;
+    }
+
+    /**
+     * Startet die Ausführung eines OUTPUT-Blocks parallel zum weiteren Generatorlauf. Der Block erhält einen eigenen
+     * Generator und eine eigene Laufzeitumgebung, seine Ausgaben werden jedoch in der gleichen Reihenfolge in die
+     * Ausgabekanäle geschrieben wie bei einer sequentiellen Ausführung.
+     * 
+     * @param task
+     *            Auszuführender Block.
+     * @param environment
+     *            Aktuelle Laufzeitumgebung, deren Variablenbelegungen für den Block übernommen werden.
+     * @throws IOException
+     *             Falls beim Schreiben bereits fertiger Ausgaben ein Fehler auftritt.
+     * @see #isParallelOutputPossible()
+     */
+    public void executeOutputInParallel(final OutputTask task, final Environment environment) throws IOException {
+        if (!isParallelOutputPossible()) {
+            throw new IllegalStateException("Die parallele Ausführung von OUTPUT-Blöcken ist nicht möglich.");
+        }
+        outputScheduler.submit(task, environment);
+    }
+
+    /**
+     * Erstellt einen Generator für die Ausführung eines einzelnen OUTPUT-Blocks in einem anderen Thread. Der neue
+     * Generator verwendet die gleichen Einstellungen, schreibt aber in den übergebenen Ausgabeverwalter und führt alle
+     * Blöcke sequentiell aus.
+     * 
+     * @param output
+     *            Ausgabeverwalter für den neuen Generator.
+     * @return Generator für die Ausführung des Blocks.
+     */
+    Generator forkForOutput(final GeneratorOutput output) {
+        final Generator fork = new Generator(templateResolver, output, outputPreferences);
+        fork.executionMode = executionMode;
+        if (executionMode == ExecutionMode.COMPILED) {
+            fork.templateCompiler = getTemplateCompiler();
+        }
+        return fork;
+    }
+
+    /**
+     * Gibt den Executor zurück, auf den die OUTPUT-Blöcke bei der parallelen Generierung verteilt werden.
+     * 
+     * @return Executor für die OUTPUT-Blöcke oder null, falls die Blöcke sequentiell ausgeführt werden.
+     */
+    public Executor getOutputExecutor() {
+        return outputExecutor;
+    }
+
+    /**
+     * Aktiviert die parallele Ausführung der OUTPUT-Blöcke. Alle OUTPUT-Blöcke, die nicht innerhalb eines anderen
+     * OUTPUT-Blocks liegen, werden dann mit einer eigenen Laufzeitumgebung auf den übergebenen Executor verteilt,
+     * beispielsweise {@link java.util.concurrent.ForkJoinPool#commonPool()} oder einen Executor mit virtuellen Threads.
+     * Die erzeugten Ausgaben sind identisch zu denen einer sequentiellen Ausführung. Voraussetzung ist, dass das Modell
+     * während der Generierung nicht verändert wird und der {@link TemplateResolver} von mehreren Threads gleichzeitig
+     * verwendet werden kann.
+     * 
+     * @param outputExecutor
+     *            Executor für die OUTPUT-Blöcke oder null, um die Blöcke wieder sequentiell auszuführen.
+     */
+    public void setOutputExecutor(final Executor outputExecutor) {
+        this.outputExecutor = outputExecutor;
+    }
+
+    /**
+     * Gibt den Profiler zurück, in dem die Ausführung der Templates erfasst wird.
+     * 
+     * @return Profiler für das Laufzeitprofil oder null, falls kein Profil erstellt wird.
+     */
+    public TemplateProfiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * Legt fest, ob bei den folgenden Generatorläufen ein Laufzeitprofil erstellt werden soll. Die Daten mehrerer
+     * Generatorläufe mit dem gleichen Profiler werden zusammengefasst.
+     * 
+     * @param profiler
+     *            Profiler für das Laufzeitprofil oder null, um die Erfassung wieder abzuschalten.
+     */
+    public void setProfiler(final TemplateProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * Gibt zurück, ob die Templates direkt interpretiert oder vor der Ausführung übersetzt werden.
+     * 
+     * @return Aktueller Ausführungsmodus des Generators.
+     */
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    /**
+     * Legt fest, ob die Templates direkt interpretiert oder vor der Ausführung übersetzt werden sollen. Beide Modi
+     * erzeugen die gleichen Ausgaben.
+     * 
+     * @param executionMode
+     *            Gewünschter Ausführungsmodus.
+     */
+    public void setExecutionMode(final ExecutionMode executionMode) {
+        this.executionMode = executionMode;
+    }
+
+    /**
+     * Gibt den Compiler zurück, mit dem die Templates im Modus {@link ExecutionMode#COMPILED} übersetzt werden. Wurde
+     * kein Compiler gesetzt, wird ein neuer erzeugt.
+     * 
+     * @return Compiler für die Übersetzung der Templates.
+     */
+    public TemplateCompiler getTemplateCompiler() {
+        if (templateCompiler == null) {
+            templateCompiler = new TemplateCompiler();
+        }
+        return templateCompiler;
+    }
+
+    /**
+     * Setzt den Compiler für die Übersetzung der Templates. Auf diese Weise können bereits übersetzte Templates über
+     * mehrere Generatorläufe hinweg wiederverwendet werden.
+     * 
+     * @param templateCompiler
+     *            Compiler für die Übersetzung der Templates.
+     */
+    public void setTemplateCompiler(final TemplateCompiler templateCompiler) {
+        this.templateCompiler = templateCompiler;
     }
 
     /**
@@ -133,6 +349,15 @@ public class Generator {
         return generatorOutput.getWriter(channelName, outputPreferences);
     }
 
+    /**
+     * Gibt den Resolver zurück, über den die Template-Dateien geladen werden.
+     * 
+     * @return Resolver für die Template-Dateien.
+     */
+    public TemplateResolver getTemplateResolver() {
+        return templateResolver;
+    }
+
     public GeneratorOutput getGeneratorOutput() {
         return generatorOutput;
     }
@@ -1,5 +1,6 @@
 package de.chrlembeck.codegen.generator;
 
+import de.chrlembeck.codegen.generator.lang.Expression;
 import de.chrlembeck.codegen.generator.lang.ObjectWithType;
 import de.chrlembeck.codegen.generator.lang.PrimitiveOperations;
 
@@ -26,6 +27,10 @@ public class JavaUtil {
      * @return Ergebnis der numerischen Umwandlung.
      */
     public static final ObjectWithType<?> unaryNumericPromotion(final ObjectWithType<?> owt) {
+        final Class<?> type = owt.getType();
+        if (type == int.class || type == long.class || type == double.class || type == float.class) {
+            return owt;
+        }
         if (Byte.class.isAssignableFrom(owt.getType())
                 || Short.class.isAssignableFrom(owt.getType())
                 || Character.class.isAssignableFrom(owt.getType())
@@ -81,6 +86,9 @@ public class JavaUtil {
             final PrimitiveOperations operator) {
         final Number leftNum = (Number) left.getObject();
         final Number rightNum = (Number) right.getObject();
+        if (left.getType() == int.class && right.getType() == int.class) {
+            return operator.apply(leftNum.intValue(), rightNum.intValue());
+        }
         final Class<?> promotionType = JavaUtil.getBinaryNumericPromotionType(left.getType(), right.getType());
         if (int.class.isAssignableFrom(promotionType)) {
             return operator.apply(leftNum.intValue(), rightNum.intValue());
@@ -244,4 +252,98 @@ public class JavaUtil {
     public static boolean isIntegerType(final Class<?> type) {
         return int.class.isAssignableFrom(type) || Integer.class.isAssignableFrom(type);
     }
-}
\ No newline at end of file
+
+    /**
+     * Ermittelt den Ergebnistyp einer numerischen Operation aus den statischen Typen der beiden Operanden (siehe
+     * {@link Expression#getStaticType()}). Berücksichtigt werden nur die Typen int, long und double, für die eine
+     * Auswertung ohne Verpacken der Zwischenergebnisse möglich ist.
+     * 
+     * @param leftType
+     *            Statischer Typ des ersten Operanden oder {@code null}, falls dieser nicht bekannt ist.
+     * @param rightType
+     *            Statischer Typ des zweiten Operanden oder {@code null}, falls dieser nicht bekannt ist.
+     * @return int, long oder double gemäß binary numeric promotion oder {@code null}, falls einer der beiden Typen
+     *         unbekannt oder von einem anderen Typ ist.
+     */
+    public static Class<?> getStaticPromotionType(final Class<?> leftType, final Class<?> rightType) {
+        if (!isSpecializedNumericType(leftType) || !isSpecializedNumericType(rightType)) {
+            return null;
+        }
+        if (leftType == double.class || rightType == double.class) {
+            return double.class;
+        }
+        if (leftType == long.class || rightType == long.class) {
+            return long.class;
+        }
+        return int.class;
+    }
+
+    /**
+     * Prüft, ob der Typ einer der numerischen Typen int, long oder double ist, für die spezialisierte Auswertungen
+     * ohne Verpacken der Werte existieren.
+     * 
+     * @param type
+     *            Zu prüfender Typ oder {@code null}.
+     * @return true, falls der Typ int, long oder double ist, sonst false.
+     */
+    public static boolean isSpecializedNumericType(final Class<?> type) {
+        return type == int.class || type == long.class || type == double.class;
+    }
+
+    /**
+     * Packt das Ergebnis einer Auswertung als int-Wert aus.
+     * 
+     * @param owt
+     *            Ergebnis der Auswertung eines Ausdrucks.
+     * @return Enthaltener Wert als int.
+     */
+    public static int toInt(final ObjectWithType<?> owt) {
+        final Object object = owt.getObject();
+        return object instanceof Character ? ((Character) object).charValue() : ((Number) object).intValue();
+    }
+
+    /**
+     * Wertet einen Ausdruck mit dem statischen Typ long oder int aus, ohne das Ergebnis zu verpacken, sofern der
+     * Ausdruck eine entsprechende Spezialisierung besitzt.
+     * 
+     * @param expression
+     *            Auszuwertender Ausdruck.
+     * @param model
+     *            Modell, welches bei der Generierung verwendet werden soll.
+     * @param environment
+     *            Aktuelle Ausführungsumgebung.
+     * @return Ergebnis der Auswertung als long.
+     */
+    public static long evaluateLong(final Expression expression, final Object model,
+            final Environment environment) {
+        if (expression.getStaticType() == int.class) {
+            return expression.evaluateInt(model, environment);
+        }
+        final Object object = expression.evaluate(model, environment).getObject();
+        return object instanceof Character ? ((Character) object).charValue() : ((Number) object).longValue();
+    }
+
+    /**
+     * Wertet einen Ausdruck mit dem statischen Typ double, long oder int aus, ohne das Ergebnis zu verpacken, sofern
+     * der Ausdruck eine entsprechende Spezialisierung besitzt.
+     * 
+     * @param expression
+     *            Auszuwertender Ausdruck.
+     * @param model
+     *            Modell, welches bei der Generierung verwendet werden soll.
+     * @param environment
+     *            Aktuelle Ausführungsumgebung.
+     * @return Ergebnis der Auswertung als double.
+     */
+    public static double evaluateDouble(final Expression expression, final Object model,
+            final Environment environment) {
+        final Class<?> staticType = expression.getStaticType();
+        if (staticType == int.class) {
+            return expression.evaluateInt(model, environment);
+        } else if (staticType == long.class) {
+            return expression.evaluateLong(model, environment);
+        }
+        final Object object = expression.evaluate(model, environment).getObject();
+        return object instanceof Character ? ((Character) object).charValue() : ((Number) object).doubleValue();
+    }
+}
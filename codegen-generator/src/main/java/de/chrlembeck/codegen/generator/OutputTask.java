@@ -0,0 +1,27 @@
+package de.chrlembeck.codegen.generator;
+
+import java.io.IOException;
+
+/**
+ * Inhalt eines OUTPUT-Blocks, der bei der parallelen Generierung unabhängig von den übrigen Teilen des Templates
+ * ausgeführt werden kann.
+ *
+ * @author Christoph Lembeck
+ * @see Generator#executeOutputInParallel(OutputTask, Environment)
+ */
+@FunctionalInterface
+public interface OutputTask {
+
+    /**
+     * Führt den OUTPUT-Block aus.
+     *
+     * @param generator
+     *            Generator, der ausschließlich für die Ausführung dieses Blocks verwendet wird.
+     * @param environment
+     *            Eigene Laufzeitumgebung für die Ausführung dieses Blocks mit den Variablenbelegungen zum Zeitpunkt
+     *            des Aufrufs.
+     * @throws IOException
+     *             Falls beim Schreiben der Ausgabe ein Fehler auftritt.
+     */
+    void execute(Generator generator, Environment environment) throws IOException;
+}
@@ -0,0 +1,206 @@
+package de.chrlembeck.codegen.generator;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import de.chrlembeck.codegen.generator.output.RecordingOutput;
+
+/**
+ * Verteilt die OUTPUT-Blöcke eines Generatorlaufs auf einen Executor. Jeder Block wird mit einem eigenen Generator,
+ * einer eigenen Laufzeitumgebung und einem {@link RecordingOutput} ausgeführt. Die aufgezeichneten Ausgaben werden
+ * anschließend strikt in der Reihenfolge, in der die Blöcke gestartet wurden, in die eigentlichen Ausgabekanäle
+ * übertragen. Dadurch entstehen die gleichen Ausgaben wie bei einer sequentiellen Ausführung, unabhängig davon, in
+ * welcher Reihenfolge die Blöcke tatsächlich fertig werden.
+ *
+ * <p>
+ * Die Übertragung in die Ausgabekanäle findet ausschließlich in dem Thread statt, der den Generatorlauf gestartet hat.
+ * </p>
+ *
+ * @author Christoph Lembeck
+ */
+final class ParallelOutputScheduler {
+
+    /**
+     * Maximale Anzahl an Blöcken, deren Ausgaben gleichzeitig zwischengespeichert werden. Wird die Grenze erreicht,
+     * wartet der Generator auf den ältesten noch laufenden Block, bevor er weitere Blöcke startet.
+     */
+    private static final int MAX_PENDING_OUTPUTS = 1024;
+
+    /**
+     * Generator, der den Lauf gestartet hat.
+     */
+    private final Generator generator;
+
+    /**
+     * Executor, auf den die Blöcke verteilt werden.
+     */
+    private final Executor executor;
+
+    /**
+     * Ergebnisse der gestarteten Blöcke, deren Ausgaben noch nicht übertragen wurden, in der Reihenfolge ihres Starts.
+     */
+    private final Deque<CompletableFuture<TaskResult>> pending = new ArrayDeque<>();
+
+    /**
+     * Erstellt einen neuen Scheduler für einen Generatorlauf.
+     *
+     * @param generator
+     *            Generator, der den Lauf gestartet hat.
+     * @param executor
+     *            Executor, auf den die Blöcke verteilt werden.
+     */
+    ParallelOutputScheduler(final Generator generator, final Executor executor) {
+        this.generator = generator;
+        this.executor = executor;
+    }
+
+    /**
+     * Startet die Ausführung eines OUTPUT-Blocks. Die Variablenbelegungen der Laufzeitumgebung werden dabei zum
+     * Zeitpunkt des Aufrufs übernommen, so dass der aufrufende Thread direkt mit der Generierung fortfahren kann.
+     *
+     * @param task
+     *            Auszuführender Block.
+     * @param environment
+     *            Aktuelle Laufzeitumgebung des aufrufenden Threads.
+     * @throws IOException
+     *             Falls beim Übertragen bereits fertiger Ausgaben ein Fehler auftritt.
+     */
+    void submit(final OutputTask task, final Environment environment) throws IOException {
+        final RecordingOutput recording = new RecordingOutput();
+        final Generator taskGenerator = generator.forkForOutput(recording);
+        final Environment taskEnvironment = environment.fork();
+        pending.add(CompletableFuture.supplyAsync(() -> run(task, taskGenerator, taskEnvironment, recording),
+                executor));
+        replayCompleted(pending.size() > MAX_PENDING_OUTPUTS);
+    }
+
+    /**
+     * Wartet auf alle noch laufenden Blöcke und überträgt deren Ausgaben.
+     *
+     * @throws IOException
+     *             Falls ein Block mit einer IOException abgebrochen wurde oder beim Übertragen der Ausgaben ein Fehler
+     *             auftritt.
+     */
+    void finish() throws IOException {
+        while (!pending.isEmpty()) {
+            replayCompleted(true);
+        }
+    }
+
+    /**
+     * Beendet den Lauf, nachdem der aufrufende Thread mit einem Fehler abgebrochen ist. Die Ausgaben der bis dahin
+     * gestarteten Blöcke werden noch übertragen, da sie auch bei einer sequentiellen Ausführung vor dem Fehler
+     * geschrieben worden wären. Weitere dabei auftretende Fehler werden dem ursprünglichen Fehler angehängt.
+     *
+     * @param failure
+     *            Fehler, mit dem der aufrufende Thread abgebrochen ist.
+     */
+    void abort(final Throwable failure) {
+        try {
+            finish();
+        } catch (final IOException | RuntimeException | Error e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Überträgt die Ausgaben aller fertigen Blöcke, die am Anfang der Warteschlange stehen.
+     *
+     * @param waitForFirst
+     *            Gibt an, ob auf den ältesten Block gewartet werden soll, falls dieser noch nicht fertig ist.
+     * @throws IOException
+     *             Falls ein Block mit einer IOException abgebrochen wurde oder beim Übertragen der Ausgaben ein Fehler
+     *             auftritt.
+     */
+    private void replayCompleted(final boolean waitForFirst) throws IOException {
+        boolean wait = waitForFirst;
+        while (!pending.isEmpty() && (wait || pending.peekFirst().isDone())) {
+            final TaskResult result = pending.pollFirst().join();
+            result.recording.replay(generator.getGeneratorOutput());
+            if (result.failure != null) {
+                pending.forEach(future -> future.cancel(false));
+                pending.clear();
+                rethrow(result.failure);
+            }
+            wait = false;
+        }
+    }
+
+    /**
+     * Führt einen Block aus und fängt dabei alle Fehler ab, damit die bis zum Fehler erzeugten Ausgaben noch übertragen
+     * werden können.
+     *
+     * @param task
+     *            Auszuführender Block.
+     * @param taskGenerator
+     *            Generator für die Ausführung des Blocks.
+     * @param taskEnvironment
+     *            Laufzeitumgebung für die Ausführung des Blocks.
+     * @param recording
+     *            Aufzeichnung der Ausgaben des Blocks.
+     * @return Ergebnis der Ausführung.
+     */
+    @SuppressWarnings("PMD.AvoidCatchingThrowable")
+    private static TaskResult run(final OutputTask task, final Generator taskGenerator,
+            final Environment taskEnvironment, final RecordingOutput recording) {
+        try {
+            task.execute(taskGenerator, taskEnvironment);
+            return new TaskResult(recording, null);
+        } catch (final Throwable t) {
+            return new TaskResult(recording, t);
+        }
+    }
+
+    /**
+     * Wirft den in einem Block aufgetretenen Fehler im aufrufenden Thread erneut.
+     *
+     * @param failure
+     *            Aufgetretener Fehler.
+     * @throws IOException
+     *             Falls es sich bei dem Fehler um eine IOException handelt.
+     */
+    private static void rethrow(final Throwable failure) throws IOException {
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        } else if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        throw new IOException("Fehler bei der parallelen Ausführung eines OUTPUT-Blocks.", failure);
+    }
+
+    /**
+     * Ergebnis der Ausführung eines Blocks.
+     *
+     * @author Christoph Lembeck
+     */
+    private static final class TaskResult {
+
+        /**
+         * Aufgezeichnete Ausgaben des Blocks.
+         */
+        private final RecordingOutput recording;
+
+        /**
+         * Bei der Ausführung aufgetretener Fehler oder null, falls der Block fehlerfrei ausgeführt wurde.
+         */
+        private final Throwable failure;
+
+        /**
+         * Erstellt ein neues Ergebnis.
+         *
+         * @param recording
+         *            Aufgezeichnete Ausgaben des Blocks.
+         * @param failure
+         *            Bei der Ausführung aufgetretener Fehler oder null.
+         */
+        TaskResult(final RecordingOutput recording, final Throwable failure) {
+            this.recording = recording;
+            this.failure = failure;
+        }
+    }
+}
@@ -0,0 +1,725 @@
+package de.chrlembeck.codegen.generator;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ErrorNode;
+import org.antlr.v4.runtime.tree.ErrorNodeImpl;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.antlr.v4.runtime.tree.TerminalNodeImpl;
+
+import de.chrlembeck.codegen.grammar.CodeGenParser;
+import de.chrlembeck.codegen.grammar.CodeGenParser.TemplateFileContext;
+
+/**
+ * Kompaktes Binärformat für die vom Parser erzeugten Syntaxbäume der Template-Dateien. Gespeichert werden die Struktur
+ * des Baums, die Tokens mit ihren Positionen in der Template-Datei sowie die Zuordnung der benannten Elemente (z.B.
+ * {@code separatorExpression}) zu den Kindknoten. Ein eingelesener Baum ist damit für die Visitoren, die
+ * Fehlermeldungen und die Debug-Ausgaben nicht von einem durch den Parser erzeugten Baum zu unterscheiden, ohne dass
+ * Lexer und Parser dafür laufen müssen.
+ *
+ * <p>
+ * Tokens und Namen werden beim ersten Auftreten vollständig und danach nur noch über ihre laufende Nummer geschrieben.
+ * Alle Zahlen werden als Varints abgelegt, Texte als UTF-8 mit vorangestellter Länge, so dass auch Literale mit mehr
+ * als 65535 Bytes gespeichert werden können.
+ * </p>
+ *
+ * @author Christoph Lembeck
+ * @see ParseTreeStore
+ */
+final class ParseTreeCodec {
+
+    /**
+     * Kennung für einen Regelknoten.
+     */
+    private static final int TAG_RULE = 1;
+
+    /**
+     * Kennung für einen Blattknoten mit einem Token.
+     */
+    private static final int TAG_TERMINAL = 2;
+
+    /**
+     * Kennung für einen Fehlerknoten.
+     */
+    private static final int TAG_ERROR = 3;
+
+    /**
+     * Präfix der Klassennamen, die beim Einlesen als Knoten erzeugt werden dürfen.
+     */
+    private static final String CONTEXT_CLASS_PREFIX = CodeGenParser.class.getName() + "$";
+
+    /**
+     * Zwischengespeicherte Informationen zu den Kontext-Klassen des Parsers.
+     */
+    private static final Map<Class<?>, ContextClassInfo> CLASS_INFOS = new ConcurrentHashMap<>();
+
+    /**
+     * Verhindert das Erzeugen von Instanzen dieser Hilfsklasse.
+     */
+    private ParseTreeCodec() {
+    }
+
+    /**
+     * Schreibt den Syntaxbaum einer Template-Datei in die Ausgabe.
+     *
+     * @param out
+     *            Ausgabe für die Binärdaten.
+     * @param templateFileContext
+     *            Zu schreibender Syntaxbaum.
+     * @throws IOException
+     *             Falls beim Schreiben ein Fehler auftritt.
+     */
+    static void write(final DataOutput out, final TemplateFileContext templateFileContext) throws IOException {
+        new Encoder(out).writeRule(templateFileContext);
+    }
+
+    /**
+     * Liest einen mit {@link #write(DataOutput, TemplateFileContext)} geschriebenen Syntaxbaum wieder ein.
+     *
+     * @param in
+     *            Eingabe mit den Binärdaten.
+     * @return Eingelesener Syntaxbaum.
+     * @throws IOException
+     *             Falls beim Lesen ein Fehler auftritt oder die Daten ungültig sind.
+     */
+    static TemplateFileContext read(final DataInput in) throws IOException {
+        final ParserRuleContext root = new Decoder(in).readNode(null);
+        if (!(root instanceof TemplateFileContext)) {
+            throw new IOException("Ungültiger Syntaxbaum: " + root.getClass().getName());
+        }
+        return (TemplateFileContext) root;
+    }
+
+    /**
+     * Gibt die Informationen zu einer Kontext-Klasse des Parsers zurück.
+     *
+     * @param contextClass
+     *            Kontext-Klasse des Parsers.
+     * @return Informationen zu der Klasse.
+     */
+    private static ContextClassInfo getClassInfo(final Class<?> contextClass) {
+        return CLASS_INFOS.computeIfAbsent(contextClass, ContextClassInfo::new);
+    }
+
+    /**
+     * Schreibt eine Zahl als Varint in ZigZag-Kodierung, so dass auch kleine negative Zahlen wenig Platz benötigen.
+     *
+     * @param out
+     *            Ausgabe für die Binärdaten.
+     * @param value
+     *            Zu schreibende Zahl.
+     * @throws IOException
+     *             Falls beim Schreiben ein Fehler auftritt.
+     */
+    private static void writeVarInt(final DataOutput out, final int value) throws IOException {
+        int remaining = (value << 1) ^ (value >> 31);
+        while ((remaining & ~0x7F) != 0) {
+            out.writeByte((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        out.writeByte(remaining);
+    }
+
+    /**
+     * Liest eine mit {@link #writeVarInt(DataOutput, int)} geschriebene Zahl.
+     *
+     * @param in
+     *            Eingabe mit den Binärdaten.
+     * @return Gelesene Zahl.
+     * @throws IOException
+     *             Falls beim Lesen ein Fehler auftritt.
+     */
+    private static int readVarInt(final DataInput in) throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            final int b = in.readUnsignedByte();
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (result >>> 1) ^ -(result & 1);
+            }
+        }
+        throw new IOException("Ungültiger Zahlenwert im Syntaxbaum.");
+    }
+
+    /**
+     * Schreibt einen Text als UTF-8 mit vorangestellter Länge. Anders als bei {@link DataOutput#writeUTF(String)} ist
+     * die Länge des Textes dabei nicht auf 65535 Bytes begrenzt.
+     *
+     * @param out
+     *            Ausgabe für die Binärdaten.
+     * @param text
+     *            Zu schreibender Text.
+     * @throws IOException
+     *             Falls beim Schreiben ein Fehler auftritt.
+     */
+    private static void writeText(final DataOutput out, final String text) throws IOException {
+        final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Liest einen mit {@link #writeText(DataOutput, String)} geschriebenen Text.
+     *
+     * @param in
+     *            Eingabe mit den Binärdaten.
+     * @return Gelesener Text.
+     * @throws IOException
+     *             Falls beim Lesen ein Fehler auftritt oder die Daten ungültig sind.
+     */
+    private static String readText(final DataInput in) throws IOException {
+        final int length = readVarInt(in);
+        if (length < 0) {
+            throw new IOException("Ungültige Textlänge im Syntaxbaum: " + length);
+        }
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Schreibt die Knoten eines Syntaxbaums.
+     *
+     * @author Christoph Lembeck
+     */
+    private static final class Encoder {
+
+        /**
+         * Ausgabe für die Binärdaten.
+         */
+        private final DataOutput out;
+
+        /**
+         * Laufende Nummern der bereits geschriebenen Tokens.
+         */
+        private final Map<Token, Integer> tokenIds = new IdentityHashMap<>();
+
+        /**
+         * Laufende Nummern der bereits geschriebenen Namen.
+         */
+        private final Map<String, Integer> stringIds = new HashMap<>();
+
+        /**
+         * Erstellt einen neuen Encoder.
+         *
+         * @param out
+         *            Ausgabe für die Binärdaten.
+         */
+        Encoder(final DataOutput out) {
+            this.out = out;
+        }
+
+        /**
+         * Schreibt einen Regelknoten samt aller Kindknoten und benannten Elemente.
+         *
+         * @param context
+         *            Zu schreibender Knoten.
+         * @throws IOException
+         *             Falls beim Schreiben ein Fehler auftritt.
+         */
+        void writeRule(final ParserRuleContext context) throws IOException {
+            final ContextClassInfo classInfo = getClassInfo(context.getClass());
+            out.writeByte(TAG_RULE);
+            writeString(context.getClass().getName());
+            writeVarInt(out, context.invokingState);
+            writeToken(context.start);
+            writeToken(context.stop);
+            final int childCount = context.getChildCount();
+            writeVarInt(out, childCount);
+            for (int i = 0; i < childCount; i++) {
+                final ParseTree child = context.getChild(i);
+                if (child instanceof ParserRuleContext) {
+                    writeRule((ParserRuleContext) child);
+                } else if (child instanceof TerminalNode) {
+                    out.writeByte(child instanceof ErrorNode ? TAG_ERROR : TAG_TERMINAL);
+                    writeToken(((TerminalNode) child).getSymbol());
+                } else {
+                    throw new IOException("Unbekannter Knotentyp im Syntaxbaum: " + child.getClass().getName());
+                }
+            }
+            writeLabels(context, classInfo);
+        }
+
+        /**
+         * Schreibt die Zuordnung der benannten Elemente eines Knotens zu seinen Kindknoten.
+         *
+         * @param context
+         *            Knoten, dessen benannte Elemente geschrieben werden sollen.
+         * @param classInfo
+         *            Informationen zur Klasse des Knotens.
+         * @throws IOException
+         *             Falls beim Schreiben ein Fehler auftritt.
+         */
+        private void writeLabels(final ParserRuleContext context, final ContextClassInfo classInfo)
+                throws IOException {
+            writeVarInt(out, classInfo.labelFields.size());
+            for (final Field field : classInfo.labelFields) {
+                writeString(field.getName());
+                final Object value = classInfo.get(field, context);
+                if (value instanceof List) {
+                    final List<?> values = (List<?>) value;
+                    writeVarInt(out, values.size());
+                    for (final Object element : values) {
+                        writeVarInt(out, indexOfChild(context, element));
+                    }
+                } else {
+                    writeVarInt(out, -1);
+                    writeVarInt(out, value == null ? -1 : indexOfChild(context, value));
+                }
+            }
+        }
+
+        /**
+         * Ermittelt die Position des Kindknotens, auf den ein benanntes Element verweist.
+         *
+         * @param context
+         *            Knoten, dessen Kindknoten durchsucht werden.
+         * @param value
+         *            Wert des benannten Elements (Token oder Knoten).
+         * @return Position des Kindknotens oder -1, falls kein passender Kindknoten existiert.
+         */
+        private static int indexOfChild(final ParserRuleContext context, final Object value) {
+            for (int i = 0; i < context.getChildCount(); i++) {
+                final ParseTree child = context.getChild(i);
+                if (child == value || child instanceof TerminalNode && ((TerminalNode) child).getSymbol() == value) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Schreibt ein Token. Beim ersten Auftreten werden alle Daten geschrieben, danach nur noch die laufende Nummer.
+         *
+         * @param token
+         *            Zu schreibendes Token oder null.
+         * @throws IOException
+         *             Falls beim Schreiben ein Fehler auftritt.
+         */
+        private void writeToken(final Token token) throws IOException {
+            if (token == null) {
+                writeVarInt(out, -1);
+                return;
+            }
+            final Integer id = tokenIds.get(token);
+            if (id != null) {
+                writeVarInt(out, id.intValue());
+                return;
+            }
+            final int newId = tokenIds.size();
+            tokenIds.put(token, newId);
+            writeVarInt(out, newId);
+            writeVarInt(out, token.getType());
+            writeVarInt(out, token.getChannel());
+            writeVarInt(out, token.getLine());
+            writeVarInt(out, token.getCharPositionInLine());
+            writeVarInt(out, token.getStartIndex());
+            writeVarInt(out, token.getStopIndex() - token.getStartIndex());
+            writeVarInt(out, token.getTokenIndex());
+            final String text = token.getText();
+            out.writeBoolean(text != null);
+            if (text != null) {
+                writeText(out, text);
+            }
+        }
+
+        /**
+         * Schreibt einen Namen. Beim ersten Auftreten wird der Name selbst geschrieben, danach nur noch die laufende
+         * Nummer.
+         *
+         * @param string
+         *            Zu schreibender Name.
+         * @throws IOException
+         *             Falls beim Schreiben ein Fehler auftritt.
+         */
+        private void writeString(final String string) throws IOException {
+            final Integer id = stringIds.get(string);
+            if (id != null) {
+                writeVarInt(out, id.intValue());
+                return;
+            }
+            final int newId = stringIds.size();
+            stringIds.put(string, newId);
+            writeVarInt(out, newId);
+            writeText(out, string);
+        }
+    }
+
+    /**
+     * Liest die Knoten eines Syntaxbaums.
+     *
+     * @author Christoph Lembeck
+     */
+    private static final class Decoder {
+
+        /**
+         * Eingabe mit den Binärdaten.
+         */
+        private final DataInput in;
+
+        /**
+         * Bereits gelesene Tokens, indiziert über ihre laufende Nummer.
+         */
+        private final List<Token> tokens = new ArrayList<>();
+
+        /**
+         * Bereits gelesene Namen, indiziert über ihre laufende Nummer.
+         */
+        private final List<String> strings = new ArrayList<>();
+
+        /**
+         * Erstellt einen neuen Decoder.
+         *
+         * @param in
+         *            Eingabe mit den Binärdaten.
+         */
+        Decoder(final DataInput in) {
+            this.in = in;
+        }
+
+        /**
+         * Liest einen Regelknoten samt aller Kindknoten und benannten Elemente.
+         *
+         * @param parent
+         *            Elternknoten oder null für die Wurzel.
+         * @return Gelesener Knoten.
+         * @throws IOException
+         *             Falls beim Lesen ein Fehler auftritt oder die Daten ungültig sind.
+         */
+        ParserRuleContext readNode(final ParserRuleContext parent) throws IOException {
+            if (in.readUnsignedByte() != TAG_RULE) {
+                throw new IOException("Regelknoten im Syntaxbaum erwartet.");
+            }
+            return readRule(parent);
+        }
+
+        /**
+         * Liest einen Regelknoten, dessen Kennzeichen bereits gelesen wurde.
+         *
+         * @param parent
+         *            Elternknoten oder null für die Wurzel.
+         * @return Gelesener Knoten.
+         * @throws IOException
+         *             Falls beim Lesen ein Fehler auftritt oder die Daten ungültig sind.
+         */
+        private ParserRuleContext readRule(final ParserRuleContext parent) throws IOException {
+            final ContextClassInfo classInfo = getClassInfo(loadContextClass(readString()));
+            final int invokingState = readVarInt(in);
+            final ParserRuleContext context = classInfo.create(parent, invokingState);
+            context.start = readToken();
+            context.stop = readToken();
+            final int childCount = readVarInt(in);
+            for (int i = 0; i < childCount; i++) {
+                readChild(context);
+            }
+            readLabels(context, classInfo);
+            return context;
+        }
+
+        /**
+         * Liest einen Kindknoten und hängt ihn an den Elternknoten an.
+         *
+         * @param context
+         *            Elternknoten.
+         * @throws IOException
+         *             Falls beim Lesen ein Fehler auftritt oder die Daten ungültig sind.
+         */
+        private void readChild(final ParserRuleContext context) throws IOException {
+            final int tag = in.readUnsignedByte();
+            switch (tag) {
+                case TAG_RULE:
+                    context.addChild(readRule(context));
+                    break;
+                case TAG_TERMINAL:
+                    final TerminalNode terminal = new TerminalNodeImpl(readToken());
+                    context.addAnyChild(terminal);
+                    terminal.setParent(context);
+                    break;
+                case TAG_ERROR:
+                    final ErrorNode errorNode = new ErrorNodeImpl(readToken());
+                    context.addAnyChild(errorNode);
+                    errorNode.setParent(context);
+                    break;
+                default:
+                    throw new IOException("Unbekannter Knotentyp im Syntaxbaum: " + tag);
+            }
+        }
+
+        /**
+         * Liest die Zuordnung der benannten Elemente eines Knotens zu seinen Kindknoten.
+         *
+         * @param context
+         *            Knoten, dessen benannte Elemente gesetzt werden.
+         * @param classInfo
+         *            Informationen zur Klasse des Knotens.
+         * @throws IOException
+         *             Falls beim Lesen ein Fehler auftritt oder die Daten ungültig sind.
+         */
+        private void readLabels(final ParserRuleContext context, final ContextClassInfo classInfo)
+                throws IOException {
+            final int labelCount = readVarInt(in);
+            for (int i = 0; i < labelCount; i++) {
+                final Field field = classInfo.getLabelField(readString());
+                final int count = readVarInt(in);
+                if (count < 0) {
+                    classInfo.set(field, context, labelValue(context, field, readVarInt(in)));
+                } else {
+                    @SuppressWarnings("unchecked")
+                    final List<Object> values = (List<Object>) classInfo.get(field, context);
+                    for (int j = 0; j < count; j++) {
+                        values.add(labelValue(context, field, readVarInt(in)));
+                    }
+                }
+            }
+        }
+
+        /**
+         * Ermittelt den Wert eines benannten Elements aus der Position des Kindknotens.
+         *
+         * @param context
+         *            Knoten, zu dem das Element gehört.
+         * @param field
+         *            Feld des benannten Elements.
+         * @param childIndex
+         *            Position des Kindknotens oder -1.
+         * @return Token oder Kindknoten oder null.
+         */
+        private static Object labelValue(final ParserRuleContext context, final Field field, final int childIndex) {
+            if (childIndex < 0) {
+                return null;
+            }
+            final ParseTree child = context.getChild(childIndex);
+            final boolean tokenLabel = field.getType() == Token.class || field.getType() == List.class
+                    && child instanceof TerminalNode;
+            return tokenLabel ? ((TerminalNode) child).getSymbol() : child;
+        }
+
+        /**
+         * Liest ein Token oder dessen laufende Nummer.
+         *
+         * @return Gelesenes Token oder null.
+         * @throws IOException
+         *             Falls beim Lesen ein Fehler auftritt oder die Daten ungültig sind.
+         */
+        private Token readToken() throws IOException {
+            final int id = readVarInt(in);
+            if (id < 0) {
+                return null;
+            } else if (id < tokens.size()) {
+                return tokens.get(id);
+            } else if (id != tokens.size()) {
+                throw new IOException("Ungültige Token-Nummer im Syntaxbaum: " + id);
+            }
+            final CommonToken token = new CommonToken(readVarInt(in));
+            token.setChannel(readVarInt(in));
+            token.setLine(readVarInt(in));
+            token.setCharPositionInLine(readVarInt(in));
+            final int startIndex = readVarInt(in);
+            token.setStartIndex(startIndex);
+            token.setStopIndex(startIndex + readVarInt(in));
+            token.setTokenIndex(readVarInt(in));
+            if (in.readBoolean()) {
+                token.setText(readText(in));
+            }
+            tokens.add(token);
+            return token;
+        }
+
+        /**
+         * Liest einen Namen oder dessen laufende Nummer.
+         *
+         * @return Gelesener Name.
+         * @throws IOException
+         *             Falls beim Lesen ein Fehler auftritt oder die Daten ungültig sind.
+         */
+        private String readString() throws IOException {
+            final int id = readVarInt(in);
+            if (id >= 0 && id < strings.size()) {
+                return strings.get(id);
+            } else if (id != strings.size()) {
+                throw new IOException("Ungültige Namens-Nummer im Syntaxbaum: " + id);
+            }
+            final String string = readText(in);
+            strings.add(string);
+            return string;
+        }
+
+        /**
+         * Lädt eine Kontext-Klasse des Parsers. Es werden ausschließlich Klassen aus {@link CodeGenParser} akzeptiert.
+         *
+         * @param className
+         *            Name der Klasse.
+         * @return Geladene Klasse.
+         * @throws IOException
+         *             Falls die Klasse nicht gefunden wird oder keine Kontext-Klasse des Parsers ist.
+         */
+        private static Class<?> loadContextClass(final String className) throws IOException {
+            if (!className.startsWith(CONTEXT_CLASS_PREFIX)) {
+                throw new IOException("Unerwartete Klasse im Syntaxbaum: " + className);
+            }
+            try {
+                final Class<?> contextClass = Class.forName(className, false, CodeGenParser.class.getClassLoader());
+                if (!ParserRuleContext.class.isAssignableFrom(contextClass)) {
+                    throw new IOException("Unerwartete Klasse im Syntaxbaum: " + className);
+                }
+                return contextClass;
+            } catch (final ClassNotFoundException e) {
+                throw new IOException("Unbekannte Klasse im Syntaxbaum: " + className, e);
+            }
+        }
+    }
+
+    /**
+     * Informationen zu einer Kontext-Klasse des Parsers: wie Instanzen erzeugt werden und welche Felder benannte
+     * Elemente enthalten.
+     *
+     * @author Christoph Lembeck
+     */
+    private static final class ContextClassInfo {
+
+        /**
+         * Kontext-Klasse des Parsers.
+         */
+        private final Class<?> contextClass;
+
+        /**
+         * Öffentliche Felder der Klasse, in denen der Parser benannte Elemente ablegt, sortiert nach Namen.
+         */
+        private final List<Field> labelFields = new ArrayList<>();
+
+        /**
+         * Erstellt die Informationen zu einer Kontext-Klasse.
+         *
+         * @param contextClass
+         *            Kontext-Klasse des Parsers.
+         */
+        ContextClassInfo(final Class<?> contextClass) {
+            this.contextClass = contextClass;
+            for (final Field field : contextClass.getFields()) {
+                final int modifiers = field.getModifiers();
+                if (!Modifier.isStatic(modifiers) && !Modifier.isFinal(modifiers)
+                        && ParserRuleContext.class.isAssignableFrom(field.getDeclaringClass())
+                        && field.getDeclaringClass() != ParserRuleContext.class) {
+                    labelFields.add(field);
+                }
+            }
+            labelFields.sort((field1, field2) -> field1.getName().compareTo(field2.getName()));
+        }
+
+        /**
+         * Sucht das Feld zu einem benannten Element.
+         *
+         * @param name
+         *            Name des Elements.
+         * @return Feld des Elements.
+         * @throws IOException
+         *             Falls die Klasse kein solches Feld besitzt.
+         */
+        Field getLabelField(final String name) throws IOException {
+            for (final Field field : labelFields) {
+                if (field.getName().equals(name)) {
+                    return field;
+                }
+            }
+            throw new IOException("Unbekanntes Element " + name + " in " + contextClass.getName());
+        }
+
+        /**
+         * Erzeugt eine neue, leere Instanz der Klasse. Kontext-Klassen für benannte Alternativen einer Regel besitzen
+         * nur einen Kopier-Konstruktor, dem zunächst eine Instanz des Kontexts der Regel übergeben wird.
+         *
+         * @param parent
+         *            Elternknoten.
+         * @param invokingState
+         *            Zustand des Parsers beim Aufruf der Regel.
+         * @return Neue Instanz der Klasse.
+         * @throws IOException
+         *             Falls die Instanz nicht erzeugt werden kann.
+         */
+        ParserRuleContext create(final ParserRuleContext parent, final int invokingState) throws IOException {
+            try {
+                return newContext(contextClass, parent, invokingState);
+            } catch (final ReflectiveOperationException e) {
+                throw new IOException("Knoten vom Typ " + contextClass.getName() + " kann nicht erzeugt werden.", e);
+            }
+        }
+
+        /**
+         * Erzeugt eine neue Instanz der übergebenen Kontext-Klasse.
+         *
+         * @param type
+         *            Zu erzeugende Kontext-Klasse.
+         * @param parent
+         *            Elternknoten.
+         * @param invokingState
+         *            Zustand des Parsers beim Aufruf der Regel.
+         * @return Neue Instanz der Klasse.
+         * @throws ReflectiveOperationException
+         *             Falls die Instanz nicht erzeugt werden kann.
+         */
+        private static ParserRuleContext newContext(final Class<?> type, final ParserRuleContext parent,
+                final int invokingState) throws ReflectiveOperationException {
+            try {
+                final Constructor<?> constructor = type.getConstructor(ParserRuleContext.class, int.class);
+                return (ParserRuleContext) constructor.newInstance(parent, invokingState);
+            } catch (final NoSuchMethodException e) {
+                final Class<?> ruleType = type.getSuperclass();
+                final Constructor<?> copyConstructor = type.getConstructor(ruleType);
+                return (ParserRuleContext) copyConstructor.newInstance(newContext(ruleType, parent, invokingState));
+            }
+        }
+
+        /**
+         * Liest den Wert eines benannten Elements.
+         *
+         * @param field
+         *            Feld des Elements.
+         * @param context
+         *            Knoten, zu dem das Element gehört.
+         * @return Wert des Elements.
+         */
+        Object get(final Field field, final ParserRuleContext context) {
+            try {
+                return field.get(context);
+            } catch (final IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * Setzt den Wert eines benannten Elements.
+         *
+         * @param field
+         *            Feld des Elements.
+         * @param context
+         *            Knoten, zu dem das Element gehört.
+         * @param value
+         *            Neuer Wert des Elements.
+         * @throws IOException
+         *             Falls der Wert nicht zum Typ des Felds passt.
+         */
+        void set(final Field field, final ParserRuleContext context, final Object value) throws IOException {
+            try {
+                field.set(context, value);
+            } catch (final IllegalAccessException | IllegalArgumentException e) {
+                throw new IOException("Element " + field.getName() + " kann nicht gesetzt werden.", e);
+            }
+        }
+    }
+}
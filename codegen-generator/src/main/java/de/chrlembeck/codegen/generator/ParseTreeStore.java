@@ -0,0 +1,186 @@
+package de.chrlembeck.codegen.generator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.chrlembeck.codegen.grammar.CodeGenParser;
+import de.chrlembeck.codegen.grammar.CodeGenParser.TemplateFileContext;
+
+/**
+ * Persistenter Speicher für die Syntaxbäume der Template-Dateien in einem Verzeichnis auf der Festplatte (z.B.
+ * {@code target/codegen-cache}). Die Bäume werden über die Prüfsumme des Inhalts der Template-Datei gefunden, so dass
+ * bei einem erneuten Build weder Lexer noch Parser laufen müssen, solange sich die Datei nicht verändert hat. Jede
+ * Datei enthält zusätzlich eine Kennung der Version des Generators und der Grammatik. Passt diese nicht zur laufenden
+ * Version, wird der gespeicherte Baum ignoriert und beim nächsten Übersetzen ersetzt.
+ *
+ * <p>
+ * Der Speicher ist rein optional: Fehler beim Lesen oder Schreiben werden protokolliert und führen lediglich dazu, dass
+ * die Template-Datei wie gewohnt übersetzt wird. Die Dateien werden über eine temporäre Datei geschrieben und
+ * anschließend umbenannt, so dass auch mehrere gleichzeitig laufende Builds den Speicher gemeinsam verwenden können.
+ * </p>
+ *
+ * @author Christoph Lembeck
+ * @see TemplateCache
+ */
+public class ParseTreeStore {
+
+    /**
+     * Der Logger für diese Klasse.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParseTreeStore.class);
+
+    /**
+     * Kennung am Anfang jeder Datei ("CGAS").
+     */
+    private static final int MAGIC = 0x43474153;
+
+    /**
+     * Version des Dateiformats. Muss bei jeder Änderung am Format von {@link ParseTreeCodec} erhöht werden.
+     */
+    private static final int FORMAT_VERSION = 2;
+
+    /**
+     * Dateiendung der gespeicherten Syntaxbäume.
+     */
+    private static final String FILE_SUFFIX = ".ast";
+
+    /**
+     * Kennung der Version von Generator, Grammatik und Dateiformat, mit der die Dateien geschrieben werden.
+     */
+    private static final String VERSION_KEY = createVersionKey();
+
+    /**
+     * Verzeichnis für die gespeicherten Syntaxbäume.
+     */
+    private final Path directory;
+
+    /**
+     * Erstellt einen neuen Speicher in dem übergebenen Verzeichnis. Das Verzeichnis wird beim ersten Schreiben
+     * angelegt, falls es noch nicht existiert.
+     *
+     * @param directory
+     *            Verzeichnis für die gespeicherten Syntaxbäume.
+     */
+    public ParseTreeStore(final Path directory) {
+        this.directory = Objects.requireNonNull(directory);
+    }
+
+    /**
+     * Gibt das Verzeichnis für die gespeicherten Syntaxbäume zurück.
+     *
+     * @return Verzeichnis des Speichers.
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Lädt den Syntaxbaum zu der Template-Datei mit der übergebenen Prüfsumme.
+     *
+     * @param contentHash
+     *            Prüfsumme über den Inhalt der Template-Datei.
+     * @return Gespeicherter Syntaxbaum oder null, falls kein passender Baum gespeichert ist.
+     */
+    public TemplateFileContext load(final byte[] contentHash) {
+        final Path file = fileFor(contentHash);
+        try (InputStream input = Files.newInputStream(file);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(input))) {
+            if (in.readInt() != MAGIC || !VERSION_KEY.equals(in.readUTF())) {
+                LOGGER.debug("Gespeicherter Syntaxbaum passt nicht zur Version des Generators: " + file);
+                return null;
+            }
+            return ParseTreeCodec.read(in);
+        } catch (final NoSuchFileException e) {
+            return null;
+        } catch (final IOException | RuntimeException e) {
+            LOGGER.warn("Gespeicherter Syntaxbaum kann nicht gelesen werden: " + file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Speichert den Syntaxbaum zu der Template-Datei mit der übergebenen Prüfsumme. Fehler beim Schreiben werden
+     * lediglich protokolliert.
+     *
+     * @param contentHash
+     *            Prüfsumme über den Inhalt der Template-Datei.
+     * @param templateFileContext
+     *            Zu speichernder Syntaxbaum.
+     */
+    public void store(final byte[] contentHash, final TemplateFileContext templateFileContext) {
+        final Path file = fileFor(contentHash);
+        Path tempFile = null;
+        try {
+            Files.createDirectories(directory);
+            tempFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try (OutputStream output = Files.newOutputStream(tempFile);
+                    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output))) {
+                out.writeInt(MAGIC);
+                out.writeUTF(VERSION_KEY);
+                ParseTreeCodec.write(out, templateFileContext);
+            }
+            try {
+                Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (final AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (final IOException | RuntimeException e) {
+            LOGGER.warn("Syntaxbaum kann nicht gespeichert werden: " + file, e);
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (final IOException e2) {
+                    e.addSuppressed(e2);
+                }
+            }
+        }
+    }
+
+    /**
+     * Ermittelt den Namen der Datei für die übergebene Prüfsumme.
+     *
+     * @param contentHash
+     *            Prüfsumme über den Inhalt der Template-Datei.
+     * @return Pfad der Datei im Speicher.
+     */
+    private Path fileFor(final byte[] contentHash) {
+        return directory.resolve(HexFormat.of().formatHex(contentHash) + FILE_SUFFIX);
+    }
+
+    /**
+     * Erzeugt die Kennung für die Version des Generators, der Grammatik und des Dateiformats. Die Grammatik wird über
+     * eine Prüfsumme der serialisierten ATN des Parsers identifiziert, damit auch Änderungen an der Grammatik ohne neue
+     * Versionsnummer erkannt werden.
+     *
+     * @return Kennung der Version.
+     */
+    private static String createVersionKey() {
+        final String implementationVersion = Generator.class.getPackage().getImplementationVersion();
+        try {
+            final byte[] grammarHash = MessageDigest.getInstance("SHA-256")
+                    .digest(CodeGenParser._serializedATN.getBytes(StandardCharsets.UTF_8));
+            return FORMAT_VERSION + "/" + (implementationVersion == null ? "dev" : implementationVersion) + "/"
+                    + HexFormat.of().formatHex(grammarHash);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Der Algorithmus SHA-256 wird nicht unterstützt.", e);
+        }
+    }
+}
@@ -65,6 +65,22 @@ public class ParserException extends AbstractCodeGenException {
         this.position = position;
     }
 
+    /**
+     * Erzeugt eine neue Exception unter Angabe einer das Problem beschreibenden Fehlermeldung und der Position
+     * innerhalb der Template-Datei, an der das Problem aufgetreten ist.
+     * 
+     * @param message
+     *            Eine das Problem näher beschreibende Fehlermeldung.
+     * @param position
+     *            Position innerhalb der Template-Datei, an der das Problem aufgetreten ist.
+     * @param cause
+     *            Auslösender Grund der Exception.
+     */
+    public ParserException(final String message, final Position position, final Throwable cause) {
+        super(message, cause);
+        this.position = position;
+    }
+
     /**
      * {@inheritDoc}
      */
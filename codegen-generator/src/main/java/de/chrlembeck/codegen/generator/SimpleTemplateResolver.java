@@ -4,11 +4,13 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.util.BitSet;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.antlr.v4.runtime.ANTLRErrorListener;
 import org.antlr.v4.runtime.CharStreams;
@@ -23,10 +25,14 @@ import de.chrlembeck.codegen.generator.lang.TemplateFile;
 import de.chrlembeck.codegen.generator.visitor.TemplateFileVisitor;
 import de.chrlembeck.codegen.grammar.CodeGenLexer;
 import de.chrlembeck.codegen.grammar.CodeGenParser;
+import de.chrlembeck.codegen.grammar.CodeGenParser.TemplateFileContext;
 
 /**
  * Einfache Implementierung eines TemplateResolvers. Die Strategie bei der Auflösung der URIs in dieser Klasse basiert
- * darauf, die URI in eine URL zu überführen und einen Eingabedatenstrom von der URL zu lesen.
+ * darauf, die URI in eine URL zu überführen und einen Eingabedatenstrom von der URL zu lesen. Die gelesenen Dateien
+ * werden in einem {@link TemplateCache} abgelegt. Ohne Angabe eines Caches erhält jeder Resolver einen eigenen Cache,
+ * der zusammen mit dem Resolver freigegeben wird. Soll ein Cache von mehreren Resolvern und Generatoren gemeinsam
+ * verwendet werden, muss er bei der Erzeugung der Resolver übergeben werden.
  *
  * @author Christoph Lembeck
  * @see TemplateResolver
@@ -34,9 +40,15 @@ import de.chrlembeck.codegen.grammar.CodeGenParser;
 public class SimpleTemplateResolver implements TemplateResolver {
 
     /**
-     * Gespeicherte Zuordnungen von resource identifiern zu bereits gelesenen Template-Dateien.
+     * Template-Dateien, die dem Resolver direkt übergeben wurden. Diese haben Vorrang vor den Dateien aus dem Cache,
+     * da ihr Inhalt z.B. aus einem Editor stammen kann und nicht mit dem gespeicherten Stand übereinstimmen muss.
      */
-    private Map<URI, TemplateFile> templateCache = new HashMap<>();
+    private final Map<URI, TemplateFile> localTemplates = new ConcurrentHashMap<>();
+
+    /**
+     * Cache für die gelesenen Template-Dateien, der auch von anderen Resolvern verwendet werden kann.
+     */
+    private final TemplateCache templateCache;
 
     /**
      * Haupt-identifier, von dem aus relative identifier aufgelöst werden.
@@ -45,33 +57,73 @@ public class SimpleTemplateResolver implements TemplateResolver {
      */
     private final URI rootResourceIdentifier;
 
+    /**
+     * Optionaler persistenter Speicher für die Syntaxbäume der Template-Dateien.
+     */
+    private ParseTreeStore parseTreeStore;
+
+    /**
+     * Identifier aller Template-Dateien, die der Resolver über den Cache geladen hat.
+     */
+    private final Set<URI> loadedResourceIdentifiers = ConcurrentHashMap.newKeySet();
+
     /**
      * Erstellt einen neuen Resolver mit der übergebenen Template-Datei aus Ausgangs-Template. Die URI des Templates
-     * muss zwingend zum Auflösen später benötigter relativer Adressen angegeben sein.
+     * muss zwingend zum Auflösen später benötigter relativer Adressen angegeben sein. Weitere Template-Dateien werden
+     * über einen eigenen Cache des Resolvers geladen.
      * 
      * @param templateFile
      *            Initialie Template-Datei für die Generierung.
      */
     public SimpleTemplateResolver(final TemplateFile templateFile) {
+        this(templateFile, new TemplateCache());
+    }
+
+    /**
+     * Erstellt einen neuen Resolver mit der übergebenen Template-Datei aus Ausgangs-Template. Die URI des Templates
+     * muss zwingend zum Auflösen später benötigter relativer Adressen angegeben sein.
+     * 
+     * @param templateFile
+     *            Initialie Template-Datei für die Generierung.
+     * @param templateCache
+     *            Cache, über den weitere Template-Dateien geladen werden.
+     */
+    public SimpleTemplateResolver(final TemplateFile templateFile, final TemplateCache templateCache) {
         this.rootResourceIdentifier = Objects.requireNonNull(templateFile.getResourceIdentifier());
-        templateCache.put(templateFile.getResourceIdentifier(), templateFile);
+        this.templateCache = Objects.requireNonNull(templateCache);
+        localTemplates.put(templateFile.getResourceIdentifier(), templateFile);
     }
 
     /**
      * Erstellt einen neuen Resolver mit dem übergebenen initialen resource identifier als Basis für die Suche nach
-     * weiteren Templates.
+     * weiteren Templates. Die Template-Dateien werden über einen eigenen Cache des Resolvers geladen.
      * 
      * @param rootResourceIdentifier
      *            Identifier, von dem aus relative URIs aufgelöst werden.
      * @see URI#resolve(URI)
      */
     public SimpleTemplateResolver(final URI rootResourceIdentifier) {
+        this(rootResourceIdentifier, new TemplateCache());
+    }
+
+    /**
+     * Erstellt einen neuen Resolver mit dem übergebenen initialen resource identifier als Basis für die Suche nach
+     * weiteren Templates.
+     * 
+     * @param rootResourceIdentifier
+     *            Identifier, von dem aus relative URIs aufgelöst werden.
+     * @param templateCache
+     *            Cache, über den die Template-Dateien geladen werden.
+     * @see URI#resolve(URI)
+     */
+    public SimpleTemplateResolver(final URI rootResourceIdentifier, final TemplateCache templateCache) {
         this.rootResourceIdentifier = rootResourceIdentifier;
+        this.templateCache = Objects.requireNonNull(templateCache);
     }
 
     /**
      * Gibt die Template-Datei zu dem resource identifier aus dem Cache zurück oder liest diese Datei initial ein und
-     * gibt sie dann zurück.
+     * gibt sie dann zurück. Der Resolver kann gleichzeitig von mehreren Threads verwendet werden.
      * 
      * @param templateResourceIdentifier
      *            Identifier zum Auffinden der benötigen Template-Datei.
@@ -81,19 +133,54 @@ public class SimpleTemplateResolver implements TemplateResolver {
      * @throws IOException
      *             Falls beim Lesen der Datei ein Problem aufgetreten ist.
      */
-    public TemplateFile getOrLoadTemplateFile(URI templateResourceIdentifier, final ANTLRErrorListener errorListener)
-            throws IOException {
-        TemplateFile templateFile = templateCache.get(templateResourceIdentifier);
-        if (templateFile == null) {
-            if (!templateResourceIdentifier.isAbsolute()) {
-                templateResourceIdentifier = rootResourceIdentifier.resolve(templateResourceIdentifier);
-            }
-            templateFile = loadAndParseTemplateFile(templateResourceIdentifier, errorListener);
-            templateCache.put(templateFile.getResourceIdentifier(), templateFile);
+    public TemplateFile getOrLoadTemplateFile(final URI templateResourceIdentifier,
+            final ANTLRErrorListener errorListener) throws IOException {
+        final TemplateFile localTemplate = localTemplates.get(templateResourceIdentifier);
+        if (localTemplate != null) {
+            return localTemplate;
         }
+        final URI absoluteIdentifier = templateResourceIdentifier.isAbsolute() ? templateResourceIdentifier
+                : rootResourceIdentifier.resolve(templateResourceIdentifier);
+        final TemplateFile resolvedLocalTemplate = localTemplates.get(absoluteIdentifier);
+        if (resolvedLocalTemplate != null) {
+            return resolvedLocalTemplate;
+        }
+        final TemplateFile templateFile = templateCache.getOrLoadTemplateFile(absoluteIdentifier, errorListener,
+                parseTreeStore);
+        loadedResourceIdentifiers.add(absoluteIdentifier);
         return templateFile;
     }
 
+    /**
+     * Gibt die absoluten Identifier aller Template-Dateien zurück, die bisher durch diesen Resolver geladen wurden.
+     * Direkt an den Resolver übergebene Template-Dateien sind darin nicht enthalten.
+     *
+     * @return Identifier der geladenen Template-Dateien.
+     */
+    public Set<URI> getLoadedResourceIdentifiers() {
+        return new TreeSet<>(loadedResourceIdentifiers);
+    }
+
+    /**
+     * Gibt den persistenten Speicher für die Syntaxbäume der Template-Dateien zurück.
+     *
+     * @return Speicher für die Syntaxbäume oder null, falls die Dateien immer neu übersetzt werden.
+     */
+    public ParseTreeStore getParseTreeStore() {
+        return parseTreeStore;
+    }
+
+    /**
+     * Legt einen persistenten Speicher fest, aus dem die Syntaxbäume unveränderter Template-Dateien gelesen werden,
+     * anstatt die Dateien erneut zu lexen und zu parsen.
+     *
+     * @param parseTreeStore
+     *            Speicher für die Syntaxbäume oder null, falls die Dateien immer neu übersetzt werden sollen.
+     */
+    public void setParseTreeStore(final ParseTreeStore parseTreeStore) {
+        this.parseTreeStore = parseTreeStore;
+    }
+
     /**
      * Gibt die Template-Datei zu dem resource identifier aus dem Cache zurück oder liest diese Datei initial ein und
      * gibt sie dann zurück.
@@ -111,11 +198,13 @@ public class SimpleTemplateResolver implements TemplateResolver {
     }
 
     /**
-     * Liest die Gewünschte Template-Datei von der angegebenen URI ein und übersetzt sie in ein TemplateFile-Objekt. Zur
+     * Liest die Template-Datei aus dem übergebenen Eingabedatenstrom und übersetzt sie in ein TemplateFile-Objekt. Zur
      * Sammlung von Fehlern, die beim Lexen oder Parsen auftreten, kann ein ErrorListener übergeben werden.
      * 
      * @param templateResourceIdentifier
-     *            Identifier zur Lokalisierung der Datei.
+     *            Identifier der Datei.
+     * @param input
+     *            Eingabedatenstrom mit dem Inhalt der Datei.
      * @param additionalErrorListener
      *            Optionaler Listener für die beim Lexen und Parsen gefundenen Syntaxfehler.
      * @return Gelesene und übersetzte Template-Datei zum identifier.
@@ -124,26 +213,43 @@ public class SimpleTemplateResolver implements TemplateResolver {
      * @throws ParserException
      *             Falls beim Lexen oder Parsen ein Fehler festgestellt wird.
      */
-    private TemplateFile loadAndParseTemplateFile(final URI templateResourceIdentifier,
+    static TemplateFile parseTemplateFile(final URI templateResourceIdentifier, final InputStream input,
             final ANTLRErrorListener additionalErrorListener) throws IOException {
-        try (InputStream input = templateResourceIdentifier.toURL().openStream()) {
-            final CodeGenLexer lexer = new CodeGenLexer(CharStreams.fromStream(input));
-            final CommonTokenStream tokenStream = new CommonTokenStream(lexer);
-            final CodeGenParser parser = new CodeGenParser(tokenStream);
-            final ErrorListener errorListener = new ErrorListener();
-            parser.addErrorListener(errorListener);
-            if (additionalErrorListener != null) {
-                parser.addErrorListener(additionalErrorListener);
-            }
-            final TemplateFile templateFile = parser.templateFile()
-                    .accept(new TemplateFileVisitor(templateResourceIdentifier));
-            final Map<Position, String> errors = errorListener.getErrors();
-            if (errors.isEmpty()) {
-                return templateFile;
-            } else {
-                final Entry<Position, String> entry = errors.entrySet().iterator().next();
-                throw new ParserException(entry.getValue(), entry.getKey());
-            }
+        return parseTemplateFileContext(input, additionalErrorListener)
+                .accept(new TemplateFileVisitor(templateResourceIdentifier));
+    }
+
+    /**
+     * Lext und parst die Template-Datei aus dem übergebenen Eingabedatenstrom und gibt den Syntaxbaum zurück. Zur
+     * Sammlung von Fehlern, die beim Lexen oder Parsen auftreten, kann ein ErrorListener übergeben werden.
+     * 
+     * @param input
+     *            Eingabedatenstrom mit dem Inhalt der Datei.
+     * @param additionalErrorListener
+     *            Optionaler Listener für die beim Lexen und Parsen gefundenen Syntaxfehler.
+     * @return Fehlerfreier Syntaxbaum der Template-Datei.
+     * @throws IOException
+     *             Falls beim Lesen der Daten ein Problem auftritt.
+     * @throws ParserException
+     *             Falls beim Lexen oder Parsen ein Fehler festgestellt wird.
+     */
+    static TemplateFileContext parseTemplateFileContext(final InputStream input,
+            final ANTLRErrorListener additionalErrorListener) throws IOException {
+        final CodeGenLexer lexer = new CodeGenLexer(CharStreams.fromStream(input));
+        final CommonTokenStream tokenStream = new CommonTokenStream(lexer);
+        final CodeGenParser parser = new CodeGenParser(tokenStream);
+        final ErrorListener errorListener = new ErrorListener();
+        parser.addErrorListener(errorListener);
+        if (additionalErrorListener != null) {
+            parser.addErrorListener(additionalErrorListener);
+        }
+        final TemplateFileContext templateFileContext = parser.templateFile();
+        final Map<Position, String> errors = errorListener.getErrors();
+        if (errors.isEmpty()) {
+            return templateFileContext;
+        } else {
+            final Entry<Position, String> entry = errors.entrySet().iterator().next();
+            throw new ParserException(entry.getValue(), entry.getKey());
         }
     }
 
@@ -0,0 +1,417 @@
+package de.chrlembeck.codegen.generator;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.chrlembeck.codegen.generator.lang.TemplateFile;
+import de.chrlembeck.codegen.generator.visitor.TemplateFileVisitor;
+import de.chrlembeck.codegen.grammar.CodeGenParser.TemplateFileContext;
+
+/**
+ * Threadsicherer Cache für gelesene und übersetzte Template-Dateien. Der Cache kann von beliebig vielen Resolvern und
+ * Generatoren gleichzeitig verwendet werden und sorgt dafür, dass jede Datei auch bei gleichzeitigen Anfragen nur einmal
+ * gelesen und übersetzt wird.
+ *
+ * <p>
+ * Damit der Cache auch in langlebigen Prozessen wie der grafischen Oberfläche oder einem Maven-Daemon verwendet werden
+ * kann, wird vor der Herausgabe einer Datei geprüft, ob sie sich seit dem Einlesen verändert hat. Bei lokalen Dateien
+ * werden dazu zunächst Änderungszeitpunkt und Größe verglichen, bei allen anderen Quellen sowie bei geänderten
+ * Zeitstempeln entscheidet eine Prüfsumme über den Inhalt, ob die Datei neu übersetzt werden muss. Um bei häufigen
+ * Zugriffen nicht jedes Mal auf das Dateisystem zugreifen zu müssen, erfolgt die Prüfung höchstens einmal pro
+ * {@link #setCheckInterval(Duration) Prüfintervall}.
+ * </p>
+ *
+ * @author Christoph Lembeck
+ * @see SimpleTemplateResolver
+ */
+public class TemplateCache {
+
+    /**
+     * Der Logger für diese Klasse.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(TemplateCache.class);
+
+    /**
+     * Standardmäßiger Abstand zwischen zwei Prüfungen einer Datei auf Änderungen.
+     */
+    public static final Duration DEFAULT_CHECK_INTERVAL = Duration.ofSeconds(1);
+
+    /**
+     * Algorithmus für die Berechnung der Prüfsummen über den Inhalt der Dateien.
+     */
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    /**
+     * Gemeinsam genutzte Instanz des Caches.
+     */
+    private static final TemplateCache SHARED_INSTANCE = new TemplateCache();
+
+    /**
+     * Zuordnung von absoluten resource identifiern zu den bereits gelesenen Template-Dateien.
+     */
+    private final ConcurrentMap<URI, CacheEntry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Abstand zwischen zwei Prüfungen einer Datei auf Änderungen in Nanosekunden.
+     */
+    private volatile long checkIntervalNanos = DEFAULT_CHECK_INTERVAL.toNanos();
+
+    /**
+     * Gibt die prozessweit gemeinsam genutzte Instanz des Caches zurück. Die Instanz muss explizit an die
+     * {@link SimpleTemplateResolver}s übergeben werden. Da sie ihre Einträge bis zum Aufruf von {@link #clear()} oder
+     * {@link #invalidate(URI)} behält und die gelesenen Template-Dateien Verweise auf die Klassen der Modelle enthalten,
+     * sollte sie nur verwendet werden, wenn diese Klassen ohnehin für die gesamte Laufzeit geladen bleiben, wie z.B. in
+     * der grafischen Oberfläche.
+     *
+     * @return Gemeinsam genutzter Cache.
+     */
+    public static TemplateCache getSharedInstance() {
+        return SHARED_INSTANCE;
+    }
+
+    /**
+     * Gibt die Template-Datei zu dem absoluten resource identifier aus dem Cache zurück oder liest die Datei ein, falls
+     * sie noch nicht im Cache vorhanden ist oder sich seit dem letzten Einlesen verändert hat.
+     *
+     * @param templateResourceIdentifier
+     *            Absoluter Identifier der Template-Datei.
+     * @param errorListener
+     *            Optionaler ErrorListener zum Empfangen möglicher Fehlermeldungen, falls die Datei gelesen werden
+     *            muss.
+     * @return Gelesene und übersetzte Template-Datei.
+     * @throws IOException
+     *             Falls beim Lesen der Datei ein Problem aufgetreten ist.
+     * @throws ParserException
+     *             Falls beim Lexen oder Parsen ein Fehler festgestellt wird.
+     */
+    public TemplateFile getOrLoadTemplateFile(final URI templateResourceIdentifier,
+            final ANTLRErrorListener errorListener) throws IOException {
+        return getOrLoadTemplateFile(templateResourceIdentifier, errorListener, null);
+    }
+
+    /**
+     * Gibt die Template-Datei zu dem absoluten resource identifier aus dem Cache zurück oder liest die Datei ein, falls
+     * sie noch nicht im Cache vorhanden ist oder sich seit dem letzten Einlesen verändert hat. Muss die Datei gelesen
+     * werden, wird ihr Syntaxbaum zunächst in dem übergebenen persistenten Speicher gesucht und nur bei Bedarf neu
+     * erzeugt und dort abgelegt.
+     *
+     * @param templateResourceIdentifier
+     *            Absoluter Identifier der Template-Datei.
+     * @param errorListener
+     *            Optionaler ErrorListener zum Empfangen möglicher Fehlermeldungen, falls die Datei geparst werden
+     *            muss.
+     * @param parseTreeStore
+     *            Optionaler persistenter Speicher für die Syntaxbäume.
+     * @return Gelesene und übersetzte Template-Datei.
+     * @throws IOException
+     *             Falls beim Lesen der Datei ein Problem aufgetreten ist.
+     * @throws ParserException
+     *             Falls beim Lexen oder Parsen ein Fehler festgestellt wird.
+     */
+    public TemplateFile getOrLoadTemplateFile(final URI templateResourceIdentifier,
+            final ANTLRErrorListener errorListener, final ParseTreeStore parseTreeStore) throws IOException {
+        final CacheEntry entry = entries.get(templateResourceIdentifier);
+        if (entry != null && !entry.isCheckDue(System.nanoTime(), checkIntervalNanos)) {
+            return entry.templateFile;
+        }
+        try {
+            return entries.compute(templateResourceIdentifier,
+                    (uri, oldEntry) -> validateOrLoad(uri, oldEntry, errorListener, parseTreeStore)).templateFile;
+        } catch (final UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Entfernt die Template-Datei mit dem übergebenen identifier aus dem Cache.
+     *
+     * @param templateResourceIdentifier
+     *            Absoluter Identifier der Template-Datei.
+     */
+    public void invalidate(final URI templateResourceIdentifier) {
+        entries.remove(templateResourceIdentifier);
+    }
+
+    /**
+     * Entfernt alle Template-Dateien aus dem Cache.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Gibt den Abstand zurück, in dem die Dateien im Cache höchstens auf Änderungen geprüft werden.
+     *
+     * @return Abstand zwischen zwei Prüfungen einer Datei.
+     */
+    public Duration getCheckInterval() {
+        return Duration.ofNanos(checkIntervalNanos);
+    }
+
+    /**
+     * Legt fest, in welchem Abstand die Dateien im Cache höchstens auf Änderungen geprüft werden. Bei einem Intervall
+     * von {@link Duration#ZERO} wird die Datei bei jedem Zugriff geprüft.
+     *
+     * @param checkInterval
+     *            Abstand zwischen zwei Prüfungen einer Datei.
+     */
+    public void setCheckInterval(final Duration checkInterval) {
+        this.checkIntervalNanos = checkInterval.toNanos();
+    }
+
+    /**
+     * Prüft einen vorhandenen Eintrag auf Änderungen an der Datei oder liest die Datei neu ein. Die Methode wird
+     * innerhalb von {@link ConcurrentMap#compute} aufgerufen, so dass gleichzeitige Anfragen nach der gleichen Datei
+     * auf das Ergebnis warten, anstatt die Datei erneut zu lesen.
+     *
+     * @param uri
+     *            Absoluter Identifier der Template-Datei.
+     * @param oldEntry
+     *            Bisheriger Eintrag im Cache oder null.
+     * @param errorListener
+     *            Optionaler ErrorListener für die Fehlermeldungen beim Parsen.
+     * @param parseTreeStore
+     *            Optionaler persistenter Speicher für die Syntaxbäume.
+     * @return Gültiger Eintrag für die Datei.
+     */
+    private CacheEntry validateOrLoad(final URI uri, final CacheEntry oldEntry,
+            final ANTLRErrorListener errorListener, final ParseTreeStore parseTreeStore) {
+        final long now = System.nanoTime();
+        if (oldEntry != null && !oldEntry.isCheckDue(now, checkIntervalNanos)) {
+            // wurde bereits von einem anderen Thread geprüft
+            return oldEntry;
+        }
+        try {
+            final FileStamp stamp = FileStamp.of(uri);
+            if (oldEntry != null && stamp != null && stamp.equals(oldEntry.stamp)) {
+                oldEntry.lastChecked = now;
+                return oldEntry;
+            }
+            final byte[] content = readContent(uri);
+            final byte[] hash = hash(content);
+            if (oldEntry != null && Arrays.equals(hash, oldEntry.hash)) {
+                return new CacheEntry(oldEntry.templateFile, stamp, hash, now);
+            }
+            if (oldEntry != null) {
+                LOGGER.info("Template-Datei wurde verändert und wird neu eingelesen: " + uri);
+            }
+            final TemplateFile templateFile = loadParseTree(content, hash, errorListener, parseTreeStore)
+                    .accept(new TemplateFileVisitor(uri));
+            return new CacheEntry(templateFile, stamp, hash, now);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Gibt den Syntaxbaum zum Inhalt einer Template-Datei zurück. Ist ein passender Baum im persistenten Speicher
+     * vorhanden, wird dieser verwendet, ansonsten wird der Inhalt geparst und der Baum im Speicher abgelegt.
+     *
+     * @param content
+     *            Inhalt der Template-Datei.
+     * @param hash
+     *            Prüfsumme über den Inhalt.
+     * @param errorListener
+     *            Optionaler ErrorListener für die Fehlermeldungen beim Parsen.
+     * @param parseTreeStore
+     *            Optionaler persistenter Speicher für die Syntaxbäume.
+     * @return Syntaxbaum der Template-Datei.
+     * @throws IOException
+     *             Falls beim Lesen des Inhalts ein Problem auftritt.
+     */
+    private static TemplateFileContext loadParseTree(final byte[] content, final byte[] hash,
+            final ANTLRErrorListener errorListener, final ParseTreeStore parseTreeStore) throws IOException {
+        final TemplateFileContext storedContext = parseTreeStore == null ? null : parseTreeStore.load(hash);
+        if (storedContext != null) {
+            return storedContext;
+        }
+        try (InputStream input = new ByteArrayInputStream(content)) {
+            final TemplateFileContext context = SimpleTemplateResolver.parseTemplateFileContext(input, errorListener);
+            if (parseTreeStore != null) {
+                parseTreeStore.store(hash, context);
+            }
+            return context;
+        }
+    }
+
+    /**
+     * Liest den vollständigen Inhalt der Datei ein.
+     *
+     * @param uri
+     *            Absoluter Identifier der Datei.
+     * @return Inhalt der Datei.
+     * @throws IOException
+     *             Falls beim Lesen ein Fehler auftritt.
+     */
+    private static byte[] readContent(final URI uri) throws IOException {
+        try (InputStream input = uri.toURL().openStream()) {
+            return input.readAllBytes();
+        }
+    }
+
+    /**
+     * Berechnet die Prüfsumme über den Inhalt einer Datei.
+     *
+     * @param content
+     *            Inhalt der Datei.
+     * @return Prüfsumme über den Inhalt.
+     */
+    private static byte[] hash(final byte[] content) {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM).digest(content);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Der Algorithmus " + DIGEST_ALGORITHM + " wird nicht unterstützt.", e);
+        }
+    }
+
+    /**
+     * Eintrag des Caches zu einer Template-Datei.
+     *
+     * @author Christoph Lembeck
+     */
+    private static final class CacheEntry {
+
+        /**
+         * Gelesene und übersetzte Template-Datei.
+         */
+        private final TemplateFile templateFile;
+
+        /**
+         * Zeitstempel und Größe der Datei beim Einlesen oder null, falls die Quelle keine lokale Datei ist.
+         */
+        private final FileStamp stamp;
+
+        /**
+         * Prüfsumme über den Inhalt der Datei.
+         */
+        private final byte[] hash;
+
+        /**
+         * Zeitpunkt der letzten Prüfung auf Änderungen (siehe {@link System#nanoTime()}).
+         */
+        private volatile long lastChecked;
+
+        /**
+         * Erstellt einen neuen Eintrag.
+         *
+         * @param templateFile
+         *            Gelesene und übersetzte Template-Datei.
+         * @param stamp
+         *            Zeitstempel und Größe der Datei oder null.
+         * @param hash
+         *            Prüfsumme über den Inhalt der Datei.
+         * @param lastChecked
+         *            Zeitpunkt der letzten Prüfung auf Änderungen.
+         */
+        CacheEntry(final TemplateFile templateFile, final FileStamp stamp, final byte[] hash,
+                final long lastChecked) {
+            this.templateFile = templateFile;
+            this.stamp = stamp;
+            this.hash = hash;
+            this.lastChecked = lastChecked;
+        }
+
+        /**
+         * Prüft, ob der Eintrag erneut auf Änderungen an der Datei geprüft werden muss.
+         *
+         * @param now
+         *            Aktueller Zeitpunkt (siehe {@link System#nanoTime()}).
+         * @param checkIntervalNanos
+         *            Abstand zwischen zwei Prüfungen in Nanosekunden.
+         * @return {@code true}, falls die Prüfung fällig ist, sonst {@code false}.
+         */
+        boolean isCheckDue(final long now, final long checkIntervalNanos) {
+            return now - lastChecked >= checkIntervalNanos;
+        }
+    }
+
+    /**
+     * Änderungszeitpunkt und Größe einer lokalen Datei.
+     *
+     * @author Christoph Lembeck
+     */
+    private static final class FileStamp {
+
+        /**
+         * Zeitpunkt der letzten Änderung in Millisekunden.
+         */
+        private final long lastModified;
+
+        /**
+         * Größe der Datei in Bytes.
+         */
+        private final long size;
+
+        /**
+         * Erstellt einen neuen Stempel.
+         *
+         * @param lastModified
+         *            Zeitpunkt der letzten Änderung in Millisekunden.
+         * @param size
+         *            Größe der Datei in Bytes.
+         */
+        private FileStamp(final long lastModified, final long size) {
+            this.lastModified = lastModified;
+            this.size = size;
+        }
+
+        /**
+         * Ermittelt Änderungszeitpunkt und Größe der Datei, falls es sich um eine lokale Datei handelt.
+         *
+         * @param uri
+         *            Absoluter Identifier der Datei.
+         * @return Stempel der Datei oder null, falls die Quelle keine lokale Datei ist.
+         * @throws IOException
+         *             Falls die Attribute der Datei nicht gelesen werden können.
+         */
+        static FileStamp of(final URI uri) throws IOException {
+            if (!"file".equalsIgnoreCase(uri.getScheme())) {
+                return null;
+            }
+            final Path path = Paths.get(uri);
+            final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return new FileStamp(attributes.lastModifiedTime().toMillis(), attributes.size());
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof FileStamp)) {
+                return false;
+            }
+            final FileStamp other = (FileStamp) obj;
+            return lastModified == other.lastModified && size == other.size;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode() {
+            return Objects.hash(lastModified, size);
+        }
+    }
+}
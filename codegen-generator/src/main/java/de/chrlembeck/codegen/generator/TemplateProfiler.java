@@ -0,0 +1,696 @@
+package de.chrlembeck.codegen.generator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import de.chrlembeck.codegen.generator.lang.Executable;
+import de.chrlembeck.codegen.generator.lang.ExecuteStatement;
+import de.chrlembeck.codegen.generator.lang.ExpressionStatement;
+import de.chrlembeck.codegen.generator.lang.ForStatement;
+import de.chrlembeck.codegen.generator.lang.IfStatement;
+import de.chrlembeck.codegen.generator.lang.OutputStatement;
+import de.chrlembeck.codegen.generator.lang.TemplateFile;
+import de.chrlembeck.codegen.generator.lang.TemplateStatement;
+import de.chrlembeck.codegen.generator.lang.UserCode;
+import de.chrlembeck.codegen.generator.output.GeneratorWriter;
+
+/**
+ * Laufzeitprofil eines oder mehrerer Generatorläufe. Ist dem {@link Generator} ein Profiler zugeordnet, protokolliert
+ * die {@link Environment} jeden Eintritt in ein Template, eine Schleife, einen Template-Aufruf oder einen Ausdruck und
+ * erfasst dabei pro Aufrufpfad die Anzahl der Aufrufe, die Gesamt- und Eigenzeit, die Anzahl der ausgegebenen Zeichen
+ * sowie die Anzahl der Fehlzugriffe auf die Caches für die Attribut- und Methodenzugriffe.
+ * <p>
+ * Die Ergebnisse können als Collapsed-Stack-Datei für die Erzeugung von Flame-Graphs
+ * ({@link #writeCollapsedStacks(Path)}) und als JSON-Zusammenfassung pro Element der Template-Dateien
+ * ({@link #writeSummary(Path)}) ausgegeben werden. Ohne Profiler beschränkt sich der Aufwand bei der Generierung auf
+ * eine Prüfung auf null pro ausgeführtem Element. Ein Profiler kann von parallel ausgeführten OUTPUT-Blöcken
+ * gleichzeitig verwendet werden.
+ *
+ * @author Christoph Lembeck
+ * @see Generator#setProfiler(TemplateProfiler)
+ */
+public class TemplateProfiler {
+
+    /**
+     * Wurzel des Aufrufbaums. Die Wurzel selbst steht für kein Element einer Template-Datei.
+     */
+    private final CallNode root = new CallNode(null);
+
+    /**
+     * Erstellt einen Rekorder für die Ausführung in einer neuen Laufzeitumgebung.
+     *
+     * @return Rekorder, dessen Aufrufe direkt unterhalb der Wurzel des Aufrufbaums erfasst werden.
+     */
+    Recorder newRecorder() {
+        return new Recorder(root);
+    }
+
+    /**
+     * Fasst die erfassten Daten pro Element der Template-Dateien zusammen. Bei rekursiven Aufrufen wird die
+     * Gesamtzeit nur für den äußersten Aufruf gezählt.
+     *
+     * @return Zusammenfassung pro Element, absteigend sortiert nach der Eigenzeit.
+     */
+    public List<Entry> getEntries() {
+        final Map<Executable<?>, Entry> entries = new IdentityHashMap<>();
+        final Set<Executable<?>> path = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (final CallNode child : root.children.values()) {
+            collect(child, entries, path);
+        }
+        final List<Entry> result = new ArrayList<>(entries.values());
+        result.sort(Comparator.comparingLong(Entry::getSelfNanos).reversed()
+                .thenComparing(Comparator.comparingLong(Entry::getCalls).reversed()));
+        return result;
+    }
+
+    /**
+     * Sammelt die Daten eines Knotens und seiner Nachfolger im Aufrufbaum.
+     *
+     * @param node
+     *            Aktueller Knoten.
+     * @param entries
+     *            Bisher gesammelte Daten pro Element.
+     * @param path
+     *            Elemente auf dem Pfad von der Wurzel zum aktuellen Knoten.
+     * @return Anzahl der durch den Knoten und seine Nachfolger ausgegebenen Zeichen.
+     */
+    private static long collect(final CallNode node, final Map<Executable<?>, Entry> entries,
+            final Set<Executable<?>> path) {
+        final boolean outermost = path.add(node.executable);
+        long characters = node.selfCharacters.sum();
+        for (final CallNode child : node.children.values()) {
+            characters += collect(child, entries, path);
+        }
+        if (outermost) {
+            path.remove(node.executable);
+        }
+        final Entry entry = entries.computeIfAbsent(node.executable, Entry::new);
+        entry.calls += node.calls.sum();
+        entry.selfNanos += node.selfNanos.sum();
+        entry.selfCharacters += node.selfCharacters.sum();
+        entry.cacheMisses += node.cacheMisses.sum();
+        if (outermost) {
+            entry.totalNanos += node.totalNanos.sum();
+            entry.characters += characters;
+        }
+        return characters;
+    }
+
+    /**
+     * Schreibt die Eigenzeiten aller Aufrufpfade im Collapsed-Stack-Format, wie es z.B. von {@code flamegraph.pl} oder
+     * speedscope verarbeitet wird. Jede Zeile enthält die durch Semikolon getrennten Elemente eines Aufrufpfads gefolgt
+     * von der Eigenzeit des letzten Elements in Nanosekunden.
+     *
+     * @param file
+     *            Zu schreibende Datei.
+     * @throws IOException
+     *             Falls die Datei nicht geschrieben werden kann.
+     */
+    public void writeCollapsedStacks(final Path file) throws IOException {
+        createParentDirectory(file);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writeCollapsedStacks(writer);
+        }
+    }
+
+    /**
+     * Schreibt die Eigenzeiten aller Aufrufpfade im Collapsed-Stack-Format.
+     *
+     * @param writer
+     *            Ziel der Ausgabe.
+     * @throws IOException
+     *             Falls beim Schreiben ein Fehler auftritt.
+     * @see #writeCollapsedStacks(Path)
+     */
+    public void writeCollapsedStacks(final Writer writer) throws IOException {
+        for (final CallNode child : root.children.values()) {
+            writeCollapsedStacks(writer, child, "");
+        }
+    }
+
+    /**
+     * Schreibt die Zeile für einen Knoten und anschließend die Zeilen seiner Nachfolger.
+     *
+     * @param writer
+     *            Ziel der Ausgabe.
+     * @param node
+     *            Aktueller Knoten.
+     * @param prefix
+     *            Aufrufpfad bis zum übergeordneten Knoten.
+     * @throws IOException
+     *             Falls beim Schreiben ein Fehler auftritt.
+     */
+    private static void writeCollapsedStacks(final Writer writer, final CallNode node, final String prefix)
+            throws IOException {
+        final String stack = prefix + label(node.executable).replace(';', ',');
+        final long selfNanos = node.selfNanos.sum();
+        if (selfNanos > 0) {
+            writer.write(stack + " " + selfNanos + "\n");
+        }
+        for (final CallNode child : node.children.values()) {
+            writeCollapsedStacks(writer, child, stack + ";");
+        }
+    }
+
+    /**
+     * Schreibt die Zusammenfassung pro Element der Template-Dateien (siehe {@link #getEntries()}) im JSON-Format.
+     *
+     * @param file
+     *            Zu schreibende Datei.
+     * @throws IOException
+     *             Falls die Datei nicht geschrieben werden kann.
+     */
+    public void writeSummary(final Path file) throws IOException {
+        createParentDirectory(file);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writeSummary(writer);
+        }
+    }
+
+    /**
+     * Schreibt die Zusammenfassung pro Element der Template-Dateien im JSON-Format.
+     *
+     * @param writer
+     *            Ziel der Ausgabe.
+     * @throws IOException
+     *             Falls beim Schreiben ein Fehler auftritt.
+     * @see #writeSummary(Path)
+     */
+    public void writeSummary(final Writer writer) throws IOException {
+        final List<Entry> entries = getEntries();
+        long totalNanos = 0;
+        for (final CallNode child : root.children.values()) {
+            totalNanos += child.totalNanos.sum();
+        }
+        writer.write("{\n  \"totalNanos\": " + totalNanos + ",\n  \"entries\": [");
+        for (int i = 0; i < entries.size(); i++) {
+            final Entry entry = entries.get(i);
+            final Position position = entry.executable.getStartPosition();
+            writer.write(i == 0 ? "\n" : ",\n");
+            writer.write("    {\"label\": " + quote(entry.getLabel()) + ", \"resource\": "
+                    + quote(String.valueOf(resourceIdentifier(entry.executable))) + ", \"line\": "
+                    + position.getLine() + ", \"column\": " + position.getColumn() + ", \"calls\": " + entry.calls
+                    + ", \"totalNanos\": " + entry.totalNanos + ", \"selfNanos\": " + entry.selfNanos
+                    + ", \"characters\": " + entry.characters + ", \"selfCharacters\": " + entry.selfCharacters
+                    + ", \"cacheMisses\": " + entry.cacheMisses + "}");
+        }
+        writer.write(entries.isEmpty() ? "]\n}\n" : "\n  ]\n}\n");
+    }
+
+    /**
+     * Legt das Verzeichnis für die übergebene Datei an, falls es noch nicht existiert.
+     *
+     * @param file
+     *            Zu schreibende Datei.
+     * @throws IOException
+     *             Falls das Verzeichnis nicht angelegt werden kann.
+     */
+    private static void createParentDirectory(final Path file) throws IOException {
+        final Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+    }
+
+    /**
+     * Erzeugt eine lesbare Bezeichnung für ein Element einer Template-Datei, bestehend aus der Art des Elements, dem
+     * Namen der Template-Datei und der Position innerhalb der Datei.
+     *
+     * @param executable
+     *            Zu bezeichnendes Element.
+     * @return Bezeichnung des Elements, z.B. {@code FOREACH table (schema.cg:12:3)}.
+     */
+    static String label(final Executable<?> executable) {
+        final String kind;
+        if (executable instanceof TemplateStatement) {
+            final TemplateStatement template = (TemplateStatement) executable;
+            kind = "TEMPLATE " + template.getName() + " FOR " + template.getType();
+        } else if (executable instanceof ForStatement) {
+            kind = "FOREACH " + ((ForStatement) executable).getVarName();
+        } else if (executable instanceof ExecuteStatement) {
+            kind = "EXECUTE " + ((ExecuteStatement) executable).getTemplateName();
+        } else if (executable instanceof OutputStatement) {
+            kind = "OUTPUT";
+        } else if (executable instanceof IfStatement) {
+            kind = "IF";
+        } else if (executable instanceof ExpressionStatement) {
+            kind = "EXPRESSION";
+        } else if (executable instanceof UserCode) {
+            kind = "TEXT";
+        } else {
+            kind = executable.getClass().getSimpleName();
+        }
+        final URI resourceIdentifier = resourceIdentifier(executable);
+        String fileName = resourceIdentifier == null ? "" : resourceIdentifier.getPath();
+        if (fileName == null) {
+            fileName = resourceIdentifier.toString();
+        }
+        fileName = fileName.substring(fileName.lastIndexOf('/') + 1);
+        return kind + " (" + fileName + ":" + executable.getStartPosition().toShortString() + ")";
+    }
+
+    /**
+     * Gibt den Identifier der Template-Datei zurück, in der das Element enthalten ist.
+     *
+     * @param executable
+     *            Element einer Template-Datei.
+     * @return Identifier der Template-Datei oder null, falls dieser nicht bekannt ist.
+     */
+    private static URI resourceIdentifier(final Executable<?> executable) {
+        final TemplateFile templateFile = executable.getTemplateFile();
+        return templateFile == null ? null : templateFile.getResourceIdentifier();
+    }
+
+    /**
+     * Erzeugt ein JSON-String-Literal aus dem übergebenen Text.
+     *
+     * @param text
+     *            Zu maskierender Text.
+     * @return Text in Anführungszeichen mit maskierten Sonderzeichen.
+     */
+    private static String quote(final String text) {
+        final StringBuilder result = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            final char character = text.charAt(i);
+            if (character == '"' || character == '\\') {
+                result.append('\\').append(character);
+            } else if (character < ' ') {
+                result.append(String.format("\\u%04x", (int) character));
+            } else {
+                result.append(character);
+            }
+        }
+        return result.append('"').toString();
+    }
+
+    /**
+     * Zusammengefasste Laufzeitdaten eines Elements einer Template-Datei.
+     *
+     * @author Christoph Lembeck
+     */
+    public static final class Entry {
+
+        /**
+         * Element der Template-Datei.
+         */
+        private final Executable<?> executable;
+
+        /**
+         * Anzahl der Ausführungen.
+         */
+        private long calls;
+
+        /**
+         * Gesamtzeit aller Ausführungen einschließlich der enthaltenen Elemente in Nanosekunden.
+         */
+        private long totalNanos;
+
+        /**
+         * Zeit der Ausführungen ohne die enthaltenen Elemente in Nanosekunden.
+         */
+        private long selfNanos;
+
+        /**
+         * Anzahl der durch das Element und die enthaltenen Elemente ausgegebenen Zeichen.
+         */
+        private long characters;
+
+        /**
+         * Anzahl der durch das Element selbst ausgegebenen Zeichen.
+         */
+        private long selfCharacters;
+
+        /**
+         * Anzahl der Fehlzugriffe auf die Caches für Attribute und Methoden innerhalb des Elements.
+         */
+        private long cacheMisses;
+
+        /**
+         * Erstellt einen neuen, leeren Eintrag.
+         *
+         * @param executable
+         *            Element der Template-Datei.
+         */
+        private Entry(final Executable<?> executable) {
+            this.executable = executable;
+        }
+
+        /**
+         * Gibt das Element der Template-Datei zurück.
+         *
+         * @return Element der Template-Datei.
+         */
+        public Executable<?> getExecutable() {
+            return executable;
+        }
+
+        /**
+         * Gibt eine lesbare Bezeichnung des Elements zurück.
+         *
+         * @return Bezeichnung des Elements mit Art, Template-Datei und Position.
+         */
+        public String getLabel() {
+            return label(executable);
+        }
+
+        /**
+         * Gibt die Anzahl der Ausführungen zurück.
+         *
+         * @return Anzahl der Ausführungen.
+         */
+        public long getCalls() {
+            return calls;
+        }
+
+        /**
+         * Gibt die Gesamtzeit aller Ausführungen einschließlich der enthaltenen Elemente zurück.
+         *
+         * @return Gesamtzeit in Nanosekunden.
+         */
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        /**
+         * Gibt die Zeit der Ausführungen ohne die enthaltenen Elemente zurück.
+         *
+         * @return Eigenzeit in Nanosekunden.
+         */
+        public long getSelfNanos() {
+            return selfNanos;
+        }
+
+        /**
+         * Gibt die Anzahl der durch das Element und die enthaltenen Elemente ausgegebenen Zeichen zurück.
+         *
+         * @return Anzahl der ausgegebenen Zeichen.
+         */
+        public long getCharacters() {
+            return characters;
+        }
+
+        /**
+         * Gibt die Anzahl der durch das Element selbst ausgegebenen Zeichen zurück.
+         *
+         * @return Anzahl der direkt ausgegebenen Zeichen.
+         */
+        public long getSelfCharacters() {
+            return selfCharacters;
+        }
+
+        /**
+         * Gibt die Anzahl der Fehlzugriffe auf die Caches für Attribute und Methoden zurück, bei denen das Ziel per
+         * Reflection gesucht werden musste.
+         *
+         * @return Anzahl der Cache-Fehlzugriffe.
+         */
+        public long getCacheMisses() {
+            return cacheMisses;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            return getLabel() + ": calls=" + calls + ", totalNanos=" + totalNanos + ", selfNanos=" + selfNanos
+                    + ", characters=" + characters + ", cacheMisses=" + cacheMisses;
+        }
+    }
+
+    /**
+     * Knoten des Aufrufbaums. Jeder Knoten steht für ein Element einer Template-Datei auf einem bestimmten Aufrufpfad.
+     *
+     * @author Christoph Lembeck
+     */
+    private static final class CallNode {
+
+        /**
+         * Element der Template-Datei.
+         */
+        private final Executable<?> executable;
+
+        /**
+         * Nachfolger des Knotens, die aus diesem Element heraus aufgerufen wurden.
+         */
+        private final Map<Executable<?>, CallNode> children = new ConcurrentHashMap<>();
+
+        /**
+         * Anzahl der Ausführungen.
+         */
+        private final LongAdder calls = new LongAdder();
+
+        /**
+         * Gesamtzeit der Ausführungen in Nanosekunden.
+         */
+        private final LongAdder totalNanos = new LongAdder();
+
+        /**
+         * Eigenzeit der Ausführungen in Nanosekunden.
+         */
+        private final LongAdder selfNanos = new LongAdder();
+
+        /**
+         * Anzahl der direkt ausgegebenen Zeichen.
+         */
+        private final LongAdder selfCharacters = new LongAdder();
+
+        /**
+         * Anzahl der Cache-Fehlzugriffe.
+         */
+        private final LongAdder cacheMisses = new LongAdder();
+
+        /**
+         * Erstellt einen neuen Knoten.
+         *
+         * @param executable
+         *            Element der Template-Datei.
+         */
+        CallNode(final Executable<?> executable) {
+            this.executable = executable;
+        }
+
+        /**
+         * Gibt den Nachfolger für das übergebene Element zurück und legt ihn bei Bedarf an.
+         *
+         * @param child
+         *            Aufgerufenes Element.
+         * @return Knoten des Elements unterhalb dieses Knotens.
+         */
+        CallNode child(final Executable<?> child) {
+            final CallNode node = children.get(child);
+            return node == null ? children.computeIfAbsent(child, CallNode::new) : node;
+        }
+    }
+
+    /**
+     * Erfasst die Aufrufe innerhalb einer einzelnen Laufzeitumgebung. Ein Rekorder wird immer nur von einem Thread
+     * verwendet, die gesammelten Daten werden jedoch im gemeinsamen Aufrufbaum des Profilers abgelegt.
+     *
+     * @author Christoph Lembeck
+     */
+    static final class Recorder {
+
+        /**
+         * Knoten, unterhalb dessen die Aufrufe dieses Rekorders erfasst werden.
+         */
+        private final CallNode base;
+
+        /**
+         * Aktuell ausgeführtes Element oder null, falls kein Element aktiv ist.
+         */
+        private Frame top;
+
+        /**
+         * Erstellt einen neuen Rekorder.
+         *
+         * @param base
+         *            Knoten, unterhalb dessen die Aufrufe erfasst werden.
+         */
+        Recorder(final CallNode base) {
+            this.base = base;
+        }
+
+        /**
+         * Erstellt einen Rekorder für eine abgeleitete Laufzeitumgebung, deren Aufrufe unterhalb des aktuell
+         * ausgeführten Elements erfasst werden.
+         *
+         * @return Neuer Rekorder für die Verwendung in einem anderen Thread.
+         */
+        Recorder fork() {
+            return new Recorder(currentNode());
+        }
+
+        /**
+         * Protokolliert den Beginn der Ausführung eines Elements.
+         *
+         * @param executable
+         *            Ausgeführtes Element.
+         */
+        void enter(final Executable<?> executable) {
+            top = new Frame(top, currentNode().child(executable), System.nanoTime());
+        }
+
+        /**
+         * Protokolliert das Ende der Ausführung des zuletzt begonnenen Elements.
+         */
+        void exit() {
+            final Frame frame = top;
+            if (frame == null) {
+                return;
+            }
+            final long elapsed = System.nanoTime() - frame.start;
+            frame.node.calls.increment();
+            frame.node.totalNanos.add(elapsed);
+            frame.node.selfNanos.add(elapsed - frame.childNanos);
+            top = frame.parent;
+            if (top != null) {
+                top.childNanos += elapsed;
+            }
+        }
+
+        /**
+         * Zählt die durch das aktuelle Element ausgegebenen Zeichen.
+         *
+         * @param count
+         *            Anzahl der ausgegebenen Zeichen.
+         */
+        void countCharacters(final int count) {
+            currentNode().selfCharacters.add(count);
+        }
+
+        /**
+         * Zählt einen Fehlzugriff auf die Caches für Attribute und Methoden innerhalb des aktuellen Elements.
+         */
+        void countCacheMiss() {
+            currentNode().cacheMisses.increment();
+        }
+
+        /**
+         * Versieht einen Ausgabekanal mit der Zählung der ausgegebenen Zeichen.
+         *
+         * @param writer
+         *            Ausgabekanal des Generators.
+         * @return Ausgabekanal, der alle Ausgaben an den übergebenen Kanal weiterreicht.
+         */
+        GeneratorWriter countCharacters(final GeneratorWriter writer) {
+            return new CountingWriter(writer, this);
+        }
+
+        /**
+         * Gibt den Knoten des aktuell ausgeführten Elements zurück.
+         *
+         * @return Aktueller Knoten im Aufrufbaum.
+         */
+        private CallNode currentNode() {
+            return top == null ? base : top.node;
+        }
+    }
+
+    /**
+     * Laufzeitdaten einer einzelnen, noch nicht beendeten Ausführung eines Elements.
+     *
+     * @author Christoph Lembeck
+     */
+    private static final class Frame {
+
+        /**
+         * Ausführung des umgebenden Elements.
+         */
+        private final Frame parent;
+
+        /**
+         * Knoten des Elements im Aufrufbaum.
+         */
+        private final CallNode node;
+
+        /**
+         * Beginn der Ausführung.
+         */
+        private final long start;
+
+        /**
+         * Summe der Gesamtzeiten der bereits beendeten, enthaltenen Elemente.
+         */
+        private long childNanos;
+
+        /**
+         * Erstellt die Laufzeitdaten für eine neue Ausführung.
+         *
+         * @param parent
+         *            Ausführung des umgebenden Elements.
+         * @param node
+         *            Knoten des Elements im Aufrufbaum.
+         * @param start
+         *            Beginn der Ausführung.
+         */
+        Frame(final Frame parent, final CallNode node, final long start) {
+            this.parent = parent;
+            this.node = node;
+            this.start = start;
+        }
+    }
+
+    /**
+     * Ausgabekanal, der die ausgegebenen Zeichen dem jeweils ausgeführten Element zuordnet.
+     *
+     * @author Christoph Lembeck
+     */
+    private static final class CountingWriter implements GeneratorWriter {
+
+        /**
+         * Eigentlicher Ausgabekanal.
+         */
+        private final GeneratorWriter writer;
+
+        /**
+         * Rekorder der Laufzeitumgebung, in der der Kanal verwendet wird.
+         */
+        private final Recorder recorder;
+
+        /**
+         * Erstellt einen neuen Ausgabekanal.
+         *
+         * @param writer
+         *            Eigentlicher Ausgabekanal.
+         * @param recorder
+         *            Rekorder der Laufzeitumgebung.
+         */
+        CountingWriter(final GeneratorWriter writer, final Recorder recorder) {
+            this.writer = writer;
+            this.recorder = recorder;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void append(final String text, final Executable<?> sourceExecutable, final int sourceLocation)
+                throws IOException {
+            recorder.countCharacters(text.length());
+            writer.append(text, sourceExecutable, sourceLocation);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package de.chrlembeck.codegen.generator.compiler;
+
+import de.chrlembeck.codegen.generator.lang.StatementBlock;
+
+/**
+ * Ausführbarer Baustein eines übersetzten Templates. Jeder Baustein entsteht aus einem Code-Block oder Statement der
+ * Template-Datei. Die Bausteine für Blöcke sind bereits fest miteinander verknüpft, so dass bei der Ausführung keine
+ * erneute Analyse der Template-Struktur mehr notwendig ist. Die eigentliche Semantik der Statements wird dabei von den
+ * Statements selbst ausgeführt.
+ *
+ * @author Christoph Lembeck
+ * @see TemplateCompiler
+ */
+@FunctionalInterface
+public interface CompiledNode extends StatementBlock {
+}
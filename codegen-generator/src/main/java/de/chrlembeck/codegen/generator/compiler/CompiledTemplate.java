@@ -0,0 +1,79 @@
+package de.chrlembeck.codegen.generator.compiler;
+
+import java.io.IOException;
+
+import de.chrlembeck.codegen.generator.Environment;
+import de.chrlembeck.codegen.generator.Generator;
+import de.chrlembeck.codegen.generator.lang.TemplateStatement;
+
+/**
+ * Übersetzte Form einer Template-Definition. Ein übersetztes Template hat die gleiche Bedeutung wie das
+ * {@link TemplateStatement}, aus dem es erzeugt wurde, kann aber ohne erneutes Durchlaufen der Template-Struktur
+ * ausgeführt werden.
+ *
+ * @author Christoph Lembeck
+ * @see TemplateCompiler#compile(TemplateStatement)
+ */
+public final class CompiledTemplate {
+
+    /**
+     * Template-Definition, aus der dieses Template übersetzt wurde.
+     */
+    private final TemplateStatement templateStatement;
+
+    /**
+     * Übersetzter Inhalt des Templates.
+     */
+    private final CompiledNode body;
+
+    /**
+     * Erstellt ein neues übersetztes Template.
+     *
+     * @param templateStatement
+     *            Template-Definition, aus der dieses Template übersetzt wurde.
+     * @param body
+     *            Übersetzter Inhalt des Templates.
+     */
+    CompiledTemplate(final TemplateStatement templateStatement, final CompiledNode body) {
+        this.templateStatement = templateStatement;
+        this.body = body;
+    }
+
+    /**
+     * Gibt die Template-Definition zurück, aus der dieses Template übersetzt wurde.
+     *
+     * @return Ursprüngliche Template-Definition.
+     */
+    public TemplateStatement getTemplateStatement() {
+        return templateStatement;
+    }
+
+    /**
+     * Wendet das übersetzte Template auf das übergebene Modell an.
+     *
+     * @param generator
+     *            Generator, der die Ausführung angestoßen hat.
+     * @param model
+     *            Modell, das durch das Template verarbeitet werden soll.
+     * @param environment
+     *            Laufzeitumgebung für die Ausführung des Templates.
+     * @throws IOException
+     *             Falls beim Schreiben der Ausgabe ein Fehler auftritt.
+     */
+    public void execute(final Generator generator, final Object model, final Environment environment)
+            throws IOException {
+        environment.pushExecutable(templateStatement);
+        environment.createFrame(templateStatement.getFrameSize());
+        body.execute(generator, model, environment);
+        environment.dropFrame();
+        environment.popExecutable();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "CompiledTemplate[name=" + templateStatement.getName() + ", type=" + templateStatement.getType() + "]";
+    }
+}
@@ -0,0 +1,51 @@
+package de.chrlembeck.codegen.generator.compiler;
+
+import java.io.IOException;
+
+import de.chrlembeck.codegen.generator.Environment;
+import de.chrlembeck.codegen.generator.Generator;
+import de.chrlembeck.codegen.generator.lang.ForStatement;
+
+/**
+ * Übersetzte Form eines {@link ForStatement}s. Die Schleife selbst wird vom Statement ausgeführt, nur der
+ * Schleifenrumpf wird durch seine übersetzte Form ersetzt.
+ *
+ * @author Christoph Lembeck
+ * @see ForStatement#executeLoop(Generator, Object, Environment, de.chrlembeck.codegen.generator.lang.StatementBlock)
+ */
+final class ForNode implements CompiledNode {
+
+    /**
+     * Ursprüngliches Statement aus der Template-Datei.
+     */
+    private final ForStatement statement;
+
+    /**
+     * Übersetzter Schleifenrumpf.
+     */
+    private final CompiledNode loopBody;
+
+    /**
+     * Erstellt die übersetzte Form eines ForStatements.
+     *
+     * @param statement
+     *            Ursprüngliches Statement aus der Template-Datei.
+     * @param loopBody
+     *            Übersetzter Schleifenrumpf.
+     */
+    ForNode(final ForStatement statement, final CompiledNode loopBody) {
+        this.statement = statement;
+        this.loopBody = loopBody;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void execute(final Generator generator, final Object model, final Environment environment)
+            throws IOException {
+        environment.pushExecutable(statement);
+        statement.executeLoop(generator, model, environment, loopBody);
+        environment.popExecutable();
+    }
+}
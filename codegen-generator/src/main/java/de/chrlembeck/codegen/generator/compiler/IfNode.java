@@ -0,0 +1,61 @@
+package de.chrlembeck.codegen.generator.compiler;
+
+import java.io.IOException;
+
+import de.chrlembeck.codegen.generator.Environment;
+import de.chrlembeck.codegen.generator.Generator;
+import de.chrlembeck.codegen.generator.lang.IfStatement;
+
+/**
+ * Übersetzte Form eines {@link IfStatement}s.
+ *
+ * @author Christoph Lembeck
+ */
+final class IfNode implements CompiledNode {
+
+    /**
+     * Ursprüngliches Statement aus der Template-Datei.
+     */
+    private final IfStatement statement;
+
+    /**
+     * Übersetzter if-Block.
+     */
+    private final CompiledNode ifNode;
+
+    /**
+     * Übersetzter else-Block oder null, falls das Statement keinen else-Block besitzt.
+     */
+    private final CompiledNode elseNode;
+
+    /**
+     * Erstellt die übersetzte Form eines IfStatements.
+     *
+     * @param statement
+     *            Ursprüngliches Statement aus der Template-Datei.
+     * @param ifNode
+     *            Übersetzter if-Block.
+     * @param elseNode
+     *            Übersetzter else-Block oder null, falls das Statement keinen else-Block besitzt.
+     */
+    IfNode(final IfStatement statement, final CompiledNode ifNode, final CompiledNode elseNode) {
+        this.statement = statement;
+        this.ifNode = ifNode;
+        this.elseNode = elseNode;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void execute(final Generator generator, final Object model, final Environment environment)
+            throws IOException {
+        environment.pushExecutable(statement);
+        if (statement.isConditionTrue(model, environment)) {
+            ifNode.execute(generator, model, environment);
+        } else if (elseNode != null) {
+            elseNode.execute(generator, model, environment);
+        }
+        environment.popExecutable();
+    }
+}
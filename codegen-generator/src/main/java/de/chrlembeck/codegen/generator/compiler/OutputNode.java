@@ -0,0 +1,52 @@
+package de.chrlembeck.codegen.generator.compiler;
+
+import java.io.IOException;
+
+import de.chrlembeck.codegen.generator.Environment;
+import de.chrlembeck.codegen.generator.Generator;
+import de.chrlembeck.codegen.generator.lang.OutputStatement;
+
+/**
+ * Übersetzte Form eines {@link OutputStatement}s. Der Ausgabekanal wird vom Statement ermittelt und geöffnet, nur der
+ * Inhalt wird durch seine übersetzte Form ersetzt.
+ *
+ * @author Christoph Lembeck
+ * @see OutputStatement#executeOutput(Generator, Object, Environment,
+ *      de.chrlembeck.codegen.generator.lang.StatementBlock)
+ */
+final class OutputNode implements CompiledNode {
+
+    /**
+     * Ursprüngliches Statement aus der Template-Datei.
+     */
+    private final OutputStatement statement;
+
+    /**
+     * Übersetzter Inhalt, der in den Ausgabekanal geschrieben wird.
+     */
+    private final CompiledNode body;
+
+    /**
+     * Erstellt die übersetzte Form eines OutputStatements.
+     *
+     * @param statement
+     *            Ursprüngliches Statement aus der Template-Datei.
+     * @param body
+     *            Übersetzter Inhalt, der in den Ausgabekanal geschrieben wird.
+     */
+    OutputNode(final OutputStatement statement, final CompiledNode body) {
+        this.statement = statement;
+        this.body = body;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void execute(final Generator generator, final Object model, final Environment environment)
+            throws IOException {
+        environment.pushExecutable(statement);
+        statement.executeOutput(generator, model, environment, body);
+        environment.popExecutable();
+    }
+}
@@ -0,0 +1,40 @@
+package de.chrlembeck.codegen.generator.compiler;
+
+import java.io.IOException;
+
+import de.chrlembeck.codegen.generator.Environment;
+import de.chrlembeck.codegen.generator.Generator;
+
+/**
+ * Übersetzte Form einer Liste von Code-Blöcken und Statements, die nacheinander ausgeführt werden.
+ *
+ * @author Christoph Lembeck
+ */
+final class SequenceNode implements CompiledNode {
+
+    /**
+     * Die nacheinander auszuführenden Bausteine.
+     */
+    private final CompiledNode[] nodes;
+
+    /**
+     * Erstellt eine neue Sequenz aus den übergebenen Bausteinen.
+     *
+     * @param nodes
+     *            Die nacheinander auszuführenden Bausteine.
+     */
+    SequenceNode(final CompiledNode[] nodes) {
+        this.nodes = nodes;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void execute(final Generator generator, final Object model, final Environment environment)
+            throws IOException {
+        for (final CompiledNode node : nodes) {
+            node.execute(generator, model, environment);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package de.chrlembeck.codegen.generator.compiler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import de.chrlembeck.codegen.generator.lang.CommentStatement;
+import de.chrlembeck.codegen.generator.lang.ForStatement;
+import de.chrlembeck.codegen.generator.lang.IfStatement;
+import de.chrlembeck.codegen.generator.lang.OutputStatement;
+import de.chrlembeck.codegen.generator.lang.TemplateStatement;
+import de.chrlembeck.codegen.generator.lang.UserCode;
+import de.chrlembeck.codegen.generator.lang.UserCodeOrStatements;
+
+/**
+ * Übersetzt die Template-Definitionen einer Template-Datei in eine direkt ausführbare Form. Anstatt bei jeder
+ * Ausführung erneut die Struktur der Template-Datei zu durchlaufen, werden die Code-Blöcke und Statements einmalig in
+ * miteinander verknüpfte {@link CompiledNode}s überführt. Kommentare werden dabei entfernt und die Blöcke von IF-, FOR-
+ * und OUTPUT-Statements bereits fest mit ihren übersetzten Inhalten verbunden. Die Auswertung der Ausdrücke, die
+ * Schleifen, die Trennzeichen und die Aufrufe anderer Templates übernehmen weiterhin die Statements selbst, so dass
+ * beide Ausführungsarten dieselbe Semantik besitzen.
+ *
+ * <p>
+ * Die übersetzte Form wird an der jeweiligen Template-Definition abgelegt, so dass jedes Template nur einmal übersetzt
+ * und zusammen mit seiner Template-Datei wieder freigegeben wird. Ein Compiler kann daher von mehreren Generatoren
+ * gemeinsam verwendet werden.
+ * </p>
+ *
+ * @author Christoph Lembeck
+ */
+public class TemplateCompiler {
+
+    /**
+     * Baustein, der nichts ausführt. Wird für leere Blöcke verwendet.
+     */
+    private static final CompiledNode EMPTY_NODE = (generator, model, environment) -> {
+        // nothing to do here
+    };
+
+    /**
+     * Gibt die übersetzte Form der übergebenen Template-Definition zurück. Wurde das Template bisher noch nicht
+     * übersetzt, wird dies hier nachgeholt. Werden dieselben Templates gleichzeitig von mehreren Threads übersetzt,
+     * wird eines der gleichwertigen Ergebnisse an der Template-Definition abgelegt.
+     *
+     * @param templateStatement
+     *            Zu übersetzende Template-Definition.
+     * @return Übersetzte Form des Templates.
+     */
+    public CompiledTemplate compile(final TemplateStatement templateStatement) {
+        CompiledTemplate compiledTemplate = templateStatement.getCompiledTemplate();
+        if (compiledTemplate == null) {
+            compiledTemplate = new CompiledTemplate(templateStatement,
+                    compileBlock(templateStatement.getCodeOrStatements()));
+            templateStatement.setCompiledTemplate(compiledTemplate);
+        }
+        return compiledTemplate;
+    }
+
+    /**
+     * Übersetzt eine Liste von Code-Blöcken und Statements in einen einzelnen Baustein.
+     *
+     * @param codeOrStatements
+     *            Zu übersetzende Code-Blöcke und Statements.
+     * @return Baustein, der die übergebenen Elemente nacheinander ausführt.
+     */
+    CompiledNode compileBlock(final List<UserCodeOrStatements<?>> codeOrStatements) {
+        final List<CompiledNode> nodes = new ArrayList<>(codeOrStatements.size());
+        for (final UserCodeOrStatements<?> codeOrStatement : codeOrStatements) {
+            final CompiledNode node = compileElement(codeOrStatement);
+            if (node != null) {
+                nodes.add(node);
+            }
+        }
+        switch (nodes.size()) {
+            case 0:
+                return EMPTY_NODE;
+            case 1:
+                return nodes.get(0);
+            default:
+                return new SequenceNode(nodes.toArray(new CompiledNode[nodes.size()]));
+        }
+    }
+
+    /**
+     * Übersetzt einen einzelnen Code-Block oder ein einzelnes Statement.
+     *
+     * @param codeOrStatement
+     *            Zu übersetzendes Element.
+     * @return Übersetzter Baustein oder null, falls das Element bei der Ausführung keine Wirkung hat.
+     */
+    private CompiledNode compileElement(final UserCodeOrStatements<?> codeOrStatement) {
+        if (codeOrStatement instanceof UserCode) {
+            // Text-Blöcke werden ohne Eintrag auf dem GeneratorStack direkt ausgegeben
+            return ((UserCode) codeOrStatement)::execute;
+        } else if (codeOrStatement instanceof CommentStatement) {
+            return null;
+        } else if (codeOrStatement instanceof IfStatement) {
+            final IfStatement ifStatement = (IfStatement) codeOrStatement;
+            final List<UserCodeOrStatements<?>> elseBlock = ifStatement.getElseBlock();
+            return new IfNode(ifStatement, compileBlock(ifStatement.getIfBlock()),
+                    elseBlock == null ? null : compileBlock(elseBlock));
+        } else if (codeOrStatement instanceof ForStatement) {
+            final ForStatement forStatement = (ForStatement) codeOrStatement;
+            return new ForNode(forStatement, compileBlock(forStatement.getLoopBody()));
+        } else if (codeOrStatement instanceof OutputStatement) {
+            final OutputStatement outputStatement = (OutputStatement) codeOrStatement;
+            return new OutputNode(outputStatement, compileBlock(outputStatement.getCodeOrStatements()));
+        }
+        // Ausdrücke, EXECUTE-Statements und alle übrigen Elemente besitzen keine einzubettenden Blöcke und werden
+        // direkt vom Statement ausgeführt
+        return (generator, model, environment) -> environment.execute(codeOrStatement, generator, model);
+    }
+}
@@ -16,10 +16,23 @@ import de.chrlembeck.codegen.generator.Position;
 public abstract class AbstractTemplateMember<T extends ParserRuleContext> {
 
     /**
-     * Referenz auf den ursprünglich von ANTLR erzeugten Kontext für das vom Parser erkannte Element.
+     * Referenz auf den ursprünglich von ANTLR erzeugten Kontext für das vom Parser erkannte Element. Nach dem
+     * vollständigen Einlesen der Template-Datei wird die Referenz entfernt, damit der Syntaxbaum freigegeben werden
+     * kann.
      */
     private T context;
 
+    /**
+     * Tabelle der Quellpositionen der Template-Datei, in der die Position dieses Elements abgelegt ist.
+     */
+    private SourceTable sourceTable;
+
+    /**
+     * Nummer des Eintrags für dieses Element in der Tabelle der Quellpositionen oder -1, solange die Position noch
+     * nicht in die Tabelle übernommen wurde.
+     */
+    private int sourceLocation = -1;
+
     /**
      * Element, in das dieses Element als Child eingebettet ist.
      */
@@ -36,9 +49,11 @@ public abstract class AbstractTemplateMember<T extends ParserRuleContext> {
     }
 
     /**
-     * Gibt den ursprünglichen ParserRuleContext des ANTLR-Parsers für dieses Element zurück.
+     * Gibt den ursprünglichen ParserRuleContext des ANTLR-Parsers für dieses Element zurück. Der Kontext steht nur
+     * während des Einlesens der Template-Datei zur Verfügung.
      * 
-     * @return ParserRuleContext für dieses Element.
+     * @return ParserRuleContext für dieses Element oder null, nachdem die Template-Datei vollständig eingelesen wurde.
+     * @see #getSourceLocation()
      */
     public T getContext() {
         return context;
@@ -50,7 +65,32 @@ public abstract class AbstractTemplateMember<T extends ParserRuleContext> {
      * @return Position des ersten Zeichens dieses Elements in der Template-Datei.
      */
     public final Position getStartPosition() {
-        return new Position(context.getStart());
+        return context == null ? sourceTable.getPosition(sourceLocation) : new Position(context.getStart());
+    }
+
+    /**
+     * Gibt die Nummer des Eintrags für dieses Element in der Tabelle der Quellpositionen seiner Template-Datei zurück.
+     * 
+     * @return Nummer des Eintrags in {@link TemplateFile#getSourceTable()} oder -1, solange die Template-Datei noch
+     *         nicht vollständig eingelesen wurde.
+     */
+    public int getSourceLocation() {
+        return sourceLocation;
+    }
+
+    /**
+     * Übernimmt die Position dieses Elements in die Tabelle der Quellpositionen und gibt den Kontext des Parsers frei.
+     * 
+     * @param table
+     *            Tabelle der Quellpositionen der Template-Datei.
+     * @param location
+     *            Nummer des Eintrags für dieses Element in der Tabelle.
+     * @see SourceLocationCompactor
+     */
+    void compactSourceLocation(final SourceTable table, final int location) {
+        this.sourceTable = table;
+        this.sourceLocation = location;
+        this.context = null;
     }
 
     /**
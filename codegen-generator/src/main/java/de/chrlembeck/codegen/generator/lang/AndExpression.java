@@ -1,5 +1,8 @@
 package de.chrlembeck.codegen.generator.lang;
 
+import java.util.Arrays;
+import java.util.List;
+
 import de.chrlembeck.codegen.generator.Environment;
 import de.chrlembeck.codegen.generator.GeneratorException;
 import de.chrlembeck.codegen.generator.JavaUtil;
@@ -38,6 +41,28 @@ public class AndExpression extends AbstractExpression<ExpressionAndContext> {
         this.right = right;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Expression> getSubExpressions() {
+        return Arrays.asList(left, right);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void replaceSubExpression(final Expression subExpression, final Expression replacement) {
+        if (left == subExpression) {
+            left = replacement;
+        } else if (right == subExpression) {
+            right = replacement;
+        } else {
+            throw new IllegalArgumentException("Kein direkter Teilausdruck: " + subExpression);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
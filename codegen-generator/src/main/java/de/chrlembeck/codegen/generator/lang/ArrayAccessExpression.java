@@ -1,6 +1,8 @@
 package de.chrlembeck.codegen.generator.lang;
 
 import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.List;
 
 import de.chrlembeck.codegen.generator.Environment;
 import de.chrlembeck.codegen.generator.GeneratorException;
@@ -40,6 +42,28 @@ public class ArrayAccessExpression extends AbstractExpression<ExpressionArrayAcc
         this.index = index;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Expression> getSubExpressions() {
+        return Arrays.asList(arrayRef, index);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void replaceSubExpression(final Expression subExpression, final Expression replacement) {
+        if (arrayRef == subExpression) {
+            arrayRef = replacement;
+        } else if (index == subExpression) {
+            index = replacement;
+        } else {
+            throw new IllegalArgumentException("Kein direkter Teilausdruck: " + subExpression);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
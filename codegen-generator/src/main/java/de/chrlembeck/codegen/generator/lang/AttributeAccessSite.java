@@ -0,0 +1,162 @@
+package de.chrlembeck.codegen.generator.lang;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.chrlembeck.codegen.generator.Environment;
+import de.chrlembeck.codegen.generator.lang.MemberResolver.AttributeTarget;
+
+/**
+ * Inline-Cache für eine einzelne Stelle innerhalb einer Template-Datei, an der ein Attribut gelesen wird. Die
+ * aufgelösten Zugriffe werden pro Klasse des Objekts gespeichert. Treten an der Stelle mehr als einige wenige Klassen
+ * auf, wird auf einen von allen Zugriffsstellen gemeinsam genutzten Cache ausgewichen.
+ *
+ * @author Christoph Lembeck
+ */
+final class AttributeAccessSite {
+
+    /**
+     * Maximale Anzahl von Zielen, die direkt in der Zugriffsstelle gespeichert werden.
+     */
+    private static final int MAX_INLINE_TARGETS = 4;
+
+    /**
+     * Gemeinsamer Cache für Zugriffsstellen, an denen mehr als {@link #MAX_INLINE_TARGETS} unterschiedliche Klassen
+     * auftreten. Die Ziele werden an der Klasse des Objekts abgelegt, so dass sie zusammen mit der Klasse und ihrem
+     * ClassLoader freigegeben werden können.
+     */
+    private static final ClassValue<Map<Key, AttributeTarget>> SHARED_TARGETS = new ClassValue<>() {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected Map<Key, AttributeTarget> computeValue(final Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /**
+     * Name des zu lesenden Attributs.
+     */
+    private final String identifier;
+
+    /**
+     * Bereits aufgelöste Ziele dieser Zugriffsstelle. Das Array wird bei Änderungen komplett ersetzt, so dass es ohne
+     * Synchronisation gelesen werden kann.
+     */
+    private volatile AttributeTarget[] targets = new AttributeTarget[0];
+
+    /**
+     * Erstellt eine neue Zugriffsstelle.
+     *
+     * @param identifier
+     *            Name des zu lesenden Attributs.
+     */
+    AttributeAccessSite(final String identifier) {
+        this.identifier = identifier;
+    }
+
+    /**
+     * Gibt das Ziel für die übergebene Klasse zurück und löst es bei Bedarf auf.
+     *
+     * @param type
+     *            Klasse des Objekts bzw. Klasse des statischen Attributs.
+     * @param staticAccess
+     *            true, falls das Attribut statisch über seine Klasse gelesen wird.
+     * @param environment
+     *            Laufzeitumgebung, in deren Laufzeitprofil Fehlzugriffe gezählt werden, oder null.
+     * @return Aufgelöstes Ziel des Zugriffs.
+     * @throws NoSuchFieldException
+     *             Falls weder ein passendes Feld noch ein passender Getter gefunden werden konnte.
+     */
+    AttributeTarget lookup(final Class<?> type, final boolean staticAccess, final Environment environment)
+            throws NoSuchFieldException {
+        final AttributeTarget[] current = targets;
+        for (final AttributeTarget target : current) {
+            if (target.getReceiverType() == type) {
+                return target;
+            }
+        }
+        if (current.length >= MAX_INLINE_TARGETS) {
+            final Map<Key, AttributeTarget> sharedTargets = SHARED_TARGETS.get(type);
+            final Key key = new Key(identifier, staticAccess);
+            AttributeTarget target = sharedTargets.get(key);
+            if (target == null) {
+                countCacheMiss(environment);
+                target = MemberResolver.resolveAttribute(type, identifier, staticAccess);
+                sharedTargets.putIfAbsent(key, target);
+            }
+            return target;
+        }
+        countCacheMiss(environment);
+        final AttributeTarget target = MemberResolver.resolveAttribute(type, identifier, staticAccess);
+        final AttributeTarget[] extended = Arrays.copyOf(current, current.length + 1);
+        extended[current.length] = target;
+        targets = extended;
+        return target;
+    }
+
+    /**
+     * Zählt einen Fehlzugriff im Laufzeitprofil der übergebenen Umgebung.
+     *
+     * @param environment
+     *            Laufzeitumgebung oder null, falls der Ausdruck außerhalb einer Generierung ausgewertet wird.
+     */
+    private static void countCacheMiss(final Environment environment) {
+        if (environment != null) {
+            environment.countCacheMiss();
+        }
+    }
+
+    /**
+     * Schlüssel für den gemeinsamen Cache der Zugriffsziele.
+     */
+    private static final class Key {
+
+        /**
+         * Name des Attributs.
+         */
+        private final String identifier;
+
+        /**
+         * Art des Zugriffs.
+         */
+        private final boolean staticAccess;
+
+        /**
+         * Erstellt einen neuen Schlüssel.
+         *
+         * @param identifier
+         *            Name des Attributs.
+         * @param staticAccess
+         *            Art des Zugriffs.
+         */
+        Key(final String identifier, final boolean staticAccess) {
+            this.identifier = identifier;
+            this.staticAccess = staticAccess;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode() {
+            return Objects.hash(identifier, staticAccess);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return staticAccess == other.staticAccess && identifier.equals(other.identifier);
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package de.chrlembeck.codegen.generator.lang;
 
-import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import de.chrlembeck.codegen.generator.Environment;
+import de.chrlembeck.codegen.generator.GeneratorException;
+import de.chrlembeck.codegen.generator.lang.MemberResolver.AttributeTarget;
 import de.chrlembeck.codegen.grammar.CodeGenParser.ExpressionAttributeContext;
 
 /**
@@ -30,6 +33,33 @@ public class AttributeExpression extends AbstractExpression<ExpressionAttributeC
      */
     private String identifier;
 
+    /**
+     * Inline-Cache für die an dieser Stelle bereits aufgelösten Attributzugriffe.
+     */
+    private final AttributeAccessSite accessSite;
+
+    /**
+     * Gibt an, ob bereits beim Einlesen der Template-Datei feststeht, ob die Expression eine Klasse oder ein Paket
+     * bezeichnet.
+     */
+    private boolean staticReferenceResolved;
+
+    /**
+     * Klasse, die durch die Expression bezeichnet wird, oder null, falls die Expression ein Paket bezeichnet oder noch
+     * nicht aufgelöst wurde.
+     */
+    private StaticCallSource staticCallSource;
+
+    /**
+     * Bereits beim Laden der Template-Datei anhand des statischen Typs ermitteltes Ziel des Zugriffs oder null.
+     */
+    private AttributeTarget boundTarget;
+
+    /**
+     * Gibt an, ob das gebundene Ziel ein statisches Attribut liest.
+     */
+    private boolean boundStatic;
+
     /**
      * Erstelle eine neue AttributeExpression aus dem Kontext des Parsers.
      * 
@@ -45,6 +75,7 @@ public class AttributeExpression extends AbstractExpression<ExpressionAttributeC
         super(ctx);
         this.expression = expression;
         this.identifier = identifier;
+        this.accessSite = new AttributeAccessSite(identifier);
     }
 
     /**
@@ -73,31 +104,119 @@ public class AttributeExpression extends AbstractExpression<ExpressionAttributeC
         return "AttributeExpression[expression=" + expression + ", identifier=" + identifier + "]";
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Expression> getSubExpressions() {
+        return Collections.singletonList(expression);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void replaceSubExpression(final Expression subExpression, final Expression replacement) {
+        if (expression == subExpression) {
+            expression = replacement;
+        } else {
+            throw new IllegalArgumentException("Kein direkter Teilausdruck: " + subExpression);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public ObjectWithType<?> evaluate(final Object model, final Environment environment) {
-        LOGGER.debug("evaluate(" + toString() + ")");
+        return (ObjectWithType<?>) readAttribute(requireCallSource(model, environment), environment, true);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object evaluateObject(final Object model, final Environment environment) {
+        return readAttribute(requireCallSource(model, environment), environment, false);
+    }
+
+    /**
+     * Ermittelt das Objekt oder die Klasse, aus dem oder der das Attribut gelesen werden soll.
+     * 
+     * @param model
+     *            Aktuelles Modell.
+     * @param environment
+     *            Aktuelle Laufzeitumgebung.
+     * @return Objekt oder Klasse, aus dem oder der gelesen werden soll.
+     */
+    private CallSource requireCallSource(final Object model, final Environment environment) {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("evaluate(" + toString() + ")");
+        }
         final CallSource source = expression.findCallSource(model, environment);
-        Field field;
-        try {
-            if (source instanceof ObjectCallSource) {
-                final Object objectRef = ((ObjectCallSource) source).getObjectRef();
-                field = objectRef.getClass().getField(identifier);
-                @SuppressWarnings({ "unchecked", "rawtypes" })
-                final ObjectWithType<?> result = new ObjectWithType(field.get(objectRef), field.getType());
-                return result;
-
-            } else {
-                field = ((StaticCallSource) source).getClassRef().getField(identifier);
-                @SuppressWarnings({ "unchecked", "rawtypes" })
-                final ObjectWithType<?> result = new ObjectWithType(field.get(null), field.getType()); // static
-                return result;
+        if (source == null) {
+            throw new GeneratorException("Unbekannter Bezeichner '" + expression + "' gefunden.", this, environment);
+        }
+        return source;
+    }
+
+    /**
+     * Liest das Attribut aus dem Objekt oder der Klasse der übergebenen Quelle. Neben öffentlichen Feldern werden auch
+     * Getter nach JavaBean-Konvention unterstützt, so dass z.B. {@code table.columns} zu {@code getColumns()}
+     * aufgelöst wird.
+     * 
+     * @param source
+     *            Objekt oder Klasse, aus dem oder der gelesen werden soll.
+     * @param environment
+     *            Aktuelle Laufzeitumgebung.
+     * @param withType
+     *            Falls true, wird der Wert zusammen mit dem deklarierten Typ des Attributs zurückgegeben, sonst nur der
+     *            Wert selbst.
+     * @return Wert des Attributs, bei {@code withType} als {@link ObjectWithType} mit seinem deklarierten Typ.
+     */
+    private Object readAttribute(final CallSource source, final Environment environment, final boolean withType) {
+        final boolean staticAccess = source instanceof StaticCallSource;
+        final Object objectRef;
+        final Class<?> type;
+        if (staticAccess) {
+            objectRef = null;
+            type = ((StaticCallSource) source).getClassRef();
+        } else {
+            objectRef = ((ObjectCallSource) source).getObjectRef();
+            if (objectRef == null) {
+                throw new GeneratorException("Das Attribut '" + identifier + "' kann nicht aus null gelesen werden.",
+                        this, environment);
             }
-        } catch (NoSuchFieldException | SecurityException | IllegalArgumentException | IllegalAccessException e) {
-            throw new RuntimeException(e);
+            type = objectRef.getClass();
         }
+        final AttributeTarget bound = boundTarget;
+        final AttributeTarget target;
+        if (bound != null && boundStatic == staticAccess && (staticAccess ? bound.getReceiverType() == type
+                : bound.getReceiverType().isInstance(objectRef))) {
+            target = bound;
+        } else {
+            try {
+                target = accessSite.lookup(type, staticAccess, environment);
+            } catch (final NoSuchFieldException e) {
+                throw new GeneratorException("Das Attribut '" + identifier + "' wurde in der Klasse "
+                        + type.getName() + " nicht gefunden.", this, environment, e);
+            }
+        }
+        final Object value;
+        try {
+            value = target.read(objectRef);
+        } catch (final RuntimeException | Error e) {
+            throw e;
+        } catch (final Throwable t) {
+            throw new GeneratorException("Fehler beim Lesen des Attributs '" + identifier + "'.", this, environment,
+                    t);
+        }
+        if (!withType) {
+            return value;
+        }
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        final ObjectWithType<?> result = new ObjectWithType(value, target.getType());
+        return result;
     }
 
     /**
@@ -105,19 +224,33 @@ public class AttributeExpression extends AbstractExpression<ExpressionAttributeC
      */
     @Override
     public CallSource findCallSource(final Object model, final Environment environment) {
+        if (staticReferenceResolved) {
+            return staticCallSource;
+        }
         final CallSource source = expression.findCallSource(model, environment);
         if (source != null) {
-            Field field;
-            try {
-                field = source.getClass().getField(identifier);
-                @SuppressWarnings({ "rawtypes", "unchecked" })
-                final ObjectWithType<?> objectWithType = new ObjectWithType(field.get(source), field.getType());
-                return new ObjectCallSource(objectWithType);
-            } catch (NoSuchFieldException | SecurityException | IllegalArgumentException | IllegalAccessException e) {
-                throw new RuntimeException(e);
-            }
+            return new ObjectCallSource((ObjectWithType<?>) readAttribute(source, environment, true));
         }
         // falls source null, dann könnte es ein statischer Aufruf sein...
+        final String fqn = getQualifiedName();
+        try {
+            LOGGER.debug("Searching for class '" + fqn + "'.");
+            final Class<?> classRef = Class.forName(fqn);
+            return new StaticCallSource(classRef);
+        } catch (final ClassNotFoundException e) {
+            // noch nichts gefunden. - Vielleicht wird in der Instanz darüber etwas gefunden (java.time ->
+            // java.time.LocalDate)
+            return null;
+        }
+    }
+
+    /**
+     * Setzt den vollqualifizierten Namen aus den Bezeichnern der Expression zusammen, wie er für die Suche nach einer
+     * Klasse verwendet wird.
+     * 
+     * @return Durch Punkte getrennte Bezeichner der Expression.
+     */
+    private String getQualifiedName() {
         String fqn = identifier;
         Expression tmp = expression;
         while (tmp instanceof AttributeExpression) {
@@ -128,14 +261,67 @@ public class AttributeExpression extends AbstractExpression<ExpressionAttributeC
         if (tmp instanceof Identifier) {
             fqn = ((Identifier) tmp).getName() + "." + fqn;
         }
-        try {
-            LOGGER.debug("Searching for class '" + fqn + "'.");
-            final Class<?> classRef = Class.forName(fqn);
-            return new StaticCallSource(classRef);
-        } catch (final ClassNotFoundException e) {
-            // noch nichts gefunden. - Vielleicht wird in der Instanz darüber etwas gefunden (java.time ->
-            // java.time.LocalDate)
-            return null;
+        return fqn;
+    }
+
+    /**
+     * Löst vorab auf, ob die Expression eine Klasse bezeichnet. Dies ist immer dann möglich, wenn die Expression aus
+     * einer Folge von Bezeichnern besteht, deren erster keine Variable ist und deren übrige Bezeichner ein Paket
+     * bezeichnen. Die Klasse muss dann nicht bei jeder Auswertung erneut über {@link Class#forName(String)} gesucht
+     * werden. Die innere Expression muss vor dieser Expression aufgelöst werden und die Variablen der Template-Datei
+     * müssen bereits durch den {@link VariableResolver} zugeordnet worden sein.
+     * 
+     * @return Klasse, die durch die Expression bezeichnet wird, oder null, falls die Expression keine Klasse
+     *         bezeichnet.
+     * @see TemplateOptimizer
+     */
+    StaticCallSource resolveStaticReference() {
+        if (staticReferenceResolved) {
+            return staticCallSource;
+        }
+        final boolean qualifiedName;
+        if (expression instanceof Identifier) {
+            qualifiedName = ((Identifier) expression).getSlot() < 0;
+        } else if (expression instanceof AttributeExpression) {
+            final AttributeExpression inner = (AttributeExpression) expression;
+            qualifiedName = inner.staticReferenceResolved && inner.staticCallSource == null;
+        } else {
+            qualifiedName = false;
+        }
+        if (qualifiedName) {
+            try {
+                staticCallSource = new StaticCallSource(Class.forName(getQualifiedName()));
+            } catch (final ClassNotFoundException e) {
+                // die Expression bezeichnet ein Paket
+                staticCallSource = null;
+            }
+            staticReferenceResolved = true;
         }
+        return staticCallSource;
+    }
+
+    /**
+     * Bindet den Zugriff an das anhand des statischen Typs ermittelte Ziel. Bei der Auswertung wird das Ziel ohne
+     * weitere Suche verwendet, solange das Objekt eine Instanz der Klasse ist, für die das Ziel ermittelt wurde.
+     * Andernfalls wird wie bisher über den Inline-Cache der Zugriffsstelle gesucht.
+     * 
+     * @param target
+     *            Ziel des Zugriffs.
+     * @param staticAccess
+     *            true, falls das Attribut statisch über seine Klasse gelesen wird.
+     * @see TemplateTypeChecker
+     */
+    void bind(final AttributeTarget target, final boolean staticAccess) {
+        this.boundTarget = target;
+        this.boundStatic = staticAccess;
+    }
+
+    /**
+     * Gibt das beim Laden der Template-Datei gebundene Ziel des Zugriffs zurück.
+     * 
+     * @return Gebundenes Ziel oder null, falls der Zugriff nicht gebunden werden konnte.
+     */
+    AttributeTarget getBoundTarget() {
+        return boundTarget;
     }
-}
\ No newline at end of file
+}
@@ -49,6 +49,22 @@ public final class BooleanLiteral extends AbstractExpression<LiteralContext> imp
      */
     @Override
     public ObjectWithType<Boolean> evaluate(final Object model, final Environment environment) {
-        return new ObjectWithType<Boolean>(value, boolean.class);
+        return ObjectWithType.ofBoolean(value.booleanValue());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Class<?> getStaticType() {
+        return boolean.class;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean evaluateBoolean(final Object model, final Environment environment) {
+        return value.booleanValue();
     }
 }
\ No newline at end of file
@@ -1,5 +1,8 @@
 package de.chrlembeck.codegen.generator.lang;
 
+import java.util.Collections;
+import java.util.List;
+
 import de.chrlembeck.codegen.generator.Environment;
 import de.chrlembeck.codegen.generator.GeneratorException;
 import de.chrlembeck.codegen.generator.JavaUtil;
@@ -23,6 +26,13 @@ public class CastExpression extends AbstractExpression<ExpressionCastContext> {
      */
     private Expression expression;
 
+    /**
+     * Zieltyp des Casts, falls es sich um einen der Typen int, long oder double handelt und der Operand ebenfalls einen
+     * dieser statischen Typen besitzt, so dass die Umwandlung ohne Verpacken der Werte erfolgen kann, sonst
+     * {@code null}.
+     */
+    private final Class<?> staticType;
+
     /**
      * Erstellt ein neues Cast-Objekt mit den Werten, die der Parser ermittelt hat.
      * 
@@ -38,6 +48,38 @@ public class CastExpression extends AbstractExpression<ExpressionCastContext> {
         super(ctx);
         this.destinationType = newType;
         this.expression = expression;
+        final Class<?> type = newType instanceof PrimitiveType ? ((PrimitiveType) newType).getClassRef() : null;
+        this.staticType = JavaUtil.isSpecializedNumericType(type)
+                && JavaUtil.isSpecializedNumericType(expression.getStaticType()) ? type : null;
+    }
+
+    /**
+     * Gibt den Typ zurück, in den der Ausdruck konvertiert werden soll.
+     *
+     * @return Zieltyp der Konvertierung.
+     */
+    public ClassOrPrimitiveType getDestinationType() {
+        return destinationType;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Expression> getSubExpressions() {
+        return Collections.singletonList(expression);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void replaceSubExpression(final Expression subExpression, final Expression replacement) {
+        if (expression == subExpression) {
+            expression = replacement;
+        } else {
+            throw new IllegalArgumentException("Kein direkter Teilausdruck: " + subExpression);
+        }
     }
 
     /**
@@ -45,6 +87,13 @@ public class CastExpression extends AbstractExpression<ExpressionCastContext> {
      */
     @Override
     public ObjectWithType<?> evaluate(final Object model, final Environment environment) {
+        if (staticType == int.class) {
+            return ObjectWithType.ofInt(evaluateInt(model, environment));
+        } else if (staticType == long.class) {
+            return ObjectWithType.ofLong(evaluateLong(model, environment));
+        } else if (staticType == double.class) {
+            return ObjectWithType.ofDouble(evaluateDouble(model, environment));
+        }
         final Class<?> type;
         try {
             type = destinationType.getClassRef();
@@ -97,4 +146,51 @@ public class CastExpression extends AbstractExpression<ExpressionCastContext> {
             return result;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Class<?> getStaticType() {
+        return staticType;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int evaluateInt(final Object model, final Environment environment) {
+        if (staticType == int.class) {
+            final Class<?> operandType = expression.getStaticType();
+            if (operandType == double.class) {
+                return (int) expression.evaluateDouble(model, environment);
+            }
+            return operandType == long.class ? (int) expression.evaluateLong(model, environment)
+                    : expression.evaluateInt(model, environment);
+        }
+        return JavaUtil.toInt(evaluate(model, environment));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long evaluateLong(final Object model, final Environment environment) {
+        if (staticType == long.class) {
+            return expression.getStaticType() == double.class ? (long) expression.evaluateDouble(model, environment)
+                    : expression.evaluateLong(model, environment);
+        }
+        return JavaUtil.evaluateLong(this, model, environment);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double evaluateDouble(final Object model, final Environment environment) {
+        if (staticType == double.class) {
+            return expression.evaluateDouble(model, environment);
+        }
+        return JavaUtil.evaluateDouble(this, model, environment);
+    }
+}
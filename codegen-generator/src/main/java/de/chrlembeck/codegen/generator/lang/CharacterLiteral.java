@@ -85,6 +85,14 @@ public class CharacterLiteral extends AbstractExpression<LiteralContext> impleme
         return new ObjectWithType<Character>(Character.valueOf(character), char.class);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Class<?> getStaticType() {
+        return char.class;
+    }
+
     /**
      * Gibt den enthaltenen char zurück.
      * 
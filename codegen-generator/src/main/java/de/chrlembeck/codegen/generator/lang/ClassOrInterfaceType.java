@@ -22,6 +22,11 @@ public class ClassOrInterfaceType extends AbstractTemplateMember<TypeClassOrInte
      */
     private String className;
 
+    /**
+     * Bereits ermittelte Klasse zu diesem Typ oder null, falls die Klasse noch nicht gesucht wurde.
+     */
+    private volatile Class<?> classRef;
+
     /**
      * Erstellt ein neuen Repräsentanten für einen Klassen- Interface oder Array-Typen.
      * 
@@ -43,13 +48,16 @@ public class ClassOrInterfaceType extends AbstractTemplateMember<TypeClassOrInte
      */
     @Override
     public Class<?> getClassRef() throws ClassNotFoundException {
-        Class<?> classRef;
-        classRef = Class.forName(className);
-        for (int i = 0; i < arrayDim; i++) {
-            final Object array = Array.newInstance(classRef, 0);
-            classRef = array.getClass();
+        Class<?> result = classRef;
+        if (result == null) {
+            result = Class.forName(className);
+            for (int i = 0; i < arrayDim; i++) {
+                final Object array = Array.newInstance(result, 0);
+                result = array.getClass();
+            }
+            classRef = result;
         }
-        return classRef;
+        return result;
     }
 
     /**
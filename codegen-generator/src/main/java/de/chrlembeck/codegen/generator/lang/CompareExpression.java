@@ -1,5 +1,8 @@
 package de.chrlembeck.codegen.generator.lang;
 
+import java.util.Arrays;
+import java.util.List;
+
 import de.chrlembeck.codegen.generator.Environment;
 import de.chrlembeck.codegen.generator.JavaUtil;
 import de.chrlembeck.codegen.grammar.CodeGenParser.ExpressionCompareContext;
@@ -43,72 +46,124 @@ public class CompareExpression extends AbstractExpression<ExpressionCompareConte
          */
         @Override
         public ObjectWithType<Boolean> apply(final int leftOperand, final int rightOperand) {
+            return ObjectWithType.ofBoolean(test(leftOperand, rightOperand));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public ObjectWithType<Boolean> apply(final float leftOperand, final float rightOperand) {
+            return ObjectWithType.ofBoolean(test(leftOperand, rightOperand));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public ObjectWithType<Boolean> apply(final long leftOperand, final long rightOperand) {
+            return ObjectWithType.ofBoolean(test(leftOperand, rightOperand));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public ObjectWithType<Boolean> apply(final double leftOperand, final double rightOperand) {
+            return ObjectWithType.ofBoolean(test(leftOperand, rightOperand));
+        }
+
+        /**
+         * Führt den Vergleich auf zwei int-Werten aus, ohne das Ergebnis zu verpacken.
+         * 
+         * @param leftOperand
+         *            Erster Operand des Vergleichs.
+         * @param rightOperand
+         *            Zweiter Operand des Vergleichs.
+         * @return Ergebnis des Vergleichs.
+         */
+        public boolean test(final int leftOperand, final int rightOperand) {
             switch (this) {
                 case LESS_THAN:
-                    return new ObjectWithType<Boolean>(leftOperand < rightOperand, boolean.class);
+                    return leftOperand < rightOperand;
                 case LESS_OR_EQUAL:
-                    return new ObjectWithType<Boolean>(leftOperand <= rightOperand, boolean.class);
+                    return leftOperand <= rightOperand;
                 case GREATER_OR_EQUAL:
-                    return new ObjectWithType<Boolean>(leftOperand >= rightOperand, boolean.class);
+                    return leftOperand >= rightOperand;
                 case GREATER_THAN:
-                    return new ObjectWithType<Boolean>(leftOperand > rightOperand, boolean.class);
+                    return leftOperand > rightOperand;
                 default:
                     throw new IllegalStateException("unexpected operator: " + this);
             }
         }
 
         /**
-         * {@inheritDoc}
+         * Führt den Vergleich auf zwei long-Werten aus, ohne das Ergebnis zu verpacken.
+         * 
+         * @param leftOperand
+         *            Erster Operand des Vergleichs.
+         * @param rightOperand
+         *            Zweiter Operand des Vergleichs.
+         * @return Ergebnis des Vergleichs.
          */
-        @Override
-        public ObjectWithType<Boolean> apply(final float leftOperand, final float rightOperand) {
+        public boolean test(final long leftOperand, final long rightOperand) {
             switch (this) {
                 case LESS_THAN:
-                    return new ObjectWithType<Boolean>(leftOperand < rightOperand, boolean.class);
+                    return leftOperand < rightOperand;
                 case LESS_OR_EQUAL:
-                    return new ObjectWithType<Boolean>(leftOperand <= rightOperand, boolean.class);
+                    return leftOperand <= rightOperand;
                 case GREATER_OR_EQUAL:
-                    return new ObjectWithType<Boolean>(leftOperand >= rightOperand, boolean.class);
+                    return leftOperand >= rightOperand;
                 case GREATER_THAN:
-                    return new ObjectWithType<Boolean>(leftOperand > rightOperand, boolean.class);
+                    return leftOperand > rightOperand;
                 default:
                     throw new IllegalStateException("unexpected operator: " + this);
             }
         }
 
         /**
-         * {@inheritDoc}
+         * Führt den Vergleich auf zwei float-Werten aus, ohne das Ergebnis zu verpacken.
+         * 
+         * @param leftOperand
+         *            Erster Operand des Vergleichs.
+         * @param rightOperand
+         *            Zweiter Operand des Vergleichs.
+         * @return Ergebnis des Vergleichs.
          */
-        @Override
-        public ObjectWithType<Boolean> apply(final long leftOperand, final long rightOperand) {
+        public boolean test(final float leftOperand, final float rightOperand) {
             switch (this) {
                 case LESS_THAN:
-                    return new ObjectWithType<Boolean>(leftOperand < rightOperand, boolean.class);
+                    return leftOperand < rightOperand;
                 case LESS_OR_EQUAL:
-                    return new ObjectWithType<Boolean>(leftOperand <= rightOperand, boolean.class);
+                    return leftOperand <= rightOperand;
                 case GREATER_OR_EQUAL:
-                    return new ObjectWithType<Boolean>(leftOperand >= rightOperand, boolean.class);
+                    return leftOperand >= rightOperand;
                 case GREATER_THAN:
-                    return new ObjectWithType<Boolean>(leftOperand > rightOperand, boolean.class);
+                    return leftOperand > rightOperand;
                 default:
                     throw new IllegalStateException("unexpected operator: " + this);
             }
         }
 
         /**
-         * {@inheritDoc}
+         * Führt den Vergleich auf zwei double-Werten aus, ohne das Ergebnis zu verpacken.
+         * 
+         * @param leftOperand
+         *            Erster Operand des Vergleichs.
+         * @param rightOperand
+         *            Zweiter Operand des Vergleichs.
+         * @return Ergebnis des Vergleichs.
          */
-        @Override
-        public ObjectWithType<Boolean> apply(final double leftOperand, final double rightOperand) {
+        public boolean test(final double leftOperand, final double rightOperand) {
             switch (this) {
                 case LESS_THAN:
-                    return new ObjectWithType<Boolean>(leftOperand < rightOperand, boolean.class);
+                    return leftOperand < rightOperand;
                 case LESS_OR_EQUAL:
-                    return new ObjectWithType<Boolean>(leftOperand <= rightOperand, boolean.class);
+                    return leftOperand <= rightOperand;
                 case GREATER_OR_EQUAL:
-                    return new ObjectWithType<Boolean>(leftOperand >= rightOperand, boolean.class);
+                    return leftOperand >= rightOperand;
                 case GREATER_THAN:
-                    return new ObjectWithType<Boolean>(leftOperand > rightOperand, boolean.class);
+                    return leftOperand > rightOperand;
                 default:
                     throw new IllegalStateException("unexpected operator: " + this);
             }
@@ -130,6 +185,11 @@ public class CompareExpression extends AbstractExpression<ExpressionCompareConte
      */
     private Expression right;
 
+    /**
+     * Gemeinsamer statischer Typ der beiden Operanden, soweit er sich aus ihren Typen ableiten lässt.
+     */
+    private final Class<?> operandType;
+
     /**
      * Erzeugt eine neue CompareExpression mit den übergebenen Werten.
      * 
@@ -148,6 +208,29 @@ public class CompareExpression extends AbstractExpression<ExpressionCompareConte
         this.left = left;
         this.right = right;
         this.operator = operator;
+        this.operandType = JavaUtil.getStaticPromotionType(left.getStaticType(), right.getStaticType());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Expression> getSubExpressions() {
+        return Arrays.asList(left, right);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void replaceSubExpression(final Expression subExpression, final Expression replacement) {
+        if (left == subExpression) {
+            left = replacement;
+        } else if (right == subExpression) {
+            right = replacement;
+        } else {
+            throw new IllegalArgumentException("Kein direkter Teilausdruck: " + subExpression);
+        }
     }
 
     /**
@@ -155,6 +238,9 @@ public class CompareExpression extends AbstractExpression<ExpressionCompareConte
      */
     @Override
     public ObjectWithType<?> evaluate(final Object model, final Environment environment) {
+        if (operandType != null) {
+            return ObjectWithType.ofBoolean(evaluateBoolean(model, environment));
+        }
         final ObjectWithType<?> leftObj = JavaUtil.unaryNumericPromotion(left.evaluate(model, environment));
         final Class<?> leftType = leftObj.getType();
         if (!JavaUtil.isNumberType(leftType)) {
@@ -170,4 +256,28 @@ public class CompareExpression extends AbstractExpression<ExpressionCompareConte
 
         return JavaUtil.applyBinaryOperation(leftObj, rightObj, operator);
     }
-}
\ No newline at end of file
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Class<?> getStaticType() {
+        return boolean.class;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean evaluateBoolean(final Object model, final Environment environment) {
+        if (operandType == int.class) {
+            return operator.test(left.evaluateInt(model, environment), right.evaluateInt(model, environment));
+        } else if (operandType == long.class) {
+            return operator.test(left.evaluateLong(model, environment), right.evaluateLong(model, environment));
+        } else if (operandType == double.class) {
+            return operator.test(left.evaluateDouble(model, environment),
+                    right.evaluateDouble(model, environment));
+        }
+        return ((Boolean) evaluate(model, environment).getObject()).booleanValue();
+    }
+}
@@ -1,5 +1,8 @@
 package de.chrlembeck.codegen.generator.lang;
 
+import java.util.Arrays;
+import java.util.List;
+
 import de.chrlembeck.codegen.generator.Environment;
 import de.chrlembeck.codegen.generator.GeneratorException;
 import de.chrlembeck.codegen.generator.JavaUtil;
@@ -50,22 +53,108 @@ public class ConditionalExpression extends AbstractExpression<ExpressionConditio
         this.elseExpression = elseExpression;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Expression> getSubExpressions() {
+        return Arrays.asList(condition, ifExpression, elseExpression);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void replaceSubExpression(final Expression subExpression, final Expression replacement) {
+        if (condition == subExpression) {
+            condition = replacement;
+        } else if (ifExpression == subExpression) {
+            ifExpression = replacement;
+        } else if (elseExpression == subExpression) {
+            elseExpression = replacement;
+        } else {
+            throw new IllegalArgumentException("Kein direkter Teilausdruck: " + subExpression);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public ObjectWithType<?> evaluate(final Object model, final Environment environment) {
+        // TODO Typen der beiden Ausdrücke auf Gleichheit prüfen und ggf. casten
+        if (isConditionTrue(model, environment)) {
+            return ifExpression.evaluate(model, environment);
+        } else {
+            return elseExpression.evaluate(model, environment);
+        }
+    }
+
+    /**
+     * Wertet die Bedingung aus. Besitzt die Bedingung den statischen Typ {@code boolean}, wird sie ohne Verpacken des
+     * Ergebnisses ausgewertet.
+     * 
+     * @param model
+     *            Modell, welches bei der Generierung verwendet werden soll.
+     * @param environment
+     *            Aktuelle Ausführungsumgebung.
+     * @return {@code true}, falls der if-Ausdruck ausgewertet werden soll, {@code false} für den else-Ausdruck.
+     */
+    private boolean isConditionTrue(final Object model, final Environment environment) {
+        if (condition.getStaticType() == boolean.class) {
+            return condition.evaluateBoolean(model, environment);
+        }
         final ObjectWithType<?> cond = condition.evaluate(model, environment);
         if (!JavaUtil.isBooleanType(cond.getType())) {
             throw new GeneratorException(
                     "Der conditional-Operator (b?e1:e1) benötigt ein boolean-Wert als ersten Operanden: " + cond,
                     this, environment);
         }
-        // TODO Typen der beiden Ausdrücke auf Gleichheit prüfen und ggf. casten
-        if (((Boolean) cond.getObject()).booleanValue()) {
-            return ifExpression.evaluate(model, environment);
-        } else {
-            return elseExpression.evaluate(model, environment);
-        }
+        return ((Boolean) cond.getObject()).booleanValue();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Class<?> getStaticType() {
+        final Class<?> type = ifExpression.getStaticType();
+        return type != null && type == elseExpression.getStaticType() ? type : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int evaluateInt(final Object model, final Environment environment) {
+        return isConditionTrue(model, environment) ? ifExpression.evaluateInt(model, environment)
+                : elseExpression.evaluateInt(model, environment);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long evaluateLong(final Object model, final Environment environment) {
+        return isConditionTrue(model, environment) ? ifExpression.evaluateLong(model, environment)
+                : elseExpression.evaluateLong(model, environment);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double evaluateDouble(final Object model, final Environment environment) {
+        return isConditionTrue(model, environment) ? ifExpression.evaluateDouble(model, environment)
+                : elseExpression.evaluateDouble(model, environment);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean evaluateBoolean(final Object model, final Environment environment) {
+        return isConditionTrue(model, environment) ? ifExpression.evaluateBoolean(model, environment)
+                : elseExpression.evaluateBoolean(model, environment);
     }
 }
\ No newline at end of file
@@ -1,5 +1,8 @@
 package de.chrlembeck.codegen.generator.lang;
 
+import java.util.Arrays;
+import java.util.List;
+
 import de.chrlembeck.codegen.generator.Environment;
 import de.chrlembeck.codegen.generator.GeneratorException;
 import de.chrlembeck.codegen.generator.JavaUtil;
@@ -22,6 +25,12 @@ public class ConditionalOrExpression extends AbstractExpression<ExpressionCondit
      */
     private Expression right;
 
+    /**
+     * Kennzeichnet, ob beide Operanden den statischen Typ boolean besitzen und der Ausdruck ohne Verpacken der
+     * Zwischenergebnisse ausgewertet werden kann.
+     */
+    private final boolean specialized;
+
     /**
      * Erzeugt eine neue ConditionalOrExpression mit den übergebenen Werten.
      * 
@@ -37,6 +46,29 @@ public class ConditionalOrExpression extends AbstractExpression<ExpressionCondit
         super(ctx);
         this.left = left;
         this.right = right;
+        this.specialized = left.getStaticType() == boolean.class && right.getStaticType() == boolean.class;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Expression> getSubExpressions() {
+        return Arrays.asList(left, right);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void replaceSubExpression(final Expression subExpression, final Expression replacement) {
+        if (left == subExpression) {
+            left = replacement;
+        } else if (right == subExpression) {
+            right = replacement;
+        } else {
+            throw new IllegalArgumentException("Kein direkter Teilausdruck: " + subExpression);
+        }
     }
 
     /**
@@ -44,6 +76,9 @@ public class ConditionalOrExpression extends AbstractExpression<ExpressionCondit
      */
     @Override
     public ObjectWithType<?> evaluate(final Object model, final Environment environment) {
+        if (specialized) {
+            return ObjectWithType.ofBoolean(evaluateBoolean(model, environment));
+        }
         final ObjectWithType<?> leftObj = left.evaluate(model, environment);
         if (!JavaUtil.isBooleanType(leftObj.getType())) {
             throw new GeneratorException("Der bedingte Oder-Operator (||) kann nur auf booleans angewandt werden. ("
@@ -59,4 +94,23 @@ public class ConditionalOrExpression extends AbstractExpression<ExpressionCondit
         }
         return rightObj;
     }
-}
\ No newline at end of file
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Class<?> getStaticType() {
+        return specialized ? boolean.class : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean evaluateBoolean(final Object model, final Environment environment) {
+        if (specialized) {
+            return left.evaluateBoolean(model, environment) || right.evaluateBoolean(model, environment);
+        }
+        return ((Boolean) evaluate(model, environment).getObject()).booleanValue();
+    }
+}
@@ -0,0 +1,73 @@
+package de.chrlembeck.codegen.generator.lang;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+
+import de.chrlembeck.codegen.generator.Environment;
+
+/**
+ * Ausdruck, dessen Wert bereits beim Einlesen der Template-Datei berechnet wurde. Der {@link TemplateOptimizer} ersetzt
+ * konstante Teilausdrücke wie {@code 60 * 60 * 24} oder {@code java.lang.Integer.MAX_VALUE} durch eine
+ * ConstantExpression, so dass bei der Generierung nur noch das vorab berechnete Ergebnis zurückgegeben werden muss.
+ * Der ursprüngliche Ausdruck bleibt für Fehlermeldungen und die Zuordnung zur Template-Datei erhalten.
+ *
+ * @author Christoph Lembeck
+ */
+public class ConstantExpression extends AbstractExpression<ParserRuleContext> {
+
+    /**
+     * Ursprünglicher Ausdruck aus der Template-Datei.
+     */
+    private final Expression original;
+
+    /**
+     * Vorab berechneter Wert des Ausdrucks.
+     */
+    private final ObjectWithType<?> value;
+
+    /**
+     * Erstellt eine neue Konstante für den übergebenen Ausdruck.
+     *
+     * @param original
+     *            Ursprünglicher Ausdruck aus der Template-Datei.
+     * @param value
+     *            Vorab berechneter Wert des Ausdrucks.
+     */
+    public ConstantExpression(final Expression original, final ObjectWithType<?> value) {
+        super(original.getContext());
+        this.original = original;
+        this.value = value;
+    }
+
+    /**
+     * Gibt den ursprünglichen Ausdruck aus der Template-Datei zurück.
+     *
+     * @return Ausdruck, dessen Wert durch diese Konstante repräsentiert wird.
+     */
+    public Expression getOriginal() {
+        return original;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ObjectWithType<?> evaluate(final Object model, final Environment environment) {
+        return value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Class<?> getStaticType() {
+        return value.getType();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return original.toString();
+    }
+}
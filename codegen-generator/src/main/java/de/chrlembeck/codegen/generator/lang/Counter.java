@@ -34,12 +34,36 @@ public class Counter {
      * @param last
      *            true = letzter Schleifendurchlauf, sonst false.
      */
-    Counter(final long index, final boolean first, final boolean last) {
+    public Counter(final long index, final boolean first, final boolean last) {
         this.index = index;
         this.first = first;
         this.last = last;
     }
 
+    /**
+     * Setzt die Daten für den nächsten Schleifendurchlauf. Eine Schleife verwendet dadurch für alle Durchläufe dasselbe
+     * Hilfsobjekt.
+     * 
+     * @param newIndex
+     *            Index des Schleifendurchlaufs.
+     * @param newLast
+     *            Gibt an, ob es der letzte Schleifendurchlauf ist.
+     */
+    void update(final long newIndex, final boolean newLast) {
+        this.index = newIndex;
+        this.first = newIndex == 0;
+        this.last = newLast;
+    }
+
+    /**
+     * Erstellt eine Kopie mit den aktuellen Daten des Schleifendurchlaufs.
+     * 
+     * @return Neues Hilfsobjekt mit denselben Daten.
+     */
+    Counter copy() {
+        return new Counter(index, first, last);
+    }
+
     /**
      * Gibt den Index des Schleifendurchlaufs beginnend mit 0 zurück.
      * 
@@ -1,5 +1,8 @@
 package de.chrlembeck.codegen.generator.lang;
 
+import java.util.Arrays;
+import java.util.List;
+
 import de.chrlembeck.codegen.generator.Environment;
 import de.chrlembeck.codegen.generator.JavaUtil;
 import de.chrlembeck.codegen.grammar.CodeGenParser.ExpressionEqualsContext;
@@ -31,11 +34,7 @@ public class EqualsExpression extends AbstractExpression<ExpressionEqualsContext
          */
         @Override
         public ObjectWithType<Boolean> apply(final int leftOperand, final int rightOperand) {
-            if (this == EQUAL) {
-                return new ObjectWithType<Boolean>(leftOperand == rightOperand, boolean.class);
-            } else {
-                return new ObjectWithType<Boolean>(leftOperand != rightOperand, boolean.class);
-            }
+            return ObjectWithType.ofBoolean(test(leftOperand, rightOperand));
         }
 
         /**
@@ -43,11 +42,7 @@ public class EqualsExpression extends AbstractExpression<ExpressionEqualsContext
          */
         @Override
         public ObjectWithType<Boolean> apply(final float leftOperand, final float rightOperand) {
-            if (this == EQUAL) {
-                return new ObjectWithType<Boolean>(leftOperand == rightOperand, boolean.class);
-            } else {
-                return new ObjectWithType<Boolean>(leftOperand != rightOperand, boolean.class);
-            }
+            return ObjectWithType.ofBoolean(test(leftOperand, rightOperand));
         }
 
         /**
@@ -55,11 +50,7 @@ public class EqualsExpression extends AbstractExpression<ExpressionEqualsContext
          */
         @Override
         public ObjectWithType<Boolean> apply(final long leftOperand, final long rightOperand) {
-            if (this == EQUAL) {
-                return new ObjectWithType<Boolean>(leftOperand == rightOperand, boolean.class);
-            } else {
-                return new ObjectWithType<Boolean>(leftOperand != rightOperand, boolean.class);
-            }
+            return ObjectWithType.ofBoolean(test(leftOperand, rightOperand));
         }
 
         /**
@@ -67,11 +58,72 @@ public class EqualsExpression extends AbstractExpression<ExpressionEqualsContext
          */
         @Override
         public ObjectWithType<Boolean> apply(final double leftOperand, final double rightOperand) {
-            if (this == EQUAL) {
-                return new ObjectWithType<Boolean>(leftOperand == rightOperand, boolean.class);
-            } else {
-                return new ObjectWithType<Boolean>(leftOperand != rightOperand, boolean.class);
-            }
+            return ObjectWithType.ofBoolean(test(leftOperand, rightOperand));
+        }
+
+        /**
+         * Führt den Vergleich auf zwei boolean-Werten aus, ohne das Ergebnis zu verpacken.
+         * 
+         * @param leftOperand
+         *            Erster Operand des Vergleichs.
+         * @param rightOperand
+         *            Zweiter Operand des Vergleichs.
+         * @return Ergebnis des Vergleichs.
+         */
+        public boolean test(final boolean leftOperand, final boolean rightOperand) {
+            return this == EQUAL ? leftOperand == rightOperand : leftOperand != rightOperand;
+        }
+
+        /**
+         * Führt den Vergleich auf zwei int-Werten aus, ohne das Ergebnis zu verpacken.
+         * 
+         * @param leftOperand
+         *            Erster Operand des Vergleichs.
+         * @param rightOperand
+         *            Zweiter Operand des Vergleichs.
+         * @return Ergebnis des Vergleichs.
+         */
+        public boolean test(final int leftOperand, final int rightOperand) {
+            return this == EQUAL ? leftOperand == rightOperand : leftOperand != rightOperand;
+        }
+
+        /**
+         * Führt den Vergleich auf zwei long-Werten aus, ohne das Ergebnis zu verpacken.
+         * 
+         * @param leftOperand
+         *            Erster Operand des Vergleichs.
+         * @param rightOperand
+         *            Zweiter Operand des Vergleichs.
+         * @return Ergebnis des Vergleichs.
+         */
+        public boolean test(final long leftOperand, final long rightOperand) {
+            return this == EQUAL ? leftOperand == rightOperand : leftOperand != rightOperand;
+        }
+
+        /**
+         * Führt den Vergleich auf zwei float-Werten aus, ohne das Ergebnis zu verpacken.
+         * 
+         * @param leftOperand
+         *            Erster Operand des Vergleichs.
+         * @param rightOperand
+         *            Zweiter Operand des Vergleichs.
+         * @return Ergebnis des Vergleichs.
+         */
+        public boolean test(final float leftOperand, final float rightOperand) {
+            return this == EQUAL ? leftOperand == rightOperand : leftOperand != rightOperand;
+        }
+
+        /**
+         * Führt den Vergleich auf zwei double-Werten aus, ohne das Ergebnis zu verpacken.
+         * 
+         * @param leftOperand
+         *            Erster Operand des Vergleichs.
+         * @param rightOperand
+         *            Zweiter Operand des Vergleichs.
+         * @return Ergebnis des Vergleichs.
+         */
+        public boolean test(final double leftOperand, final double rightOperand) {
+            return this == EQUAL ? leftOperand == rightOperand : leftOperand != rightOperand;
         }
     }
 
@@ -90,6 +142,12 @@ public class EqualsExpression extends AbstractExpression<ExpressionEqualsContext
      */
     private Operator operator;
 
+    /**
+     * Gemeinsamer statischer Typ der beiden Operanden (boolean, int, long oder double), soweit er sich aus ihren Typen
+     * ableiten lässt.
+     */
+    private final Class<?> operandType;
+
     /**
      * Erzeugt eine neue EqualsExpression mit den übergebenen Werten.
      * 
@@ -108,6 +166,33 @@ public class EqualsExpression extends AbstractExpression<ExpressionEqualsContext
         this.left = left;
         this.right = right;
         this.operator = operator;
+        if (left.getStaticType() == boolean.class && right.getStaticType() == boolean.class) {
+            this.operandType = boolean.class;
+        } else {
+            this.operandType = JavaUtil.getStaticPromotionType(left.getStaticType(), right.getStaticType());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Expression> getSubExpressions() {
+        return Arrays.asList(left, right);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void replaceSubExpression(final Expression subExpression, final Expression replacement) {
+        if (left == subExpression) {
+            left = replacement;
+        } else if (right == subExpression) {
+            right = replacement;
+        } else {
+            throw new IllegalArgumentException("Kein direkter Teilausdruck: " + subExpression);
+        }
     }
 
     /**
@@ -115,16 +200,14 @@ public class EqualsExpression extends AbstractExpression<ExpressionEqualsContext
      */
     @Override
     public ObjectWithType<?> evaluate(final Object model, final Environment environment) {
+        if (operandType != null) {
+            return ObjectWithType.ofBoolean(evaluateBoolean(model, environment));
+        }
         ObjectWithType<?> rightObj = right.evaluate(model, environment);
         ObjectWithType<?> leftObj = left.evaluate(model, environment);
         if (JavaUtil.isBooleanType(leftObj.getType()) && JavaUtil.isBooleanType(rightObj.getType())) {
-            if (operator == Operator.EQUAL) {
-                return new ObjectWithType<Boolean>(((Boolean) leftObj.getObject())
-                        .booleanValue() == ((Boolean) rightObj.getObject()).booleanValue(), boolean.class);
-            } else {
-                return new ObjectWithType<Boolean>(((Boolean) leftObj.getObject())
-                        .booleanValue() != ((Boolean) rightObj.getObject()).booleanValue(), boolean.class);
-            }
+            return ObjectWithType.ofBoolean(operator.test(((Boolean) leftObj.getObject()).booleanValue(),
+                    ((Boolean) rightObj.getObject()).booleanValue()));
         }
         if (JavaUtil.isNumericType(leftObj.getType()) && JavaUtil.isNumericType(rightObj.getType())) {
             leftObj = JavaUtil.unaryNumericPromotion(leftObj);
@@ -132,9 +215,39 @@ public class EqualsExpression extends AbstractExpression<ExpressionEqualsContext
             return JavaUtil.applyBinaryOperation(leftObj, rightObj, operator);
         }
         if (operator == Operator.EQUAL) {
-            return new ObjectWithType<Boolean>(leftObj.getObject() == rightObj.getObject(), boolean.class);
+            return ObjectWithType.ofBoolean(leftObj.getObject() == rightObj.getObject());
         } else {
-            return new ObjectWithType<Boolean>(leftObj.getObject() != rightObj.getObject(), boolean.class);
+            return ObjectWithType.ofBoolean(leftObj.getObject() != rightObj.getObject());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Class<?> getStaticType() {
+        return boolean.class;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean evaluateBoolean(final Object model, final Environment environment) {
+        if (operandType == boolean.class) {
+            // wie bisher wird der rechte Operand zuerst ausgewertet
+            final boolean rightValue = right.evaluateBoolean(model, environment);
+            return operator.test(left.evaluateBoolean(model, environment), rightValue);
+        } else if (operandType == int.class) {
+            final int rightValue = right.evaluateInt(model, environment);
+            return operator.test(left.evaluateInt(model, environment), rightValue);
+        } else if (operandType == long.class) {
+            final long rightValue = right.evaluateLong(model, environment);
+            return operator.test(left.evaluateLong(model, environment), rightValue);
+        } else if (operandType == double.class) {
+            final double rightValue = right.evaluateDouble(model, environment);
+            return operator.test(left.evaluateDouble(model, environment), rightValue);
         }
+        return ((Boolean) evaluate(model, environment).getObject()).booleanValue();
     }
-}
\ No newline at end of file
+}
@@ -39,6 +39,13 @@ public interface Executable<T extends ParserRuleContext> {
      */
     T getContext();
 
+    /**
+     * Gibt die Nummer des Eintrags für das Statement in der Tabelle der Quellpositionen seiner Template-Datei zurück.
+     * 
+     * @return Nummer des Eintrags in {@link TemplateFile#getSourceTable()}.
+     */
+    int getSourceLocation();
+
     /**
      * Gibt die Position des ersten Zeichens innerhalb der Template-Datei zurück, das zu diesem Statement gehört.
      * 
@@ -1,9 +1,6 @@
 package de.chrlembeck.codegen.generator.lang;
 
 import java.io.IOException;
-import java.net.URI;
-import java.net.URISyntaxException;
-import java.util.Iterator;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,9 +8,9 @@ import org.slf4j.LoggerFactory;
 import de.chrlembeck.codegen.generator.Environment;
 import de.chrlembeck.codegen.generator.Generator;
 import de.chrlembeck.codegen.generator.GeneratorException;
+import de.chrlembeck.codegen.generator.TemplateResolver;
 import de.chrlembeck.codegen.generator.output.GeneratorWriter;
 import de.chrlembeck.codegen.grammar.CodeGenParser.ExecuteStatementContext;
-import de.chrlembeck.codegen.grammar.CodeGenParser.ExpressionContext;
 
 /**
  * Execute Statements innerhalb von Template-Definitionen bewirken den Sprung in ein anderes auszuführenden Template.
@@ -58,6 +55,11 @@ public class ExecuteStatement extends AbstractTemplateMember<ExecuteStatementCon
      */
     private String prefix;
 
+    /**
+     * Aufrufstelle, die sich die aufzurufende Template-Datei und das zuletzt aufgerufene Template merkt.
+     */
+    private final TemplateCallSite callSite = new TemplateCallSite(this);
+
     /**
      * Erstellt das ExecuteStatement mit den übergebenen Daten.
      * 
@@ -154,42 +156,77 @@ public class ExecuteStatement extends AbstractTemplateMember<ExecuteStatementCon
     @Override
     public void execute(final Generator generator, final Object model, final Environment environment)
             throws IOException {
-        URI resourceIdentifier;
-        if (prefix == null) {
-            resourceIdentifier = getTemplateFile().getResourceIdentifier();
-        } else {
-            try {
-                resourceIdentifier = getTemplateFile().resolveImportPrefix(prefix);
-            } catch (final URISyntaxException e) {
-                throw new GeneratorException("Ungültige URI im Import-Statement.", this, environment, e);
-            }
-        }
-
-        final Object source = valueExpression.evaluate(model, environment).getObject();
         if (forEach) {
-            if (source instanceof Iterable) {
-                final Iterable<?> iterable = (Iterable<?>) source;
-                final Iterator<?> iterator = iterable.iterator();
-                while (iterator.hasNext()) {
-                    final Object item = iterator.next();
-                    generator.generate(resourceIdentifier, templateName, item);
-                    if (iterator.hasNext() && separatorExpression != null) {
+            final LoopCursor cursor = new LoopCursor(this, valueExpression.evaluate(model, environment), environment);
+            try {
+                while (cursor.next()) {
+                    executeTemplate(generator, cursor.getVariable().getObject(), environment);
+                    if (cursor.hasNext() && separatorExpression != null) {
                         final GeneratorWriter writer = generator.getCurrentWriter();
                         if (writer == null) {
-                            LOGGER.info("Kein Writer zur Ausgabe gefunden. " + this + ": " + this.getContext());
+                            LOGGER.info("Kein Writer zur Ausgabe gefunden. " + this + ": " + this.getStartPosition());
                             throw new GeneratorException("Kein Writer zur Ausgabe gefunden.", this, environment);
                         } else {
-                            final ExpressionContext sepExpr = getContext().separatorExpression;
-                            writer.append(String.valueOf(separatorExpression.evaluate(model, environment).getObject()),
-                                    this, sepExpr);
+                            writer.append(String.valueOf(separatorExpression.evaluateObject(model, environment)),
+                                    this, separatorExpression.getSourceLocation());
                         }
                     }
                 }
-            } else {
-                throw new RuntimeException("don't know what to do with collection " + model.getClass().getName());
+            } finally {
+                cursor.close();
             }
         } else {
-            generator.generate(resourceIdentifier, templateName, source);
+            final Object source = valueExpression.evaluateObject(model, environment);
+            executeTemplate(generator, source, environment);
+        }
+    }
+
+    /**
+     * Führt das aufzurufende Template für ein einzelnes Modell aus. Die Template-Datei und das passende Template
+     * werden beim ersten Aufruf ermittelt und für weitere Aufrufe wiederverwendet. Das Template wird in der
+     * übergebenen Laufzeitumgebung mit einem eigenen Frame ausgeführt.
+     * 
+     * @param generator
+     *            Generator, der die Ausführung angestoßen hat.
+     * @param item
+     *            Modell, das an das Template übergeben wird.
+     * @param environment
+     *            Laufzeitumgebung des aufrufenden Templates.
+     * @throws IOException
+     *             Falls bei der Ausgabe ein Problem auftritt.
+     * @see TemplateCallSite
+     * @see TemplateResolver
+     */
+    public void executeTemplate(final Generator generator, final Object item, final Environment environment)
+            throws IOException {
+        final TemplateStatement templateStatement = callSite.lookup(generator.getTemplateResolver(),
+                item.getClass(), environment);
+        if (templateStatement == null) {
+            throw new RuntimeException(
+                    "No template definition '" + templateName + "' found for type " + item.getClass().getName() + ".");
         }
+        generator.execute(templateStatement, item, environment);
+    }
+
+    /**
+     * Ersetzt den Ausdruck für das zu verarbeitende Modell, z.B. durch eine vorab berechnete Konstante.
+     * 
+     * @param valueExpression
+     *            Neuer Ausdruck.
+     * @see TemplateOptimizer
+     */
+    void setValueExpression(final Expression valueExpression) {
+        this.valueExpression = valueExpression;
+    }
+
+    /**
+     * Ersetzt den Ausdruck für das Trennzeichen, z.B. durch eine vorab berechnete Konstante.
+     * 
+     * @param separatorExpression
+     *            Neuer Ausdruck.
+     * @see TemplateOptimizer
+     */
+    void setSeparatorExpression(final Expression separatorExpression) {
+        this.separatorExpression = separatorExpression;
     }
-}
\ No newline at end of file
+}
@@ -1,8 +1,12 @@
 package de.chrlembeck.codegen.generator.lang;
 
+import java.util.Collections;
+import java.util.List;
+
 import org.antlr.v4.runtime.ParserRuleContext;
 
 import de.chrlembeck.codegen.generator.Environment;
+import de.chrlembeck.codegen.generator.JavaUtil;
 import de.chrlembeck.codegen.generator.Position;
 
 /**
@@ -23,6 +27,91 @@ public interface Expression {
      */
     ObjectWithType<?> evaluate(Object model, Environment environment);
 
+    /**
+     * Wertet den Ausdruck aus, wenn nur der Wert und nicht der Typ des Ergebnisses benötigt wird, wie z.B. bei der
+     * Ausgabe in einen Ausgabekanal. Ausdrücke, deren Auswertung das Ergebnis erst für die Rückgabe verpackt, können
+     * diese Methode überschreiben, um die Verpackung einzusparen.
+     * 
+     * @param model
+     *            Modell, welches bei der Generierung verwendet werden soll.
+     * @param environment
+     *            Aktuelle Ausführungsumgebung.
+     * @return Wert des Ergebnisses der Auswertung.
+     */
+    default Object evaluateObject(final Object model, final Environment environment) {
+        return evaluate(model, environment).getObject();
+    }
+
+    /**
+     * Gibt den statischen Typ des Ausdrucks zurück, soweit er sich bereits beim Aufbau des Ausdrucksbaums aus den
+     * Typen der Teilausdrücke ableiten lässt. Ausdrücke mit dem statischen Typ {@code int}, {@code long},
+     * {@code double} oder {@code boolean} können über {@link #evaluateInt(Object, Environment)},
+     * {@link #evaluateLong(Object, Environment)}, {@link #evaluateDouble(Object, Environment)} und
+     * {@link #evaluateBoolean(Object, Environment)} ausgewertet werden, ohne Zwischenergebnisse zu verpacken.
+     * 
+     * @return Statischer Typ des Ausdrucks oder {@code null}, falls der Typ erst bei der Auswertung feststeht.
+     */
+    default Class<?> getStaticType() {
+        return null;
+    }
+
+    /**
+     * Wertet einen Ausdruck mit dem statischen Typ {@code int} aus. Ausdrücke ohne eigene Spezialisierung werden über
+     * {@link #evaluate(Object, Environment)} ausgewertet und das Ergebnis ausgepackt.
+     * 
+     * @param model
+     *            Modell, welches bei der Generierung verwendet werden soll.
+     * @param environment
+     *            Aktuelle Ausführungsumgebung.
+     * @return Ergebnis der Auswertung des Ausdrucks.
+     */
+    default int evaluateInt(final Object model, final Environment environment) {
+        return JavaUtil.toInt(evaluate(model, environment));
+    }
+
+    /**
+     * Wertet einen Ausdruck mit dem statischen Typ {@code long} oder {@code int} aus. Ausdrücke ohne eigene
+     * Spezialisierung werden über {@link #evaluate(Object, Environment)} ausgewertet und das Ergebnis ausgepackt.
+     * 
+     * @param model
+     *            Modell, welches bei der Generierung verwendet werden soll.
+     * @param environment
+     *            Aktuelle Ausführungsumgebung.
+     * @return Ergebnis der Auswertung des Ausdrucks.
+     */
+    default long evaluateLong(final Object model, final Environment environment) {
+        return JavaUtil.evaluateLong(this, model, environment);
+    }
+
+    /**
+     * Wertet einen Ausdruck mit dem statischen Typ {@code double}, {@code long} oder {@code int} aus. Ausdrücke ohne
+     * eigene Spezialisierung werden über {@link #evaluate(Object, Environment)} ausgewertet und das Ergebnis
+     * ausgepackt.
+     * 
+     * @param model
+     *            Modell, welches bei der Generierung verwendet werden soll.
+     * @param environment
+     *            Aktuelle Ausführungsumgebung.
+     * @return Ergebnis der Auswertung des Ausdrucks.
+     */
+    default double evaluateDouble(final Object model, final Environment environment) {
+        return JavaUtil.evaluateDouble(this, model, environment);
+    }
+
+    /**
+     * Wertet einen Ausdruck mit dem statischen Typ {@code boolean} aus. Ausdrücke ohne eigene Spezialisierung werden
+     * über {@link #evaluate(Object, Environment)} ausgewertet und das Ergebnis ausgepackt.
+     * 
+     * @param model
+     *            Modell, welches bei der Generierung verwendet werden soll.
+     * @param environment
+     *            Aktuelle Ausführungsumgebung.
+     * @return Ergebnis der Auswertung des Ausdrucks.
+     */
+    default boolean evaluateBoolean(final Object model, final Environment environment) {
+        return ((Boolean) evaluate(model, environment).getObject()).booleanValue();
+    }
+
     /**
      * Gibt die Position innerhalb der Template-Datei zurück, an der das Element beginnt.
      * 
@@ -48,4 +137,37 @@ public interface Expression {
      * @return Kontext des Parser der zur Erzeugung des Elements geführt hat.
      */
     ParserRuleContext getContext();
-}
\ No newline at end of file
+
+    /**
+     * Gibt die Nummer des Eintrags für diesen Ausdruck in der Tabelle der Quellpositionen seiner Template-Datei zurück.
+     * 
+     * @return Nummer des Eintrags in {@link TemplateFile#getSourceTable()}.
+     */
+    int getSourceLocation();
+
+    /**
+     * Gibt die direkt in diesem Ausdruck enthaltenen Teilausdrücke zurück. Über diese Methode können Analysen, die den
+     * gesamten Ausdrucksbaum betrachten müssen, den Baum durchlaufen, ohne jeden Ausdruckstyp einzeln zu kennen.
+     * 
+     * @return Liste der direkten Teilausdrücke. Ausdrücke ohne Teilausdrücke geben eine leere Liste zurück.
+     */
+    default List<Expression> getSubExpressions() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Ersetzt einen direkten Teilausdruck dieses Ausdrucks. Über diese Methode kann z.B. ein Teilausdruck, dessen Wert
+     * bereits beim Einlesen der Template-Datei feststeht, durch eine Konstante ersetzt werden.
+     * 
+     * @param subExpression
+     *            Zu ersetzender Teilausdruck, wie ihn {@link #getSubExpressions()} liefert.
+     * @param replacement
+     *            Ausdruck, der an die Stelle des bisherigen Teilausdrucks treten soll.
+     * @throws IllegalArgumentException
+     *             Falls der übergebene Ausdruck kein direkter Teilausdruck dieses Ausdrucks ist.
+     * @see TemplateOptimizer
+     */
+    default void replaceSubExpression(final Expression subExpression, final Expression replacement) {
+        throw new IllegalArgumentException("Kein direkter Teilausdruck: " + subExpression);
+    }
+}
@@ -66,15 +66,24 @@ public class ExpressionStatement extends AbstractTemplateMember<ExpressionStatem
     @Override
     public void execute(final Generator generator, final Object model, final Environment environment)
             throws IOException {
-        final ObjectWithType<?> objectWithType = expression.evaluate(model, environment);
-        final Object object = objectWithType.getObject();
-        final String text = String.valueOf(object);
+        final String text = String.valueOf(expression.evaluateObject(model, environment));
         final GeneratorWriter currentWriter = generator.getCurrentWriter();
         if (currentWriter == null) {
-            LOGGER.info("Kein Writer zur Ausgabe gefunden. " + this + ": " + this.getContext());
+            LOGGER.info("Kein Writer zur Ausgabe gefunden. " + this + ": " + this.getStartPosition());
             throw new GeneratorException("Kein Writer zur Ausgabe gefunden.", this, environment);
         } else {
-            currentWriter.append(text, this, getContext().expression());
+            currentWriter.append(text, this, expression.getSourceLocation());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Ersetzt den auszugebenden Ausdruck, z.B. durch eine vorab berechnete Konstante.
+     * 
+     * @param expression
+     *            Neuer Ausdruck.
+     * @see TemplateOptimizer
+     */
+    void setExpression(final Expression expression) {
+        this.expression = expression;
+    }
+}
@@ -15,6 +15,11 @@ public class FloatingPointLiteral extends AbstractExpression<LiteralContext> imp
      */
     private Number value;
 
+    /**
+     * Ergebnis der Auswertung, das bei jedem Aufruf wiederverwendet wird.
+     */
+    private final ObjectWithType<?> result;
+
     /**
      * Erstellt ein neues IntegerLiteral aus den Daten des Parsers.
      * 
@@ -30,6 +35,8 @@ public class FloatingPointLiteral extends AbstractExpression<LiteralContext> imp
         } else {
             value = Double.valueOf(text);
         }
+        result = value instanceof Float ? new ObjectWithType<Float>((Float) value, float.class)
+                : new ObjectWithType<Double>((Double) value, double.class);
     }
 
     /**
@@ -37,8 +44,23 @@ public class FloatingPointLiteral extends AbstractExpression<LiteralContext> imp
      */
     @Override
     public ObjectWithType<?> evaluate(final Object model, final Environment environment) {
-        return value instanceof Float ? new ObjectWithType<Float>((Float) value, float.class)
-                : new ObjectWithType<Double>((Double) value, double.class);
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Class<?> getStaticType() {
+        return result.getType();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double evaluateDouble(final Object model, final Environment environment) {
+        return value.doubleValue();
     }
 
     /**
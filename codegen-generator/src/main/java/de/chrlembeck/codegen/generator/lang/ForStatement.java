@@ -1,7 +1,6 @@
 package de.chrlembeck.codegen.generator.lang;
 
 import java.io.IOException;
-import java.util.Iterator;
 import java.util.List;
 
 import org.slf4j.Logger;
@@ -11,7 +10,6 @@ import de.chrlembeck.codegen.generator.Environment;
 import de.chrlembeck.codegen.generator.Generator;
 import de.chrlembeck.codegen.generator.GeneratorException;
 import de.chrlembeck.codegen.generator.output.GeneratorWriter;
-import de.chrlembeck.codegen.grammar.CodeGenParser.ExpressionContext;
 import de.chrlembeck.codegen.grammar.CodeGenParser.ForStatementContext;
 
 /**
@@ -51,11 +49,26 @@ public class ForStatement extends AbstractTemplateMember<ForStatementContext>
      */
     private Expression separatorExpression;
 
+    /**
+     * Slot der Schleifenvariable im Frame des Templates.
+     */
+    private int varSlot = -1;
+
+    /**
+     * Slot der Zähler-Variable im Frame des Templates oder -1, falls keine Zähler-Variable definiert wurde.
+     */
+    private int counterSlot = -1;
+
     /**
      * Schleifenrumpf, der den Inhalt eines jeden Schleifendurchlaufs generiert.
      */
     private List<UserCodeOrStatements<?>> loopBody;
 
+    /**
+     * Führt die Elemente des Schleifenrumpfes bei der direkten Interpretation des Templates nacheinander aus.
+     */
+    private final StatementBlock interpretedLoopBody = this::executeLoopBody;
+
     /**
      * Erstellt das ForStatement mit den übergebenen Daten.
      * 
@@ -86,59 +99,201 @@ public class ForStatement extends AbstractTemplateMember<ForStatementContext>
         this.loopBody.forEach(codeOrStatement -> codeOrStatement.setParent(this));
     }
 
+    /**
+     * Gibt den Namen der Variable zurück, über die im Schleifenrumpf auf das aktuelle Element zugegriffen werden kann.
+     * 
+     * @return Name der Schleifenvariable.
+     */
+    public String getVarName() {
+        return varName;
+    }
+
+    /**
+     * Gibt die Expression zurück, aus der die zu durchlaufende Collection ausgewertet wird.
+     * 
+     * @return Expression für die zu durchlaufende Collection.
+     */
+    public Expression getCollectionExpression() {
+        return collectionExpression;
+    }
+
+    /**
+     * Gibt den Namen der Zähler-Variable zurück, falls im Statement eine definiert wurde.
+     * 
+     * @return Name der Zähler-Variable oder null, falls keine definiert wurde.
+     */
+    public String getCounterName() {
+        return counterName;
+    }
+
+    /**
+     * Gibt den Slot zurück, in dem die Schleifenvariable im Frame des Templates abgelegt wird.
+     * 
+     * @return Slot der Schleifenvariable.
+     * @see VariableResolver
+     */
+    public int getVarSlot() {
+        return varSlot;
+    }
+
+    /**
+     * Setzt den Slot, in dem die Schleifenvariable im Frame des Templates abgelegt wird.
+     * 
+     * @param varSlot
+     *            Slot der Schleifenvariable.
+     */
+    void setVarSlot(final int varSlot) {
+        this.varSlot = varSlot;
+    }
+
+    /**
+     * Gibt den Slot zurück, in dem die Zähler-Variable im Frame des Templates abgelegt wird.
+     * 
+     * @return Slot der Zähler-Variable oder -1, falls keine definiert wurde.
+     * @see VariableResolver
+     */
+    public int getCounterSlot() {
+        return counterSlot;
+    }
+
+    /**
+     * Setzt den Slot, in dem die Zähler-Variable im Frame des Templates abgelegt wird.
+     * 
+     * @param counterSlot
+     *            Slot der Zähler-Variable.
+     */
+    void setCounterSlot(final int counterSlot) {
+        this.counterSlot = counterSlot;
+    }
+
+    /**
+     * Gibt die Expression zurück, deren Auswertung zwischen die einzelnen Schleifendurchläufe geschrieben wird.
+     * 
+     * @return Expression für das Trennzeichen oder null, falls keine definiert wurde.
+     */
+    public Expression getSeparatorExpression() {
+        return separatorExpression;
+    }
+
+    /**
+     * Gibt den Schleifenrumpf zurück.
+     * 
+     * @return Liste der Code-Blöcke und Statements, die pro Schleifendurchlauf ausgeführt werden.
+     */
+    public List<UserCodeOrStatements<?>> getLoopBody() {
+        return loopBody;
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public void execute(final Generator generator, final Object model, final Environment environment)
             throws IOException {
-        final ObjectWithType<?> source = collectionExpression.evaluate(model, environment);
-        if (Iterable.class.isAssignableFrom(source.getType())) {
-            final Iterable<?> iterable = (Iterable<?>) source.getObject();
-            final Iterator<?> iterator = iterable.iterator();
-            executeIterator(generator, model, environment, iterator);
-        } else if (source.getType().isArray()) {
-            // TODO arrays implementieren
-            // auch an primitive Arrays denken...
-            // siehe auch http://www.lambdafaq.org/how-can-i-turn-an-array-into-an-iterator/
-            throw new RuntimeException("not yet implemented");
-        } else {
-            throw new RuntimeException("don't know what to do with collection " + model.getClass().getName());
-        }
+        executeLoop(generator, model, environment, interpretedLoopBody);
     }
 
-    private void executeIterator(final Generator generator, final Object model, final Environment environment,
-            final Iterator<?> iterator) throws IOException {
-        long index = 0;
-        Object nextItem = iterator.hasNext() ? iterator.next() : null;
-        while (nextItem != null) {
-            // neuen Frame auf dem Stack anlegen, damit die Variablen der Schleife nicht nach außen sichtbar werden
-            final Object item = nextItem;
-            nextItem = iterator.hasNext() ? iterator.next() : null;
-            environment.createFrame(true);
-            environment.addVariable(varName, item, item.getClass());
-            if (counterName != null) {
-                environment.addVariable(counterName, new Counter(index, index == 0, nextItem == null),
-                        Counter.class);
-            }
-            for (final UserCodeOrStatements<?> cos : loopBody) {
-                environment.execute(cos, generator, model);
+    /**
+     * Durchläuft die Elemente der Collection und führt für jedes Element den übergebenen Schleifenrumpf aus. Zwischen
+     * zwei Durchläufen wird gegebenenfalls das Trennzeichen ausgegeben.
+     * 
+     * @param generator
+     *            Generator, der die Ausführung angestoßen hat.
+     * @param model
+     *            Aktuelles Modell oder Teil des Modells.
+     * @param environment
+     *            Laufzeitumgebung mit den enthaltenen Variablen.
+     * @param body
+     *            Auszuführender Schleifenrumpf, entweder die Elemente aus {@link #getLoopBody()} oder deren
+     *            übersetzte Form.
+     * @throws IOException
+     *             Falls beim Schreiben der Ausgabe ein Fehler auftritt.
+     */
+    public void executeLoop(final Generator generator, final Object model, final Environment environment,
+            final StatementBlock body) throws IOException {
+        final LoopCursor cursor = new LoopCursor(this, collectionExpression.evaluate(model, environment),
+                environment);
+        try {
+            // die Variablen der Schleife belegen die beim Laden der Template-Datei vergebenen Slots im Frame des
+            // Templates. Außerhalb der Schleife sind diese Slots keinem Ausdruck zugeordnet. Die Werte in den Slots
+            // werden vom Cursor für jeden Durchlauf aktualisiert.
+            environment.setVariable(varSlot, cursor.getVariable());
+            if (counterSlot >= 0) {
+                environment.setVariable(counterSlot, cursor.getCounter());
             }
-            if (separatorExpression != null && nextItem != null) {
-                final GeneratorWriter writer = generator.getCurrentWriter();
-                if (writer == null) {
-                    LOGGER.info("Kein Writer zur Ausgabe gefunden. " + this + ": " + this.getContext());
-                    throw new GeneratorException("Kein Writer zur Ausgabe gefunden.", this, environment);
-                } else {
-                    final ExpressionContext sepExp = getContext().separatorExpression;
-                    writer.append(String.valueOf(separatorExpression.evaluate(model, environment).getObject()), this,
-                            sepExp);
+            while (cursor.next()) {
+                body.execute(generator, model, environment);
+                if (separatorExpression != null && cursor.hasNext()) {
+                    appendSeparator(generator, model, environment);
                 }
             }
-            index++;
-            // Frame wieder vom Stack entfernen, damit die Umgebung nach dem Schleifendurchlauf wieder aussieht wie
-            // vorher
-            environment.dropFrame();
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Führt die Elemente des Schleifenrumpfes für einen Schleifendurchlauf nacheinander aus.
+     * 
+     * @param generator
+     *            Generator, der die Ausführung angestoßen hat.
+     * @param model
+     *            Aktuelles Modell oder Teil des Modells.
+     * @param environment
+     *            Laufzeitumgebung mit den enthaltenen Variablen.
+     * @throws IOException
+     *             Falls beim Schreiben der Ausgabe ein Fehler auftritt.
+     */
+    private void executeLoopBody(final Generator generator, final Object model, final Environment environment)
+            throws IOException {
+        for (final UserCodeOrStatements<?> cos : loopBody) {
+            environment.execute(cos, generator, model);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Schreibt das Trennzeichen zwischen zwei Schleifendurchläufen in die Ausgabe.
+     * 
+     * @param generator
+     *            Generator, der die Ausführung angestoßen hat.
+     * @param model
+     *            Aktuelles Modell oder Teil des Modells.
+     * @param environment
+     *            Laufzeitumgebung mit den enthaltenen Variablen.
+     * @throws IOException
+     *             Falls beim Schreiben der Ausgabe ein Fehler auftritt.
+     */
+    private void appendSeparator(final Generator generator, final Object model, final Environment environment)
+            throws IOException {
+        final GeneratorWriter writer = generator.getCurrentWriter();
+        if (writer == null) {
+            LOGGER.info("Kein Writer zur Ausgabe gefunden. " + this + ": " + this.getStartPosition());
+            throw new GeneratorException("Kein Writer zur Ausgabe gefunden.", this, environment);
+        } else {
+            writer.append(String.valueOf(separatorExpression.evaluateObject(model, environment)), this,
+                    separatorExpression.getSourceLocation());
+        }
+    }
+
+    /**
+     * Ersetzt den Ausdruck für die zu durchlaufenden Elemente, z.B. durch eine vorab berechnete Konstante.
+     * 
+     * @param collectionExpression
+     *            Neuer Ausdruck.
+     * @see TemplateOptimizer
+     */
+    void setCollectionExpression(final Expression collectionExpression) {
+        this.collectionExpression = collectionExpression;
+    }
+
+    /**
+     * Ersetzt den Ausdruck für das Trennzeichen, z.B. durch eine vorab berechnete Konstante.
+     * 
+     * @param separatorExpression
+     *            Neuer Ausdruck.
+     * @see TemplateOptimizer
+     */
+    void setSeparatorExpression(final Expression separatorExpression) {
+        this.separatorExpression = separatorExpression;
+    }
+}
@@ -0,0 +1,264 @@
+package de.chrlembeck.codegen.generator.lang;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Hilfsmethoden für den Umgang mit generischen Typen bei der statischen Prüfung der Templates. Die Typvariablen einer
+ * Klasse werden dabei anhand der Typargumente ersetzt, mit denen die Klasse an der jeweiligen Stelle verwendet wird, so
+ * dass z.B. der Rückgabetyp von {@code get(int)} auf einer {@code List<Table>} als {@code Table} erkannt wird.
+ *
+ * @author Christoph Lembeck
+ */
+final class GenericTypes {
+
+    /**
+     * Es werden keine Instanzen dieser Klasse benötigt.
+     */
+    private GenericTypes() {
+        // Hilfsklasse
+    }
+
+    /**
+     * Ermittelt die Klasse, auf die ein generischer Typ zur Laufzeit abgebildet wird.
+     *
+     * @param type
+     *            Generischer Typ oder null.
+     * @return Klasse des Typs oder null, falls der Typ unbekannt ist.
+     */
+    static Class<?> rawType(final Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        } else if (type instanceof ParameterizedType) {
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        } else if (type instanceof GenericArrayType) {
+            final Class<?> component = rawType(((GenericArrayType) type).getGenericComponentType());
+            return component == null ? null : Array.newInstance(component, 0).getClass();
+        } else if (type instanceof TypeVariable) {
+            return rawType(((TypeVariable<?>) type).getBounds()[0]);
+        } else if (type instanceof WildcardType) {
+            return rawType(((WildcardType) type).getUpperBounds()[0]);
+        }
+        return null;
+    }
+
+    /**
+     * Ersetzt die Typvariablen der deklarierenden Klasse in einem Typ durch die Typargumente, mit denen die Klasse im
+     * übergebenen Kontext verwendet wird. Typvariablen, für die kein Typargument bekannt ist, werden durch ihre obere
+     * Schranke ersetzt.
+     *
+     * @param type
+     *            Zu ersetzender Typ, z.B. der generische Rückgabetyp einer Methode.
+     * @param context
+     *            Typ des Objekts, auf dem das Element verwendet wird.
+     * @param declaringClass
+     *            Klasse, in der das Element deklariert ist.
+     * @return Typ mit ersetzten Typvariablen.
+     */
+    static Type resolve(final Type type, final Type context, final Class<?> declaringClass) {
+        final Map<TypeVariable<?>, Type> arguments = new HashMap<>();
+        collectArguments(context, declaringClass, arguments);
+        return substitute(type, arguments);
+    }
+
+    /**
+     * Ermittelt das Typargument, mit dem eine generische Klasse im übergebenen Typ verwendet wird, z.B. den
+     * Elementtyp {@code Table} einer {@code ArrayList<Table>} als Typargument 0 von {@link Iterable}.
+     *
+     * @param type
+     *            Zu untersuchender Typ.
+     * @param genericClass
+     *            Generische Klasse, deren Typargument gesucht wird.
+     * @param index
+     *            Index des Typparameters der generischen Klasse.
+     * @return Typargument oder null, falls es nicht ermittelt werden kann.
+     */
+    static Type typeArgument(final Type type, final Class<?> genericClass, final int index) {
+        final Map<TypeVariable<?>, Type> arguments = new HashMap<>();
+        collectArguments(type, genericClass, arguments);
+        final Type argument = arguments.get(genericClass.getTypeParameters()[index]);
+        return argument instanceof WildcardType ? ((WildcardType) argument).getUpperBounds()[0] : argument;
+    }
+
+    /**
+     * Sammelt die Typargumente der Zielklasse, indem die Oberklassen und Interfaces des Typs bis zur Zielklasse
+     * durchlaufen werden.
+     *
+     * @param type
+     *            Aktuell untersuchter Typ.
+     * @param target
+     *            Klasse, deren Typargumente gesucht werden.
+     * @param arguments
+     *            Zuordnung der Typvariablen zu den Typargumenten.
+     * @return true, falls die Zielklasse über den Typ erreicht werden konnte.
+     */
+    private static boolean collectArguments(final Type type, final Class<?> target,
+            final Map<TypeVariable<?>, Type> arguments) {
+        final Class<?> raw = rawType(type);
+        if (raw == null || !target.isAssignableFrom(raw)) {
+            return false;
+        }
+        final Map<TypeVariable<?>, Type> own = new HashMap<>();
+        if (type instanceof ParameterizedType) {
+            final TypeVariable<?>[] parameters = raw.getTypeParameters();
+            final Type[] actual = ((ParameterizedType) type).getActualTypeArguments();
+            for (int i = 0; i < parameters.length; i++) {
+                own.put(parameters[i], actual[i]);
+            }
+        }
+        if (raw == target) {
+            arguments.putAll(own);
+            return true;
+        }
+        if (raw.getGenericSuperclass() != null
+                && collectArguments(substitute(raw.getGenericSuperclass(), own), target, arguments)) {
+            return true;
+        }
+        for (final Type superInterface : raw.getGenericInterfaces()) {
+            if (collectArguments(substitute(superInterface, own), target, arguments)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Ersetzt die Typvariablen in einem Typ.
+     *
+     * @param type
+     *            Zu ersetzender Typ.
+     * @param arguments
+     *            Zuordnung der Typvariablen zu den Typargumenten.
+     * @return Typ mit ersetzten Typvariablen.
+     */
+    private static Type substitute(final Type type, final Map<TypeVariable<?>, Type> arguments) {
+        if (type instanceof TypeVariable) {
+            final Type argument = arguments.get(type);
+            return argument == null ? rawType(type) : argument;
+        } else if (type instanceof WildcardType) {
+            return substitute(((WildcardType) type).getUpperBounds()[0], arguments);
+        } else if (type instanceof GenericArrayType) {
+            final Class<?> component = rawType(
+                    substitute(((GenericArrayType) type).getGenericComponentType(), arguments));
+            return Array.newInstance(component, 0).getClass();
+        } else if (type instanceof ParameterizedType) {
+            final ParameterizedType parameterized = (ParameterizedType) type;
+            final Type[] actual = parameterized.getActualTypeArguments().clone();
+            for (int i = 0; i < actual.length; i++) {
+                actual[i] = actual[i] instanceof WildcardType
+                        && ((WildcardType) actual[i]).getLowerBounds().length > 0 ? Object.class
+                                : substitute(actual[i], arguments);
+            }
+            return new ResolvedParameterizedType((Class<?>) parameterized.getRawType(), actual,
+                    parameterized.getOwnerType());
+        }
+        return type;
+    }
+
+    /**
+     * Parametrisierter Typ, dessen Typargumente bei der Prüfung der Templates ersetzt wurden.
+     *
+     * @author Christoph Lembeck
+     */
+    private static final class ResolvedParameterizedType implements ParameterizedType {
+
+        /**
+         * Generische Klasse.
+         */
+        private final Class<?> rawType;
+
+        /**
+         * Typargumente der Klasse.
+         */
+        private final Type[] actualTypeArguments;
+
+        /**
+         * Umgebender Typ bei inneren Klassen oder null.
+         */
+        private final Type ownerType;
+
+        /**
+         * Erstellt einen neuen parametrisierten Typ.
+         *
+         * @param rawType
+         *            Generische Klasse.
+         * @param actualTypeArguments
+         *            Typargumente der Klasse.
+         * @param ownerType
+         *            Umgebender Typ bei inneren Klassen oder null.
+         */
+        ResolvedParameterizedType(final Class<?> rawType, final Type[] actualTypeArguments, final Type ownerType) {
+            this.rawType = rawType;
+            this.actualTypeArguments = actualTypeArguments;
+            this.ownerType = ownerType;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Type[] getActualTypeArguments() {
+            return actualTypeArguments.clone();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Type getRawType() {
+            return rawType;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Type getOwnerType() {
+            return ownerType;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof ParameterizedType)) {
+                return false;
+            }
+            final ParameterizedType other = (ParameterizedType) obj;
+            return rawType.equals(other.getRawType()) && Objects.equals(ownerType, other.getOwnerType())
+                    && Arrays.equals(actualTypeArguments, other.getActualTypeArguments());
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(actualTypeArguments) ^ Objects.hashCode(ownerType) ^ rawType.hashCode();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            final StringBuilder result = new StringBuilder(rawType.getName()).append('<');
+            for (int i = 0; i < actualTypeArguments.length; i++) {
+                if (i > 0) {
+                    result.append(", ");
+                }
+                result.append(actualTypeArguments[i].getTypeName());
+            }
+            return result.append('>').toString();
+        }
+    }
+}
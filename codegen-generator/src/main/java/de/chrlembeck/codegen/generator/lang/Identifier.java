@@ -19,6 +19,19 @@ public class Identifier extends AbstractExpression<PrimaryIdentifierContext> imp
      */
     private static final Logger LOGGER = LoggerFactory.getLogger(Identifier.class);
 
+    /**
+     * Slot der Variable im Frame des Templates oder -1, falls im Gültigkeitsbereich des Ausdrucks keine Variable mit
+     * diesem Namen deklariert wurde.
+     * 
+     * @see VariableResolver
+     */
+    private int slot = -1;
+
+    /**
+     * Name der Variable.
+     */
+    private final String name;
+
     /**
      * Erstellt eine neue Variable mit dem Namen aus dem Kontext.
      * 
@@ -27,6 +40,7 @@ public class Identifier extends AbstractExpression<PrimaryIdentifierContext> imp
      */
     public Identifier(final PrimaryIdentifierContext ctx) {
         super(ctx);
+        this.name = ctx.Identifier().getText();
     }
 
     /**
@@ -35,7 +49,26 @@ public class Identifier extends AbstractExpression<PrimaryIdentifierContext> imp
      * @return Name der Variable.
      */
     public String getName() {
-        return getContext().Identifier().getText();
+        return name;
+    }
+
+    /**
+     * Gibt den Slot der Variable im Frame des Templates zurück.
+     * 
+     * @return Slot der Variable oder -1, falls keine passende Deklaration gefunden wurde.
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Setzt den Slot der Variable im Frame des Templates.
+     * 
+     * @param slot
+     *            Slot der Variable oder -1, falls keine passende Deklaration gefunden wurde.
+     */
+    void setSlot(final int slot) {
+        this.slot = slot;
     }
 
     /**
@@ -51,8 +84,9 @@ public class Identifier extends AbstractExpression<PrimaryIdentifierContext> imp
      */
     @Override
     public ObjectWithType<?> evaluate(final Object model, final Environment environment) {
-        if (environment.containsVariable(getName())) {
-            return environment.lookupVariable(getName());
+        final ObjectWithType<?> value = slot < 0 ? null : environment.lookupVariable(slot);
+        if (value != null) {
+            return value;
         } else {
             final String message = "Unbekannte Variable '" + getName() + "' gefunden.";
             LOGGER.warn(message);
@@ -68,9 +102,7 @@ public class Identifier extends AbstractExpression<PrimaryIdentifierContext> imp
      */
     @Override
     public CallSource findCallSource(final Object model, final Environment environment) {
-        if (environment.containsVariable(getName())) {
-            return new ObjectCallSource(environment.lookupVariable(getName()));
-        }
-        return null;
+        final ObjectWithType<?> value = slot < 0 ? null : environment.lookupVariable(slot);
+        return value == null ? null : new ObjectCallSource(value);
     }
 }
\ No newline at end of file
@@ -57,15 +57,58 @@ public class IfStatement extends AbstractTemplateMember<IfStatementContext>
         }
     }
 
+    /**
+     * Gibt die Bedingung zurück, anhand derer zwischen dem if- und dem else-Block entschieden wird.
+     * 
+     * @return Boolsche Expression für die Auswahl des auszuführenden Blocks.
+     */
+    public Expression getCondition() {
+        return condition;
+    }
+
+    /**
+     * Gibt die Code-Blöcke und Statements zurück, die bei erfüllter Bedingung ausgeführt werden.
+     * 
+     * @return Inhalt des if-Blocks.
+     */
+    public List<UserCodeOrStatements<?>> getIfBlock() {
+        return ifBlock;
+    }
+
+    /**
+     * Gibt die Code-Blöcke und Statements zurück, die bei nicht erfüllter Bedingung ausgeführt werden.
+     * 
+     * @return Inhalt des else-Blocks oder null, falls das Statement keinen else-Block besitzt.
+     */
+    public List<UserCodeOrStatements<?>> getElseBlock() {
+        return elseBlock;
+    }
+
+    /**
+     * Wertet die Bedingung aus. Besitzt die Bedingung den statischen Typ {@code boolean}, wird sie ohne Verpacken des
+     * Ergebnisses ausgewertet.
+     * 
+     * @param model
+     *            Modell, welches bei der Generierung verwendet werden soll.
+     * @param environment
+     *            Aktuelle Ausführungsumgebung.
+     * @return {@code true}, falls der if-Block ausgeführt werden soll, {@code false} für den else-Block.
+     */
+    public boolean isConditionTrue(final Object model, final Environment environment) {
+        if (condition.getStaticType() == boolean.class) {
+            return condition.evaluateBoolean(model, environment);
+        }
+        final Boolean value = (Boolean) condition.evaluate(model, environment).getObject();
+        return value != null && value.booleanValue();
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public void execute(final Generator generator, final Object model, final Environment environment)
             throws IOException {
-        final ObjectWithType<?> cond = condition.evaluate(model, environment);
-        final Boolean value = (Boolean) cond.getObject();
-        if (value != null && value.booleanValue()) {
+        if (isConditionTrue(model, environment)) {
             for (final UserCodeOrStatements<?> ucost : ifBlock) {
                 environment.execute(ucost, generator, model);
             }
@@ -77,4 +120,15 @@ public class IfStatement extends AbstractTemplateMember<IfStatementContext>
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Ersetzt die Bedingung, z.B. durch eine vorab berechnete Konstante.
+     * 
+     * @param condition
+     *            Neue Bedingung.
+     * @see TemplateOptimizer
+     */
+    void setCondition(final Expression condition) {
+        this.condition = condition;
+    }
+}
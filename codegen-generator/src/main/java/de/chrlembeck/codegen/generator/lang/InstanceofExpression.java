@@ -1,5 +1,8 @@
 package de.chrlembeck.codegen.generator.lang;
 
+import java.util.Collections;
+import java.util.List;
+
 import de.chrlembeck.codegen.generator.Environment;
 import de.chrlembeck.codegen.generator.GeneratorException;
 import de.chrlembeck.codegen.grammar.CodeGenParser.ExpressionInstanceofContext;
@@ -38,6 +41,35 @@ public class InstanceofExpression extends AbstractExpression<ExpressionInstanceo
         this.typeType = typeType;
     }
 
+    /**
+     * Gibt den Typ zurück, gegen den der Ausdruck geprüft werden soll.
+     * 
+     * @return Zu prüfender Typ.
+     */
+    public ClassOrPrimitiveType getTypeType() {
+        return typeType;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Expression> getSubExpressions() {
+        return Collections.singletonList(expression);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void replaceSubExpression(final Expression subExpression, final Expression replacement) {
+        if (expression == subExpression) {
+            expression = replacement;
+        } else {
+            throw new IllegalArgumentException("Kein direkter Teilausdruck: " + subExpression);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -15,6 +15,11 @@ public class IntegerLiteral extends AbstractExpression<LiteralContext> implement
      */
     private Number value;
 
+    /**
+     * Ergebnis der Auswertung, das bei jedem Aufruf wiederverwendet wird.
+     */
+    private final ObjectWithType<?> result;
+
     /**
      * Erstellt ein neues IntegerLiteral aus den Daten des Parsers.
      * 
@@ -53,6 +58,8 @@ public class IntegerLiteral extends AbstractExpression<LiteralContext> implement
             // decimal
             value = parse(literal, 10, isLong);
         }
+        result = value instanceof Integer ? ObjectWithType.ofInt(value.intValue())
+                : ObjectWithType.ofLong(value.longValue());
     }
 
     /**
@@ -99,7 +106,38 @@ public class IntegerLiteral extends AbstractExpression<LiteralContext> implement
      */
     @Override
     public ObjectWithType<?> evaluate(final Object model, final Environment environment) {
-        return value instanceof Integer ? new ObjectWithType<Integer>((Integer) value, int.class)
-                : new ObjectWithType<Long>((Long) value, long.class);
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Class<?> getStaticType() {
+        return result.getType();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int evaluateInt(final Object model, final Environment environment) {
+        return value.intValue();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long evaluateLong(final Object model, final Environment environment) {
+        return value.longValue();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double evaluateDouble(final Object model, final Environment environment) {
+        return value.doubleValue();
     }
 }
\ No newline at end of file
@@ -0,0 +1,317 @@
+package de.chrlembeck.codegen.generator.lang;
+
+import java.lang.reflect.Array;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+import java.util.stream.BaseStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.chrlembeck.codegen.generator.Environment;
+import de.chrlembeck.codegen.generator.GeneratorException;
+
+/**
+ * Durchläuft die Elemente einer Schleife und stellt sie über eine {@link LoopVariable} und einen {@link Counter}
+ * bereit, die für alle Durchläufe wiederverwendet werden. Unterstützt werden {@link Iterable}s, {@link Iterator}en,
+ * {@link Spliterator}en, Streams sowie Arrays von Objekten und primitiven Typen. Iteratoren, Spliteratoren und
+ * Streams werden dabei schrittweise verarbeitet, so dass die Elemente nicht vorab gesammelt werden müssen. Um für das
+ * Trennzeichen und den Zähler zu wissen, ob ein weiteres Element folgt, wird bei Spliteratoren jeweils ein Element im
+ * Voraus gelesen.
+ * <p>
+ * Der Cursor hält keine Referenzen auf bereits durchlaufene Elemente. Nach dem Durchlaufen werden über
+ * {@link #close()} auch die Referenzen auf das letzte Element freigegeben und Iteratoren, die wie ein
+ * {@link de.chrlembeck.codegen.generator.model.ModelCursor} {@link AutoCloseable} implementieren, geschlossen. Dadurch
+ * können Modelle verarbeitet werden, deren Elemente erst beim Durchlaufen gelesen werden und nicht gemeinsam in den
+ * Speicher passen.
+ *
+ * @author Christoph Lembeck
+ */
+public final class LoopCursor {
+
+    /**
+     * Der Logger für die Klasse.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoopCursor.class);
+
+    /**
+     * Wert der Schleifenvariablen im aktuellen Durchlauf.
+     */
+    private final LoopVariable variable = new LoopVariable();
+
+    /**
+     * Zähler für die Schleifendurchläufe.
+     */
+    private final Counter counter = new Counter(-1, false, false);
+
+    /**
+     * Schleifenvariable, die den Zähler enthält.
+     */
+    private final LoopVariable counterVariable = new LoopVariable();
+
+    /**
+     * Zu durchlaufendes Array oder null.
+     */
+    private Object array;
+
+    /**
+     * Komponententyp des zu durchlaufenden Arrays.
+     */
+    private Class<?> componentType;
+
+    /**
+     * Länge des zu durchlaufenden Arrays.
+     */
+    private int length;
+
+    /**
+     * Position des nächsten Elements im Array.
+     */
+    private int position;
+
+    /**
+     * Zu durchlaufender Iterator oder null.
+     */
+    private Iterator<?> iterator;
+
+    /**
+     * Zu durchlaufender Spliterator oder null.
+     */
+    private Spliterator<?> spliterator;
+
+    /**
+     * Im Voraus gelesenes Element des Spliterators oder null, falls kein Spliterator durchlaufen wird.
+     */
+    private Lookahead lookahead;
+
+    /**
+     * Stream, der nach dem Durchlaufen geschlossen werden muss, oder null.
+     */
+    private BaseStream<?, ?> stream;
+
+    /**
+     * Index des aktuellen Durchlaufs.
+     */
+    private long index = -1;
+
+    /**
+     * Erstellt einen neuen Cursor über die Elemente des übergebenen Werts.
+     *
+     * @param statement
+     *            Schleife oder Template-Aufruf, für den die Elemente durchlaufen werden.
+     * @param source
+     *            Ergebnis des Ausdrucks für die zu durchlaufenden Elemente.
+     * @param environment
+     *            Aktuelle Laufzeitumgebung.
+     * @throws GeneratorException
+     *             Falls über den Wert nicht iteriert werden kann.
+     */
+    public LoopCursor(final AbstractTemplateMember<?> statement, final ObjectWithType<?> source,
+            final Environment environment) {
+        counterVariable.setObject(counter, Counter.class);
+        final Object object = source.getObject();
+        if (object instanceof Iterable) {
+            iterator = ((Iterable<?>) object).iterator();
+        } else if (object instanceof Iterator) {
+            iterator = (Iterator<?>) object;
+        } else if (object instanceof BaseStream) {
+            stream = (BaseStream<?, ?>) object;
+            initSpliterator(stream.spliterator());
+        } else if (object instanceof Spliterator) {
+            initSpliterator((Spliterator<?>) object);
+        } else if (object != null && object.getClass().isArray()) {
+            array = object;
+            componentType = object.getClass().getComponentType();
+            length = Array.getLength(object);
+        } else {
+            final String message = "Über Objekte vom Typ " + source.getType().getName()
+                    + " kann nicht iteriert werden.";
+            LOGGER.warn(message);
+            throw new GeneratorException(message, statement, environment);
+        }
+    }
+
+    /**
+     * Bereitet das Durchlaufen eines Spliterators vor und liest das erste Element im Voraus.
+     *
+     * @param source
+     *            Zu durchlaufender Spliterator.
+     */
+    private void initSpliterator(final Spliterator<?> source) {
+        spliterator = source;
+        lookahead = new Lookahead();
+        lookahead.advance();
+    }
+
+    /**
+     * Gibt die Schleifenvariable zurück, deren Wert bei jedem Aufruf von {@link #next()} auf das nächste Element
+     * gesetzt wird.
+     *
+     * @return Schleifenvariable für alle Durchläufe.
+     */
+    public ObjectWithType<?> getVariable() {
+        return variable;
+    }
+
+    /**
+     * Gibt die Schleifenvariable mit dem Zähler zurück, der bei jedem Aufruf von {@link #next()} aktualisiert wird.
+     *
+     * @return Schleifenvariable mit dem Zähler für alle Durchläufe.
+     */
+    public ObjectWithType<?> getCounter() {
+        return counterVariable;
+    }
+
+    /**
+     * Prüft, ob nach dem aktuellen Element noch ein weiteres Element folgt.
+     *
+     * @return true, falls ein weiteres Element folgt, sonst false.
+     */
+    public boolean hasNext() {
+        if (array != null) {
+            return position < length;
+        } else if (iterator != null) {
+            return iterator.hasNext();
+        }
+        return lookahead.available;
+    }
+
+    /**
+     * Wechselt zum nächsten Element und aktualisiert die Schleifenvariable und den Zähler.
+     *
+     * @return true, falls ein weiteres Element vorhanden war, false, falls alle Elemente durchlaufen wurden.
+     */
+    public boolean next() {
+        if (!hasNext()) {
+            return false;
+        }
+        if (array != null) {
+            nextArrayElement();
+        } else if (iterator != null) {
+            variable.setObject(iterator.next());
+        } else {
+            variable.assign(lookahead.element);
+            lookahead.advance();
+        }
+        index++;
+        counter.update(index, !hasNext());
+        return true;
+    }
+
+    /**
+     * Setzt die Schleifenvariable auf das nächste Element des Arrays. Elemente primitiver Arrays werden dabei nicht
+     * verpackt.
+     */
+    private void nextArrayElement() {
+        final int current = position++;
+        if (componentType == int.class) {
+            variable.setLong(((int[]) array)[current], int.class);
+        } else if (componentType == long.class) {
+            variable.setLong(((long[]) array)[current], long.class);
+        } else if (componentType == double.class) {
+            variable.setDouble(((double[]) array)[current], double.class);
+        } else if (componentType == boolean.class) {
+            variable.setLong(((boolean[]) array)[current] ? 1 : 0, boolean.class);
+        } else if (componentType == char.class) {
+            variable.setLong(((char[]) array)[current], char.class);
+        } else if (componentType == byte.class) {
+            variable.setLong(((byte[]) array)[current], byte.class);
+        } else if (componentType == short.class) {
+            variable.setLong(((short[]) array)[current], short.class);
+        } else if (componentType == float.class) {
+            variable.setDouble(((float[]) array)[current], float.class);
+        } else {
+            variable.setObject(((Object[]) array)[current]);
+        }
+    }
+
+    /**
+     * Gibt die Referenzen auf das zuletzt durchlaufene Element frei und schließt den durchlaufenen Stream bzw. den
+     * Iterator, falls dieser {@link AutoCloseable} implementiert.
+     */
+    public void close() {
+        variable.setObject(null);
+        if (lookahead != null) {
+            lookahead.element.setObject(null);
+        }
+        if (stream != null) {
+            stream.close();
+        } else if (iterator instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) iterator).close();
+            } catch (final Exception e) {
+                LOGGER.warn("Der Cursor über die Elemente der Schleife konnte nicht geschlossen werden.", e);
+            }
+        }
+    }
+
+    /**
+     * Nimmt das im Voraus gelesene Element eines Spliterators auf. Elemente der primitiven Spliteratoren werden dabei
+     * nicht verpackt.
+     *
+     * @author Christoph Lembeck
+     */
+    private final class Lookahead implements Consumer<Object>, IntConsumer, LongConsumer, DoubleConsumer {
+
+        /**
+         * Im Voraus gelesenes Element.
+         */
+        private final LoopVariable element = new LoopVariable();
+
+        /**
+         * Gibt an, ob ein Element im Voraus gelesen werden konnte.
+         */
+        private boolean available;
+
+        /**
+         * Liest das nächste Element des Spliterators.
+         */
+        void advance() {
+            if (spliterator instanceof Spliterator.OfInt) {
+                available = ((Spliterator.OfInt) spliterator).tryAdvance((IntConsumer) this);
+            } else if (spliterator instanceof Spliterator.OfLong) {
+                available = ((Spliterator.OfLong) spliterator).tryAdvance((LongConsumer) this);
+            } else if (spliterator instanceof Spliterator.OfDouble) {
+                available = ((Spliterator.OfDouble) spliterator).tryAdvance((DoubleConsumer) this);
+            } else {
+                available = spliterator.tryAdvance(this);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void accept(final Object value) {
+            element.setObject(value);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void accept(final int value) {
+            element.setLong(value, int.class);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void accept(final long value) {
+            element.setLong(value, long.class);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void accept(final double value) {
+            element.setDouble(value, double.class);
+        }
+    }
+}
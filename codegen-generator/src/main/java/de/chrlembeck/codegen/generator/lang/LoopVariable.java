@@ -0,0 +1,167 @@
+package de.chrlembeck.codegen.generator.lang;
+
+/**
+ * Veränderlicher Wert einer Schleifenvariablen. Eine Schleife legt für ihre Variable und ihren Zähler jeweils nur ein
+ * Objekt dieser Klasse im Frame ab und setzt pro Durchlauf lediglich den neuen Wert, so dass für die Durchläufe keine
+ * neuen Wrapper erzeugt werden müssen. Elemente primitiver Arrays und Streams werden dabei unverpackt gespeichert und
+ * erst beim Auslesen über {@link #getObject()} in ihre Wrapper-Klasse verpackt.
+ * <p>
+ * Da sich der Wert mit jedem Durchlauf ändert, dürfen die Objekte nicht über einen Durchlauf hinaus festgehalten
+ * werden. Wird der Frame für die Verwendung in einem anderen Thread kopiert, ist stattdessen der über
+ * {@link #snapshot()} ermittelte, unveränderliche Wert zu verwenden.
+ *
+ * @author Christoph Lembeck
+ */
+public final class LoopVariable extends ObjectWithType<Object> {
+
+    /**
+     * Aktueller Wert, falls dieser kein primitiver Wert ist.
+     */
+    private Object object;
+
+    /**
+     * Laufzeittyp des aktuellen Werts.
+     */
+    private Class<?> type = Object.class;
+
+    /**
+     * Aktueller Wert für die ganzzahligen primitiven Typen, boolean und char.
+     */
+    private long longValue;
+
+    /**
+     * Aktueller Wert für float und double.
+     */
+    private double doubleValue;
+
+    /**
+     * Erstellt eine neue, noch nicht belegte Schleifenvariable.
+     */
+    LoopVariable() {
+        super(null, Object.class);
+    }
+
+    /**
+     * Setzt ein Objekt als neuen Wert. Der Laufzeittyp ergibt sich aus der Klasse des Objekts.
+     *
+     * @param value
+     *            Neuer Wert oder null.
+     */
+    void setObject(final Object value) {
+        setObject(value, value == null ? Object.class : value.getClass());
+    }
+
+    /**
+     * Setzt ein Objekt mit dem übergebenen Laufzeittyp als neuen Wert.
+     *
+     * @param value
+     *            Neuer Wert oder null.
+     * @param valueType
+     *            Laufzeittyp des Werts.
+     */
+    void setObject(final Object value, final Class<?> valueType) {
+        this.object = value;
+        this.type = valueType;
+    }
+
+    /**
+     * Setzt einen ganzzahligen primitiven Wert, einen boolean- oder einen char-Wert als neuen Wert.
+     *
+     * @param value
+     *            Neuer Wert. Bei boolean steht 1 für true.
+     * @param valueType
+     *            Primitiver Typ des Werts.
+     */
+    void setLong(final long value, final Class<?> valueType) {
+        this.object = null;
+        this.longValue = value;
+        this.type = valueType;
+    }
+
+    /**
+     * Setzt einen float- oder double-Wert als neuen Wert.
+     *
+     * @param value
+     *            Neuer Wert.
+     * @param valueType
+     *            Primitiver Typ des Werts.
+     */
+    void setDouble(final double value, final Class<?> valueType) {
+        this.object = null;
+        this.doubleValue = value;
+        this.type = valueType;
+    }
+
+    /**
+     * Übernimmt den Wert einer anderen Schleifenvariablen.
+     *
+     * @param other
+     *            Schleifenvariable, deren Wert übernommen wird.
+     */
+    void assign(final LoopVariable other) {
+        this.object = other.object;
+        this.longValue = other.longValue;
+        this.doubleValue = other.doubleValue;
+        this.type = other.type;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Class<Object> getType() {
+        return (Class<Object>) type;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object getObject() {
+        return type.isPrimitive() ? box() : object;
+    }
+
+    /**
+     * Verpackt den aktuellen primitiven Wert in seine Wrapper-Klasse.
+     *
+     * @return Verpackter Wert.
+     */
+    private Object box() {
+        if (type == int.class) {
+            return Integer.valueOf((int) longValue);
+        } else if (type == long.class) {
+            return Long.valueOf(longValue);
+        } else if (type == double.class) {
+            return Double.valueOf(doubleValue);
+        } else if (type == boolean.class) {
+            return Boolean.valueOf(longValue != 0);
+        } else if (type == char.class) {
+            return Character.valueOf((char) longValue);
+        } else if (type == byte.class) {
+            return Byte.valueOf((byte) longValue);
+        } else if (type == short.class) {
+            return Short.valueOf((short) longValue);
+        }
+        return Float.valueOf((float) doubleValue);
+    }
+
+    /**
+     * Ermittelt den aktuellen Wert als unveränderliches Objekt, welches unabhängig von den weiteren Durchläufen der
+     * Schleife verwendet werden kann. Der Zähler einer Schleife wird dabei ebenfalls kopiert.
+     *
+     * @return Unveränderliche Kopie des aktuellen Werts.
+     */
+    public ObjectWithType<?> snapshot() {
+        final Object value = getObject();
+        return new ObjectWithType<>(value instanceof Counter ? ((Counter) value).copy() : value, getType());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "LoopVariable[object=" + getObject() + ", type=" + type + "]";
+    }
+}
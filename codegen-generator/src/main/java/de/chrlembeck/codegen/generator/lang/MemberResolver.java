@@ -0,0 +1,649 @@
+package de.chrlembeck.codegen.generator.lang;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+import de.chrlembeck.codegen.generator.JavaUtil;
+
+/**
+ * Hilfsklasse zur Auflösung von Methoden und Attributen, auf die aus den Ausdrücken einer Template-Datei heraus
+ * zugegriffen wird. Die gefundenen Elemente werden als {@link MethodHandle}s mit einheitlicher Signatur zurückgegeben,
+ * so dass sie von den Aufrufstellen zwischengespeichert und ohne erneute Reflection aufgerufen werden können.
+ *
+ * <p>
+ * Methoden werden zunächst über die exakten Laufzeittypen der Argumente gesucht. Wird dabei keine Methode gefunden,
+ * wird unter allen Methoden mit passendem Namen und passender Parameteranzahl die speziellste Methode ausgewählt, deren
+ * Parametertypen die Argumente über Obertypen, Boxing/Unboxing oder erweiternde primitive Konvertierungen aufnehmen
+ * können. Ist die Klasse des Empfängers selbst nicht öffentlich zugänglich, wird die Methode über einen öffentlichen
+ * Obertyp angesprochen.
+ * </p>
+ *
+ * @author Christoph Lembeck
+ */
+final class MemberResolver {
+
+    /**
+     * Lookup-Objekt für den Zugriff auf die öffentlichen Elemente der Modell-Klassen.
+     */
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+    /**
+     * Primitive Typen in der Reihenfolge, in der erweiternde Konvertierungen zwischen ihnen erlaubt sind (ohne char
+     * und boolean).
+     */
+    private static final Class<?>[] WIDENING_ORDER = { byte.class, short.class, int.class, long.class, float.class,
+            double.class };
+
+    /**
+     * Es werden keine Instanzen dieser Klasse benötigt.
+     */
+    private MemberResolver() {
+        // Hilfsklasse
+    }
+
+    /**
+     * Sucht die aufzurufende Methode und gibt sie als aufrufbares Ziel zurück.
+     *
+     * @param type
+     *            Klasse des Objekts, auf dem die Methode aufgerufen wird oder Klasse der statischen Methode.
+     * @param methodName
+     *            Name der aufzurufenden Methode.
+     * @param argTypes
+     *            Laufzeittypen der Argumente. Bei null-Werten ist der Eintrag null.
+     * @param staticCall
+     *            true, falls die Methode statisch über ihre Klasse aufgerufen wird.
+     * @return Aufrufbares Ziel mit einem MethodHandle vom Typ {@code (Object, Object[])Object}.
+     * @throws NoSuchMethodException
+     *             Falls keine passende, öffentlich zugängliche Methode gefunden wurde.
+     */
+    static MethodTarget resolveMethod(final Class<?> type, final String methodName, final Class<?>[] argTypes,
+            final boolean staticCall) throws NoSuchMethodException {
+        final Method method = selectMethod(type, methodName, argTypes);
+        final boolean staticMethod = Modifier.isStatic(method.getModifiers());
+        if (staticCall && !staticMethod) {
+            throw new NoSuchMethodException("Die Methode " + method + " ist nicht statisch.");
+        }
+        MethodHandle handle = findAccessibleHandle(type, method);
+        final int parameterCount = method.getParameterCount();
+        handle = handle.asType(MethodType.genericMethodType(staticMethod ? parameterCount : parameterCount + 1));
+        if (staticMethod) {
+            handle = handle.asSpreader(Object[].class, parameterCount);
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        } else {
+            handle = handle.asSpreader(Object[].class, parameterCount);
+        }
+        return new MethodTarget(type, argTypes, handle, method, widenings(method.getParameterTypes(), argTypes));
+    }
+
+    /**
+     * Sucht das auszulesende Attribut. Dies kann ein öffentliches Feld, ein Getter nach JavaBean-Konvention
+     * ({@code getXxx()} oder für boolsche Werte {@code isXxx()}) oder bei Arrays die Länge des Arrays sein.
+     *
+     * @param type
+     *            Klasse des Objekts, aus dem das Attribut gelesen wird oder Klasse des statischen Attributs.
+     * @param identifier
+     *            Name des Attributs.
+     * @param staticAccess
+     *            true, falls das Attribut statisch über seine Klasse gelesen wird.
+     * @return Lesbares Ziel mit einem MethodHandle vom Typ {@code (Object)Object}.
+     * @throws NoSuchFieldException
+     *             Falls weder ein passendes Feld noch ein passender Getter gefunden wurde.
+     */
+    static AttributeTarget resolveAttribute(final Class<?> type, final String identifier,
+            final boolean staticAccess) throws NoSuchFieldException {
+        if (!staticAccess && type.isArray() && "length".equals(identifier)) {
+            final MethodHandle handle = MethodHandles.arrayLength(type)
+                    .asType(MethodType.methodType(Object.class, Object.class));
+            return new AttributeTarget(type, handle, int.class, null);
+        }
+        try {
+            final Field field = type.getField(identifier);
+            if (!staticAccess || Modifier.isStatic(field.getModifiers())) {
+                return new AttributeTarget(type, fieldGetter(type, field), field.getType(), field);
+            }
+        } catch (final NoSuchFieldException | IllegalAccessException e) {
+            // weiter mit der Suche nach einem Getter
+        }
+        final String capitalized = Character.toUpperCase(identifier.charAt(0)) + identifier.substring(1);
+        for (final String getterName : new String[] { "get" + capitalized, "is" + capitalized }) {
+            try {
+                final Method getter = type.getMethod(getterName);
+                if (getter.getReturnType() == void.class
+                        || getterName.startsWith("is") && getter.getReturnType() != boolean.class
+                        || staticAccess != Modifier.isStatic(getter.getModifiers())) {
+                    continue;
+                }
+                final MethodTarget target = resolveMethod(type, getterName, new Class<?>[0], staticAccess);
+                final MethodHandle handle = MethodHandles.insertArguments(target.getHandle(), 1,
+                        (Object) new Object[0]);
+                return new AttributeTarget(type, handle, getter.getReturnType(), getter);
+            } catch (final NoSuchMethodException e) {
+                // nächste Namenskonvention versuchen
+            }
+        }
+        throw new NoSuchFieldException("Weder das Attribut '" + identifier + "' noch ein passender Getter wurde in "
+                + type.getName() + " gefunden.");
+    }
+
+    /**
+     * Erzeugt einen MethodHandle zum Lesen des übergebenen Feldes.
+     *
+     * @param type
+     *            Klasse, über die auf das Feld zugegriffen wird.
+     * @param field
+     *            Zu lesendes Feld.
+     * @return MethodHandle vom Typ {@code (Object)Object}.
+     * @throws IllegalAccessException
+     *             Falls das Feld über keinen öffentlichen Typ erreichbar ist.
+     */
+    private static MethodHandle fieldGetter(final Class<?> type, final Field field) throws IllegalAccessException {
+        final Class<?> refc = isAccessible(type) ? type : field.getDeclaringClass();
+        try {
+            if (Modifier.isStatic(field.getModifiers())) {
+                final MethodHandle getter = LOOKUP.findStaticGetter(refc, field.getName(), field.getType());
+                return MethodHandles.dropArguments(getter.asType(MethodType.methodType(Object.class)), 0,
+                        Object.class);
+            }
+            return LOOKUP.findGetter(refc, field.getName(), field.getType())
+                    .asType(MethodType.methodType(Object.class, Object.class));
+        } catch (final NoSuchFieldException e) {
+            throw new IllegalAccessException(e.getMessage());
+        }
+    }
+
+    /**
+     * Wählt die aufzurufende Methode anhand ihres Namens und der Typen der Argumente aus.
+     *
+     * @param type
+     *            Klasse, in der die Methode gesucht wird.
+     * @param methodName
+     *            Name der Methode.
+     * @param argTypes
+     *            Laufzeittypen der Argumente (null für null-Werte).
+     * @return Gefundene Methode.
+     * @throws NoSuchMethodException
+     *             Falls keine passende Methode existiert.
+     */
+    private static Method selectMethod(final Class<?> type, final String methodName, final Class<?>[] argTypes)
+            throws NoSuchMethodException {
+        if (!Arrays.asList(argTypes).contains(null)) {
+            try {
+                return type.getMethod(methodName, argTypes);
+            } catch (final NoSuchMethodException e) {
+                // weiter mit der Suche über Obertypen und Konvertierungen
+            }
+        }
+        Method best = null;
+        for (final Method candidate : type.getMethods()) {
+            if (!candidate.isBridge() && candidate.getName().equals(methodName)
+                    && candidate.getParameterCount() == argTypes.length
+                    && isApplicable(candidate.getParameterTypes(), argTypes)
+                    && (best == null || isApplicable(best.getParameterTypes(), candidate.getParameterTypes()))) {
+                best = candidate;
+            }
+        }
+        if (best == null) {
+            throw new NoSuchMethodException(
+                    type.getName() + "." + methodName + argumentsToString(argTypes));
+        }
+        return best;
+    }
+
+    /**
+     * Sucht einen MethodHandle für die übergebene Methode über einen öffentlich zugänglichen Typ. Ist die Klasse des
+     * Empfängers nicht öffentlich (z.B. bei privaten Implementierungen von Collections), wird die Methode über die
+     * öffentlichen Oberklassen und Interfaces angesprochen.
+     *
+     * @param type
+     *            Klasse des Empfängers.
+     * @param method
+     *            Aufzurufende Methode.
+     * @return MethodHandle für den Aufruf der Methode.
+     * @throws NoSuchMethodException
+     *             Falls die Methode über keinen öffentlichen Typ erreichbar ist.
+     */
+    private static MethodHandle findAccessibleHandle(final Class<?> type, final Method method)
+            throws NoSuchMethodException {
+        final Deque<Class<?>> queue = new ArrayDeque<>();
+        final Set<Class<?>> visited = new HashSet<>();
+        queue.add(type);
+        while (!queue.isEmpty()) {
+            final Class<?> refc = queue.poll();
+            if (!visited.add(refc)) {
+                continue;
+            }
+            if (isAccessible(refc)) {
+                try {
+                    final Method declared = refc.getMethod(method.getName(), method.getParameterTypes());
+                    final MethodType methodType = MethodType.methodType(declared.getReturnType(),
+                            declared.getParameterTypes());
+                    return Modifier.isStatic(declared.getModifiers())
+                            ? LOOKUP.findStatic(refc, declared.getName(), methodType)
+                            : LOOKUP.findVirtual(refc, declared.getName(), methodType);
+                } catch (final NoSuchMethodException | IllegalAccessException e) {
+                    // in den Obertypen weitersuchen
+                }
+            }
+            if (refc.getSuperclass() != null) {
+                queue.add(refc.getSuperclass());
+            }
+            queue.addAll(Arrays.asList(refc.getInterfaces()));
+        }
+        throw new NoSuchMethodException("Auf die Methode " + method + " kann nicht zugegriffen werden.");
+    }
+
+    /**
+     * Prüft, ob der Typ öffentlich ist und in einem exportierten Paket liegt.
+     *
+     * @param type
+     *            Zu prüfender Typ.
+     * @return true, falls über den Typ auf öffentliche Elemente zugegriffen werden kann.
+     */
+    private static boolean isAccessible(final Class<?> type) {
+        return Modifier.isPublic(type.getModifiers()) && type.getModule().isExported(type.getPackageName());
+    }
+
+    /**
+     * Prüft, ob Argumente der übergebenen Typen an Parameter der übergebenen Typen übergeben werden können.
+     *
+     * @param parameterTypes
+     *            Typen der Parameter.
+     * @param argTypes
+     *            Typen der Argumente (null für null-Werte).
+     * @return true, falls alle Argumente übergeben werden können.
+     */
+    private static boolean isApplicable(final Class<?>[] parameterTypes, final Class<?>[] argTypes) {
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (!isAssignable(parameterTypes[i], argTypes[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Prüft, ob ein Wert des Typs argType einem Parameter des Typs parameterType zugewiesen werden kann.
+     *
+     * @param parameterType
+     *            Typ des Parameters.
+     * @param argType
+     *            Typ des Arguments oder null für einen null-Wert.
+     * @return true, falls die Zuweisung über einen Obertyp, Boxing/Unboxing oder eine erweiternde Konvertierung
+     *         möglich ist.
+     */
+    private static boolean isAssignable(final Class<?> parameterType, final Class<?> argType) {
+        if (argType == null) {
+            return !parameterType.isPrimitive();
+        }
+        if (parameterType.isAssignableFrom(argType)) {
+            return true;
+        }
+        if (parameterType.isPrimitive()) {
+            final Class<?> primitiveArg = argType.isPrimitive() ? argType : unwrap(argType);
+            return primitiveArg != null && (primitiveArg == parameterType || isWidening(primitiveArg, parameterType));
+        }
+        return argType.isPrimitive() && parameterType.isAssignableFrom(JavaUtil.getWrapperClass(argType));
+    }
+
+    /**
+     * Ermittelt zu einem Wrapper-Typ den zugehörigen primitiven Typ.
+     *
+     * @param type
+     *            Wrapper-Typ.
+     * @return Primitiver Typ oder null, falls es sich nicht um einen Wrapper-Typ handelt.
+     */
+    private static Class<?> unwrap(final Class<?> type) {
+        final MethodType methodType = MethodType.methodType(type);
+        final Class<?> unwrapped = methodType.unwrap().returnType();
+        return unwrapped == type ? null : unwrapped;
+    }
+
+    /**
+     * Prüft, ob eine erweiternde primitive Konvertierung von from nach to existiert.
+     *
+     * @param from
+     *            Primitiver Ausgangstyp.
+     * @param to
+     *            Primitiver Zieltyp.
+     * @return true, falls die Konvertierung erlaubt ist.
+     */
+    private static boolean isWidening(final Class<?> from, final Class<?> to) {
+        if (from == char.class) {
+            return to == int.class || to == long.class || to == float.class || to == double.class;
+        }
+        final int fromIndex = Arrays.asList(WIDENING_ORDER).indexOf(from);
+        final int toIndex = Arrays.asList(WIDENING_ORDER).indexOf(to);
+        return fromIndex >= 0 && toIndex > fromIndex;
+    }
+
+    /**
+     * Ermittelt für jeden Parameter, ob das Argument vor dem Aufruf in einen breiteren primitiven Typ konvertiert
+     * werden muss.
+     *
+     * @param parameterTypes
+     *            Typen der Parameter.
+     * @param argTypes
+     *            Typen der Argumente.
+     * @return Array mit den Zieltypen der Konvertierungen oder null, falls keine Konvertierung notwendig ist.
+     */
+    private static Class<?>[] widenings(final Class<?>[] parameterTypes, final Class<?>[] argTypes) {
+        Class<?>[] widenings = null;
+        for (int i = 0; i < parameterTypes.length; i++) {
+            final Class<?> argType = argTypes[i];
+            if (parameterTypes[i].isPrimitive() && argType != null) {
+                final Class<?> primitiveArg = argType.isPrimitive() ? argType : unwrap(argType);
+                if (primitiveArg != parameterTypes[i]) {
+                    if (widenings == null) {
+                        widenings = new Class<?>[parameterTypes.length];
+                    }
+                    widenings[i] = parameterTypes[i];
+                }
+            }
+        }
+        return widenings;
+    }
+
+    /**
+     * Konvertiert einen primitiven Wert (in seiner Wrapper-Darstellung) in den übergebenen breiteren primitiven Typ.
+     *
+     * @param value
+     *            Zu konvertierender Wert.
+     * @param target
+     *            Primitiver Zieltyp.
+     * @return Konvertierter Wert in der Wrapper-Darstellung des Zieltyps.
+     */
+    static Object widen(final Object value, final Class<?> target) {
+        final Number number = value instanceof Character ? Integer.valueOf((Character) value) : (Number) value;
+        if (target == short.class) {
+            return number.shortValue();
+        } else if (target == int.class) {
+            return number.intValue();
+        } else if (target == long.class) {
+            return number.longValue();
+        } else if (target == float.class) {
+            return number.floatValue();
+        } else if (target == double.class) {
+            return number.doubleValue();
+        }
+        return value;
+    }
+
+    /**
+     * Erzeugt eine lesbare Darstellung der Argumenttypen für Fehlermeldungen.
+     *
+     * @param argTypes
+     *            Typen der Argumente.
+     * @return Darstellung der Typen in der Form {@code (int, java.lang.String)}.
+     */
+    static String argumentsToString(final Class<?>[] argTypes) {
+        final StringBuilder builder = new StringBuilder("(");
+        for (int i = 0; i < argTypes.length; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(argTypes[i] == null ? "null" : argTypes[i].getName());
+        }
+        return builder.append(')').toString();
+    }
+
+    /**
+     * Bereits aufgelöstes Ziel eines Methodenaufrufs.
+     */
+    static final class MethodTarget {
+
+        /**
+         * Klasse des Empfängers, für die das Ziel aufgelöst wurde.
+         */
+        private final Class<?> receiverType;
+
+        /**
+         * Typen der Argumente, für die das Ziel aufgelöst wurde.
+         */
+        private final Class<?>[] argTypes;
+
+        /**
+         * MethodHandle vom Typ {@code (Object, Object[])Object}.
+         */
+        private final MethodHandle handle;
+
+        /**
+         * Aufzurufende Methode.
+         */
+        private final Method method;
+
+        /**
+         * Zieltypen erweiternder Konvertierungen der Argumente oder null, falls keine notwendig sind.
+         */
+        private final Class<?>[] widenings;
+
+        /**
+         * Erstellt ein neues Ziel.
+         *
+         * @param receiverType
+         *            Klasse des Empfängers, für die das Ziel aufgelöst wurde.
+         * @param argTypes
+         *            Typen der Argumente, für die das Ziel aufgelöst wurde.
+         * @param handle
+         *            MethodHandle vom Typ {@code (Object, Object[])Object}.
+         * @param method
+         *            Aufzurufende Methode.
+         * @param widenings
+         *            Zieltypen erweiternder Konvertierungen der Argumente oder null.
+         */
+        MethodTarget(final Class<?> receiverType, final Class<?>[] argTypes, final MethodHandle handle,
+                final Method method, final Class<?>[] widenings) {
+            this.receiverType = receiverType;
+            this.argTypes = argTypes;
+            this.handle = handle;
+            this.method = method;
+            this.widenings = widenings;
+        }
+
+        /**
+         * Prüft, ob das Ziel für die übergebenen Typen aufgelöst wurde.
+         *
+         * @param type
+         *            Klasse des Empfängers.
+         * @param types
+         *            Typen der Argumente.
+         * @return true, falls das Ziel für diese Typen verwendet werden kann.
+         */
+        boolean matches(final Class<?> type, final Class<?>[] types) {
+            return receiverType == type && matchesArguments(types);
+        }
+
+        /**
+         * Prüft, ob das Ziel für die übergebenen Typen der Argumente aufgelöst wurde.
+         *
+         * @param types
+         *            Typen der Argumente.
+         * @return true, falls das Ziel für diese Argumenttypen verwendet werden kann.
+         */
+        boolean matchesArguments(final Class<?>[] types) {
+            for (int i = 0; i < types.length; i++) {
+                if (argTypes[i] != types[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Ruft die Methode auf.
+         *
+         * @param receiver
+         *            Objekt, auf dem die Methode aufgerufen wird oder null bei statischen Methoden.
+         * @param args
+         *            Argumente des Aufrufs.
+         * @return Rückgabewert der Methode.
+         * @throws Throwable
+         *             Alle von der Methode geworfenen Exceptions.
+         */
+        Object invoke(final Object receiver, final Object[] args) throws Throwable {
+            if (widenings != null) {
+                for (int i = 0; i < widenings.length; i++) {
+                    if (widenings[i] != null) {
+                        args[i] = widen(args[i], widenings[i]);
+                    }
+                }
+            }
+            return (Object) handle.invokeExact(receiver, args);
+        }
+
+        /**
+         * Gibt den MethodHandle des Ziels zurück.
+         *
+         * @return MethodHandle vom Typ {@code (Object, Object[])Object}.
+         */
+        MethodHandle getHandle() {
+            return handle;
+        }
+
+        /**
+         * Gibt den deklarierten Rückgabetyp der Methode zurück.
+         *
+         * @return Rückgabetyp der Methode.
+         */
+        Class<?> getReturnType() {
+            return method.getReturnType();
+        }
+
+        /**
+         * Gibt den generischen Rückgabetyp der Methode zurück.
+         *
+         * @return Generischer Rückgabetyp der Methode.
+         */
+        Type getGenericReturnType() {
+            return method.getGenericReturnType();
+        }
+
+        /**
+         * Gibt die Klasse zurück, in der die Methode deklariert ist.
+         *
+         * @return Deklarierende Klasse der Methode.
+         */
+        Class<?> getDeclaringClass() {
+            return method.getDeclaringClass();
+        }
+
+        /**
+         * Gibt die Klasse zurück, für die das Ziel aufgelöst wurde.
+         *
+         * @return Klasse des Empfängers.
+         */
+        Class<?> getReceiverType() {
+            return receiverType;
+        }
+    }
+
+    /**
+     * Bereits aufgelöstes Ziel eines Attributzugriffs.
+     */
+    static final class AttributeTarget {
+
+        /**
+         * Klasse des Objekts, für die das Ziel aufgelöst wurde.
+         */
+        private final Class<?> receiverType;
+
+        /**
+         * MethodHandle vom Typ {@code (Object)Object}.
+         */
+        private final MethodHandle handle;
+
+        /**
+         * Deklarierter Typ des Attributs.
+         */
+        private final Class<?> type;
+
+        /**
+         * Gelesenes Feld, aufgerufener Getter oder null bei der Länge eines Arrays.
+         */
+        private final Member member;
+
+        /**
+         * Erstellt ein neues Ziel.
+         *
+         * @param receiverType
+         *            Klasse des Objekts, für die das Ziel aufgelöst wurde.
+         * @param handle
+         *            MethodHandle vom Typ {@code (Object)Object}.
+         * @param type
+         *            Deklarierter Typ des Attributs.
+         * @param member
+         *            Gelesenes Feld, aufgerufener Getter oder null bei der Länge eines Arrays.
+         */
+        AttributeTarget(final Class<?> receiverType, final MethodHandle handle, final Class<?> type,
+                final Member member) {
+            this.receiverType = receiverType;
+            this.handle = handle;
+            this.type = type;
+            this.member = member;
+        }
+
+        /**
+         * Gibt die Klasse zurück, für die das Ziel aufgelöst wurde.
+         *
+         * @return Klasse des Objekts.
+         */
+        Class<?> getReceiverType() {
+            return receiverType;
+        }
+
+        /**
+         * Liest das Attribut aus.
+         *
+         * @param receiver
+         *            Objekt, aus dem gelesen wird oder null bei statischen Attributen.
+         * @return Wert des Attributs.
+         * @throws Throwable
+         *             Alle beim Lesen geworfenen Exceptions.
+         */
+        Object read(final Object receiver) throws Throwable {
+            return (Object) handle.invokeExact(receiver);
+        }
+
+        /**
+         * Gibt den deklarierten Typ des Attributs zurück.
+         *
+         * @return Typ des Attributs.
+         */
+        Class<?> getType() {
+            return type;
+        }
+
+        /**
+         * Gibt den generischen Typ des Attributs zurück.
+         *
+         * @return Generischer Typ des Feldes bzw. Rückgabetyp des Getters.
+         */
+        Type getGenericType() {
+            if (member instanceof Field) {
+                return ((Field) member).getGenericType();
+            } else if (member instanceof Method) {
+                return ((Method) member).getGenericReturnType();
+            }
+            return type;
+        }
+
+        /**
+         * Gibt die Klasse zurück, in der das Feld bzw. der Getter deklariert ist.
+         *
+         * @return Deklarierende Klasse oder die Klasse des Objekts bei der Länge eines Arrays.
+         */
+        Class<?> getDeclaringClass() {
+            return member == null ? receiverType : member.getDeclaringClass();
+        }
+    }
+}
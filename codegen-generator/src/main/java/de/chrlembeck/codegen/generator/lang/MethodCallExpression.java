@@ -1,10 +1,11 @@
 package de.chrlembeck.codegen.generator.lang;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.List;
 
 import de.chrlembeck.codegen.generator.Environment;
+import de.chrlembeck.codegen.generator.GeneratorException;
+import de.chrlembeck.codegen.generator.lang.MemberResolver.MethodTarget;
 import de.chrlembeck.codegen.grammar.CodeGenParser.ExpressionMethodCallContext;
 
 /**
@@ -24,6 +25,21 @@ public class MethodCallExpression extends AbstractExpression<ExpressionMethodCal
      */
     private List<Expression> arguments;
 
+    /**
+     * Inline-Cache für die an dieser Stelle bereits aufgelösten Methoden.
+     */
+    private MethodCallSite callSite;
+
+    /**
+     * Bereits beim Laden der Template-Datei anhand der statischen Typen ermittelte Methode oder null.
+     */
+    private MethodTarget boundTarget;
+
+    /**
+     * Gibt an, ob die gebundene Methode statisch aufgerufen wird.
+     */
+    private boolean boundStatic;
+
     /**
      * Erzeugt eine neue Repräsentation eines Methodenaufrufs mit den Werten des Parsers.
      * 
@@ -67,41 +83,159 @@ public class MethodCallExpression extends AbstractExpression<ExpressionMethodCal
         return "MethodCall[method=" + methodExpression + ", arguments=" + arguments + "]";
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Expression> getSubExpressions() {
+        final List<Expression> subExpressions = new ArrayList<>(arguments.size() + 1);
+        subExpressions.add(methodExpression);
+        subExpressions.addAll(arguments);
+        return subExpressions;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void replaceSubExpression(final Expression subExpression, final Expression replacement) {
+        if (methodExpression == subExpression) {
+            methodExpression = replacement;
+            return;
+        }
+        for (int i = 0; i < arguments.size(); i++) {
+            if (arguments.get(i) == subExpression) {
+                final List<Expression> newArguments = new ArrayList<>(arguments);
+                newArguments.set(i, replacement);
+                arguments = newArguments;
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Kein direkter Teilausdruck: " + subExpression);
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public ObjectWithType<?> evaluate(final Object model, final Environment environment) {
+        return (ObjectWithType<?>) invoke(model, environment, true);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object evaluateObject(final Object model, final Environment environment) {
+        return invoke(model, environment, false);
+    }
+
+    /**
+     * Wertet die Argumente aus, ermittelt die passende Methode und ruft diese auf.
+     * 
+     * @param model
+     *            Aktuelles Modell.
+     * @param environment
+     *            Aktuelle Laufzeitumgebung.
+     * @param withType
+     *            Falls true, wird das Ergebnis zusammen mit dem deklarierten Rückgabetyp der Methode zurückgegeben,
+     *            sonst nur das Ergebnis selbst.
+     * @return Ergebnis des Methodenaufrufs, bei {@code withType} als {@link ObjectWithType} mit dem deklarierten
+     *         Rückgabetyp.
+     */
+    private Object invoke(final Object model, final Environment environment, final boolean withType) {
         final AttributeExpression exp = (AttributeExpression) methodExpression;
         final CallSource source = exp.getExpression().findCallSource(model, environment);
         final String methodName = exp.getIdentifier();
         final Object[] params = new Object[arguments.size()];
         final Class<?>[] types = new Class<?>[params.length];
-        for (int i = 0; i < arguments.size(); i++) {
+        for (int i = 0; i < params.length; i++) {
             final ObjectWithType<?> owt = arguments.get(i).evaluate(model, environment);
             params[i] = owt.getObject();
-            types[i] = owt.getType();
+            types[i] = params[i] == null && !owt.getType().isPrimitive() ? null : owt.getType();
         }
-        final Method method;
-
-        try {
-            if (source instanceof ObjectCallSource) {
-                final Object objectRef = ((ObjectCallSource) source).getObjectRef();
-                method = objectRef.getClass().getMethod(methodName, types);
-                @SuppressWarnings({ "rawtypes", "unchecked" })
-                final ObjectWithType<?> result = new ObjectWithType(method.invoke(objectRef, params),
-                        method.getReturnType());
-                return result;
-            } else {
-                method = ((StaticCallSource) source).getClassRef().getMethod(methodName, types);
-                @SuppressWarnings({ "rawtypes", "unchecked" })
-                final ObjectWithType<?> result = new ObjectWithType(method.invoke(null, params),
-                        method.getReturnType());
-                return result;
+        final boolean staticCall = source instanceof StaticCallSource;
+        final Object objectRef;
+        final Class<?> type;
+        if (staticCall) {
+            objectRef = null;
+            type = ((StaticCallSource) source).getClassRef();
+        } else if (source == null || ((ObjectCallSource) source).getObjectRef() == null) {
+            throw new GeneratorException("Die Methode '" + methodName + "' kann nicht auf null aufgerufen werden.",
+                    this, environment);
+        } else {
+            objectRef = ((ObjectCallSource) source).getObjectRef();
+            type = objectRef.getClass();
+        }
+        final MethodTarget bound = boundTarget;
+        final MethodTarget target;
+        if (bound != null && boundStatic == staticCall
+                && (staticCall ? bound.getReceiverType() == type : bound.getReceiverType().isInstance(objectRef))
+                && bound.matchesArguments(types)) {
+            target = bound;
+        } else {
+            try {
+                target = getCallSite(methodName).lookup(type, types, staticCall, environment);
+            } catch (final NoSuchMethodException e) {
+                throw new GeneratorException("Die Methode '" + methodName + MemberResolver.argumentsToString(types)
+                        + "' wurde in der Klasse " + type.getName() + " nicht gefunden.", this, environment, e);
             }
-        } catch (SecurityException | IllegalAccessException | IllegalArgumentException
-                | InvocationTargetException | NoSuchMethodException e) {
-            throw new RuntimeException(e);
         }
+        final Object result;
+        try {
+            result = target.invoke(objectRef, params);
+        } catch (final RuntimeException | Error e) {
+            throw e;
+        } catch (final Throwable t) {
+            throw new GeneratorException("Fehler beim Aufruf der Methode '" + methodName + "'.", this, environment, t);
+        }
+        if (!withType) {
+            return result;
+        }
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        final ObjectWithType<?> owt = new ObjectWithType(result, target.getReturnType());
+        return owt;
+    }
+
+    /**
+     * Gibt den Inline-Cache dieser Aufrufstelle zurück und legt ihn beim ersten Aufruf an.
+     * 
+     * @param methodName
+     *            Name der aufzurufenden Methode.
+     * @return Inline-Cache dieser Aufrufstelle.
+     */
+    private MethodCallSite getCallSite(final String methodName) {
+        MethodCallSite site = callSite;
+        if (site == null) {
+            site = new MethodCallSite(methodName);
+            callSite = site;
+        }
+        return site;
+    }
+
+    /**
+     * Bindet den Aufruf an die anhand der statischen Typen ermittelte Methode. Bei der Auswertung wird die Methode ohne
+     * weitere Suche aufgerufen, solange der Empfänger eine Instanz der Klasse ist, für die die Methode ermittelt wurde,
+     * und die Argumente die erwarteten Typen besitzen. Andernfalls wird wie bisher über den Inline-Cache der
+     * Aufrufstelle gesucht.
+     * 
+     * @param target
+     *            Aufzurufende Methode.
+     * @param staticCall
+     *            true, falls die Methode statisch über ihre Klasse aufgerufen wird.
+     * @see TemplateTypeChecker
+     */
+    void bind(final MethodTarget target, final boolean staticCall) {
+        this.boundTarget = target;
+        this.boundStatic = staticCall;
+    }
+
+    /**
+     * Gibt die beim Laden der Template-Datei gebundene Methode zurück.
+     * 
+     * @return Gebundene Methode oder null, falls der Aufruf nicht gebunden werden konnte.
+     */
+    MethodTarget getBoundTarget() {
+        return boundTarget;
     }
-}
\ No newline at end of file
+}
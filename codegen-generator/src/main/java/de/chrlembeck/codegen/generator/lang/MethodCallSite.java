@@ -0,0 +1,204 @@
+package de.chrlembeck.codegen.generator.lang;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.chrlembeck.codegen.generator.Environment;
+import de.chrlembeck.codegen.generator.lang.MemberResolver.MethodTarget;
+
+/**
+ * Inline-Cache für eine einzelne Aufrufstelle einer Methode innerhalb einer Template-Datei. Die Aufrufstelle merkt sich
+ * die bereits aufgelösten Methoden pro Kombination aus Empfängerklasse und Argumenttypen. Solange nur wenige
+ * unterschiedliche Typen an der Aufrufstelle auftreten, werden die Ziele direkt in der Aufrufstelle gehalten. Treten
+ * mehr unterschiedliche Typen auf, wird auf einen von allen Aufrufstellen gemeinsam genutzten Cache ausgewichen.
+ *
+ * @author Christoph Lembeck
+ */
+final class MethodCallSite {
+
+    /**
+     * Maximale Anzahl von Zielen, die direkt in der Aufrufstelle gespeichert werden.
+     */
+    private static final int MAX_INLINE_TARGETS = 4;
+
+    /**
+     * Gemeinsamer Cache für Aufrufstellen, an denen mehr als {@link #MAX_INLINE_TARGETS} unterschiedliche Typen
+     * auftreten. Die Ziele werden an der Klasse des Empfängers abgelegt, so dass sie zusammen mit der Klasse und ihrem
+     * ClassLoader freigegeben werden können.
+     */
+    private static final ClassValue<Map<Key, MethodTarget>> SHARED_TARGETS = new ClassValue<>() {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected Map<Key, MethodTarget> computeValue(final Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /**
+     * Name der aufzurufenden Methode.
+     */
+    private final String methodName;
+
+    /**
+     * Bereits aufgelöste Ziele dieser Aufrufstelle. Das Array wird bei Änderungen komplett ersetzt, so dass es ohne
+     * Synchronisation gelesen werden kann.
+     */
+    private volatile MethodTarget[] targets = new MethodTarget[0];
+
+    /**
+     * Erstellt eine neue Aufrufstelle.
+     *
+     * @param methodName
+     *            Name der aufzurufenden Methode.
+     */
+    MethodCallSite(final String methodName) {
+        this.methodName = methodName;
+    }
+
+    /**
+     * Gibt das Ziel für die übergebenen Typen zurück und löst es bei Bedarf auf.
+     *
+     * @param type
+     *            Klasse des Empfängers bzw. Klasse der statischen Methode.
+     * @param argTypes
+     *            Laufzeittypen der Argumente (null für null-Werte).
+     * @param staticCall
+     *            true, falls die Methode statisch über ihre Klasse aufgerufen wird.
+     * @param environment
+     *            Laufzeitumgebung, in deren Laufzeitprofil Fehlzugriffe gezählt werden, oder null.
+     * @return Aufgelöstes Ziel des Aufrufs.
+     * @throws NoSuchMethodException
+     *             Falls keine passende Methode gefunden werden konnte.
+     */
+    MethodTarget lookup(final Class<?> type, final Class<?>[] argTypes, final boolean staticCall,
+            final Environment environment) throws NoSuchMethodException {
+        final MethodTarget[] current = targets;
+        for (final MethodTarget target : current) {
+            if (target.matches(type, argTypes)) {
+                return target;
+            }
+        }
+        if (current.length >= MAX_INLINE_TARGETS) {
+            if (!isVisibleFrom(type, argTypes)) {
+                countCacheMiss(environment);
+                return MemberResolver.resolveMethod(type, methodName, argTypes, staticCall);
+            }
+            final Map<Key, MethodTarget> sharedTargets = SHARED_TARGETS.get(type);
+            final Key key = new Key(methodName, argTypes, staticCall);
+            MethodTarget target = sharedTargets.get(key);
+            if (target == null) {
+                countCacheMiss(environment);
+                target = MemberResolver.resolveMethod(type, methodName, argTypes, staticCall);
+                sharedTargets.putIfAbsent(key, target);
+            }
+            return target;
+        }
+        countCacheMiss(environment);
+        final MethodTarget target = MemberResolver.resolveMethod(type, methodName, argTypes, staticCall);
+        final MethodTarget[] extended = Arrays.copyOf(current, current.length + 1);
+        extended[current.length] = target;
+        targets = extended;
+        return target;
+    }
+
+    /**
+     * Prüft, ob alle Argumenttypen vom ClassLoader des Empfängers oder einem seiner Eltern geladen wurden. Nur dann
+     * kann das Ziel an der Klasse des Empfängers abgelegt werden, ohne dass es fremde ClassLoader am Leben hält.
+     *
+     * @param type
+     *            Klasse des Empfängers.
+     * @param argTypes
+     *            Laufzeittypen der Argumente (null für null-Werte).
+     * @return true, falls alle Argumenttypen für den Empfänger sichtbar sind.
+     */
+    private static boolean isVisibleFrom(final Class<?> type, final Class<?>[] argTypes) {
+        for (final Class<?> argType : argTypes) {
+            if (argType == null || argType.getClassLoader() == null) {
+                continue;
+            }
+            ClassLoader loader = type.getClassLoader();
+            while (loader != null && loader != argType.getClassLoader()) {
+                loader = loader.getParent();
+            }
+            if (loader == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Zählt einen Fehlzugriff im Laufzeitprofil der übergebenen Umgebung.
+     *
+     * @param environment
+     *            Laufzeitumgebung oder null, falls der Ausdruck außerhalb einer Generierung ausgewertet wird.
+     */
+    private static void countCacheMiss(final Environment environment) {
+        if (environment != null) {
+            environment.countCacheMiss();
+        }
+    }
+
+    /**
+     * Schlüssel für den gemeinsamen Cache der Aufrufziele.
+     */
+    private static final class Key {
+
+        /**
+         * Name der Methode.
+         */
+        private final String methodName;
+
+        /**
+         * Typen der Argumente.
+         */
+        private final Class<?>[] argTypes;
+
+        /**
+         * Art des Aufrufs.
+         */
+        private final boolean staticCall;
+
+        /**
+         * Erstellt einen neuen Schlüssel.
+         *
+         * @param methodName
+         *            Name der Methode.
+         * @param argTypes
+         *            Typen der Argumente.
+         * @param staticCall
+         *            Art des Aufrufs.
+         */
+        Key(final String methodName, final Class<?>[] argTypes, final boolean staticCall) {
+            this.methodName = methodName;
+            this.argTypes = argTypes.clone();
+            this.staticCall = staticCall;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode() {
+            return Objects.hash(methodName, staticCall) * 31 + Arrays.hashCode(argTypes);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return staticCall == other.staticCall && methodName.equals(other.methodName)
+                    && Arrays.equals(argTypes, other.argTypes);
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package de.chrlembeck.codegen.generator.lang;
 
+import java.util.Arrays;
+import java.util.List;
+
 import de.chrlembeck.codegen.generator.Environment;
 import de.chrlembeck.codegen.generator.JavaUtil;
 import de.chrlembeck.codegen.grammar.CodeGenParser.ExpressionMultDivModContext;
@@ -38,13 +41,7 @@ public class MultDivModExpression extends AbstractExpression<ExpressionMultDivMo
          */
         @Override
         public ObjectWithType<Integer> apply(final int leftOperand, final int rightOperand) {
-            if (this == MULT) {
-                return new ObjectWithType<Integer>(Integer.valueOf(leftOperand * rightOperand), int.class);
-            } else if (this == DIV) {
-                return new ObjectWithType<Integer>(Integer.valueOf(leftOperand / rightOperand), int.class);
-            } else {
-                return new ObjectWithType<Integer>(Integer.valueOf(leftOperand % rightOperand), int.class);
-            }
+            return ObjectWithType.ofInt(applyAsInt(leftOperand, rightOperand));
         }
 
         /**
@@ -52,13 +49,7 @@ public class MultDivModExpression extends AbstractExpression<ExpressionMultDivMo
          */
         @Override
         public ObjectWithType<Long> apply(final long leftOperand, final long rightOperand) {
-            if (this == MULT) {
-                return new ObjectWithType<Long>(Long.valueOf(leftOperand * rightOperand), long.class);
-            } else if (this == DIV) {
-                return new ObjectWithType<Long>(Long.valueOf(leftOperand / rightOperand), long.class);
-            } else {
-                return new ObjectWithType<Long>(Long.valueOf(leftOperand % rightOperand), long.class);
-            }
+            return ObjectWithType.ofLong(applyAsLong(leftOperand, rightOperand));
         }
 
         /**
@@ -80,12 +71,63 @@ public class MultDivModExpression extends AbstractExpression<ExpressionMultDivMo
          */
         @Override
         public ObjectWithType<Double> apply(final double leftOperand, final double rightOperand) {
+            return ObjectWithType.ofDouble(applyAsDouble(leftOperand, rightOperand));
+        }
+
+        /**
+         * Führt die Operation auf zwei int-Werten aus, ohne das Ergebnis zu verpacken.
+         * 
+         * @param leftOperand
+         *            Erster Operand der Operation.
+         * @param rightOperand
+         *            Zweiter Operand der Operation.
+         * @return Ergebnis der Berechnung.
+         */
+        public int applyAsInt(final int leftOperand, final int rightOperand) {
             if (this == MULT) {
-                return new ObjectWithType<Double>(Double.valueOf(leftOperand * rightOperand), double.class);
+                return leftOperand * rightOperand;
             } else if (this == DIV) {
-                return new ObjectWithType<Double>(Double.valueOf(leftOperand / rightOperand), double.class);
+                return leftOperand / rightOperand;
             } else {
-                return new ObjectWithType<Double>(Double.valueOf(leftOperand % rightOperand), double.class);
+                return leftOperand % rightOperand;
+            }
+        }
+
+        /**
+         * Führt die Operation auf zwei long-Werten aus, ohne das Ergebnis zu verpacken.
+         * 
+         * @param leftOperand
+         *            Erster Operand der Operation.
+         * @param rightOperand
+         *            Zweiter Operand der Operation.
+         * @return Ergebnis der Berechnung.
+         */
+        public long applyAsLong(final long leftOperand, final long rightOperand) {
+            if (this == MULT) {
+                return leftOperand * rightOperand;
+            } else if (this == DIV) {
+                return leftOperand / rightOperand;
+            } else {
+                return leftOperand % rightOperand;
+            }
+        }
+
+        /**
+         * Führt die Operation auf zwei double-Werten aus, ohne das Ergebnis zu verpacken.
+         * 
+         * @param leftOperand
+         *            Erster Operand der Operation.
+         * @param rightOperand
+         *            Zweiter Operand der Operation.
+         * @return Ergebnis der Berechnung.
+         */
+        public double applyAsDouble(final double leftOperand, final double rightOperand) {
+            if (this == MULT) {
+                return leftOperand * rightOperand;
+            } else if (this == DIV) {
+                return leftOperand / rightOperand;
+            } else {
+                return leftOperand % rightOperand;
             }
         }
     }
@@ -105,6 +147,11 @@ public class MultDivModExpression extends AbstractExpression<ExpressionMultDivMo
      */
     private Expression right;
 
+    /**
+     * Statischer Typ des Ergebnisses, soweit er sich aus den Typen der Operanden ableiten lässt.
+     */
+    private final Class<?> staticType;
+
     /**
      * Erzeugt eine neue MultDivModExpression mit den übergebenen Werten.
      * 
@@ -123,6 +170,7 @@ public class MultDivModExpression extends AbstractExpression<ExpressionMultDivMo
         this.left = left;
         this.right = right;
         this.operator = operator;
+        this.staticType = JavaUtil.getStaticPromotionType(left.getStaticType(), right.getStaticType());
     }
 
     /**
@@ -160,11 +208,40 @@ public class MultDivModExpression extends AbstractExpression<ExpressionMultDivMo
         return "(" + left + " " + operator + " " + right + ")";
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Expression> getSubExpressions() {
+        return Arrays.asList(left, right);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void replaceSubExpression(final Expression subExpression, final Expression replacement) {
+        if (left == subExpression) {
+            left = replacement;
+        } else if (right == subExpression) {
+            right = replacement;
+        } else {
+            throw new IllegalArgumentException("Kein direkter Teilausdruck: " + subExpression);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public ObjectWithType<?> evaluate(final Object model, final Environment environment) {
+        if (staticType == int.class) {
+            return ObjectWithType.ofInt(evaluateInt(model, environment));
+        } else if (staticType == long.class) {
+            return ObjectWithType.ofLong(evaluateLong(model, environment));
+        } else if (staticType == double.class) {
+            return ObjectWithType.ofDouble(evaluateDouble(model, environment));
+        }
         final ObjectWithType<?> leftObj = JavaUtil.unaryNumericPromotion(left.evaluate(model, environment));
         final Class<?> leftType = leftObj.getType();
         if (!JavaUtil.isNumberType(leftType)) {
@@ -180,4 +257,47 @@ public class MultDivModExpression extends AbstractExpression<ExpressionMultDivMo
         }
         return JavaUtil.applyBinaryOperation(leftObj, rightObj, operator);
     }
-}
\ No newline at end of file
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Class<?> getStaticType() {
+        return staticType;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int evaluateInt(final Object model, final Environment environment) {
+        if (staticType == int.class) {
+            return operator.applyAsInt(left.evaluateInt(model, environment), right.evaluateInt(model, environment));
+        }
+        return JavaUtil.toInt(evaluate(model, environment));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long evaluateLong(final Object model, final Environment environment) {
+        if (staticType == long.class) {
+            return operator.applyAsLong(left.evaluateLong(model, environment),
+                    right.evaluateLong(model, environment));
+        }
+        return JavaUtil.evaluateLong(this, model, environment);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double evaluateDouble(final Object model, final Environment environment) {
+        if (staticType == double.class) {
+            return operator.applyAsDouble(left.evaluateDouble(model, environment),
+                    right.evaluateDouble(model, environment));
+        }
+        return JavaUtil.evaluateDouble(this, model, environment);
+    }
+}
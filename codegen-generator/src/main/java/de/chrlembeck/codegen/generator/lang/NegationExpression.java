@@ -1,7 +1,11 @@
 package de.chrlembeck.codegen.generator.lang;
 
+import java.util.Collections;
+import java.util.List;
+
 import de.chrlembeck.codegen.generator.Environment;
 import de.chrlembeck.codegen.generator.GeneratorException;
+import de.chrlembeck.codegen.generator.JavaUtil;
 import de.chrlembeck.codegen.grammar.CodeGenParser.ExpressionNegContext;
 
 /**
@@ -40,6 +44,11 @@ public class NegationExpression extends AbstractExpression<ExpressionNegContext>
      */
     private Operator operator;
 
+    /**
+     * Statischer Typ des Ergebnisses (boolean, int oder long), soweit er sich aus dem Typ des Operanden ableiten lässt.
+     */
+    private final Class<?> staticType;
+
     /**
      * Erstellt eine neue NegationExpression mit den übergebenen Werten.
      * 
@@ -54,6 +63,32 @@ public class NegationExpression extends AbstractExpression<ExpressionNegContext>
         super(ctx);
         this.operator = operator;
         this.expression = expression;
+        final Class<?> type = expression.getStaticType();
+        if (operator == Operator.BOOLEAN_NEGATION) {
+            this.staticType = type == boolean.class ? type : null;
+        } else {
+            this.staticType = type == int.class || type == long.class ? type : null;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Expression> getSubExpressions() {
+        return Collections.singletonList(expression);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void replaceSubExpression(final Expression subExpression, final Expression replacement) {
+        if (expression == subExpression) {
+            expression = replacement;
+        } else {
+            throw new IllegalArgumentException("Kein direkter Teilausdruck: " + subExpression);
+        }
     }
 
     /**
@@ -61,6 +96,13 @@ public class NegationExpression extends AbstractExpression<ExpressionNegContext>
      */
     @Override
     public ObjectWithType<?> evaluate(final Object model, final Environment environment) {
+        if (staticType == boolean.class) {
+            return ObjectWithType.ofBoolean(evaluateBoolean(model, environment));
+        } else if (staticType == int.class) {
+            return ObjectWithType.ofInt(evaluateInt(model, environment));
+        } else if (staticType == long.class) {
+            return ObjectWithType.ofLong(evaluateLong(model, environment));
+        }
         final ObjectWithType<?> exp = expression.evaluate(model, environment);
         final Class<?> type = exp.getType();
         if (operator == Operator.BOOLEAN_NEGATION) {
@@ -91,4 +133,45 @@ public class NegationExpression extends AbstractExpression<ExpressionNegContext>
             return result;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Class<?> getStaticType() {
+        return staticType;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean evaluateBoolean(final Object model, final Environment environment) {
+        if (staticType == boolean.class) {
+            return !expression.evaluateBoolean(model, environment);
+        }
+        return ((Boolean) evaluate(model, environment).getObject()).booleanValue();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int evaluateInt(final Object model, final Environment environment) {
+        if (staticType == int.class) {
+            return ~expression.evaluateInt(model, environment);
+        }
+        return JavaUtil.toInt(evaluate(model, environment));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long evaluateLong(final Object model, final Environment environment) {
+        if (staticType == long.class) {
+            return ~expression.evaluateLong(model, environment);
+        }
+        return JavaUtil.evaluateLong(this, model, environment);
+    }
+}
@@ -10,15 +10,47 @@ package de.chrlembeck.codegen.generator.lang;
  */
 public class ObjectWithType<T> {
 
+    /**
+     * Kleinster int-Wert, für den ein vorab erzeugter Wrapper bereitgehalten wird.
+     */
+    private static final int INT_CACHE_LOW = -128;
+
+    /**
+     * Größter int-Wert, für den ein vorab erzeugter Wrapper bereitgehalten wird. Die Grenze ist so gewählt, dass Zähler
+     * und Indexberechnungen in Schleifen üblicher Größe ohne neue Objekte auskommen.
+     */
+    private static final int INT_CACHE_HIGH = 1023;
+
+    /**
+     * Wrapper für den Wert {@code true}.
+     */
+    private static final ObjectWithType<Boolean> TRUE = new ObjectWithType<>(Boolean.TRUE, boolean.class);
+
+    /**
+     * Wrapper für den Wert {@code false}.
+     */
+    private static final ObjectWithType<Boolean> FALSE = new ObjectWithType<>(Boolean.FALSE, boolean.class);
+
+    /**
+     * Vorab erzeugte Wrapper für die int-Werte von {@link #INT_CACHE_LOW} bis {@link #INT_CACHE_HIGH}.
+     */
+    private static final ObjectWithType<?>[] INT_CACHE = new ObjectWithType<?>[INT_CACHE_HIGH - INT_CACHE_LOW + 1];
+
+    static {
+        for (int i = 0; i < INT_CACHE.length; i++) {
+            INT_CACHE[i] = new ObjectWithType<Integer>(Integer.valueOf(i + INT_CACHE_LOW), int.class);
+        }
+    }
+
     /**
      * Eigentlich zu verarbeitender Wert oder zu verarbeitendes Objekt.
      */
-    private T object;
+    private final T object;
 
     /**
      * Laufzeittyp des enthaltenen Objekts (kann auch ein primitiver Typ sein).
      */
-    private Class<T> type;
+    private final Class<T> type;
 
     /**
      * Legt einen neuen Wrapper für das Objekt mit dem entsprechenden Typ an.
@@ -33,6 +65,55 @@ public class ObjectWithType<T> {
         this.type = type;
     }
 
+    /**
+     * Gibt den Wrapper für einen boolean-Wert zurück. Da es nur zwei mögliche Werte gibt, werden keine neuen Objekte
+     * erzeugt.
+     * 
+     * @param value
+     *            Zu verpackender Wert.
+     * @return Wrapper mit dem Typ {@code boolean.class}.
+     */
+    public static ObjectWithType<Boolean> ofBoolean(final boolean value) {
+        return value ? TRUE : FALSE;
+    }
+
+    /**
+     * Gibt den Wrapper für einen int-Wert zurück. Für kleine Werte werden vorab erzeugte Wrapper wiederverwendet.
+     * 
+     * @param value
+     *            Zu verpackender Wert.
+     * @return Wrapper mit dem Typ {@code int.class}.
+     */
+    @SuppressWarnings("unchecked")
+    public static ObjectWithType<Integer> ofInt(final int value) {
+        if (value >= INT_CACHE_LOW && value <= INT_CACHE_HIGH) {
+            return (ObjectWithType<Integer>) INT_CACHE[value - INT_CACHE_LOW];
+        }
+        return new ObjectWithType<Integer>(Integer.valueOf(value), int.class);
+    }
+
+    /**
+     * Gibt den Wrapper für einen long-Wert zurück.
+     * 
+     * @param value
+     *            Zu verpackender Wert.
+     * @return Wrapper mit dem Typ {@code long.class}.
+     */
+    public static ObjectWithType<Long> ofLong(final long value) {
+        return new ObjectWithType<Long>(Long.valueOf(value), long.class);
+    }
+
+    /**
+     * Gibt den Wrapper für einen double-Wert zurück.
+     * 
+     * @param value
+     *            Zu verpackender Wert.
+     * @return Wrapper mit dem Typ {@code double.class}.
+     */
+    public static ObjectWithType<Double> ofDouble(final double value) {
+        return new ObjectWithType<Double>(Double.valueOf(value), double.class);
+    }
+
     /**
      * Gibt des Typ des enthaltenen Objekts zurück. Dabei kann es sich auch um einen Primitiven Typ handeln, der hier in
      * sein Wrapper-Objekt verpackt ist.
@@ -27,6 +27,11 @@ public class OutputStatement extends AbstractTemplateMember<OutputStatementConte
      */
     private Expression nameExpression;
 
+    /**
+     * Führt die enthaltenen Elemente bei der direkten Interpretation des Templates nacheinander aus.
+     */
+    private final StatementBlock interpretedContent = this::executeContent;
+
     /**
      * Erstellt das Statement mit den übergebenen Daten.
      * 
@@ -77,6 +82,27 @@ public class OutputStatement extends AbstractTemplateMember<OutputStatementConte
     @Override
     public void execute(final Generator generator, final Object model, final Environment environment)
             throws IOException {
+        executeOutput(generator, model, environment, interpretedContent);
+    }
+
+    /**
+     * Ermittelt den Ausgabekanal und führt den übergebenen Inhalt mit diesem Kanal als aktuellem Writer aus. Ist die
+     * parallele Ausgabe möglich, wird der Inhalt als eigene Aufgabe an den Generator übergeben.
+     * 
+     * @param generator
+     *            Generator, der die Ausführung angestoßen hat.
+     * @param model
+     *            Modell, das durch das Statement verarbeitet wird.
+     * @param environment
+     *            Laufzeitumgebung für die Ausführung des Inhalts.
+     * @param content
+     *            Auszuführender Inhalt, entweder die Elemente aus {@link #getCodeOrStatements()} oder deren
+     *            übersetzte Form.
+     * @throws IOException
+     *             Falls beim Schreiben der Ausgabe ein Fehler auftritt.
+     */
+    public void executeOutput(final Generator generator, final Object model, final Environment environment,
+            final StatementBlock content) throws IOException {
         final ObjectWithType<?> nameExp = nameExpression.evaluate(model, environment);
         if (!(String.class.isAssignableFrom(nameExp.getType()))) {
             throw new RuntimeException(
@@ -84,13 +110,67 @@ public class OutputStatement extends AbstractTemplateMember<OutputStatementConte
                             + nameExpression.getStartPosition() + ")");
         }
         final String channelName = (String) nameExp.getObject();
-        try (final GeneratorWriter writer = generator.getWriter(channelName)) {
+        if (generator.isParallelOutputPossible()) {
+            generator.executeOutputInParallel((taskGenerator, taskEnvironment) -> writeOutput(taskGenerator, model,
+                    taskEnvironment, channelName, content), environment);
+        } else {
+            writeOutput(generator, model, environment, channelName, content);
+        }
+    }
+
+    /**
+     * Führt den übergebenen Inhalt aus und schreibt dessen Ausgaben in den übergebenen Ausgabe-Channel.
+     * 
+     * @param generator
+     *            Generator, der die Ausführung angestoßen hat.
+     * @param model
+     *            Modell, das durch das Statement verarbeitet wird.
+     * @param environment
+     *            Laufzeitumgebung für die Ausführung der enthaltenen Elemente.
+     * @param channelName
+     *            Name des Ausgabe-Channels.
+     * @param content
+     *            Auszuführender Inhalt.
+     * @throws IOException
+     *             Falls beim Schreiben der Ausgabe ein Fehler auftritt.
+     */
+    private void writeOutput(final Generator generator, final Object model, final Environment environment,
+            final String channelName, final StatementBlock content) throws IOException {
+        try (final GeneratorWriter writer = environment.trackOutput(generator.getWriter(channelName))) {
             final GeneratorWriter oldWriter = generator.getCurrentWriter();
             generator.setCurrentWriter(writer);
-            for (final UserCodeOrStatements<?> cos : codeOrStatements) {
-                environment.execute(cos, generator, model);
-            }
+            content.execute(generator, model, environment);
             generator.setCurrentWriter(oldWriter);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Führt die enthaltenen Code-Blöcke und Statements nacheinander aus.
+     * 
+     * @param generator
+     *            Generator, der die Ausführung angestoßen hat.
+     * @param model
+     *            Modell, das durch das Statement verarbeitet wird.
+     * @param environment
+     *            Laufzeitumgebung für die Ausführung der enthaltenen Elemente.
+     * @throws IOException
+     *             Falls beim Schreiben der Ausgabe ein Fehler auftritt.
+     */
+    private void executeContent(final Generator generator, final Object model, final Environment environment)
+            throws IOException {
+        for (final UserCodeOrStatements<?> cos : codeOrStatements) {
+            environment.execute(cos, generator, model);
+        }
+    }
+
+    /**
+     * Ersetzt den Ausdruck für den Namen des Ausgabekanals, z.B. durch eine vorab berechnete Konstante.
+     * 
+     * @param nameExpression
+     *            Neuer Ausdruck.
+     * @see TemplateOptimizer
+     */
+    void setNameExpression(final Expression nameExpression) {
+        this.nameExpression = nameExpression;
+    }
+}
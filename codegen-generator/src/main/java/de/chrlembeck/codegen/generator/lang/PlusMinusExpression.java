@@ -1,5 +1,8 @@
 package de.chrlembeck.codegen.generator.lang;
 
+import java.util.Arrays;
+import java.util.List;
+
 import de.chrlembeck.codegen.generator.Environment;
 import de.chrlembeck.codegen.generator.JavaUtil;
 import de.chrlembeck.codegen.grammar.CodeGenParser.ExpressionPlusMinusContext;
@@ -34,8 +37,7 @@ public class PlusMinusExpression extends AbstractExpression<ExpressionPlusMinusC
          */
         @Override
         public ObjectWithType<Integer> apply(final int leftOperand, final int rightOperand) {
-            return new ObjectWithType<Integer>(
-                    Integer.valueOf(this == PLUS ? leftOperand + rightOperand : leftOperand - rightOperand), int.class);
+            return ObjectWithType.ofInt(applyAsInt(leftOperand, rightOperand));
         }
 
         /**
@@ -43,8 +45,7 @@ public class PlusMinusExpression extends AbstractExpression<ExpressionPlusMinusC
          */
         @Override
         public ObjectWithType<Long> apply(final long leftOperand, final long rightOperand) {
-            return new ObjectWithType<Long>(
-                    Long.valueOf(this == PLUS ? leftOperand + rightOperand : leftOperand - rightOperand), long.class);
+            return ObjectWithType.ofLong(applyAsLong(leftOperand, rightOperand));
         }
 
         /**
@@ -61,9 +62,46 @@ public class PlusMinusExpression extends AbstractExpression<ExpressionPlusMinusC
          */
         @Override
         public ObjectWithType<Double> apply(final double leftOperand, final double rightOperand) {
-            return new ObjectWithType<Double>(
-                    Double.valueOf(this == PLUS ? leftOperand + rightOperand : leftOperand - rightOperand),
-                    double.class);
+            return ObjectWithType.ofDouble(applyAsDouble(leftOperand, rightOperand));
+        }
+
+        /**
+         * Führt die Operation auf zwei int-Werten aus, ohne das Ergebnis zu verpacken.
+         * 
+         * @param leftOperand
+         *            Erster Operand der Operation.
+         * @param rightOperand
+         *            Zweiter Operand der Operation.
+         * @return Ergebnis der Berechnung.
+         */
+        public int applyAsInt(final int leftOperand, final int rightOperand) {
+            return this == PLUS ? leftOperand + rightOperand : leftOperand - rightOperand;
+        }
+
+        /**
+         * Führt die Operation auf zwei long-Werten aus, ohne das Ergebnis zu verpacken.
+         * 
+         * @param leftOperand
+         *            Erster Operand der Operation.
+         * @param rightOperand
+         *            Zweiter Operand der Operation.
+         * @return Ergebnis der Berechnung.
+         */
+        public long applyAsLong(final long leftOperand, final long rightOperand) {
+            return this == PLUS ? leftOperand + rightOperand : leftOperand - rightOperand;
+        }
+
+        /**
+         * Führt die Operation auf zwei double-Werten aus, ohne das Ergebnis zu verpacken.
+         * 
+         * @param leftOperand
+         *            Erster Operand der Operation.
+         * @param rightOperand
+         *            Zweiter Operand der Operation.
+         * @return Ergebnis der Berechnung.
+         */
+        public double applyAsDouble(final double leftOperand, final double rightOperand) {
+            return this == PLUS ? leftOperand + rightOperand : leftOperand - rightOperand;
         }
     }
 
@@ -82,6 +120,11 @@ public class PlusMinusExpression extends AbstractExpression<ExpressionPlusMinusC
      */
     private Operator operator;
 
+    /**
+     * Statischer Typ des Ergebnisses, soweit er sich aus den Typen der Operanden ableiten lässt.
+     */
+    private final Class<?> staticType;
+
     /**
      * Erzeugt eine neue PlusMinusExpression mit den übergebenen Werten.
      * 
@@ -100,6 +143,12 @@ public class PlusMinusExpression extends AbstractExpression<ExpressionPlusMinusC
         this.left = left;
         this.right = right;
         this.operator = operator;
+        if (operator == Operator.PLUS
+                && (left.getStaticType() == String.class || right.getStaticType() == String.class)) {
+            this.staticType = String.class;
+        } else {
+            this.staticType = JavaUtil.getStaticPromotionType(left.getStaticType(), right.getStaticType());
+        }
     }
 
     /**
@@ -137,12 +186,41 @@ public class PlusMinusExpression extends AbstractExpression<ExpressionPlusMinusC
         return "(" + left + " " + operator + " " + right + ")";
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Expression> getSubExpressions() {
+        return Arrays.asList(left, right);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void replaceSubExpression(final Expression subExpression, final Expression replacement) {
+        if (left == subExpression) {
+            left = replacement;
+        } else if (right == subExpression) {
+            right = replacement;
+        } else {
+            throw new IllegalArgumentException("Kein direkter Teilausdruck: " + subExpression);
+        }
+    }
+
     /**
      * {@inheritDoc} Siehe auch: <a href=
      * "https://docs.oracle.com/javase/specs/jls/se8/html/jls-15.html#jls-15.18">https://docs.oracle.com/javase/specs/jls/se8/html/jls-15.html#jls-15.18</a>
      */
     @Override
     public ObjectWithType<?> evaluate(final Object model, final Environment environment) {
+        if (staticType == int.class) {
+            return ObjectWithType.ofInt(evaluateInt(model, environment));
+        } else if (staticType == long.class) {
+            return ObjectWithType.ofLong(evaluateLong(model, environment));
+        } else if (staticType == double.class) {
+            return ObjectWithType.ofDouble(evaluateDouble(model, environment));
+        }
         ObjectWithType<?> leftObj = left.evaluate(model, environment);
         ObjectWithType<?> rightObj = right.evaluate(model, environment);
         if (operator == Operator.PLUS
@@ -166,4 +244,47 @@ public class PlusMinusExpression extends AbstractExpression<ExpressionPlusMinusC
             return JavaUtil.applyBinaryOperation(leftObj, rightObj, operator);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Class<?> getStaticType() {
+        return staticType;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int evaluateInt(final Object model, final Environment environment) {
+        if (staticType == int.class) {
+            return operator.applyAsInt(left.evaluateInt(model, environment), right.evaluateInt(model, environment));
+        }
+        return JavaUtil.toInt(evaluate(model, environment));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long evaluateLong(final Object model, final Environment environment) {
+        if (staticType == long.class) {
+            return operator.applyAsLong(left.evaluateLong(model, environment),
+                    right.evaluateLong(model, environment));
+        }
+        return JavaUtil.evaluateLong(this, model, environment);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double evaluateDouble(final Object model, final Environment environment) {
+        if (staticType == double.class) {
+            return operator.applyAsDouble(left.evaluateDouble(model, environment),
+                    right.evaluateDouble(model, environment));
+        }
+        return JavaUtil.evaluateDouble(this, model, environment);
+    }
+}
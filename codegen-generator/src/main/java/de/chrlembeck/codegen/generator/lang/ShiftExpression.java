@@ -1,5 +1,8 @@
 package de.chrlembeck.codegen.generator.lang;
 
+import java.util.Arrays;
+import java.util.List;
+
 import de.chrlembeck.codegen.generator.Environment;
 import de.chrlembeck.codegen.generator.GeneratorException;
 import de.chrlembeck.codegen.generator.JavaUtil;
@@ -32,7 +35,51 @@ public class ShiftExpression extends AbstractExpression<ExpressionShiftContext>
         /**
          * Vorzeichenlose Rechtsverschiebung.
          */
-        UNSIGNED_RIGHT_SHIFT
+        UNSIGNED_RIGHT_SHIFT;
+
+        /**
+         * Verschiebt die Bits eines int-Wertes, ohne das Ergebnis zu verpacken.
+         * 
+         * @param value
+         *            Zu verschiebender Wert.
+         * @param distance
+         *            Anzahl der Stellen, um die verschoben werden soll. Es werden nur die unteren 5 Bits beachtet.
+         * @return Ergebnis der Verschiebung.
+         */
+        public int applyAsInt(final int value, final int distance) {
+            switch (this) {
+                case LEFT_SHIFT:
+                    return value << distance;
+                case SIGNED_RIGHT_SHIFT:
+                    return value >> distance;
+                case UNSIGNED_RIGHT_SHIFT:
+                    return value >>> distance;
+                default:
+                    throw new IllegalStateException("unexpected operator: " + this);
+            }
+        }
+
+        /**
+         * Verschiebt die Bits eines long-Wertes, ohne das Ergebnis zu verpacken.
+         * 
+         * @param value
+         *            Zu verschiebender Wert.
+         * @param distance
+         *            Anzahl der Stellen, um die verschoben werden soll. Es werden nur die unteren 6 Bits beachtet.
+         * @return Ergebnis der Verschiebung.
+         */
+        public long applyAsLong(final long value, final int distance) {
+            switch (this) {
+                case LEFT_SHIFT:
+                    return value << distance;
+                case SIGNED_RIGHT_SHIFT:
+                    return value >> distance;
+                case UNSIGNED_RIGHT_SHIFT:
+                    return value >>> distance;
+                default:
+                    throw new IllegalStateException("unexpected operator: " + this);
+            }
+        }
     }
 
     /**
@@ -50,6 +97,11 @@ public class ShiftExpression extends AbstractExpression<ExpressionShiftContext>
      */
     private Operator operator;
 
+    /**
+     * Statischer Typ des Ergebnisses (int oder long), soweit er sich aus den Typen der Operanden ableiten lässt.
+     */
+    private final Class<?> staticType;
+
     /**
      * Erzeugt eine neue ShiftExpression mit den übergebenen Werten.
      * 
@@ -68,6 +120,36 @@ public class ShiftExpression extends AbstractExpression<ExpressionShiftContext>
         this.left = left;
         this.right = right;
         this.operator = operator;
+        final Class<?> leftType = left.getStaticType();
+        final Class<?> rightType = right.getStaticType();
+        if ((leftType == int.class || leftType == long.class)
+                && (rightType == int.class || rightType == long.class)) {
+            this.staticType = leftType;
+        } else {
+            this.staticType = null;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Expression> getSubExpressions() {
+        return Arrays.asList(left, right);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void replaceSubExpression(final Expression subExpression, final Expression replacement) {
+        if (left == subExpression) {
+            left = replacement;
+        } else if (right == subExpression) {
+            right = replacement;
+        } else {
+            throw new IllegalArgumentException("Kein direkter Teilausdruck: " + subExpression);
+        }
     }
 
     /**
@@ -75,6 +157,11 @@ public class ShiftExpression extends AbstractExpression<ExpressionShiftContext>
      */
     @Override
     public ObjectWithType<?> evaluate(final Object model, final Environment environment) {
+        if (staticType == int.class) {
+            return ObjectWithType.ofInt(evaluateInt(model, environment));
+        } else if (staticType == long.class) {
+            return ObjectWithType.ofLong(evaluateLong(model, environment));
+        }
         final ObjectWithType<?> leftObj = JavaUtil.unaryNumericPromotion(left.evaluate(model, environment));
         if (!JavaUtil.isIntegerOrLongType(leftObj.getType())) {
             throw new GeneratorException("Der linke Operand der Shift-Operation ist nicht vom Typ int oder long.",
@@ -85,35 +172,46 @@ public class ShiftExpression extends AbstractExpression<ExpressionShiftContext>
             throw new GeneratorException("Der rechte Operand der Shift-Operation ist nicht vom Typ int oder long.",
                     this, environment);
         }
-        int shiftDistance;
         if (int.class.isAssignableFrom(leftObj.getType())) {
-            shiftDistance = ((Number) rightObj.getObject()).intValue() & 0x1f;
-            final int leftValue = ((Number) leftObj.getObject()).intValue();
-            switch (operator) {
-                case LEFT_SHIFT:
-                    return new ObjectWithType<Integer>(leftValue << shiftDistance, int.class);
-                case SIGNED_RIGHT_SHIFT:
-                    return new ObjectWithType<Integer>(leftValue >> shiftDistance, int.class);
-                case UNSIGNED_RIGHT_SHIFT:
-                    return new ObjectWithType<Integer>(leftValue >>> shiftDistance, int.class);
-                default:
-                    throw new IllegalStateException("unexpected operator: " + operator);
-            }
+            return ObjectWithType.ofInt(operator.applyAsInt(((Number) leftObj.getObject()).intValue(),
+                    ((Number) rightObj.getObject()).intValue()));
         } else if (long.class.isAssignableFrom(leftObj.getType())) {
-            shiftDistance = ((Number) rightObj.getObject()).intValue() & 0x3f;
-            final long leftValue = ((Number) leftObj.getObject()).longValue();
-            switch (operator) {
-                case LEFT_SHIFT:
-                    return new ObjectWithType<Long>(leftValue << shiftDistance, long.class);
-                case SIGNED_RIGHT_SHIFT:
-                    return new ObjectWithType<Long>(leftValue >> shiftDistance, long.class);
-                case UNSIGNED_RIGHT_SHIFT:
-                    return new ObjectWithType<Long>(leftValue >>> shiftDistance, long.class);
-                default:
-                    throw new IllegalStateException("unexpected operator: " + operator);
-            }
+            return ObjectWithType.ofLong(operator.applyAsLong(((Number) leftObj.getObject()).longValue(),
+                    ((Number) rightObj.getObject()).intValue()));
         } else {
             throw new IllegalStateException("unexpected type: " + leftObj.getType());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Class<?> getStaticType() {
+        return staticType;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int evaluateInt(final Object model, final Environment environment) {
+        if (staticType == int.class) {
+            return operator.applyAsInt(left.evaluateInt(model, environment),
+                    (int) right.evaluateLong(model, environment));
+        }
+        return JavaUtil.toInt(evaluate(model, environment));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long evaluateLong(final Object model, final Environment environment) {
+        if (staticType == long.class) {
+            return operator.applyAsLong(left.evaluateLong(model, environment),
+                    (int) right.evaluateLong(model, environment));
+        }
+        return JavaUtil.evaluateLong(this, model, environment);
+    }
+}
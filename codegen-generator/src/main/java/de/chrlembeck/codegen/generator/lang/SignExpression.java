@@ -1,6 +1,10 @@
 package de.chrlembeck.codegen.generator.lang;
 
+import java.util.Collections;
+import java.util.List;
+
 import de.chrlembeck.codegen.generator.Environment;
+import de.chrlembeck.codegen.generator.JavaUtil;
 import de.chrlembeck.codegen.grammar.CodeGenParser.ExpressionSignContext;
 
 /**
@@ -38,6 +42,11 @@ public class SignExpression extends AbstractExpression<ExpressionSignContext> {
      */
     private Expression expression;
 
+    /**
+     * Statischer Typ des Ergebnisses, soweit er sich aus dem Typ des Operanden ableiten lässt.
+     */
+    private final Class<?> staticType;
+
     /**
      * Erzeugt eine neue SignExpression mit den übergebenen Werten.
      * 
@@ -52,6 +61,28 @@ public class SignExpression extends AbstractExpression<ExpressionSignContext> {
         super(ctx);
         this.operator = operator;
         this.expression = expression;
+        this.staticType = JavaUtil.isSpecializedNumericType(expression.getStaticType()) ? expression.getStaticType()
+                : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Expression> getSubExpressions() {
+        return Collections.singletonList(expression);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void replaceSubExpression(final Expression subExpression, final Expression replacement) {
+        if (expression == subExpression) {
+            expression = replacement;
+        } else {
+            throw new IllegalArgumentException("Kein direkter Teilausdruck: " + subExpression);
+        }
     }
 
     /**
@@ -59,6 +90,13 @@ public class SignExpression extends AbstractExpression<ExpressionSignContext> {
      */
     @Override
     public ObjectWithType<?> evaluate(final Object model, final Environment environment) {
+        if (staticType == int.class) {
+            return ObjectWithType.ofInt(evaluateInt(model, environment));
+        } else if (staticType == long.class) {
+            return ObjectWithType.ofLong(evaluateLong(model, environment));
+        } else if (staticType == double.class) {
+            return ObjectWithType.ofDouble(evaluateDouble(model, environment));
+        }
         final ObjectWithType<?> exp = expression.evaluate(model, environment);
         final Number number = (Number) exp.getObject();
         Number result;
@@ -80,4 +118,48 @@ public class SignExpression extends AbstractExpression<ExpressionSignContext> {
         final ObjectWithType<?> owt = new ObjectWithType(result, type);
         return owt;
     }
-}
\ No newline at end of file
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Class<?> getStaticType() {
+        return staticType;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int evaluateInt(final Object model, final Environment environment) {
+        if (staticType == int.class) {
+            final int value = expression.evaluateInt(model, environment);
+            return operator == Operator.PLUS ? value : -value;
+        }
+        return JavaUtil.toInt(evaluate(model, environment));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long evaluateLong(final Object model, final Environment environment) {
+        if (staticType == long.class) {
+            final long value = expression.evaluateLong(model, environment);
+            return operator == Operator.PLUS ? value : -value;
+        }
+        return JavaUtil.evaluateLong(this, model, environment);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double evaluateDouble(final Object model, final Environment environment) {
+        if (staticType == double.class) {
+            final double value = expression.evaluateDouble(model, environment);
+            return operator == Operator.PLUS ? value : -value;
+        }
+        return JavaUtil.evaluateDouble(this, model, environment);
+    }
+}
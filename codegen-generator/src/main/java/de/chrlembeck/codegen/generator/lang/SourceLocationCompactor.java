@@ -0,0 +1,147 @@
+package de.chrlembeck.codegen.generator.lang;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ * Überträgt nach dem Einlesen einer Template-Datei die Quellpositionen aller Elemente in eine gemeinsame
+ * {@link SourceTable} und entfernt anschließend die Referenzen der Elemente auf die Kontexte des Parsers. Der
+ * Durchlauf erfolgt einmalig als letzter Schritt nach dem {@link VariableResolver}, dem {@link TemplateOptimizer} und
+ * dem {@link TemplateTypeChecker}, die noch auf dem Syntaxbaum arbeiten. Danach hält die Template-Datei keine Referenz
+ * mehr auf den Syntaxbaum oder seine Tokens, so dass dieser vom Garbage-Collector freigegeben werden kann, während die
+ * Template-Datei z.B. im Cache verbleibt.
+ *
+ * @author Christoph Lembeck
+ */
+public final class SourceLocationCompactor {
+
+    /**
+     * Tabelle, in die die Quellpositionen übernommen werden.
+     */
+    private final SourceTable table = new SourceTable();
+
+    /**
+     * Bereits übernommene Kontexte mit der Nummer ihres Eintrags. Elemente, die sich einen Kontext teilen, wie z.B.
+     * eine beim Optimieren entstandene {@link ConstantExpression} und ihr ursprünglicher Ausdruck, erhalten dadurch
+     * denselben Eintrag.
+     */
+    private final Map<ParserRuleContext, Integer> locations = new IdentityHashMap<>();
+
+    /**
+     * Erstellt einen neuen Durchlauf. Instanzen werden nur intern pro Template-Datei verwendet.
+     */
+    private SourceLocationCompactor() {
+    }
+
+    /**
+     * Übernimmt die Quellpositionen aller Elemente der übergebenen Template-Datei in eine neue Tabelle und gibt die
+     * Kontexte des Parsers frei.
+     *
+     * @param templateFile
+     *            Vollständig eingelesene und optimierte Template-Datei.
+     */
+    public static void compact(final TemplateFile templateFile) {
+        final SourceLocationCompactor compactor = new SourceLocationCompactor();
+        compactor.compactMember(templateFile);
+        for (final AbstractTemplateMember<?> member : templateFile.getMembers()) {
+            compactor.compactMember(member);
+            if (member instanceof TemplateStatement) {
+                compactor.compactBlock(((TemplateStatement) member).getCodeOrStatements());
+            }
+        }
+        compactor.table.trim();
+        templateFile.setSourceTable(compactor.table);
+    }
+
+    /**
+     * Übernimmt die Quellpositionen aller Elemente eines Blocks.
+     *
+     * @param block
+     *            Zu verarbeitender Block oder null.
+     */
+    private void compactBlock(final List<UserCodeOrStatements<?>> block) {
+        if (block == null) {
+            return;
+        }
+        for (final UserCodeOrStatements<?> codeOrStatement : block) {
+            compactStatement(codeOrStatement);
+        }
+    }
+
+    /**
+     * Übernimmt die Quellpositionen eines Statements samt seiner Ausdrücke und Blöcke.
+     *
+     * @param codeOrStatement
+     *            Zu verarbeitendes Element.
+     */
+    private void compactStatement(final UserCodeOrStatements<?> codeOrStatement) {
+        compactMember((AbstractTemplateMember<?>) codeOrStatement);
+        if (codeOrStatement instanceof ExpressionStatement) {
+            compactExpression(((ExpressionStatement) codeOrStatement).getExpression());
+        } else if (codeOrStatement instanceof IfStatement) {
+            final IfStatement ifStatement = (IfStatement) codeOrStatement;
+            compactExpression(ifStatement.getCondition());
+            compactBlock(ifStatement.getIfBlock());
+            compactBlock(ifStatement.getElseBlock());
+        } else if (codeOrStatement instanceof OutputStatement) {
+            final OutputStatement outputStatement = (OutputStatement) codeOrStatement;
+            compactExpression(outputStatement.getNameExpression());
+            compactBlock(outputStatement.getCodeOrStatements());
+        } else if (codeOrStatement instanceof ExecuteStatement) {
+            final ExecuteStatement executeStatement = (ExecuteStatement) codeOrStatement;
+            compactExpression(executeStatement.getValueExpression());
+            compactExpression(executeStatement.getSeparatorExpression());
+        } else if (codeOrStatement instanceof ForStatement) {
+            final ForStatement forStatement = (ForStatement) codeOrStatement;
+            compactExpression(forStatement.getCollectionExpression());
+            compactExpression(forStatement.getSeparatorExpression());
+            compactBlock(forStatement.getLoopBody());
+        }
+    }
+
+    /**
+     * Übernimmt die Quellpositionen eines Ausdrucks und aller darin enthaltenen Teilausdrücke und Typangaben.
+     *
+     * @param expression
+     *            Zu verarbeitender Ausdruck oder null.
+     */
+    private void compactExpression(final Expression expression) {
+        if (expression == null) {
+            return;
+        }
+        compactMember((AbstractTemplateMember<?>) expression);
+        if (expression instanceof ConstantExpression) {
+            compactExpression(((ConstantExpression) expression).getOriginal());
+        } else if (expression instanceof CastExpression) {
+            compactMember((AbstractTemplateMember<?>) ((CastExpression) expression).getDestinationType());
+        } else if (expression instanceof InstanceofExpression) {
+            compactMember((AbstractTemplateMember<?>) ((InstanceofExpression) expression).getTypeType());
+        } else if (expression instanceof TypeRef) {
+            compactMember((AbstractTemplateMember<?>) ((TypeRef) expression).getTypeType());
+        }
+        for (final Expression subExpression : expression.getSubExpressions()) {
+            compactExpression(subExpression);
+        }
+    }
+
+    /**
+     * Übernimmt die Quellposition eines einzelnen Elements in die Tabelle und gibt seinen Kontext frei.
+     *
+     * @param member
+     *            Zu verarbeitendes Element.
+     */
+    private void compactMember(final AbstractTemplateMember<?> member) {
+        final ParserRuleContext context = member.getContext();
+        if (context != null) {
+            Integer location = locations.get(context);
+            if (location == null) {
+                location = Integer.valueOf(table.add(context));
+                locations.put(context, location);
+            }
+            member.compactSourceLocation(table, location.intValue());
+        }
+    }
+}
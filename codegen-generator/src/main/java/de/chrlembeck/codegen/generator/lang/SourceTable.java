@@ -0,0 +1,192 @@
+package de.chrlembeck.codegen.generator.lang;
+
+import java.util.Arrays;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+
+import de.chrlembeck.codegen.generator.Position;
+
+/**
+ * Kompakte Tabelle der Quellpositionen aller Elemente einer Template-Datei. Pro Eintrag werden Zeile, Spalte, Start-
+ * und End-Position des Elements in der Datei sowie der Index des ersten und letzten Tokens hintereinander in einem
+ * einzigen int-Array abgelegt. Die Elemente der Template-Datei merken sich nach dem Einlesen nur noch die Nummer ihres
+ * Eintrags, so dass der von ANTLR erzeugte Syntaxbaum samt seiner Tokens nicht mehr im Speicher gehalten werden muss.
+ *
+ * @author Christoph Lembeck
+ * @see SourceLocationCompactor
+ */
+public final class SourceTable {
+
+    /**
+     * Anzahl der Einträge pro Quellposition in der Tabelle.
+     */
+    private static final int FIELDS = 6;
+
+    /**
+     * Index der Zeile innerhalb eines Eintrags.
+     */
+    private static final int LINE = 0;
+
+    /**
+     * Index der Spalte innerhalb eines Eintrags.
+     */
+    private static final int COLUMN = 1;
+
+    /**
+     * Index der Start-Position innerhalb eines Eintrags.
+     */
+    private static final int START_INDEX = 2;
+
+    /**
+     * Index der End-Position innerhalb eines Eintrags.
+     */
+    private static final int STOP_INDEX = 3;
+
+    /**
+     * Index des ersten Tokens innerhalb eines Eintrags.
+     */
+    private static final int START_TOKEN_INDEX = 4;
+
+    /**
+     * Index des letzten Tokens innerhalb eines Eintrags.
+     */
+    private static final int STOP_TOKEN_INDEX = 5;
+
+    /**
+     * Tabelle mit {@link #FIELDS} Einträgen pro Quellposition.
+     */
+    private int[] entries = new int[FIELDS * 64];
+
+    /**
+     * Anzahl der Quellpositionen in der Tabelle.
+     */
+    private int size;
+
+    /**
+     * Nimmt den Bereich des übergebenen Kontexts in die Tabelle auf.
+     *
+     * @param context
+     *            Kontext des Parsers, dessen Position gespeichert werden soll.
+     * @return Nummer des neuen Eintrags.
+     */
+    int add(final ParserRuleContext context) {
+        return add(context.getStart(), context.getStop() == null ? context.getStart() : context.getStop());
+    }
+
+    /**
+     * Nimmt den Bereich vom ersten bis zum letzten der übergebenen Tokens in die Tabelle auf.
+     *
+     * @param start
+     *            Erstes Token des Bereichs.
+     * @param stop
+     *            Letztes Token des Bereichs.
+     * @return Nummer des neuen Eintrags.
+     */
+    int add(final Token start, final Token stop) {
+        final int offset = size * FIELDS;
+        if (offset + FIELDS > entries.length) {
+            entries = Arrays.copyOf(entries, entries.length * 2);
+        }
+        entries[offset + LINE] = start.getLine();
+        entries[offset + COLUMN] = start.getCharPositionInLine() + 1;
+        entries[offset + START_INDEX] = start.getStartIndex();
+        entries[offset + STOP_INDEX] = stop.getStopIndex();
+        entries[offset + START_TOKEN_INDEX] = start.getTokenIndex();
+        entries[offset + STOP_TOKEN_INDEX] = stop.getTokenIndex();
+        return size++;
+    }
+
+    /**
+     * Verkleinert die Tabelle auf die tatsächlich belegten Einträge, nachdem alle Elemente aufgenommen wurden.
+     */
+    void trim() {
+        entries = Arrays.copyOf(entries, size * FIELDS);
+    }
+
+    /**
+     * Gibt die Anzahl der Einträge in der Tabelle zurück.
+     *
+     * @return Anzahl der gespeicherten Quellpositionen.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gibt die Zeile des ersten Zeichens zurück.
+     *
+     * @param location
+     *            Nummer des Eintrags.
+     * @return Zeile innerhalb der Datei. Die erste Zeile hat den Index 1.
+     */
+    public int getLine(final int location) {
+        return entries[location * FIELDS + LINE];
+    }
+
+    /**
+     * Gibt die Spalte des ersten Zeichens zurück.
+     *
+     * @param location
+     *            Nummer des Eintrags.
+     * @return Spalte innerhalb der Zeile. Das erste Zeichen hat den Index 1.
+     */
+    public int getColumn(final int location) {
+        return entries[location * FIELDS + COLUMN];
+    }
+
+    /**
+     * Gibt die Position des ersten Zeichens innerhalb der Datei zurück.
+     *
+     * @param location
+     *            Nummer des Eintrags.
+     * @return Index des ersten Zeichens in der Datei.
+     */
+    public int getStartIndex(final int location) {
+        return entries[location * FIELDS + START_INDEX];
+    }
+
+    /**
+     * Gibt die Position des letzten Zeichens innerhalb der Datei zurück.
+     *
+     * @param location
+     *            Nummer des Eintrags.
+     * @return Index des letzten Zeichens in der Datei.
+     */
+    public int getStopIndex(final int location) {
+        return entries[location * FIELDS + STOP_INDEX];
+    }
+
+    /**
+     * Gibt den Index des ersten Tokens zurück.
+     *
+     * @param location
+     *            Nummer des Eintrags.
+     * @return Index des ersten Tokens im Token-Strom der Datei.
+     */
+    public int getStartTokenIndex(final int location) {
+        return entries[location * FIELDS + START_TOKEN_INDEX];
+    }
+
+    /**
+     * Gibt den Index des letzten Tokens zurück.
+     *
+     * @param location
+     *            Nummer des Eintrags.
+     * @return Index des letzten Tokens im Token-Strom der Datei.
+     */
+    public int getStopTokenIndex(final int location) {
+        return entries[location * FIELDS + STOP_TOKEN_INDEX];
+    }
+
+    /**
+     * Gibt die Position des ersten Zeichens als Zeile und Spalte zurück.
+     *
+     * @param location
+     *            Nummer des Eintrags.
+     * @return Position des ersten Zeichens in der Template-Datei.
+     */
+    public Position getPosition(final int location) {
+        return new Position(getLine(location), getColumn(location));
+    }
+}
@@ -0,0 +1,33 @@
+package de.chrlembeck.codegen.generator.lang;
+
+import java.io.IOException;
+
+import de.chrlembeck.codegen.generator.Environment;
+import de.chrlembeck.codegen.generator.Generator;
+
+/**
+ * Ausführbarer Inhalt eines Statements, wie z.B. der Rumpf einer Schleife oder der Inhalt eines Ausgabekanals.
+ * Statements mit eingebetteten Code-Blöcken und Statements führen ihren Inhalt über diese Schnittstelle aus, so dass
+ * derselbe Ablauf sowohl für die direkt interpretierten als auch für die übersetzten Templates verwendet werden kann.
+ *
+ * @author Christoph Lembeck
+ * @see ForStatement#executeLoop(Generator, Object, Environment, StatementBlock)
+ * @see OutputStatement#executeOutput(Generator, Object, Environment, StatementBlock)
+ */
+@FunctionalInterface
+public interface StatementBlock {
+
+    /**
+     * Führt den Inhalt aus und schreibt seine Ausgaben in den aktuellen Ausgabekanal des Generators.
+     *
+     * @param generator
+     *            Generator, der die Ausführung angestoßen hat.
+     * @param model
+     *            Aktuelles Modell oder Teil des Modells, das verarbeitet werden soll.
+     * @param environment
+     *            Laufzeitumgebung mit den enthaltenen Variablen.
+     * @throws IOException
+     *             Falls beim Schreiben der Ausgabe ein Fehler auftritt.
+     */
+    void execute(Generator generator, Object model, Environment environment) throws IOException;
+}
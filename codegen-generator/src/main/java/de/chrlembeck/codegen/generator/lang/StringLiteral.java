@@ -126,4 +126,20 @@ public class StringLiteral extends AbstractExpression<LiteralContext> implements
     public ObjectWithType<String> evaluate(final Object model, final Environment environment) {
         return new ObjectWithType<String>(value, String.class);
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object evaluateObject(final Object model, final Environment environment) {
+        return value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Class<?> getStaticType() {
+        return String.class;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,180 @@
+package de.chrlembeck.codegen.generator.lang;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.net.URI;
+import java.net.URISyntaxException;
+
+import de.chrlembeck.codegen.generator.Environment;
+import de.chrlembeck.codegen.generator.GeneratorException;
+import de.chrlembeck.codegen.generator.TemplateResolver;
+
+/**
+ * Aufrufstelle eines {@link ExecuteStatement}s. Beim ersten Aufruf wird die Template-Datei ermittelt, aus der das
+ * aufzurufende Template stammt, und für alle weiteren Aufrufe über denselben {@link TemplateResolver} gespeichert.
+ * Zusätzlich merkt sich die Aufrufstelle das zuletzt für eine Modellklasse gefundene Template, so dass bei
+ * gleichbleibenden Modellklassen, wie sie z.B. bei den Elementen einer Collection üblich sind, keine weitere Suche
+ * nötig ist. Die gespeicherten Daten werden komplett ersetzt, so dass die Aufrufstelle ohne Synchronisation von
+ * mehreren Threads verwendet werden kann.
+ *
+ * @author Christoph Lembeck
+ */
+final class TemplateCallSite {
+
+    /**
+     * Statement, zu dem die Aufrufstelle gehört.
+     */
+    private final ExecuteStatement statement;
+
+    /**
+     * Verknüpfung mit der aufzurufenden Template-Datei oder null, falls die Aufrufstelle noch nicht verwendet wurde.
+     */
+    private volatile Link link;
+
+    /**
+     * Erstellt eine neue Aufrufstelle.
+     *
+     * @param statement
+     *            Statement, zu dem die Aufrufstelle gehört.
+     */
+    TemplateCallSite(final ExecuteStatement statement) {
+        this.statement = statement;
+    }
+
+    /**
+     * Gibt das aufzurufende Template für die übergebene Modellklasse zurück.
+     *
+     * @param templateResolver
+     *            Resolver, über den die Template-Datei bei Bedarf geladen wird.
+     * @param modelType
+     *            Klasse des Modells, das an das Template übergeben wird.
+     * @param environment
+     *            Aktuelle Laufzeitumgebung für eventuelle Fehlermeldungen.
+     * @return Aufzurufendes Template oder null, falls kein passendes Template existiert.
+     * @throws IOException
+     *             Falls die Template-Datei nicht geladen werden kann.
+     */
+    TemplateStatement lookup(final TemplateResolver templateResolver, final Class<?> modelType,
+            final Environment environment) throws IOException {
+        Link current = link;
+        if (current == null || current.templateResolver.get() != templateResolver) {
+            current = new Link(templateResolver, resolveTemplateFile(templateResolver, environment));
+            link = current;
+        }
+        return current.lookup(statement.getTemplateName(), modelType);
+    }
+
+    /**
+     * Ermittelt die Template-Datei, aus der das aufzurufende Template stammt. Ohne Prefix ist dies die Datei des
+     * Statements selbst, ansonsten die über den Import mit dem Prefix referenzierte Datei.
+     *
+     * @param templateResolver
+     *            Resolver, über den die importierte Template-Datei geladen wird.
+     * @param environment
+     *            Aktuelle Laufzeitumgebung für eventuelle Fehlermeldungen.
+     * @return Template-Datei des aufzurufenden Templates.
+     * @throws IOException
+     *             Falls die Template-Datei nicht geladen werden kann.
+     */
+    private TemplateFile resolveTemplateFile(final TemplateResolver templateResolver, final Environment environment)
+            throws IOException {
+        if (statement.getPrefix() == null) {
+            return statement.getTemplateFile();
+        }
+        final URI resourceIdentifier;
+        try {
+            resourceIdentifier = statement.getTemplateFile().resolveImportPrefix(statement.getPrefix());
+        } catch (final URISyntaxException e) {
+            throw new GeneratorException("Ungültige URI im Import-Statement.", statement, environment, e);
+        }
+        return templateResolver.getOrLoadTemplateFile(resourceIdentifier);
+    }
+
+    /**
+     * Verknüpfung der Aufrufstelle mit der Template-Datei, die über einen bestimmten Resolver ermittelt wurde.
+     *
+     * @author Christoph Lembeck
+     */
+    private static final class Link {
+
+        /**
+         * Resolver, über den die Template-Datei ermittelt wurde. Die Referenz ist schwach, damit die in den
+         * Template-Dateien gespeicherten Aufrufstellen den Resolver nach dem Ende der Generierung nicht festhalten.
+         */
+        private final WeakReference<TemplateResolver> templateResolver;
+
+        /**
+         * Template-Datei, aus der das aufzurufende Template stammt.
+         */
+        private final TemplateFile templateFile;
+
+        /**
+         * Zuletzt für eine Modellklasse ermitteltes Template.
+         */
+        private volatile Target target;
+
+        /**
+         * Erstellt eine neue Verknüpfung.
+         *
+         * @param templateResolver
+         *            Resolver, über den die Template-Datei ermittelt wurde.
+         * @param templateFile
+         *            Template-Datei, aus der das aufzurufende Template stammt.
+         */
+        Link(final TemplateResolver templateResolver, final TemplateFile templateFile) {
+            this.templateResolver = new WeakReference<>(templateResolver);
+            this.templateFile = templateFile;
+        }
+
+        /**
+         * Gibt das Template für die Modellklasse zurück und sucht es nur dann in der Template-Datei, wenn sich die
+         * Modellklasse gegenüber dem letzten Aufruf geändert hat.
+         *
+         * @param templateName
+         *            Name des aufzurufenden Templates.
+         * @param modelType
+         *            Klasse des Modells, das an das Template übergeben wird.
+         * @return Aufzurufendes Template oder null, falls kein passendes Template existiert.
+         */
+        TemplateStatement lookup(final String templateName, final Class<?> modelType) {
+            final Target current = target;
+            if (current != null && current.modelType == modelType) {
+                return current.templateStatement;
+            }
+            final TemplateStatement templateStatement = templateFile.findTemplate(templateName, modelType);
+            target = new Target(modelType, templateStatement);
+            return templateStatement;
+        }
+    }
+
+    /**
+     * Zuordnung einer Modellklasse zu dem für sie aufzurufenden Template.
+     *
+     * @author Christoph Lembeck
+     */
+    private static final class Target {
+
+        /**
+         * Klasse des Modells.
+         */
+        private final Class<?> modelType;
+
+        /**
+         * Aufzurufendes Template oder null, falls kein passendes Template existiert.
+         */
+        private final TemplateStatement templateStatement;
+
+        /**
+         * Erstellt eine neue Zuordnung.
+         *
+         * @param modelType
+         *            Klasse des Modells.
+         * @param templateStatement
+         *            Aufzurufendes Template oder null, falls kein passendes Template existiert.
+         */
+        Target(final Class<?> modelType, final TemplateStatement templateStatement) {
+            this.modelType = modelType;
+            this.templateStatement = templateStatement;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package de.chrlembeck.codegen.generator.lang;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index über die Templates einer Template-Datei, mit dessen Hilfe zu einem Template-Namen und einer Modellklasse das
+ * auszuführende Template ermittelt wird. Der Index wird einmalig pro Template-Datei aufgebaut. Die Auswahl des
+ * Templates für eine Modellklasse wird beim ersten Aufruf ermittelt und für alle weiteren Aufrufe mit derselben Klasse
+ * gespeichert, so dass jeder weitere Aufruf unabhängig von der Anzahl der Templates und der Tiefe der
+ * Klassenhierarchie nur noch einen Zugriff auf den Index erfordert. Der Index kann gleichzeitig von mehreren Threads
+ * verwendet werden.
+ *
+ * @author Christoph Lembeck
+ * @see TemplateFile#findTemplate(String, Class)
+ */
+final class TemplateDispatchTable {
+
+    /**
+     * Platzhalter für Modellklassen, zu denen kein passendes Template existiert.
+     */
+    private static final Object NO_TEMPLATE = new Object();
+
+    /**
+     * Templates gleichen Namens, zugeordnet zu ihrem Namen.
+     */
+    private final Map<String, Candidates> templatesByName;
+
+    /**
+     * Erstellt den Index für die übergebenen Templates.
+     *
+     * @param templates
+     *            Templates der Datei in der Reihenfolge ihres Vorkommens.
+     */
+    TemplateDispatchTable(final List<TemplateStatement> templates) {
+        final Map<String, List<TemplateStatement>> grouped = new HashMap<>();
+        for (final TemplateStatement template : templates) {
+            grouped.computeIfAbsent(template.getName(), name -> new ArrayList<>()).add(template);
+        }
+        templatesByName = new HashMap<>();
+        grouped.forEach((name, list) -> templatesByName.put(name, new Candidates(list)));
+    }
+
+    /**
+     * Sucht das Template mit dem angegebenen Namen, welches den Typ des Modells am genauesten verarbeiten kann.
+     *
+     * @param templateName
+     *            Name des zu suchenden Templates.
+     * @param modelType
+     *            Typ des Modells, dass das Template verarbeiten soll.
+     * @return Passendes Template oder null, falls kein Template mit dem Namen den Typ verarbeiten kann.
+     */
+    TemplateStatement findTemplate(final String templateName, final Class<?> modelType) {
+        final Candidates candidates = templatesByName.get(templateName);
+        return candidates == null ? null : candidates.findTemplate(modelType);
+    }
+
+    /**
+     * Alle Templates mit dem gleichen Namen zusammen mit den bereits ermittelten Zuordnungen von Modellklassen zu
+     * Templates.
+     *
+     * @author Christoph Lembeck
+     */
+    private static final class Candidates {
+
+        /**
+         * Templates mit dem gleichen Namen in der Reihenfolge ihres Vorkommens.
+         */
+        private final TemplateStatement[] templates;
+
+        /**
+         * Bereits ermittelte Templates pro Modellklasse bzw. {@link TemplateDispatchTable#NO_TEMPLATE}, falls kein
+         * Template passt.
+         */
+        private final Map<Class<?>, Object> resolved = new ConcurrentHashMap<>();
+
+        /**
+         * Erstellt die Kandidaten für einen Template-Namen.
+         *
+         * @param templates
+         *            Templates mit dem gleichen Namen in der Reihenfolge ihres Vorkommens.
+         */
+        Candidates(final List<TemplateStatement> templates) {
+            this.templates = templates.toArray(new TemplateStatement[templates.size()]);
+        }
+
+        /**
+         * Gibt das Template für die Modellklasse zurück und ermittelt es beim ersten Aufruf.
+         *
+         * @param modelType
+         *            Typ des Modells, dass das Template verarbeiten soll.
+         * @return Passendes Template oder null, falls keines den Typ verarbeiten kann.
+         */
+        TemplateStatement findTemplate(final Class<?> modelType) {
+            Object template = resolved.get(modelType);
+            if (template == null) {
+                final TemplateStatement mostSpecific = findMostSpecific(modelType);
+                template = mostSpecific == null ? NO_TEMPLATE : mostSpecific;
+                resolved.putIfAbsent(modelType, template);
+            }
+            return template == NO_TEMPLATE ? null : (TemplateStatement) template;
+        }
+
+        /**
+         * Ermittelt unter allen Templates, die den Typ verarbeiten können, dasjenige mit dem speziellsten Modelltyp.
+         * Sind mehrere Templates gleich gut geeignet, gewinnt das erste in der Datei.
+         *
+         * @param modelType
+         *            Typ des Modells, dass das Template verarbeiten soll.
+         * @return Passendes Template oder null, falls keines den Typ verarbeiten kann.
+         */
+        private TemplateStatement findMostSpecific(final Class<?> modelType) {
+            TemplateStatement best = null;
+            Class<?> bestType = null;
+            for (final TemplateStatement template : templates) {
+                final Class<?> type = template.getTypeAsClass();
+                if (type.isAssignableFrom(modelType)
+                        && (bestType == null || bestType != type && bestType.isAssignableFrom(type))) {
+                    best = template;
+                    bestType = type;
+                }
+            }
+            return best;
+        }
+    }
+}
@@ -3,8 +3,11 @@ package de.chrlembeck.codegen.generator.lang;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
+import de.chrlembeck.codegen.generator.Position;
 import de.chrlembeck.codegen.generator.TemplateResolver;
 import de.chrlembeck.codegen.grammar.CodeGenParser.TemplateFileContext;
 
@@ -37,6 +40,21 @@ public class TemplateFile extends AbstractTemplateMember<TemplateFileContext> {
      */
     private List<AbstractTemplateMember<?>> members;
 
+    /**
+     * Index für die Suche nach den Templates anhand von Namen und Modelltyp. Wird beim ersten Zugriff erstellt.
+     */
+    private volatile TemplateDispatchTable dispatchTable;
+
+    /**
+     * Warnungen, die der {@link TemplateTypeChecker} beim Einlesen der Datei gefunden hat.
+     */
+    private Map<Position, String> typeWarnings = Collections.emptyMap();
+
+    /**
+     * Tabelle der Quellpositionen aller Elemente dieser Datei.
+     */
+    private SourceTable sourceTable;
+
     /**
      * Erstellt eine Template-Datei aus den übergebenen Daten.
      * 
@@ -129,22 +147,24 @@ public class TemplateFile extends AbstractTemplateMember<TemplateFileContext> {
 
     /**
      * Sucht innerhalb dieser Datei nach einem Template mit dem angegebenen Namen, welches den Typ des Modells
-     * verarbeiten kann. Das erste passende Template innerhalb der Datei wird zurückgegeben.
+     * verarbeiten kann. Passen mehrere Templates, wird dasjenige mit dem speziellsten Modelltyp zurückgegeben. Sind
+     * mehrere Templates gleich gut geeignet, gewinnt das erste innerhalb der Datei. Das Ergebnis wird pro Modellklasse
+     * gespeichert, so dass wiederholte Aufrufe nur einen Zugriff auf einen Index erfordern.
      * 
      * @param templateName
      *            Name des zu suchenden Templates.
      * @param modelType
      *            Typ des Modells, dass das Template verarbeiten soll.
-     * @return Template mit dem gewünschten Namen und passendem Modelltyp.
+     * @return Template mit dem gewünschten Namen und passendem Modelltyp oder null, falls kein passendes Template
+     *         existiert.
      */
     public TemplateStatement findTemplate(final String templateName, final Class<?> modelType) {
-        for (final TemplateStatement templateStatement : getTemplateStatements()) {
-            if (templateName.equals(templateStatement.getName())
-                    && templateStatement.getTypeAsClass().isAssignableFrom(modelType)) {
-                return templateStatement;
-            }
+        TemplateDispatchTable table = dispatchTable;
+        if (table == null) {
+            table = new TemplateDispatchTable(getTemplateStatements());
+            dispatchTable = table;
         }
-        return null;
+        return table.findTemplate(templateName, modelType);
     }
 
     /**
@@ -157,4 +177,44 @@ public class TemplateFile extends AbstractTemplateMember<TemplateFileContext> {
     public List<AbstractTemplateMember<?>> getMembers() {
         return members;
     }
-}
\ No newline at end of file
+
+    /**
+     * Gibt die Warnungen zurück, die bei der Prüfung der Templates gegen ihre Modelltypen gefunden wurden.
+     *
+     * @return Warnungen zu den Positionen in der Template-Datei, sortiert nach ihrer Position.
+     * @see TemplateTypeChecker
+     */
+    public Map<Position, String> getTypeWarnings() {
+        return typeWarnings;
+    }
+
+    /**
+     * Setzt die Warnungen, die bei der Prüfung der Templates gegen ihre Modelltypen gefunden wurden.
+     *
+     * @param typeWarnings
+     *            Warnungen zu den Positionen in der Template-Datei.
+     */
+    void setTypeWarnings(final Map<Position, String> typeWarnings) {
+        this.typeWarnings = typeWarnings;
+    }
+
+    /**
+     * Gibt die Tabelle mit den Quellpositionen aller Elemente dieser Datei zurück.
+     *
+     * @return Tabelle der Quellpositionen, auf deren Einträge die Elemente über
+     *         {@link AbstractTemplateMember#getSourceLocation()} verweisen.
+     */
+    public SourceTable getSourceTable() {
+        return sourceTable;
+    }
+
+    /**
+     * Setzt die Tabelle mit den Quellpositionen aller Elemente dieser Datei.
+     *
+     * @param sourceTable
+     *            Tabelle der Quellpositionen.
+     */
+    void setSourceTable(final SourceTable sourceTable) {
+        this.sourceTable = sourceTable;
+    }
+}
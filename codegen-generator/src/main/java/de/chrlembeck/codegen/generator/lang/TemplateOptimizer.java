@@ -0,0 +1,378 @@
+package de.chrlembeck.codegen.generator.lang;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.chrlembeck.codegen.grammar.CodeGenParser.UserCodeContext;
+
+/**
+ * Vereinfacht die Templates einer Template-Datei einmalig nach dem Einlesen, so dass bei der Generierung weniger
+ * Arbeit anfällt. Der Durchlauf erfolgt nach dem {@link VariableResolver} und umfasst die folgenden Schritte:
+ * <ul>
+ * <li>Teilausdrücke, die nur aus Literalen, Klassenreferenzen ({@code java.lang.String.class}) und öffentlichen
+ * statischen Konstanten ({@code java.lang.Integer.MAX_VALUE}) bestehen, werden vorab ausgewertet und durch eine
+ * {@link ConstantExpression} ersetzt. Als Konstanten gelten dabei nur Felder mit primitivem Typ, Zeichenketten und
+ * Enum-Konstanten. Veränderliche Objekte wie {@code java.lang.System.out} werden weiterhin bei jeder Auswertung
+ * gelesen.</li>
+ * <li>Vollqualifizierte Klassennamen in Attributzugriffen und Methodenaufrufen werden einmalig aufgelöst, anstatt bei
+ * jeder Auswertung über {@link Class#forName(String)} gesucht zu werden.</li>
+ * <li>If-Statements mit konstanter Bedingung werden durch den Inhalt des ausgewählten Blocks ersetzt.</li>
+ * <li>Benachbarte Code-Blöcke und Ausgaben konstanter Ausdrücke werden zu einem einzigen {@link UserCode}
+ * zusammengefasst.</li>
+ * </ul>
+ * Ausdrücke, deren Auswertung einen Fehler erzeugt (z.B. {@code 1 / 0}), bleiben unverändert, damit der Fehler wie
+ * bisher erst bei der Generierung mit Bezug auf das ausführende Template gemeldet wird.
+ *
+ * @author Christoph Lembeck
+ */
+public final class TemplateOptimizer {
+
+    /**
+     * Der Logger für diese Klasse.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(TemplateOptimizer.class);
+
+    /**
+     * Ausdrücke, deren Ergebnis nur von den Werten ihrer Teilausdrücke abhängt und die daher vorab ausgewertet werden
+     * können, sobald alle Teilausdrücke konstant sind.
+     */
+    private static final Set<Class<?>> FOLDABLE_EXPRESSIONS = new HashSet<>(Arrays.asList(AndExpression.class,
+            OrExpression.class, XorExpression.class, CompareExpression.class, EqualsExpression.class,
+            MultDivModExpression.class, PlusMinusExpression.class, ShiftExpression.class,
+            ConditionalAndExpression.class, ConditionalOrExpression.class, SignExpression.class,
+            NegationExpression.class, CastExpression.class, InstanceofExpression.class));
+
+    /**
+     * Erstellt einen neuen Optimierer. Die Klasse besitzt nur statische Methoden.
+     */
+    private TemplateOptimizer() {
+    }
+
+    /**
+     * Vereinfacht alle Templates der übergebenen Template-Datei.
+     *
+     * @param templateFile
+     *            Template-Datei, deren Variablen bereits durch den {@link VariableResolver} aufgelöst wurden.
+     */
+    public static void optimize(final TemplateFile templateFile) {
+        for (final TemplateStatement template : templateFile.getTemplateStatements()) {
+            optimizeBlock(template.getCodeOrStatements());
+        }
+    }
+
+    /**
+     * Vereinfacht die Elemente eines Blocks, ersetzt If-Statements mit konstanter Bedingung durch den ausgewählten
+     * Block und fasst anschließend benachbarte konstante Ausgaben zusammen.
+     *
+     * @param block
+     *            Zu verarbeitender Block. Die Liste wird direkt verändert.
+     */
+    private static void optimizeBlock(final List<UserCodeOrStatements<?>> block) {
+        if (block == null) {
+            return;
+        }
+        final List<UserCodeOrStatements<?>> optimized = new ArrayList<>(block.size());
+        for (final UserCodeOrStatements<?> codeOrStatement : block) {
+            optimizeStatement(codeOrStatement);
+            final List<UserCodeOrStatements<?>> selectedBlock = codeOrStatement instanceof IfStatement
+                    ? selectConstantBranch((IfStatement) codeOrStatement)
+                    : null;
+            if (selectedBlock == null) {
+                optimized.add(codeOrStatement);
+            } else {
+                final AbstractTemplateMember<?> parent = ((IfStatement) codeOrStatement).getParent();
+                selectedBlock.forEach(element -> element.setParent(parent));
+                optimized.addAll(selectedBlock);
+            }
+        }
+        block.clear();
+        block.addAll(mergeConstantOutput(optimized));
+    }
+
+    /**
+     * Vereinfacht die Ausdrücke und Blöcke eines einzelnen Statements.
+     *
+     * @param codeOrStatement
+     *            Zu verarbeitendes Element.
+     */
+    private static void optimizeStatement(final UserCodeOrStatements<?> codeOrStatement) {
+        if (codeOrStatement instanceof ExpressionStatement) {
+            final ExpressionStatement expressionStatement = (ExpressionStatement) codeOrStatement;
+            expressionStatement.setExpression(optimizeExpression(expressionStatement.getExpression()));
+        } else if (codeOrStatement instanceof IfStatement) {
+            final IfStatement ifStatement = (IfStatement) codeOrStatement;
+            ifStatement.setCondition(optimizeExpression(ifStatement.getCondition()));
+            optimizeBlock(ifStatement.getIfBlock());
+            optimizeBlock(ifStatement.getElseBlock());
+        } else if (codeOrStatement instanceof OutputStatement) {
+            final OutputStatement outputStatement = (OutputStatement) codeOrStatement;
+            outputStatement.setNameExpression(optimizeExpression(outputStatement.getNameExpression()));
+            optimizeBlock(outputStatement.getCodeOrStatements());
+        } else if (codeOrStatement instanceof ExecuteStatement) {
+            final ExecuteStatement executeStatement = (ExecuteStatement) codeOrStatement;
+            executeStatement.setValueExpression(optimizeExpression(executeStatement.getValueExpression()));
+            executeStatement.setSeparatorExpression(optimizeExpression(executeStatement.getSeparatorExpression()));
+        } else if (codeOrStatement instanceof ForStatement) {
+            final ForStatement forStatement = (ForStatement) codeOrStatement;
+            forStatement.setCollectionExpression(optimizeExpression(forStatement.getCollectionExpression()));
+            forStatement.setSeparatorExpression(optimizeExpression(forStatement.getSeparatorExpression()));
+            optimizeBlock(forStatement.getLoopBody());
+        }
+    }
+
+    /**
+     * Ermittelt für ein If-Statement mit konstanter Bedingung den Block, der bei jeder Ausführung gewählt würde.
+     *
+     * @param ifStatement
+     *            Zu prüfendes If-Statement.
+     * @return Ausgewählter Block, eine leere Liste, falls die Bedingung nicht erfüllt ist und kein else-Block
+     *         existiert, oder null, falls die Bedingung nicht konstant ist.
+     */
+    private static List<UserCodeOrStatements<?>> selectConstantBranch(final IfStatement ifStatement) {
+        if (!isConstant(ifStatement.getCondition())) {
+            return null;
+        }
+        final boolean conditionTrue;
+        try {
+            conditionTrue = ifStatement.isConditionTrue(null, null);
+        } catch (final RuntimeException e) {
+            LOGGER.debug("Bedingung wird nicht vorab ausgewertet: " + ifStatement.getCondition(), e);
+            return null;
+        }
+        if (conditionTrue) {
+            return ifStatement.getIfBlock();
+        }
+        return ifStatement.getElseBlock() == null ? new ArrayList<>() : ifStatement.getElseBlock();
+    }
+
+    /**
+     * Vereinfacht einen Ausdruck und seine Teilausdrücke.
+     *
+     * @param expression
+     *            Zu vereinfachender Ausdruck oder null.
+     * @return Vereinfachter Ausdruck, der an die Stelle des übergebenen Ausdrucks treten soll, oder der Ausdruck
+     *         selbst, falls er nicht ersetzt werden muss.
+     */
+    private static Expression optimizeExpression(final Expression expression) {
+        if (expression == null || isConstant(expression)) {
+            return expression;
+        }
+        if (expression instanceof TypeRef) {
+            return fold(expression);
+        }
+        if (expression instanceof MethodCallExpression) {
+            optimizeMethodCall((MethodCallExpression) expression);
+            return expression;
+        }
+        if (expression instanceof ConditionalExpression) {
+            final List<Expression> subExpressions = expression.getSubExpressions();
+            final Expression condition = optimizeSubExpression(expression, subExpressions.get(0));
+            if (isConstant(condition)) {
+                try {
+                    final boolean conditionTrue = ((Boolean) condition.evaluate(null, null).getObject())
+                            .booleanValue();
+                    return optimizeExpression(subExpressions.get(conditionTrue ? 1 : 2));
+                } catch (final RuntimeException e) {
+                    LOGGER.debug("Bedingung wird nicht vorab ausgewertet: " + condition, e);
+                }
+            }
+            optimizeSubExpression(expression, subExpressions.get(1));
+            optimizeSubExpression(expression, subExpressions.get(2));
+            return expression;
+        }
+        boolean constant = true;
+        for (final Expression subExpression : expression.getSubExpressions()) {
+            constant &= isConstant(optimizeSubExpression(expression, subExpression));
+        }
+        if (expression instanceof AttributeExpression) {
+            return isStaticConstant((AttributeExpression) expression) ? fold(expression) : expression;
+        }
+        return constant && FOLDABLE_EXPRESSIONS.contains(expression.getClass()) ? fold(expression) : expression;
+    }
+
+    /**
+     * Vereinfacht einen direkten Teilausdruck und ersetzt ihn bei Bedarf im übergeordneten Ausdruck.
+     *
+     * @param expression
+     *            Übergeordneter Ausdruck.
+     * @param subExpression
+     *            Zu vereinfachender Teilausdruck.
+     * @return Vereinfachter Teilausdruck.
+     */
+    private static Expression optimizeSubExpression(final Expression expression, final Expression subExpression) {
+        final Expression optimized = optimizeExpression(subExpression);
+        if (optimized != subExpression) {
+            expression.replaceSubExpression(subExpression, optimized);
+        }
+        return optimized;
+    }
+
+    /**
+     * Vereinfacht die Argumente eines Methodenaufrufs sowie das Objekt oder die Klasse, auf dem oder der die Methode
+     * aufgerufen wird. Der Aufruf selbst wird nie vorab ausgewertet, da das Ergebnis von Seiteneffekten oder dem
+     * Zeitpunkt des Aufrufs abhängen kann.
+     *
+     * @param methodCall
+     *            Zu vereinfachender Methodenaufruf.
+     */
+    private static void optimizeMethodCall(final MethodCallExpression methodCall) {
+        final Expression methodExpression = methodCall.getMethodExpression();
+        if (methodExpression instanceof AttributeExpression) {
+            optimizeSubExpression(methodExpression, ((AttributeExpression) methodExpression).getExpression());
+        }
+        for (final Expression argument : new ArrayList<>(methodCall.getArguments())) {
+            optimizeSubExpression(methodCall, argument);
+        }
+    }
+
+    /**
+     * Prüft, ob ein Attributzugriff eine öffentliche statische Konstante einer bereits aufgelösten Klasse liest. Als
+     * Konstanten gelten nur finale Felder mit primitivem Typ oder vom Typ {@link String} sowie Enum-Konstanten, da
+     * sich der Zustand anderer Objekte auch bei finalen Feldern noch ändern kann. Nebenbei wird vermerkt, ob der
+     * Ausdruck selbst eine Klasse bezeichnet.
+     *
+     * @param expression
+     *            Zu prüfender Attributzugriff, dessen Teilausdruck bereits vereinfacht wurde.
+     * @return {@code true}, falls der Wert des Attributs vorab gelesen werden kann.
+     */
+    private static boolean isStaticConstant(final AttributeExpression expression) {
+        if (expression.resolveStaticReference() != null) {
+            return false;
+        }
+        if (!(expression.getExpression() instanceof AttributeExpression)) {
+            return false;
+        }
+        final StaticCallSource source = ((AttributeExpression) expression.getExpression()).resolveStaticReference();
+        if (source == null) {
+            return false;
+        }
+        try {
+            final Field field = source.getClassRef().getField(expression.getIdentifier());
+            final int modifiers = field.getModifiers();
+            return Modifier.isStatic(modifiers) && Modifier.isFinal(modifiers) && (field.getType().isPrimitive()
+                    || field.getType() == String.class || field.isEnumConstant());
+        } catch (final NoSuchFieldException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Wertet einen konstanten Ausdruck vorab aus.
+     *
+     * @param expression
+     *            Auszuwertender Ausdruck.
+     * @return Konstante mit dem Ergebnis der Auswertung oder der Ausdruck selbst, falls bei der Auswertung ein Fehler
+     *         aufgetreten ist.
+     */
+    private static Expression fold(final Expression expression) {
+        try {
+            return new ConstantExpression(expression, expression.evaluate(null, null));
+        } catch (final RuntimeException e) {
+            LOGGER.debug("Ausdruck wird nicht vorab ausgewertet: " + expression, e);
+            return expression;
+        }
+    }
+
+    /**
+     * Prüft, ob der Wert eines Ausdrucks bereits feststeht.
+     *
+     * @param expression
+     *            Zu prüfender Ausdruck.
+     * @return {@code true}, falls der Ausdruck ein Literal oder eine vorab berechnete Konstante ist.
+     */
+    private static boolean isConstant(final Expression expression) {
+        return expression instanceof Literal || expression instanceof ConstantExpression;
+    }
+
+    /**
+     * Fasst benachbarte Code-Blöcke und Ausgaben konstanter Ausdrücke zu jeweils einem einzigen Code-Block zusammen.
+     *
+     * @param block
+     *            Bereits vereinfachte Elemente eines Blocks.
+     * @return Elemente des Blocks nach dem Zusammenfassen.
+     */
+    private static List<UserCodeOrStatements<?>> mergeConstantOutput(final List<UserCodeOrStatements<?>> block) {
+        final List<UserCodeOrStatements<?>> result = new ArrayList<>(block.size());
+        final List<UserCodeOrStatements<?>> run = new ArrayList<>();
+        final StringBuilder code = new StringBuilder();
+        for (final UserCodeOrStatements<?> codeOrStatement : block) {
+            final String constantText = getConstantText(codeOrStatement);
+            if (constantText == null) {
+                flush(run, code, result);
+                result.add(codeOrStatement);
+            } else {
+                run.add(codeOrStatement);
+                code.append(constantText);
+            }
+        }
+        flush(run, code, result);
+        return result;
+    }
+
+    /**
+     * Ermittelt den Text, den ein Element bei jeder Ausführung ausgibt.
+     *
+     * @param codeOrStatement
+     *            Zu prüfendes Element.
+     * @return Auszugebender Text oder null, falls der Text erst bei der Generierung feststeht.
+     */
+    private static String getConstantText(final UserCodeOrStatements<?> codeOrStatement) {
+        if (codeOrStatement instanceof UserCode) {
+            return ((UserCode) codeOrStatement).getCode();
+        }
+        if (codeOrStatement instanceof ExpressionStatement) {
+            final Expression expression = ((ExpressionStatement) codeOrStatement).getExpression();
+            if (isConstant(expression)) {
+                try {
+                    final String text = String.valueOf(expression.evaluate(null, null).getObject());
+                    // leere Ausgaben würden ohne Ausgabekanal ignoriert statt einen Fehler zu erzeugen
+                    return text.isBlank() ? null : text;
+                } catch (final RuntimeException e) {
+                    LOGGER.debug("Ausdruck wird nicht vorab ausgewertet: " + expression, e);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Übernimmt die gesammelten konstanten Ausgaben als einzelnen Code-Block in das Ergebnis. Der neue Code-Block
+     * erhält einen Kontext, der vom ersten bis zum letzten Token der zusammengefassten Elemente reicht, so dass die
+     * Ausgabe weiterhin der richtigen Stelle in der Template-Datei zugeordnet werden kann.
+     *
+     * @param run
+     *            Gesammelte Elemente mit konstanter Ausgabe. Die Liste wird anschließend geleert.
+     * @param code
+     *            Gesammelter Text der Elemente. Der Puffer wird anschließend geleert.
+     * @param result
+     *            Liste, in die das Ergebnis übernommen wird.
+     */
+    private static void flush(final List<UserCodeOrStatements<?>> run, final StringBuilder code,
+            final List<UserCodeOrStatements<?>> result) {
+        if (run.size() == 1 && run.get(0) instanceof UserCode) {
+            result.add(run.get(0));
+        } else if (!run.isEmpty()) {
+            final AbstractTemplateMember<?> first = (AbstractTemplateMember<?>) run.get(0);
+            final AbstractTemplateMember<?> last = (AbstractTemplateMember<?>) run.get(run.size() - 1);
+            final ParserRuleContext firstContext = first.getContext();
+            final UserCodeContext context = new UserCodeContext(firstContext.getParent(),
+                    firstContext.invokingState);
+            context.start = firstContext.getStart();
+            context.stop = last.getContext().getStop();
+            final UserCode userCode = new UserCode(context, code.toString());
+            userCode.setParent(first.getParent());
+            result.add(userCode);
+        }
+        run.clear();
+        code.setLength(0);
+    }
+}
@@ -6,6 +6,7 @@ import java.util.List;
 import de.chrlembeck.codegen.generator.Environment;
 import de.chrlembeck.codegen.generator.Generator;
 import de.chrlembeck.codegen.generator.ParserException;
+import de.chrlembeck.codegen.generator.compiler.CompiledTemplate;
 import de.chrlembeck.codegen.grammar.CodeGenParser.TemplateStatementContext;
 
 /**
@@ -34,6 +35,24 @@ public class TemplateStatement extends AbstractTemplateMember<TemplateStatementC
      */
     private String name;
 
+    /**
+     * Anzahl der Slots, die der Frame des Templates für die in ihm deklarierten Variablen benötigt.
+     * 
+     * @see VariableResolver
+     */
+    private int frameSize;
+
+    /**
+     * Bereits geladene Class-Referenz des vom Template akzeptierten Modelltyps.
+     */
+    private volatile Class<?> typeClass;
+
+    /**
+     * Übersetzte Form des Templates, sobald es einmal im {@link de.chrlembeck.codegen.generator.ExecutionMode#COMPILED}
+     * ausgeführt wurde.
+     */
+    private volatile CompiledTemplate compiledTemplate;
+
     /**
      * Erstellt das TemplateStatement mit den übergebenen Daten.
      * 
@@ -75,17 +94,45 @@ public class TemplateStatement extends AbstractTemplateMember<TemplateStatementC
     }
 
     /**
-     * Versucht den vom Template akzeptierten Modelltyp als Class-Referenz zu laden und gibt diese zurück.
+     * Versucht den vom Template akzeptierten Modelltyp als Class-Referenz zu laden und gibt diese zurück. Die Klasse
+     * wird nur beim ersten Aufruf geladen.
      * 
      * @return Class-Referenz des vom Template akzeptierten Modelltyp.
      */
     public Class<?> getTypeAsClass() {
-        try {
-            return Class.forName(type);
-        } catch (final ClassNotFoundException cnfe) {
-            throw new ParserException("Can not find class " + type + ". (" + getStartPosition() + ")", getContext(),
-                    cnfe);
+        Class<?> result = typeClass;
+        if (result == null) {
+            try {
+                result = Class.forName(type);
+            } catch (final ClassNotFoundException cnfe) {
+                throw new ParserException("Can not find class " + type + ". (" + getStartPosition() + ")",
+                        getStartPosition(), cnfe);
+            }
+            typeClass = result;
         }
+        return result;
+    }
+
+    /**
+     * Gibt die übersetzte Form des Templates zurück.
+     * 
+     * @return Übersetztes Template oder null, falls das Template noch nicht übersetzt wurde.
+     * @see de.chrlembeck.codegen.generator.compiler.TemplateCompiler
+     */
+    public CompiledTemplate getCompiledTemplate() {
+        return compiledTemplate;
+    }
+
+    /**
+     * Legt die übersetzte Form des Templates ab, damit sie zusammen mit der Template-Datei wiederverwendet und auch
+     * wieder freigegeben wird.
+     * 
+     * @param compiledTemplate
+     *            Übersetztes Template.
+     * @see de.chrlembeck.codegen.generator.compiler.TemplateCompiler
+     */
+    public void setCompiledTemplate(final CompiledTemplate compiledTemplate) {
+        this.compiledTemplate = compiledTemplate;
     }
 
     /**
@@ -97,6 +144,25 @@ public class TemplateStatement extends AbstractTemplateMember<TemplateStatementC
         return codeOrStatements;
     }
 
+    /**
+     * Gibt die Anzahl der Slots zurück, die der Frame des Templates für die in ihm deklarierten Variablen benötigt.
+     * 
+     * @return Größe des Frames für die Ausführung des Templates.
+     */
+    public int getFrameSize() {
+        return frameSize;
+    }
+
+    /**
+     * Setzt die Anzahl der Slots, die der Frame des Templates für die in ihm deklarierten Variablen benötigt.
+     * 
+     * @param frameSize
+     *            Größe des Frames für die Ausführung des Templates.
+     */
+    void setFrameSize(final int frameSize) {
+        this.frameSize = frameSize;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -111,11 +177,11 @@ public class TemplateStatement extends AbstractTemplateMember<TemplateStatementC
     @Override
     public void execute(final Generator generator, final Object model, final Environment environment)
             throws IOException {
+        environment.createFrame(frameSize);
         for (final UserCodeOrStatements<?> ucost : codeOrStatements) {
-            environment.createFrame(false);
             environment.execute(ucost, generator, model);
-            environment.dropFrame();
         }
+        environment.dropFrame();
     }
 
     /**
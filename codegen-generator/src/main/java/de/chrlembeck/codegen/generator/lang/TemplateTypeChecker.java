@@ -0,0 +1,523 @@
+package de.chrlembeck.codegen.generator.lang;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.TreeMap;
+import java.util.stream.BaseStream;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.chrlembeck.codegen.generator.JavaUtil;
+import de.chrlembeck.codegen.generator.ParserException;
+import de.chrlembeck.codegen.generator.Position;
+import de.chrlembeck.codegen.generator.lang.MemberResolver.AttributeTarget;
+import de.chrlembeck.codegen.generator.lang.MemberResolver.MethodTarget;
+
+/**
+ * Prüft die Templates einer Template-Datei einmalig nach dem Einlesen gegen den im Template angegebenen Modelltyp.
+ * Ausgehend vom Typ hinter {@code FOR} werden die Typen aller Variablen und Ausdrücke bestimmt, wobei die generischen
+ * Typen aus den Signaturen der Methoden und Felder übernommen werden. So ist z.B. der Elementtyp einer Schleife über
+ * {@code this.getTables()} bekannt, wenn die Methode eine {@code List<Table>} liefert.
+ * <p>
+ * Attributzugriffe und Methodenaufrufe, deren Ziel sich dabei eindeutig bestimmen lässt, werden direkt an das gefundene
+ * Feld bzw. die gefundene Methode gebunden, so dass die Suche bei der Generierung entfällt. Da die Templates zur
+ * Laufzeit dynamisch typisiert sind, prüfen die Ausdrücke vor der Verwendung der Bindung den tatsächlichen Typ und
+ * greifen bei Abweichungen auf die normale Suche zurück.
+ * <p>
+ * Attribute und Methoden, die in einem bekannten Typ nicht existieren, werden als Warnung gemeldet, da die Auswertung
+ * des Ausdrucks bei der Generierung sicher fehlschlagen würde. Ist ein Typ nicht bekannt (z.B. bei Collections ohne
+ * Typargumente), findet keine Prüfung statt.
+ *
+ * @author Christoph Lembeck
+ */
+public final class TemplateTypeChecker {
+
+    /**
+     * Der Logger für diese Klasse.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(TemplateTypeChecker.class);
+
+    /**
+     * Typ eines Ausdrucks, der bei der Prüfung nicht bestimmt werden kann.
+     */
+    private static final StaticType UNKNOWN = new StaticType(null, null);
+
+    /**
+     * Typ des {@code null}-Literals.
+     */
+    private static final StaticType NULL = new StaticType(null, null);
+
+    /**
+     * Typ des Schleifenzählers einer For-Schleife.
+     */
+    private static final StaticType COUNTER = new StaticType(Counter.class, Counter.class);
+
+    /**
+     * Bisher gefundene Warnungen zu den Positionen in der Template-Datei.
+     */
+    private final Map<Position, String> warnings;
+
+    /**
+     * Modelltyp des aktuell geprüften Templates oder null, falls dieser nicht geladen werden konnte.
+     */
+    private final Class<?> modelType;
+
+    /**
+     * Typen der Variablen des Templates, indiziert über die Slots des {@link VariableResolver}.
+     */
+    private final StaticType[] slots;
+
+    /**
+     * Erstellt einen neuen Prüfer für ein einzelnes Template.
+     *
+     * @param warnings
+     *            Sammlung der gefundenen Warnungen.
+     * @param modelType
+     *            Modelltyp des Templates oder null, falls dieser nicht bekannt ist.
+     * @param frameSize
+     *            Anzahl der Variablen-Slots des Templates.
+     */
+    private TemplateTypeChecker(final Map<Position, String> warnings, final Class<?> modelType,
+            final int frameSize) {
+        this.warnings = warnings;
+        this.modelType = modelType;
+        this.slots = new StaticType[frameSize];
+    }
+
+    /**
+     * Prüft alle Templates der übergebenen Template-Datei, bindet die Attributzugriffe und Methodenaufrufe an die
+     * gefundenen Ziele und hinterlegt die gefundenen Warnungen in der Template-Datei.
+     *
+     * @param templateFile
+     *            Template-Datei, deren Variablen bereits durch den {@link VariableResolver} aufgelöst wurden.
+     * @return Gefundene Warnungen zu den Positionen in der Template-Datei, sortiert nach ihrer Position.
+     */
+    public static Map<Position, String> check(final TemplateFile templateFile) {
+        final Map<Position, String> warnings = new TreeMap<>();
+        for (final TemplateStatement template : templateFile.getTemplateStatements()) {
+            Class<?> modelType;
+            try {
+                modelType = template.getTypeAsClass();
+            } catch (final ParserException e) {
+                warnings.put(template.getStartPosition(),
+                        "Der Modelltyp " + template.getType() + " des Templates " + template.getName()
+                                + " wurde nicht gefunden.");
+                modelType = null;
+            }
+            new TemplateTypeChecker(warnings, modelType, template.getFrameSize())
+                    .checkBlock(template.getCodeOrStatements());
+        }
+        for (final Map.Entry<Position, String> warning : warnings.entrySet()) {
+            LOGGER.warn(templateFile.getResourceIdentifier() + " (" + warning.getKey() + "): " + warning.getValue());
+        }
+        templateFile.setTypeWarnings(Collections.unmodifiableMap(warnings));
+        return templateFile.getTypeWarnings();
+    }
+
+    /**
+     * Prüft die Elemente eines Blocks.
+     *
+     * @param block
+     *            Zu prüfender Block oder null.
+     */
+    private void checkBlock(final List<UserCodeOrStatements<?>> block) {
+        if (block == null) {
+            return;
+        }
+        for (final UserCodeOrStatements<?> codeOrStatement : block) {
+            checkStatement(codeOrStatement);
+        }
+    }
+
+    /**
+     * Prüft die Ausdrücke und Blöcke eines einzelnen Statements.
+     *
+     * @param codeOrStatement
+     *            Zu prüfendes Element.
+     */
+    private void checkStatement(final UserCodeOrStatements<?> codeOrStatement) {
+        if (codeOrStatement instanceof ExpressionStatement) {
+            check(((ExpressionStatement) codeOrStatement).getExpression());
+        } else if (codeOrStatement instanceof IfStatement) {
+            final IfStatement ifStatement = (IfStatement) codeOrStatement;
+            check(ifStatement.getCondition());
+            checkBlock(ifStatement.getIfBlock());
+            checkBlock(ifStatement.getElseBlock());
+        } else if (codeOrStatement instanceof OutputStatement) {
+            final OutputStatement outputStatement = (OutputStatement) codeOrStatement;
+            check(outputStatement.getNameExpression());
+            checkBlock(outputStatement.getCodeOrStatements());
+        } else if (codeOrStatement instanceof ExecuteStatement) {
+            final ExecuteStatement executeStatement = (ExecuteStatement) codeOrStatement;
+            check(executeStatement.getValueExpression());
+            check(executeStatement.getSeparatorExpression());
+        } else if (codeOrStatement instanceof ForStatement) {
+            checkFor((ForStatement) codeOrStatement);
+        }
+    }
+
+    /**
+     * Prüft eine For-Schleife. Der Typ der Schleifenvariablen ergibt sich aus dem Typargument des durchlaufenen
+     * {@link Iterable}, {@link Iterator}, Streams oder {@link Spliterator}s bzw. aus dem Komponententyp des Arrays.
+     *
+     * @param forStatement
+     *            Zu prüfende Schleife.
+     */
+    private void checkFor(final ForStatement forStatement) {
+        final StaticType collection = check(forStatement.getCollectionExpression());
+        final Class<?> collectionClass = GenericTypes.rawType(collection.type);
+        Type elementType = null;
+        if (collectionClass != null && Iterable.class.isAssignableFrom(collectionClass)) {
+            elementType = GenericTypes.typeArgument(collection.type, Iterable.class, 0);
+        } else if (collectionClass != null && collectionClass.isArray()) {
+            elementType = componentType(collection.type);
+        } else if (collectionClass != null && Iterator.class.isAssignableFrom(collectionClass)) {
+            elementType = GenericTypes.typeArgument(collection.type, Iterator.class, 0);
+        } else if (collectionClass != null && BaseStream.class.isAssignableFrom(collectionClass)) {
+            elementType = streamElementType(collection.type, collectionClass);
+        } else if (collectionClass != null && Spliterator.class.isAssignableFrom(collectionClass)) {
+            elementType = spliteratorElementType(collection.type, collectionClass);
+        } else if (collection.valueType != null && collection != NULL) {
+            warn(forStatement.getCollectionExpression(),
+                    "Der Ausdruck liefert den Typ " + collection.valueType.getName()
+                            + ", über den nicht iteriert werden kann.");
+        }
+        final int varSlot = forStatement.getVarSlot();
+        final int counterSlot = forStatement.getCounterSlot();
+        final StaticType previousVar = slots[varSlot];
+        final StaticType previousCounter = counterSlot < 0 ? null : slots[counterSlot];
+        slots[varSlot] = elementType == null ? UNKNOWN
+                : new StaticType(elementType, exactType(GenericTypes.rawType(elementType)));
+        if (counterSlot >= 0) {
+            slots[counterSlot] = COUNTER;
+        }
+        check(forStatement.getSeparatorExpression());
+        checkBlock(forStatement.getLoopBody());
+        slots[varSlot] = previousVar;
+        if (counterSlot >= 0) {
+            slots[counterSlot] = previousCounter;
+        }
+    }
+
+    /**
+     * Bestimmt den Typ eines Ausdrucks und prüft dabei rekursiv alle Teilausdrücke.
+     *
+     * @param expression
+     *            Zu prüfender Ausdruck oder null.
+     * @return Typ des Ausdrucks oder {@link #UNKNOWN}, falls dieser nicht bestimmt werden kann.
+     */
+    private StaticType check(final Expression expression) {
+        if (expression == null) {
+            return UNKNOWN;
+        } else if (expression instanceof NullLiteral) {
+            return NULL;
+        } else if (expression instanceof ThisReference) {
+            return modelType == null ? UNKNOWN : new StaticType(modelType, exactType(modelType));
+        } else if (expression instanceof Identifier) {
+            final int slot = ((Identifier) expression).getSlot();
+            return slot < 0 || slots[slot] == null ? UNKNOWN : slots[slot];
+        } else if (expression instanceof AttributeExpression) {
+            return checkAttribute((AttributeExpression) expression);
+        } else if (expression instanceof MethodCallExpression) {
+            return checkMethodCall((MethodCallExpression) expression);
+        }
+        final List<StaticType> subTypes = new ArrayList<>();
+        for (final Expression subExpression : expression.getSubExpressions()) {
+            subTypes.add(check(subExpression));
+        }
+        if (expression instanceof CastExpression) {
+            final ClassOrPrimitiveType destinationType = ((CastExpression) expression).getDestinationType();
+            try {
+                final Class<?> type = destinationType.getClassRef();
+                return new StaticType(type, type);
+            } catch (final ClassNotFoundException e) {
+                warn(expression, "Die Klasse " + destinationType.getClassName() + " wurde nicht gefunden.");
+                return UNKNOWN;
+            }
+        } else if (expression instanceof ArrayAccessExpression) {
+            final Type componentType = componentType(subTypes.get(0).type);
+            return componentType == null ? UNKNOWN : new StaticType(componentType, null);
+        } else if (expression instanceof Literal || expression instanceof ConstantExpression) {
+            final Class<?> type = expression.evaluate(null, null).getType();
+            return new StaticType(type, type);
+        }
+        final Class<?> staticType = expression.getStaticType();
+        return staticType == null ? UNKNOWN : new StaticType(staticType, staticType);
+    }
+
+    /**
+     * Prüft einen Attributzugriff und bindet ihn an das gefundene Feld bzw. den gefundenen Getter.
+     *
+     * @param attribute
+     *            Zu prüfender Attributzugriff.
+     * @return Typ des Attributs oder {@link #UNKNOWN}, falls dieser nicht bestimmt werden kann.
+     */
+    private StaticType checkAttribute(final AttributeExpression attribute) {
+        final StaticType receiver = check(attribute.getExpression());
+        final StaticCallSource staticReference = attribute.resolveStaticReference();
+        if (staticReference != null) {
+            return new StaticType(staticReference.getClassRef());
+        }
+        final boolean staticAccess = receiver.classReference != null;
+        final Class<?> type = receiverClass(receiver);
+        if (type == null) {
+            return UNKNOWN;
+        }
+        final String identifier = attribute.getIdentifier();
+        try {
+            final AttributeTarget target = MemberResolver.resolveAttribute(type, identifier, staticAccess);
+            attribute.bind(target, staticAccess);
+            final Type context = staticAccess || type != GenericTypes.rawType(receiver.type) ? type : receiver.type;
+            return new StaticType(GenericTypes.resolve(target.getGenericType(), context, target.getDeclaringClass()),
+                    target.getType());
+        } catch (final NoSuchFieldException e) {
+            warn(attribute, "Das Attribut '" + identifier + "' wurde in der Klasse " + type.getName()
+                    + " nicht gefunden.");
+            return UNKNOWN;
+        } catch (final RuntimeException e) {
+            return UNKNOWN;
+        }
+    }
+
+    /**
+     * Prüft einen Methodenaufruf und bindet ihn an die gefundene Methode, sofern die Typen aller Argumente bekannt
+     * sind.
+     *
+     * @param methodCall
+     *            Zu prüfender Methodenaufruf.
+     * @return Rückgabetyp der Methode oder {@link #UNKNOWN}, falls dieser nicht bestimmt werden kann.
+     */
+    private StaticType checkMethodCall(final MethodCallExpression methodCall) {
+        final List<StaticType> argumentTypes = new ArrayList<>();
+        for (final Expression argument : methodCall.getArguments()) {
+            argumentTypes.add(check(argument));
+        }
+        if (!(methodCall.getMethodExpression() instanceof AttributeExpression)) {
+            check(methodCall.getMethodExpression());
+            return UNKNOWN;
+        }
+        final AttributeExpression methodExpression = (AttributeExpression) methodCall.getMethodExpression();
+        final StaticType receiver = check(methodExpression.getExpression());
+        final boolean staticCall = receiver.classReference != null;
+        final Class<?> type = receiverClass(receiver);
+        if (type == null) {
+            return UNKNOWN;
+        }
+        final String methodName = methodExpression.getIdentifier();
+        if (!hasMethod(type, methodName, argumentTypes.size(), staticCall)) {
+            warn(methodCall, "Die Methode '" + methodName + "' mit " + argumentTypes.size()
+                    + " Argument(en) wurde in der Klasse " + type.getName() + " nicht gefunden.");
+            return UNKNOWN;
+        }
+        final Class<?>[] argTypes = new Class<?>[argumentTypes.size()];
+        for (int i = 0; i < argTypes.length; i++) {
+            final StaticType argumentType = argumentTypes.get(i);
+            if (argumentType != NULL && argumentType.valueType == null) {
+                return UNKNOWN;
+            }
+            argTypes[i] = argumentType.valueType;
+        }
+        try {
+            final MethodTarget target = MemberResolver.resolveMethod(type, methodName, argTypes, staticCall);
+            methodCall.bind(target, staticCall);
+            final Type context = staticCall || type != GenericTypes.rawType(receiver.type) ? type : receiver.type;
+            return new StaticType(
+                    GenericTypes.resolve(target.getGenericReturnType(), context, target.getDeclaringClass()),
+                    target.getReturnType());
+        } catch (final NoSuchMethodException | RuntimeException e) {
+            return UNKNOWN;
+        }
+    }
+
+    /**
+     * Ermittelt die Klasse, in der die Attribute und Methoden eines Objekts gesucht werden. Primitive Typen werden
+     * dabei wie bei der Auswertung durch ihre Wrapper-Klassen ersetzt.
+     *
+     * @param receiver
+     *            Typ des Objekts bzw. der Klasse bei statischen Zugriffen.
+     * @return Zu durchsuchende Klasse oder null, falls über den Typ keine Aussage getroffen werden kann.
+     */
+    private static Class<?> receiverClass(final StaticType receiver) {
+        if (receiver.classReference != null) {
+            return receiver.classReference;
+        }
+        final Class<?> type = GenericTypes.rawType(receiver.type);
+        if (type == null || type == Object.class || type == void.class) {
+            return null;
+        }
+        return type.isPrimitive() ? JavaUtil.getWrapperClass(type) : type;
+    }
+
+    /**
+     * Prüft, ob die Klasse eine öffentliche Methode mit dem Namen und der Anzahl an Parametern besitzt.
+     *
+     * @param type
+     *            Zu durchsuchende Klasse.
+     * @param methodName
+     *            Name der Methode.
+     * @param parameterCount
+     *            Anzahl der Parameter.
+     * @param staticCall
+     *            true, falls nur statische Methoden in Frage kommen.
+     * @return true, falls eine passende Methode existiert.
+     */
+    private static boolean hasMethod(final Class<?> type, final String methodName, final int parameterCount,
+            final boolean staticCall) {
+        for (final Method method : type.getMethods()) {
+            if (method.getName().equals(methodName) && method.getParameterCount() == parameterCount
+                    && (!staticCall || Modifier.isStatic(method.getModifiers()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Ermittelt den Komponententyp eines Array-Typs.
+     *
+     * @param arrayType
+     *            Generischer Typ des Arrays.
+     * @return Komponententyp oder null, falls der Typ kein Array oder nicht bekannt ist.
+     */
+    private static Type componentType(final Type arrayType) {
+        if (arrayType instanceof GenericArrayType) {
+            return ((GenericArrayType) arrayType).getGenericComponentType();
+        } else if (arrayType instanceof Class && ((Class<?>) arrayType).isArray()) {
+            return ((Class<?>) arrayType).getComponentType();
+        }
+        return null;
+    }
+
+    /**
+     * Ermittelt den Elementtyp eines Streams. Die Elemente der primitiven Streams werden in der Schleife unverpackt
+     * bereitgestellt.
+     *
+     * @param streamType
+     *            Typ des Streams.
+     * @param streamClass
+     *            Klasse des Streams.
+     * @return Elementtyp oder null, falls er nicht ermittelt werden kann.
+     */
+    private static Type streamElementType(final Type streamType, final Class<?> streamClass) {
+        if (IntStream.class.isAssignableFrom(streamClass)) {
+            return int.class;
+        } else if (LongStream.class.isAssignableFrom(streamClass)) {
+            return long.class;
+        } else if (DoubleStream.class.isAssignableFrom(streamClass)) {
+            return double.class;
+        }
+        return GenericTypes.typeArgument(streamType, BaseStream.class, 0);
+    }
+
+    /**
+     * Ermittelt den Elementtyp eines Spliterators. Die Elemente der primitiven Spliteratoren werden in der Schleife
+     * unverpackt bereitgestellt.
+     *
+     * @param spliteratorType
+     *            Typ des Spliterators.
+     * @param spliteratorClass
+     *            Klasse des Spliterators.
+     * @return Elementtyp oder null, falls er nicht ermittelt werden kann.
+     */
+    private static Type spliteratorElementType(final Type spliteratorType, final Class<?> spliteratorClass) {
+        if (Spliterator.OfInt.class.isAssignableFrom(spliteratorClass)) {
+            return int.class;
+        } else if (Spliterator.OfLong.class.isAssignableFrom(spliteratorClass)) {
+            return long.class;
+        } else if (Spliterator.OfDouble.class.isAssignableFrom(spliteratorClass)) {
+            return double.class;
+        }
+        return GenericTypes.typeArgument(spliteratorType, Spliterator.class, 0);
+    }
+
+    /**
+     * Gibt die Klasse zurück, falls Objekte des Typs zur Laufzeit genau diese Klasse besitzen müssen. Dies ist bei
+     * primitiven Typen, finalen Klassen und Arrays davon der Fall.
+     *
+     * @param type
+     *            Zu prüfende Klasse oder null.
+     * @return Die Klasse selbst oder null, falls zur Laufzeit auch Unterklassen auftreten können.
+     */
+    private static Class<?> exactType(final Class<?> type) {
+        if (type == null) {
+            return null;
+        } else if (type.isArray()) {
+            return exactType(type.getComponentType()) == null ? null : type;
+        }
+        return type.isPrimitive() || Modifier.isFinal(type.getModifiers()) ? type : null;
+    }
+
+    /**
+     * Merkt sich eine Warnung zur Position des Ausdrucks.
+     *
+     * @param expression
+     *            Ausdruck, auf den sich die Warnung bezieht.
+     * @param message
+     *            Text der Warnung.
+     */
+    private void warn(final Expression expression, final String message) {
+        warnings.putIfAbsent(expression.getStartPosition(), message);
+    }
+
+    /**
+     * Statisch ermittelter Typ eines Ausdrucks.
+     *
+     * @author Christoph Lembeck
+     */
+    private static final class StaticType {
+
+        /**
+         * Generischer Typ des Ausdrucks, anhand dessen die Attribute und Methoden gesucht werden.
+         */
+        private final Type type;
+
+        /**
+         * Typ, mit dem der Wert des Ausdrucks bei der Auswertung als {@link ObjectWithType} geliefert wird oder null,
+         * falls dieser vorab nicht sicher bestimmt werden kann.
+         */
+        private final Class<?> valueType;
+
+        /**
+         * Klasse, falls der Ausdruck keinen Wert, sondern eine Klasse für statische Zugriffe bezeichnet.
+         */
+        private final Class<?> classReference;
+
+        /**
+         * Erstellt den Typ eines Ausdrucks mit einem Wert.
+         *
+         * @param type
+         *            Generischer Typ des Ausdrucks.
+         * @param valueType
+         *            Typ des Werts bei der Auswertung oder null, falls dieser nicht sicher bekannt ist.
+         */
+        StaticType(final Type type, final Class<?> valueType) {
+            this.type = type;
+            this.valueType = valueType;
+            this.classReference = null;
+        }
+
+        /**
+         * Erstellt den Typ eines Ausdrucks, der eine Klasse für statische Zugriffe bezeichnet.
+         *
+         * @param classReference
+         *            Bezeichnete Klasse.
+         */
+        StaticType(final Class<?> classReference) {
+            this.type = null;
+            this.valueType = null;
+            this.classReference = classReference;
+        }
+    }
+}
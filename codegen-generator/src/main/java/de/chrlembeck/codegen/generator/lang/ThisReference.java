@@ -36,4 +36,12 @@ public class ThisReference extends AbstractExpression<PrimaryThisReferenceContex
     public ObjectWithType<?> evaluate(final Object model, final Environment environment) {
         return new ObjectWithType(model, model.getClass());
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object evaluateObject(final Object model, final Environment environment) {
+        return model;
+    }
 }
\ No newline at end of file
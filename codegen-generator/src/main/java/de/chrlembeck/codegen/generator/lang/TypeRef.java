@@ -29,6 +29,15 @@ public class TypeRef extends AbstractExpression<PrimaryTypeClassContext> impleme
         this.typeType = typeType;
     }
 
+    /**
+     * Gibt den repräsentierten Typ zurück.
+     * 
+     * @return Repräsentierter Klassentyp.
+     */
+    public ClassOrPrimitiveType getTypeType() {
+        return typeType;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -68,11 +68,24 @@ public class UserCode extends AbstractTemplateMember<UserCodeContext> implements
         final GeneratorWriter currentWriter = generator.getCurrentWriter();
         if (currentWriter == null) {
             if (code != null && code.trim().length() > 0) {
-                LOGGER.info("Kein Writer zur Ausgabe gefunden. " + this + ": " + this.getContext());
+                LOGGER.info("Kein Writer zur Ausgabe gefunden. " + this + ": " + this.getStartPosition());
                 throw new GeneratorException("Kein Writer zur Ausgabe gefunden.", this, environment);
             }
         } else {
-            currentWriter.append(code, this, getContext().AnyChar());
+            appendTo(currentWriter);
         }
     }
+
+    /**
+     * Schreibt den Text des Code-Blocks in den übergebenen Writer. Zusammengefasste Code-Blöcke werden dabei dem
+     * gesamten Bereich der ursprünglichen Elemente in der Template-Datei zugeordnet.
+     * 
+     * @param writer
+     *            Writer, in den der Text geschrieben werden soll.
+     * @throws IOException
+     *             Falls beim Schreiben ein Fehler auftritt.
+     */
+    public void appendTo(final GeneratorWriter writer) throws IOException {
+        writer.append(code, this, getSourceLocation());
+    }
 }
\ No newline at end of file
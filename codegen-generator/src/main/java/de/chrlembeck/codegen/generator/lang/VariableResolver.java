@@ -0,0 +1,142 @@
+package de.chrlembeck.codegen.generator.lang;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ordnet die in den Templates einer Template-Datei deklarierten Variablen festen Slots im Frame des jeweiligen
+ * Templates zu. Der Durchlauf erfolgt einmalig nach dem Einlesen der Template-Datei. Jede Schleifen- und
+ * Zähler-Variable eines {@link ForStatement}s erhält dabei die nächste freie Slot-Nummer innerhalb ihres
+ * Gültigkeitsbereichs, so dass Schleifen auf gleicher Ebene dieselben Slots wiederverwenden. Alle {@link Identifier}
+ * im Gültigkeitsbereich einer Variable werden mit deren Slot verknüpft, wobei die innerste Deklaration Vorrang hat.
+ * Zur Laufzeit ist für den Zugriff auf eine Variable dadurch nur noch ein Array-Zugriff notwendig.
+ *
+ * @author Christoph Lembeck
+ */
+public final class VariableResolver {
+
+    /**
+     * Namen der im aktuellen Gültigkeitsbereich sichtbaren Variablen. Der Index in der Liste entspricht dem Slot der
+     * Variable im Frame.
+     */
+    private final List<String> scope = new ArrayList<>();
+
+    /**
+     * Größte bisher ermittelte Anzahl gleichzeitig sichtbarer Variablen im aktuellen Template.
+     */
+    private int frameSize;
+
+    /**
+     * Erstellt einen neuen Resolver. Instanzen werden nur intern pro Template verwendet.
+     */
+    private VariableResolver() {
+    }
+
+    /**
+     * Ordnet die Variablen aller Templates der übergebenen Template-Datei ihren Slots zu und hinterlegt die benötigte
+     * Frame-Größe in den Templates.
+     *
+     * @param templateFile
+     *            Template-Datei, deren Variablen aufgelöst werden sollen.
+     */
+    public static void resolve(final TemplateFile templateFile) {
+        for (final TemplateStatement template : templateFile.getTemplateStatements()) {
+            final VariableResolver resolver = new VariableResolver();
+            resolver.resolveBlock(template.getCodeOrStatements());
+            template.setFrameSize(resolver.frameSize);
+        }
+    }
+
+    /**
+     * Löst die Variablen in einer Liste von Code-Blöcken und Statements auf.
+     *
+     * @param codeOrStatements
+     *            Liste der zu verarbeitenden Code-Blöcke und Statements.
+     */
+    private void resolveBlock(final List<UserCodeOrStatements<?>> codeOrStatements) {
+        if (codeOrStatements == null) {
+            return;
+        }
+        for (final UserCodeOrStatements<?> codeOrStatement : codeOrStatements) {
+            resolveStatement(codeOrStatement);
+        }
+    }
+
+    /**
+     * Löst die Variablen in einem einzelnen Code-Block oder Statement auf.
+     *
+     * @param codeOrStatement
+     *            Zu verarbeitendes Element.
+     */
+    private void resolveStatement(final UserCodeOrStatements<?> codeOrStatement) {
+        if (codeOrStatement instanceof ExpressionStatement) {
+            resolveExpression(((ExpressionStatement) codeOrStatement).getExpression());
+        } else if (codeOrStatement instanceof IfStatement) {
+            final IfStatement ifStatement = (IfStatement) codeOrStatement;
+            resolveExpression(ifStatement.getCondition());
+            resolveBlock(ifStatement.getIfBlock());
+            resolveBlock(ifStatement.getElseBlock());
+        } else if (codeOrStatement instanceof OutputStatement) {
+            final OutputStatement outputStatement = (OutputStatement) codeOrStatement;
+            resolveExpression(outputStatement.getNameExpression());
+            resolveBlock(outputStatement.getCodeOrStatements());
+        } else if (codeOrStatement instanceof ExecuteStatement) {
+            final ExecuteStatement executeStatement = (ExecuteStatement) codeOrStatement;
+            resolveExpression(executeStatement.getValueExpression());
+            resolveExpression(executeStatement.getSeparatorExpression());
+        } else if (codeOrStatement instanceof ForStatement) {
+            resolveForStatement((ForStatement) codeOrStatement);
+        }
+    }
+
+    /**
+     * Vergibt die Slots für die Variablen einer Schleife und löst anschließend die Variablen im Schleifenrumpf auf. Die
+     * Collection-Expression wird noch im äußeren Gültigkeitsbereich ausgewertet, das Trennzeichen bereits im inneren.
+     *
+     * @param forStatement
+     *            Zu verarbeitende Schleife.
+     */
+    private void resolveForStatement(final ForStatement forStatement) {
+        resolveExpression(forStatement.getCollectionExpression());
+        final int outerSize = scope.size();
+        forStatement.setVarSlot(declare(forStatement.getVarName()));
+        if (forStatement.getCounterName() != null) {
+            forStatement.setCounterSlot(declare(forStatement.getCounterName()));
+        }
+        resolveExpression(forStatement.getSeparatorExpression());
+        resolveBlock(forStatement.getLoopBody());
+        scope.subList(outerSize, scope.size()).clear();
+    }
+
+    /**
+     * Deklariert eine neue Variable im aktuellen Gültigkeitsbereich.
+     *
+     * @param name
+     *            Name der Variable.
+     * @return Slot der Variable im Frame.
+     */
+    private int declare(final String name) {
+        scope.add(name);
+        frameSize = Math.max(frameSize, scope.size());
+        return scope.size() - 1;
+    }
+
+    /**
+     * Verknüpft alle in der Expression enthaltenen Variablen mit ihren Slots.
+     *
+     * @param expression
+     *            Zu verarbeitende Expression.
+     */
+    private void resolveExpression(final Expression expression) {
+        if (expression == null) {
+            return;
+        }
+        if (expression instanceof Identifier) {
+            final Identifier identifier = (Identifier) expression;
+            identifier.setSlot(scope.lastIndexOf(identifier.getName()));
+        }
+        for (final Expression subExpression : expression.getSubExpressions()) {
+            resolveExpression(subExpression);
+        }
+    }
+}
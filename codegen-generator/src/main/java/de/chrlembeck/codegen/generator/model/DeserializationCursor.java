@@ -0,0 +1,147 @@
+package de.chrlembeck.codegen.generator.model;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+
+import de.chrlembeck.util.io.ClassLoaderObjectInputStream;
+
+/**
+ * Cursor über die Elemente einer Datei, in die die Elemente nacheinander serialisiert wurden (siehe
+ * {@link ModelFactoryHelper#writeChunks(java.io.OutputStream, Iterable)}). Es wird immer nur das nächste Element
+ * gelesen. Da beim Schreiben nach jedem Element die Referenztabelle des Streams zurückgesetzt wird, hält auch der
+ * ObjectInputStream keine Referenzen auf bereits gelesene Elemente.
+ *
+ * @author Christoph Lembeck
+ * @param <T>
+ *            Typ der Elemente.
+ */
+final class DeserializationCursor<T> implements ModelCursor<T> {
+
+    /**
+     * Typ der Elemente.
+     */
+    private final Class<T> elementType;
+
+    /**
+     * Stream, aus dem die Elemente gelesen werden.
+     */
+    private final ObjectInputStream objectIn;
+
+    /**
+     * Im Voraus gelesenes Element.
+     */
+    private T nextElement;
+
+    /**
+     * Gibt an, ob das nächste Element bereits gelesen wurde.
+     */
+    private boolean fetched;
+
+    /**
+     * Gibt an, ob das Ende der Datei erreicht wurde.
+     */
+    private boolean endOfFile;
+
+    /**
+     * Öffnet einen neuen Cursor auf den Anfang der Datei.
+     *
+     * @param file
+     *            Datei mit den serialisierten Elementen.
+     * @param elementType
+     *            Typ der Elemente.
+     * @param classLoader
+     *            Zum Laden der Modellklassen zu verwendender Classloader oder null.
+     * @throws UncheckedIOException
+     *             Falls die Datei nicht geöffnet werden kann.
+     */
+    DeserializationCursor(final Path file, final Class<T> elementType, final ClassLoader classLoader) {
+        this.elementType = elementType;
+        InputStream fileIn = null;
+        try {
+            fileIn = new BufferedInputStream(Files.newInputStream(file));
+            objectIn = classLoader == null ? new ObjectInputStream(fileIn)
+                    : new ClassLoaderObjectInputStream(fileIn, classLoader);
+        } catch (final IOException e) {
+            closeQuietly(fileIn, e);
+            throw new UncheckedIOException("Die Datei " + file + " kann nicht gelesen werden.", e);
+        }
+    }
+
+    /**
+     * Schließt den Stream nach einem Fehler beim Öffnen der Datei.
+     *
+     * @param stream
+     *            Zu schließender Stream oder null.
+     * @param cause
+     *            Fehler beim Öffnen, an den Fehler beim Schließen angehängt werden.
+     */
+    private static void closeQuietly(final InputStream stream, final IOException cause) {
+        if (stream != null) {
+            try {
+                stream.close();
+            } catch (final IOException e) {
+                cause.addSuppressed(e);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasNext() {
+        if (!fetched) {
+            fetch();
+        }
+        return !endOfFile;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final T element = nextElement;
+        nextElement = null;
+        fetched = false;
+        return element;
+    }
+
+    /**
+     * Liest das nächste Element aus der Datei.
+     */
+    private void fetch() {
+        try {
+            nextElement = elementType.cast(objectIn.readObject());
+        } catch (final EOFException e) {
+            endOfFile = true;
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Fehler beim Lesen des nächsten Modellelements.", e);
+        } catch (final ClassNotFoundException e) {
+            throw new IllegalStateException("Die Klasse des Modellelements wurde nicht gefunden.", e);
+        }
+        fetched = true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        try {
+            objectIn.close();
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Fehler beim Schließen der Modelldatei.", e);
+        }
+    }
+}
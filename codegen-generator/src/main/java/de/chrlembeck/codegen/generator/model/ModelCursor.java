@@ -0,0 +1,23 @@
+package de.chrlembeck.codegen.generator.model;
+
+import java.util.Iterator;
+
+/**
+ * Cursor über Elemente eines Modells, die erst beim Durchlaufen aus ihrer Datenquelle gelesen werden, z.B. aus den
+ * Metadaten einer Datenbank oder aus einer in Abschnitten serialisierten Datei. Der Generator schließt Cursor, die er
+ * über FOREACH oder EXEC ... FOREACH durchläuft, nach dem letzten Element oder beim Abbruch der Schleife und hält
+ * keine Referenzen auf bereits verarbeitete Elemente.
+ *
+ * @author Christoph Lembeck
+ * @param <T>
+ *            Typ der Elemente.
+ * @see StreamingIterable
+ */
+public interface ModelCursor<T> extends Iterator<T>, AutoCloseable {
+
+    /**
+     * Gibt die von dem Cursor belegten Ressourcen frei.
+     */
+    @Override
+    void close();
+}
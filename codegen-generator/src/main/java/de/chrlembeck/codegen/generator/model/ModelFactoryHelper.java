@@ -1,12 +1,16 @@
 package de.chrlembeck.codegen.generator.model;
 
 import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.nio.file.Path;
 
 import de.chrlembeck.util.io.ClassLoaderObjectInputStream;
 
@@ -108,4 +112,48 @@ public class ModelFactoryHelper {
             return model;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Erzeugt ein Iterable über die Elemente einer in Abschnitten serialisierten Datei, wie sie von
+     * {@link #writeChunks(OutputStream, Iterable)} geschrieben wird. Im Gegensatz zu
+     * {@link #byDeserialization(InputStream, ClassLoader)} wird nicht der gesamte Objektgraph auf einmal eingelesen.
+     * Jeder Durchlauf liest die Datei erneut und hält dabei nur das aktuelle Element im Speicher, so dass auch Modelle
+     * verarbeitet werden können, die nicht vollständig in den Heap passen.
+     * 
+     * @param file
+     *            Datei mit den serialisierten Elementen.
+     * @param elementType
+     *            Typ der Elemente.
+     * @param classLoader
+     *            Zum Laden der Modellklassen zu verwendender Classloader oder null.
+     * @param <T>
+     *            Typ der Elemente.
+     * @return Iterable, dessen Cursor die Elemente nacheinander aus der Datei lesen.
+     */
+    public static <T> StreamingIterable<T> byChunkedDeserialization(final Path file, final Class<T> elementType,
+            final ClassLoader classLoader) {
+        return new StreamingIterable<>(() -> new DeserializationCursor<>(file, elementType, classLoader));
+    }
+
+    /**
+     * Serialisiert die Elemente nacheinander in den Stream. Nach jedem Element wird die Referenztabelle des Streams
+     * zurückgesetzt, so dass weder beim Schreiben noch beim Lesen über
+     * {@link #byChunkedDeserialization(Path, Class, ClassLoader)} Referenzen auf bereits verarbeitete Elemente gehalten
+     * werden. Gemeinsam verwendete Objekte werden dadurch allerdings für jedes Element erneut geschrieben.
+     * 
+     * @param outputStream
+     *            Stream, in den die Elemente geschrieben werden. Der Stream wird anschließend geschlossen.
+     * @param elements
+     *            Zu schreibende Elemente.
+     * @throws IOException
+     *             Falls beim Schreiben ein Fehler auftritt.
+     */
+    public static void writeChunks(final OutputStream outputStream, final Iterable<?> elements) throws IOException {
+        try (ObjectOutputStream objectOut = new ObjectOutputStream(new BufferedOutputStream(outputStream))) {
+            for (final Object element : elements) {
+                objectOut.writeObject(element);
+                objectOut.reset();
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package de.chrlembeck.codegen.generator.model;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Iterable für Eigenschaften eines Modells, deren Elemente nicht gemeinsam im Speicher gehalten werden können. Jeder
+ * Aufruf von {@link #iterator()} öffnet über die Fabrik einen neuen {@link ModelCursor}, der die Elemente erst beim
+ * Durchlaufen liest. Die Elemente werden dabei weder von dieser Klasse noch vom Generator zwischengespeichert, so dass
+ * ein bereits verarbeitetes Element vom Garbage Collector freigegeben werden kann, sobald der Generator zum nächsten
+ * Element wechselt.
+ * <p>
+ * Da die Elemente nicht Teil des Objektgraphen sind, ist die Klasse nicht serialisierbar. Für Modelle mit solchen
+ * Eigenschaften kann bei der inkrementellen Generierung daher kein Fingerabdruck ermittelt werden.
+ *
+ * @author Christoph Lembeck
+ * @param <T>
+ *            Typ der Elemente.
+ */
+public final class StreamingIterable<T> implements Iterable<T> {
+
+    /**
+     * Fabrik für die Cursor über die Elemente.
+     */
+    private final Supplier<? extends ModelCursor<? extends T>> cursorFactory;
+
+    /**
+     * Erstellt ein neues Iterable, dessen Elemente über die von der Fabrik geöffneten Cursor gelesen werden.
+     *
+     * @param cursorFactory
+     *            Fabrik, die bei jedem Aufruf einen neuen Cursor auf den Anfang der Elemente öffnet.
+     */
+    public StreamingIterable(final Supplier<? extends ModelCursor<? extends T>> cursorFactory) {
+        this.cursorFactory = Objects.requireNonNull(cursorFactory);
+    }
+
+    /**
+     * Erstellt ein neues Iterable, dessen Elemente aus einem Stream gelesen werden. Die Fabrik wird bei jedem Durchlauf
+     * erneut aufgerufen und der Stream nach dem Durchlauf geschlossen.
+     *
+     * @param streamFactory
+     *            Fabrik, die bei jedem Aufruf einen neuen Stream über die Elemente erzeugt.
+     * @param <T>
+     *            Typ der Elemente.
+     * @return Iterable über die Elemente der Streams.
+     */
+    public static <T> StreamingIterable<T> ofStream(final Supplier<? extends Stream<? extends T>> streamFactory) {
+        Objects.requireNonNull(streamFactory);
+        return new StreamingIterable<>(() -> new StreamCursor<>(streamFactory.get()));
+    }
+
+    /**
+     * Öffnet einen neuen Cursor über die Elemente. Der Aufrufer muss den Cursor nach dem Durchlaufen schließen.
+     *
+     * @return Neuer Cursor auf den Anfang der Elemente.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public ModelCursor<T> iterator() {
+        return (ModelCursor<T>) cursorFactory.get();
+    }
+
+    /**
+     * Führt die Aktion für alle Elemente aus und schließt den dafür geöffneten Cursor anschließend.
+     *
+     * @param action
+     *            Für jedes Element auszuführende Aktion.
+     */
+    @Override
+    public void forEach(final Consumer<? super T> action) {
+        try (ModelCursor<T> cursor = iterator()) {
+            cursor.forEachRemaining(action);
+        }
+    }
+
+    /**
+     * Cursor über die Elemente eines Streams.
+     *
+     * @author Christoph Lembeck
+     * @param <T>
+     *            Typ der Elemente.
+     */
+    private static final class StreamCursor<T> implements ModelCursor<T> {
+
+        /**
+         * Durchlaufener Stream.
+         */
+        private final Stream<? extends T> stream;
+
+        /**
+         * Iterator über die Elemente des Streams.
+         */
+        private final Iterator<? extends T> iterator;
+
+        /**
+         * Erstellt einen neuen Cursor über die Elemente des Streams.
+         *
+         * @param stream
+         *            Zu durchlaufender Stream.
+         */
+        StreamCursor(final Stream<? extends T> stream) {
+            this.stream = stream;
+            this.iterator = stream.iterator();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public T next() {
+            return iterator.next();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close() {
+            stream.close();
+        }
+    }
+}
@@ -0,0 +1,502 @@
+package de.chrlembeck.codegen.generator.output;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+import de.chrlembeck.codegen.generator.lang.Executable;
+
+/**
+ * Ausgabeverwalter, der die Ausgaben des Generators in einem eigenen Thread an einen anderen Ausgabeverwalter
+ * weiterreicht. Die Writer sammeln die Ausgaben eines Kanals zunächst in Blöcken von {@link #getChunkSize()} Zeichen
+ * und übergeben jeden vollen Block an eine beschränkte Warteschlange. Ein eigener Schreib-Thread arbeitet die
+ * Warteschlange in der Reihenfolge der Übergabe ab und führt erst dort alle Zugriffe auf den Ziel-Verwalter aus, so
+ * dass die Auswertung der Templates nicht auf das Kodieren und Schreiben der Dateien warten muss.
+ *
+ * <p>
+ * Ist die Warteschlange voll, wartet der Generator, bis der Schreib-Thread wieder Platz geschaffen hat. Der
+ * Speicherbedarf ist dadurch auf etwa {@code queueCapacity * chunkSize} Zeichen zuzüglich der noch nicht vollen Blöcke
+ * der geöffneten Kanäle begrenzt. Tritt beim Schreiben ein Fehler auf, wird er beim nächsten Zugriff des Generators
+ * und spätestens von {@link #closeAll()} gemeldet. {@link #closeAll()} wartet, bis alle Ausgaben geschrieben wurden.
+ * </p>
+ *
+ * <p>
+ * Die Kanäle können von mehreren Threads gleichzeitig angefordert werden, ein einzelner Writer ist jedoch nicht für
+ * die gleichzeitige Verwendung durch mehrere Threads gedacht.
+ * </p>
+ *
+ * @author Christoph Lembeck
+ */
+public class AsyncGeneratorOutput implements GeneratorOutput {
+
+    /**
+     * Voreinstellung für die Anzahl der Blöcke, die höchstens auf das Schreiben warten.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 64;
+
+    /**
+     * Voreinstellung für die Anzahl der Zeichen, ab der ein Block an den Schreib-Thread übergeben wird.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 8192;
+
+    /**
+     * Markierung in der Warteschlange, mit der der Schreib-Thread beendet wird.
+     */
+    private static final WriteTask STOP = () -> {
+        // wird vom Schreib-Thread nicht ausgeführt
+    };
+
+    /**
+     * Ausgabeverwalter, in den die Ausgaben geschrieben werden.
+     */
+    private final GeneratorOutput target;
+
+    /**
+     * Warteschlange der vom Schreib-Thread auszuführenden Zugriffe.
+     */
+    private final BlockingQueue<WriteTask> queue;
+
+    /**
+     * Anzahl der Zeichen, ab der ein Block an den Schreib-Thread übergeben wird.
+     */
+    private final int chunkSize;
+
+    /**
+     * Writer, die noch nicht geschlossen wurden.
+     */
+    private final Set<AsyncWriter> openWriters = Collections.synchronizedSet(
+            Collections.newSetFromMap(new IdentityHashMap<>()));
+
+    /**
+     * Laufender Schreib-Thread oder null, falls noch keine Ausgabe erfolgt ist.
+     */
+    private Thread writerThread;
+
+    /**
+     * Erster Fehler, der beim Schreiben aufgetreten ist, oder null.
+     */
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+
+    /**
+     * Erstellt einen neuen Verwalter mit den voreingestellten Größen für Warteschlange und Blöcke.
+     *
+     * @param target
+     *            Ausgabeverwalter, in den die Ausgaben geschrieben werden.
+     */
+    public AsyncGeneratorOutput(final GeneratorOutput target) {
+        this(target, DEFAULT_QUEUE_CAPACITY, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Erstellt einen neuen Verwalter.
+     *
+     * @param target
+     *            Ausgabeverwalter, in den die Ausgaben geschrieben werden.
+     * @param queueCapacity
+     *            Anzahl der Blöcke, die höchstens auf das Schreiben warten, bevor der Generator angehalten wird.
+     * @param chunkSize
+     *            Anzahl der Zeichen, ab der ein Block an den Schreib-Thread übergeben wird.
+     */
+    public AsyncGeneratorOutput(final GeneratorOutput target, final int queueCapacity, final int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Die Blockgröße muss positiv sein: " + chunkSize);
+        }
+        this.target = Objects.requireNonNull(target);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Gibt die Anzahl der Zeichen zurück, ab der ein Block an den Schreib-Thread übergeben wird.
+     *
+     * @return Größe der Blöcke in Zeichen.
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public GeneratorWriter getWriter(final String channelName, final OutputPreferences prefs) throws IOException {
+        checkFailure();
+        final AsyncWriter writer = new AsyncWriter();
+        submit(() -> writer.targetWriter = target.getWriter(channelName, prefs));
+        openWriters.add(writer);
+        return writer;
+    }
+
+    /**
+     * Übergibt die noch nicht vollen Blöcke aller geöffneten Writer an den Schreib-Thread, schließt anschließend die
+     * Kanäle des Ziel-Verwalters und wartet, bis alle Ausgaben geschrieben wurden.
+     *
+     * @throws IOException
+     *             Falls beim Schreiben einer Ausgabe ein Fehler aufgetreten ist.
+     */
+    @Override
+    public synchronized void closeAll() throws IOException {
+        final List<AsyncWriter> writers;
+        synchronized (openWriters) {
+            writers = new ArrayList<>(openWriters);
+        }
+        final Thread thread;
+        try {
+            for (final AsyncWriter writer : writers) {
+                writer.flushChunk();
+            }
+            enqueue(target::closeAll);
+        } finally {
+            thread = writerThread;
+            writerThread = null;
+            if (thread != null) {
+                stop(thread);
+            }
+        }
+        final Exception exception = failure.getAndSet(null);
+        if (exception != null) {
+            throw asIOException(exception);
+        }
+    }
+
+    /**
+     * Beendet den Schreib-Thread, nachdem er alle bis dahin übergebenen Zugriffe ausgeführt hat.
+     *
+     * @param thread
+     *            Zu beendender Schreib-Thread.
+     * @throws InterruptedIOException
+     *             Falls der aufrufende Thread beim Warten unterbrochen wurde.
+     */
+    private void stop(final Thread thread) throws InterruptedIOException {
+        try {
+            queue.put(STOP);
+            thread.join();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Das Warten auf das Schreiben der Ausgaben wurde unterbrochen.");
+        }
+    }
+
+    /**
+     * Übergibt einen Zugriff an den Schreib-Thread, sofern bisher kein Fehler beim Schreiben aufgetreten ist.
+     *
+     * @param task
+     *            Auszuführender Zugriff.
+     * @throws IOException
+     *             Falls beim Schreiben bereits ein Fehler aufgetreten ist oder das Warten auf einen freien Platz in
+     *             der Warteschlange unterbrochen wurde.
+     */
+    private void submit(final WriteTask task) throws IOException {
+        checkFailure();
+        enqueue(task);
+    }
+
+    /**
+     * Meldet einen bereits vom Schreib-Thread festgestellten Fehler, damit der Generator nicht bis zum Schließen der
+     * Kanäle weiterarbeitet. Der Fehler bleibt gespeichert und wird auch von {@link #closeAll()} noch einmal gemeldet.
+     *
+     * @throws IOException
+     *             Falls beim Schreiben bereits ein Fehler aufgetreten ist.
+     */
+    private void checkFailure() throws IOException {
+        final Exception exception = failure.get();
+        if (exception != null) {
+            throw asIOException(exception);
+        }
+    }
+
+    /**
+     * Stellt einen Zugriff in die Warteschlange und startet bei Bedarf den Schreib-Thread. Ist die Warteschlange voll,
+     * wird gewartet, bis wieder Platz frei ist.
+     *
+     * @param task
+     *            Auszuführender Zugriff.
+     * @throws InterruptedIOException
+     *             Falls das Warten auf einen freien Platz unterbrochen wurde.
+     */
+    private void enqueue(final WriteTask task) throws InterruptedIOException {
+        startWriterThread();
+        try {
+            queue.put(task);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Das Warten auf das Schreiben der Ausgaben wurde unterbrochen.");
+        }
+    }
+
+    /**
+     * Startet den Schreib-Thread, falls er noch nicht läuft.
+     */
+    private synchronized void startWriterThread() {
+        if (writerThread == null) {
+            writerThread = new Thread(this::processQueue, "codegen-async-output");
+            writerThread.setDaemon(true);
+            writerThread.start();
+        }
+    }
+
+    /**
+     * Arbeitet die Warteschlange ab, bis die Markierung für das Beenden gelesen wird. Nach einem Fehler werden die
+     * übrigen Zugriffe noch ausgeführt, soweit ihre Kanäle geöffnet werden konnten, so dass möglichst viele Dateien
+     * vollständig geschrieben werden.
+     */
+    private void processQueue() {
+        while (true) {
+            final WriteTask task;
+            try {
+                task = queue.take();
+            } catch (final InterruptedException e) {
+                fail(e);
+                queue.clear();
+                return;
+            }
+            if (task == STOP) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (final IOException | RuntimeException e) {
+                fail(e);
+            }
+        }
+    }
+
+    /**
+     * Merkt sich einen beim Schreiben aufgetretenen Fehler. Weitere Fehler werden dem ersten als unterdrückte
+     * Exceptions angehängt.
+     *
+     * @param exception
+     *            Aufgetretener Fehler.
+     */
+    private void fail(final Exception exception) {
+        if (!failure.compareAndSet(null, exception)) {
+            failure.get().addSuppressed(exception);
+        }
+    }
+
+    /**
+     * Verpackt einen beim Schreiben aufgetretenen Fehler für die Meldung an den Generator.
+     *
+     * @param exception
+     *            Aufgetretener Fehler.
+     * @return IOException mit dem Fehler als Ursache.
+     */
+    private static IOException asIOException(final Exception exception) {
+        return new IOException("Beim asynchronen Schreiben der Ausgaben ist ein Fehler aufgetreten.", exception);
+    }
+
+    /**
+     * Ein vom Schreib-Thread auszuführender Zugriff auf den Ziel-Verwalter.
+     *
+     * @author Christoph Lembeck
+     */
+    @FunctionalInterface
+    private interface WriteTask {
+
+        /**
+         * Führt den Zugriff aus.
+         *
+         * @throws IOException
+         *             Falls beim Schreiben ein Fehler auftritt.
+         */
+        void run() throws IOException;
+    }
+
+    /**
+     * Block mit aufeinanderfolgenden Ausgaben eines Kanals. Der Text aller Ausgaben wird zusammenhängend gespeichert,
+     * die Herkunft der Ausgaben in parallelen Arrays. Aufeinanderfolgende Ausgaben mit gleicher Herkunft werden zu
+     * einem Abschnitt zusammengefasst.
+     *
+     * @author Christoph Lembeck
+     */
+    private static final class Chunk {
+
+        /**
+         * Text aller Ausgaben des Blocks.
+         */
+        private final StringBuilder text;
+
+        /**
+         * Ausführbare Elemente, von denen die Abschnitte stammen.
+         */
+        private Executable<?>[] executables = new Executable<?>[8];
+
+        /**
+         * Quellpositionen, von denen die Abschnitte stammen.
+         */
+        private int[] locations = new int[8];
+
+        /**
+         * Position hinter dem letzten Zeichen jedes Abschnitts im Text.
+         */
+        private int[] ends = new int[8];
+
+        /**
+         * Anzahl der Abschnitte.
+         */
+        private int count;
+
+        /**
+         * Erstellt einen neuen, leeren Block.
+         *
+         * @param capacity
+         *            Anfängliche Größe des Textpuffers.
+         */
+        Chunk(final int capacity) {
+            text = new StringBuilder(capacity);
+        }
+
+        /**
+         * Hängt eine Ausgabe an den Block an.
+         *
+         * @param output
+         *            Auszugebender Text.
+         * @param sourceExecutable
+         *            Ausführbares Element, das die Ausgabe erzeugt hat.
+         * @param sourceLocation
+         *            Quellposition der Ausgabe.
+         */
+        void add(final String output, final Executable<?> sourceExecutable, final int sourceLocation) {
+            text.append(output);
+            if (count > 0 && executables[count - 1] == sourceExecutable && locations[count - 1] == sourceLocation) {
+                ends[count - 1] = text.length();
+                return;
+            }
+            if (count == ends.length) {
+                executables = Arrays.copyOf(executables, count * 2);
+                locations = Arrays.copyOf(locations, count * 2);
+                ends = Arrays.copyOf(ends, count * 2);
+            }
+            executables[count] = sourceExecutable;
+            locations[count] = sourceLocation;
+            ends[count] = text.length();
+            count++;
+        }
+
+        /**
+         * Gibt die Anzahl der Zeichen im Block zurück.
+         *
+         * @return Länge des Textes.
+         */
+        int length() {
+            return text.length();
+        }
+
+        /**
+         * Schreibt alle Abschnitte des Blocks in den übergebenen Writer.
+         *
+         * @param writer
+         *            Writer des Ziel-Verwalters.
+         * @throws IOException
+         *             Falls beim Schreiben ein Fehler auftritt.
+         */
+        void writeTo(final GeneratorWriter writer) throws IOException {
+            int start = 0;
+            for (int i = 0; i < count; i++) {
+                writer.append(text.substring(start, ends[i]), executables[i], locations[i]);
+                start = ends[i];
+            }
+        }
+    }
+
+    /**
+     * Writer, der die Ausgaben eines Kanals in Blöcken sammelt und an den Schreib-Thread übergibt.
+     *
+     * @author Christoph Lembeck
+     */
+    private final class AsyncWriter implements GeneratorWriter {
+
+        /**
+         * Writer des Ziel-Verwalters. Wird ausschließlich vom Schreib-Thread verwendet und ist null, falls der Kanal
+         * nicht geöffnet werden konnte.
+         */
+        private GeneratorWriter targetWriter;
+
+        /**
+         * Aktueller, noch nicht übergebener Block oder null.
+         */
+        private Chunk chunk;
+
+        /**
+         * Kennzeichnet, ob der Writer bereits geschlossen wurde.
+         */
+        private boolean closed;
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void append(final String text, final Executable<?> sourceExecutable, final int sourceLocation)
+                throws IOException {
+            if (closed) {
+                throw new IOException("Der Writer wurde bereits geschlossen.");
+            }
+            checkFailure();
+            if (chunk == null) {
+                chunk = new Chunk(Math.max(chunkSize, text.length()));
+            }
+            chunk.add(text, sourceExecutable, sourceLocation);
+            if (chunk.length() >= chunkSize) {
+                final Chunk fullChunk = chunk;
+                chunk = null;
+                submit(() -> write(fullChunk));
+            }
+        }
+
+        /**
+         * Übergibt den noch nicht vollen Block an den Schreib-Thread.
+         *
+         * @throws IOException
+         *             Falls das Warten auf einen freien Platz in der Warteschlange unterbrochen wurde.
+         */
+        void flushChunk() throws IOException {
+            final Chunk pending = chunk;
+            chunk = null;
+            if (pending != null) {
+                enqueue(() -> write(pending));
+            }
+        }
+
+        /**
+         * Schreibt einen Block in den Writer des Ziel-Verwalters. Wird vom Schreib-Thread aufgerufen.
+         *
+         * @param fullChunk
+         *            Zu schreibender Block.
+         * @throws IOException
+         *             Falls beim Schreiben ein Fehler auftritt.
+         */
+        private void write(final Chunk fullChunk) throws IOException {
+            if (targetWriter != null) {
+                fullChunk.writeTo(targetWriter);
+            }
+        }
+
+        /**
+         * Übergibt den letzten Block und das Schließen des Kanals an den Schreib-Thread, ohne auf das Schreiben zu
+         * warten.
+         */
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            openWriters.remove(this);
+            flushChunk();
+            enqueue(() -> {
+                if (targetWriter != null) {
+                    targetWriter.close();
+                }
+            });
+        }
+    }
+}
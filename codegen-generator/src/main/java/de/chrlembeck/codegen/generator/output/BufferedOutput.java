@@ -1,70 +1,247 @@
 package de.chrlembeck.codegen.generator.output;
 
 import java.io.IOException;
-import java.io.StringWriter;
-import java.util.Map;
+import java.io.Reader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
 import java.util.Set;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.chrlembeck.codegen.generator.lang.Executable;
 
 /**
- * Ausgabeverwalter, der sämtliche zu generierenden Artefakte in StringWritern sammelt, so dass diese später als reine
- * Zeichenketten abgerufen werden können. Durch die Generierung werden keine Dateien auf der Festplatte abgelegt.
- * 
+ * Ausgabeverwalter, der sämtliche zu generierenden Artefakte im Speicher sammelt, so dass diese später als reine
+ * Zeichenketten abgerufen werden können. Durch die Generierung werden keine Dateien auf der Festplatte abgelegt. Die
+ * Ausgabekanäle können von mehreren Threads gleichzeitig angefordert werden.
+ * <p>
+ * Die Ausgaben werden in {@link ChunkedCharBuffer}n aus Blöcken fester Größe gesammelt, die aus einem gemeinsamen Pool
+ * stammen. Übersteigt der belegte Speicher aller Kanäle die Grenze {@link #setMemoryThreshold(long)}, werden die am
+ * längsten nicht mehr beschriebenen Kanäle in temporäre Dateien ausgelagert. Ihr Inhalt bleibt über
+ * {@link #getContent(String)}, {@link #getContentSequence(String)} und {@link #openContentReader(String)} weiterhin
+ * abrufbar. Die temporären Dateien werden erst mit {@link #discard()} gelöscht, das deshalb nach der Verwendung der
+ * Inhalte aufgerufen werden muss.
+ *
  * @author Christoph Lembeck
  */
 public class BufferedOutput implements GeneratorOutput {
 
     /**
-     * Zuordnung von Ausgabekanälen zu den StringWritern, in denen die Ausgaben gesammelt werden.
+     * Anzahl der Zeichen pro Block.
+     */
+    public static final int SEGMENT_SIZE = 4096;
+
+    /**
+     * Voreinstellung für die Anzahl der Zeichen, die alle Kanäle zusammen höchstens im Speicher halten, bevor Kanäle
+     * ausgelagert werden.
+     */
+    public static final long DEFAULT_MEMORY_THRESHOLD = 32L * 1024 * 1024;
+
+    /**
+     * Maximale Anzahl der freien Blöcke, die für die Wiederverwendung aufbewahrt werden.
+     */
+    private static final int MAX_FREE_SEGMENTS = 256;
+
+    /**
+     * Zuordnung von Ausgabekanälen zu den Puffern, in denen die Ausgaben gesammelt werden.
+     */
+    private final ConcurrentNavigableMap<String, ChunkedCharBuffer> bufferMap = new ConcurrentSkipListMap<>();
+
+    /**
+     * Pool der Blöcke für alle Puffer dieses Verwalters.
+     */
+    private final CharSegmentPool segmentPool = new CharSegmentPool(SEGMENT_SIZE, MAX_FREE_SEGMENTS);
+
+    /**
+     * Fortlaufender Zähler für die Reihenfolge der Schreibzugriffe.
+     */
+    private final AtomicLong clock = new AtomicLong();
+
+    /**
+     * Sperre für das Auslagern der Kanäle.
+     */
+    private final Object spillLock = new Object();
+
+    /**
+     * Anzahl der Zeichen, die alle Kanäle zusammen höchstens im Speicher halten.
      */
-    private Map<String, TextGeneratorWriter> writerMap = new TreeMap<>();
+    private volatile long memoryThreshold = DEFAULT_MEMORY_THRESHOLD;
+
+    /**
+     * Verzeichnis für die ausgelagerten Kanäle oder null für das Standardverzeichnis des Systems.
+     */
+    private volatile Path spillDirectory;
 
     /**
      * {@inheritDoc}
      */
     @Override
     public GeneratorWriter getWriter(final String channelName, final OutputPreferences prefs) {
-        TextGeneratorWriter writer = writerMap.get(channelName);
-        if (writer == null) {
-            writer = new TextGeneratorWriter(new StringWriter());
-            writerMap.put(channelName, writer);
-        }
-        return writer;
+        return new BufferWriter(bufferMap.computeIfAbsent(channelName, name -> new ChunkedCharBuffer(segmentPool)));
     }
 
     /**
      * Gibt eine Collection aller Namen der in dem Verwalter angesammelten Ausgabekanäle aus.
-     * 
+     *
      * @return Liste aller Namen der Ausgabekanäle.
      */
     public Set<String> getChannelNames() {
-        return writerMap.keySet();
+        return bufferMap.keySet();
     }
 
     /**
      * Gibt den Inhalt eines ausgewählten Ausgabekanals zurück.
-     * 
+     *
      * @param channelName
      *            Name der Ausgabe, die angezeigt werden soll.
      * @return Inhalt der Ausgabe, so wie der Generator sie erzeugt hat.
      */
     public String getContent(final String channelName) {
-        final TextGeneratorWriter writer = writerMap.get(channelName);
-        return writer == null ? null : writer.getWriter().toString();
+        final ChunkedCharBuffer buffer = bufferMap.get(channelName);
+        return buffer == null ? null : buffer.toString();
     }
 
     /**
-     * {@inheritDoc}
+     * Gibt den Inhalt eines ausgewählten Ausgabekanals zurück, ohne ihn in einen einzelnen String zu kopieren.
+     *
+     * @param channelName
+     *            Name der Ausgabe, die angezeigt werden soll.
+     * @return Inhalt der Ausgabe oder null, falls der Kanal nicht existiert.
+     */
+    public CharSequence getContentSequence(final String channelName) {
+        return bufferMap.get(channelName);
+    }
+
+    /**
+     * Öffnet einen Reader über den Inhalt eines ausgewählten Ausgabekanals.
+     *
+     * @param channelName
+     *            Name der Ausgabe, die gelesen werden soll.
+     * @return Reader über den Inhalt der Ausgabe oder null, falls der Kanal nicht existiert.
+     */
+    public Reader openContentReader(final String channelName) {
+        final ChunkedCharBuffer buffer = bufferMap.get(channelName);
+        return buffer == null ? null : buffer.openReader();
+    }
+
+    /**
+     * Legt fest, wie viele Zeichen alle Kanäle zusammen höchstens im Speicher halten, bevor die am längsten nicht mehr
+     * beschriebenen Kanäle in temporäre Dateien ausgelagert werden.
+     *
+     * @param memoryThreshold
+     *            Maximale Anzahl der Zeichen im Speicher. Voreingestellt ist {@link #DEFAULT_MEMORY_THRESHOLD}.
+     */
+    public void setMemoryThreshold(final long memoryThreshold) {
+        this.memoryThreshold = memoryThreshold;
+    }
+
+    /**
+     * Legt das Verzeichnis für die temporären Dateien der ausgelagerten Kanäle fest.
+     *
+     * @param spillDirectory
+     *            Verzeichnis für die temporären Dateien oder null für das Standardverzeichnis des Systems.
+     */
+    public void setSpillDirectory(final Path spillDirectory) {
+        this.spillDirectory = spillDirectory;
+    }
+
+    /**
+     * Verwirft alle gesammelten Ausgaben und löscht die temporären Dateien der ausgelagerten Kanäle.
+     *
+     * @throws IOException
+     *             Falls eine temporäre Datei nicht gelöscht werden kann.
+     */
+    public void discard() throws IOException {
+        for (final ChunkedCharBuffer buffer : bufferMap.values()) {
+            buffer.discard();
+        }
+        bufferMap.clear();
+    }
+
+    /**
+     * Funktionslos, da die Ausgaben bis zum Abruf im Verwalter verbleiben.
      */
     @Override
-    @SuppressWarnings("PMD.EmptyCatchBlock")
     public void closeAll() {
-        for (final TextGeneratorWriter writer : writerMap.values()) {
-            try {
-                writer.close();
-            } catch (final IOException e) {
-                // StringWriters do not throw an IOException on close.
+        // die Puffer bleiben bis zum Abruf der Inhalte bestehen
+    }
+
+    /**
+     * Lagert die am längsten nicht mehr beschriebenen Kanäle aus, bis der belegte Speicher höchstens noch die Hälfte
+     * der Grenze beträgt. Der gerade beschriebene Kanal wird nur ausgelagert, wenn das Auslagern der übrigen Kanäle
+     * nicht ausreicht.
+     *
+     * @param current
+     *            Gerade beschriebener Kanal.
+     * @throws IOException
+     *             Falls ein Kanal nicht ausgelagert werden kann.
+     */
+    private void spillColdChannels(final ChunkedCharBuffer current) throws IOException {
+        synchronized (spillLock) {
+            final long target = memoryThreshold / 2;
+            if (segmentPool.getUsedChars() <= memoryThreshold) {
+                return;
+            }
+            final List<ChunkedCharBuffer> candidates = new ArrayList<>(bufferMap.values());
+            candidates.remove(current);
+            candidates.sort(Comparator.comparingLong(ChunkedCharBuffer::getLastUse));
+            candidates.add(current);
+            for (final ChunkedCharBuffer buffer : candidates) {
+                if (segmentPool.getUsedChars() <= target) {
+                    return;
+                }
+                if (buffer.getSegmentCount() > 0) {
+                    buffer.spill(spillDirectory);
+                }
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Writer, der die Ausgaben in den Puffer eines Kanals schreibt. Der Kanal kann nach dem Schließen des Writers
+     * erneut angefordert und weiter beschrieben werden.
+     *
+     * @author Christoph Lembeck
+     */
+    private final class BufferWriter implements GeneratorWriter {
+
+        /**
+         * Puffer des Kanals.
+         */
+        private final ChunkedCharBuffer buffer;
+
+        /**
+         * Erstellt einen neuen Writer für den übergebenen Puffer.
+         *
+         * @param buffer
+         *            Puffer des Kanals.
+         */
+        BufferWriter(final ChunkedCharBuffer buffer) {
+            this.buffer = Objects.requireNonNull(buffer);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void append(final String text, final Executable<?> sourceExecutable, final int sourceLocation)
+                throws IOException {
+            buffer.append(text, clock.incrementAndGet());
+            if (segmentPool.getUsedChars() > memoryThreshold) {
+                spillColdChannels(buffer);
+            }
+        }
+
+        /**
+         * Funktionslos, da der Inhalt bis zum Abruf im Puffer verbleibt.
+         */
+        @Override
+        public void close() {
+            // der Puffer bleibt bis zum Abruf bestehen
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package de.chrlembeck.codegen.generator.output;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writer, der die Ausgabe eines Kanals zunächst im Speicher sammelt und die Zieldatei beim Schließen nur dann
+ * schreibt, wenn sich ihr Inhalt tatsächlich geändert hat. Unveränderte Dateien behalten so ihren
+ * Änderungszeitpunkt, so dass nachfolgende inkrementelle Build-Schritte wie der Compiler sie nicht erneut verarbeiten
+ * müssen.
+ *
+ * <p>
+ * Der Vergleich mit der bestehenden Datei erfolgt blockweise, ohne die Datei vollständig einzulesen. Muss die Datei
+ * geschrieben werden, wird der neue Inhalt zunächst in eine temporäre Datei im gleichen Verzeichnis geschrieben und
+ * diese anschließend atomar umbenannt. Andere Prozesse sehen so zu keinem Zeitpunkt eine halb geschriebene Datei.
+ * </p>
+ *
+ * @author Christoph Lembeck
+ * @see OverwritePreferences#WRITE_IF_CHANGED
+ * @see FileOutput#setWriteOnlyChanged(boolean)
+ */
+class ChangedContentWriter extends Writer {
+
+    /**
+     * Der Logger für diese Klasse.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChangedContentWriter.class);
+
+    /**
+     * Algorithmus für die Berechnung der Prüfsummen über den Inhalt der Dateien.
+     */
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    /**
+     * Größe der Blöcke beim Vergleich mit der bestehenden Datei.
+     */
+    private static final int COMPARE_BLOCK_SIZE = 8192;
+
+    /**
+     * Zieldatei der Ausgabe.
+     */
+    private final Path path;
+
+    /**
+     * Puffer für den kodierten Inhalt der Datei.
+     */
+    private final ContentBuffer content = new ContentBuffer();
+
+    /**
+     * Writer, der die Zeichen in den Puffer kodiert.
+     */
+    private final Writer encoder;
+
+    /**
+     * Empfänger für die Prüfsumme der geschriebenen Datei.
+     */
+    private final ContentListener listener;
+
+    /**
+     * Kennzeichnet, ob der Writer bereits geschlossen wurde.
+     */
+    private boolean closed;
+
+    /**
+     * Erstellt einen neuen Writer für die übergebene Datei.
+     *
+     * @param path
+     *            Zieldatei der Ausgabe.
+     * @param charset
+     *            Zeichensatz für die Kodierung der Ausgabe.
+     * @param listener
+     *            Empfänger für die Prüfsumme über den Inhalt der Datei nach dem Schließen.
+     */
+    ChangedContentWriter(final Path path, final Charset charset, final ContentListener listener) {
+        this.path = Objects.requireNonNull(path);
+        this.encoder = new OutputStreamWriter(content, charset);
+        this.listener = Objects.requireNonNull(listener);
+    }
+
+    /**
+     * Erstellt einen neuen Writer für die übergebene Datei, der die Ausgabe an den bestehenden Inhalt der Datei
+     * anhängt. Wird verwendet, wenn ein Kanal nach dem Schließen erneut beschrieben wird.
+     *
+     * @param path
+     *            Zieldatei der Ausgabe.
+     * @param charset
+     *            Zeichensatz für die Kodierung der Ausgabe.
+     * @param listener
+     *            Empfänger für die Prüfsumme über den Inhalt der Datei nach dem Schließen.
+     * @param append
+     *            {@code true}, falls der bestehende Inhalt der Datei übernommen werden soll.
+     * @throws IOException
+     *             Falls die bestehende Datei nicht gelesen werden kann.
+     */
+    ChangedContentWriter(final Path path, final Charset charset, final ContentListener listener,
+            final boolean append) throws IOException {
+        this(path, charset, listener);
+        if (append && Files.isRegularFile(path)) {
+            Files.copy(path, content);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(final char[] cbuf, final int off, final int len) throws IOException {
+        encoder.write(cbuf, off, len);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(final String str, final int off, final int len) throws IOException {
+        encoder.write(str, off, len);
+    }
+
+    /**
+     * Funktionslos, da die Datei erst beim Schließen geschrieben wird.
+     */
+    @Override
+    public void flush() throws IOException {
+        // erst beim Schließen steht fest, ob die Datei geschrieben werden muss
+    }
+
+    /**
+     * Vergleicht den gesammelten Inhalt mit der bestehenden Datei und schreibt die Datei nur, falls sie nicht
+     * existiert oder einen anderen Inhalt besitzt.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        encoder.close();
+        if (hasContent(path, content)) {
+            LOGGER.debug("Unveränderte Datei wird nicht geschrieben: " + path);
+        } else {
+            replace(path, content);
+        }
+        listener.contentWritten(path, hash(content));
+    }
+
+    /**
+     * Prüft, ob die Datei existiert und genau den übergebenen Inhalt besitzt. Die Datei wird dazu blockweise gelesen
+     * und der Vergleich beim ersten Unterschied abgebrochen.
+     *
+     * @param path
+     *            Zu prüfende Datei.
+     * @param content
+     *            Erwarteter Inhalt der Datei.
+     * @return {@code true}, falls die Datei den übergebenen Inhalt besitzt, sonst {@code false}.
+     * @throws IOException
+     *             Falls die Datei nicht gelesen werden kann.
+     */
+    private static boolean hasContent(final Path path, final ContentBuffer content) throws IOException {
+        if (!Files.isRegularFile(path) || Files.size(path) != content.size()) {
+            return false;
+        }
+        final byte[] expected = content.buffer();
+        final byte[] block = new byte[Math.min(COMPARE_BLOCK_SIZE, Math.max(1, content.size()))];
+        try (InputStream input = Files.newInputStream(path)) {
+            int position = 0;
+            int read;
+            while ((read = input.read(block)) > 0) {
+                if (position + read > content.size()
+                        || !Arrays.equals(block, 0, read, expected, position, position + read)) {
+                    return false;
+                }
+                position += read;
+            }
+            return position == content.size();
+        }
+    }
+
+    /**
+     * Ersetzt die Datei durch den übergebenen Inhalt. Der Inhalt wird zunächst in eine temporäre Datei im gleichen
+     * Verzeichnis geschrieben, die anschließend atomar an die Stelle der Zieldatei verschoben wird. Unterstützt das
+     * Dateisystem kein atomares Verschieben, wird die Datei einfach ersetzt.
+     *
+     * @param path
+     *            Zu ersetzende Datei.
+     * @param content
+     *            Neuer Inhalt der Datei.
+     * @throws IOException
+     *             Falls beim Schreiben ein Fehler auftritt.
+     */
+    private static void replace(final Path path, final ContentBuffer content) throws IOException {
+        final Path tempFile = path.resolveSibling(
+                "." + path.getFileName() + "." + Long.toHexString(System.nanoTime()) + ".tmp");
+        try {
+            try (OutputStream output = Files.newOutputStream(tempFile, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.WRITE)) {
+                output.write(content.buffer(), 0, content.size());
+            }
+            try {
+                Files.move(tempFile, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (final AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Berechnet die Prüfsumme über den Inhalt einer Datei.
+     *
+     * @param content
+     *            Inhalt der Datei.
+     * @return Prüfsumme über den Inhalt.
+     */
+    private static byte[] hash(final ContentBuffer content) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+            digest.update(content.buffer(), 0, content.size());
+            return digest.digest();
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Der Algorithmus " + DIGEST_ALGORITHM + " wird nicht unterstützt.", e);
+        }
+    }
+
+    /**
+     * Puffer für den Inhalt der Datei, der den Zugriff auf die gesammelten Bytes ohne weitere Kopie erlaubt.
+     *
+     * @author Christoph Lembeck
+     */
+    private static final class ContentBuffer extends ByteArrayOutputStream {
+
+        /**
+         * Gibt das interne Array mit dem Inhalt zurück. Gültig sind nur die ersten {@link #size()} Bytes.
+         *
+         * @return Internes Array des Puffers.
+         */
+        byte[] buffer() {
+            return buf;
+        }
+    }
+
+    /**
+     * Empfänger für die Prüfsummen der durch den Writer verwalteten Dateien.
+     *
+     * @author Christoph Lembeck
+     */
+    @FunctionalInterface
+    interface ContentListener {
+
+        /**
+         * Wird aufgerufen, nachdem der Inhalt einer Datei feststeht und die Datei bei Bedarf geschrieben wurde.
+         *
+         * @param path
+         *            Pfad der Datei.
+         * @param contentHash
+         *            Prüfsumme über den Inhalt der Datei.
+         */
+        void contentWritten(Path path, byte[] contentHash);
+    }
+}
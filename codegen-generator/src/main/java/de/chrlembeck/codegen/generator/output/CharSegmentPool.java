@@ -0,0 +1,91 @@
+package de.chrlembeck.codegen.generator.output;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Pool für Speicherblöcke fester Größe, aus denen die {@link ChunkedCharBuffer} eines Ausgabeverwalters ihren Inhalt
+ * zusammensetzen. Freigegebene Blöcke werden bis zu einer festen Anzahl für spätere Anforderungen aufbewahrt, so dass
+ * beim Auslagern und erneuten Beschreiben von Kanälen keine neuen Arrays angelegt werden müssen. Zusätzlich zählt der
+ * Pool die aktuell verwendeten Blöcke, anhand derer der Ausgabeverwalter entscheidet, wann Kanäle ausgelagert werden.
+ *
+ * @author Christoph Lembeck
+ */
+final class CharSegmentPool {
+
+    /**
+     * Anzahl der Zeichen pro Block.
+     */
+    private final int segmentSize;
+
+    /**
+     * Maximale Anzahl der aufbewahrten freien Blöcke.
+     */
+    private final int maxFreeSegments;
+
+    /**
+     * Freie Blöcke für die Wiederverwendung.
+     */
+    private final Deque<char[]> freeSegments = new ArrayDeque<>();
+
+    /**
+     * Anzahl der aktuell verwendeten Blöcke. Wird nur unter der Sperre des Pools verändert, kann aber ohne Sperre
+     * gelesen werden.
+     */
+    private volatile int usedSegments;
+
+    /**
+     * Erstellt einen neuen Pool.
+     *
+     * @param segmentSize
+     *            Anzahl der Zeichen pro Block.
+     * @param maxFreeSegments
+     *            Maximale Anzahl der aufbewahrten freien Blöcke.
+     */
+    CharSegmentPool(final int segmentSize, final int maxFreeSegments) {
+        this.segmentSize = segmentSize;
+        this.maxFreeSegments = maxFreeSegments;
+    }
+
+    /**
+     * Gibt die Anzahl der Zeichen pro Block zurück.
+     *
+     * @return Größe der Blöcke.
+     */
+    int getSegmentSize() {
+        return segmentSize;
+    }
+
+    /**
+     * Gibt einen freien Block zurück. Ist kein aufbewahrter Block vorhanden, wird ein neuer angelegt.
+     *
+     * @return Block mit {@link #getSegmentSize()} Zeichen.
+     */
+    synchronized char[] acquire() {
+        usedSegments++;
+        final char[] segment = freeSegments.poll();
+        return segment == null ? new char[segmentSize] : segment;
+    }
+
+    /**
+     * Gibt einen nicht mehr benötigten Block an den Pool zurück.
+     *
+     * @param segment
+     *            Freigegebener Block.
+     */
+    synchronized void release(final char[] segment) {
+        usedSegments--;
+        if (freeSegments.size() < maxFreeSegments) {
+            freeSegments.push(segment);
+        }
+    }
+
+    /**
+     * Gibt die Anzahl der Zeichen in den aktuell verwendeten Blöcken zurück.
+     *
+     * @return Von den Puffern belegter Speicher in Zeichen.
+     */
+    long getUsedChars() {
+        return (long) usedSegments * segmentSize;
+    }
+}
@@ -0,0 +1,424 @@
+package de.chrlembeck.codegen.generator.output;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Puffer für den Inhalt eines Ausgabekanals, der nur am Ende erweitert wird. Der Inhalt wird in Blöcken fester Größe
+ * aus einem gemeinsamen {@link CharSegmentPool} abgelegt, so dass beim Wachsen des Puffers keine Inhalte umkopiert
+ * werden müssen. Auf Anforderung des Ausgabeverwalters wird der bisherige Inhalt in eine temporäre Datei ausgelagert
+ * und die Blöcke an den Pool zurückgegeben. Weitere Ausgaben werden danach wieder im Speicher gesammelt.
+ *
+ * <p>
+ * Der Inhalt kann als {@link CharSequence} oder über {@link #openReader()} gelesen werden, ohne ihn vollständig in
+ * einen einzelnen String kopieren zu müssen. Die ausgelagerten Zeichen werden dabei blockweise aus der Datei
+ * nachgeladen.
+ * Die ausgelagerte Datei speichert die Zeichen in der Kodierung UTF-16BE, so dass die Position jedes Zeichens in der
+ * Datei direkt berechnet werden kann.
+ * </p>
+ *
+ * @author Christoph Lembeck
+ * @see BufferedOutput
+ */
+public final class ChunkedCharBuffer implements CharSequence {
+
+    /**
+     * Anzahl der Bytes pro Zeichen in der ausgelagerten Datei.
+     */
+    private static final int BYTES_PER_CHAR = 2;
+
+    /**
+     * Pool, aus dem die Blöcke stammen.
+     */
+    private final CharSegmentPool pool;
+
+    /**
+     * Anzahl der Zeichen pro Block.
+     */
+    private final int segmentSize;
+
+    /**
+     * Blöcke mit dem noch nicht ausgelagerten Inhalt.
+     */
+    private final List<char[]> segments = new ArrayList<>();
+
+    /**
+     * Anzahl der belegten Zeichen im letzten Block.
+     */
+    private int tailLength;
+
+    /**
+     * Anzahl der Zeichen in der ausgelagerten Datei.
+     */
+    private int spilledLength;
+
+    /**
+     * Gesamtzahl der Zeichen im Puffer.
+     */
+    private int length;
+
+    /**
+     * Datei mit dem ausgelagerten Inhalt oder null, falls noch nichts ausgelagert wurde.
+     */
+    private Path spillFile;
+
+    /**
+     * Zuletzt aus der ausgelagerten Datei geladener Ausschnitt oder null.
+     */
+    private char[] window;
+
+    /**
+     * Position des ersten Zeichens des geladenen Ausschnitts.
+     */
+    private int windowStart;
+
+    /**
+     * Anzahl der Zeichen im geladenen Ausschnitt.
+     */
+    private int windowLength;
+
+    /**
+     * Nummer des letzten Schreibzugriffs für die Auswahl der auszulagernden Kanäle.
+     */
+    private volatile long lastUse;
+
+    /**
+     * Erstellt einen neuen, leeren Puffer.
+     *
+     * @param pool
+     *            Pool, aus dem die Blöcke stammen.
+     */
+    ChunkedCharBuffer(final CharSegmentPool pool) {
+        this.pool = Objects.requireNonNull(pool);
+        this.segmentSize = pool.getSegmentSize();
+    }
+
+    /**
+     * Hängt einen Text an das Ende des Puffers an.
+     *
+     * @param text
+     *            Anzuhängender Text.
+     * @param use
+     *            Nummer des Schreibzugriffs.
+     */
+    synchronized void append(final String text, final long use) {
+        lastUse = use;
+        int offset = 0;
+        final int textLength = text.length();
+        while (offset < textLength) {
+            if (segments.isEmpty() || tailLength == segmentSize) {
+                segments.add(pool.acquire());
+                tailLength = 0;
+            }
+            final int count = Math.min(segmentSize - tailLength, textLength - offset);
+            text.getChars(offset, offset + count, segments.get(segments.size() - 1), tailLength);
+            tailLength += count;
+            offset += count;
+        }
+        length += textLength;
+    }
+
+    /**
+     * Lagert den im Speicher gehaltenen Inhalt an das Ende der temporären Datei aus und gibt die Blöcke an den Pool
+     * zurück.
+     *
+     * @param directory
+     *            Verzeichnis für die temporäre Datei oder null für das Standardverzeichnis des Systems.
+     * @throws IOException
+     *             Falls die Datei nicht geschrieben werden kann.
+     */
+    synchronized void spill(final Path directory) throws IOException {
+        if (segments.isEmpty()) {
+            return;
+        }
+        if (spillFile == null) {
+            spillFile = directory == null ? Files.createTempFile("codegen-", ".buffer")
+                    : Files.createTempFile(directory, "codegen-", ".buffer");
+        }
+        final ByteBuffer bytes = ByteBuffer.allocate(segmentSize * BYTES_PER_CHAR);
+        try (FileChannel channel = FileChannel.open(spillFile, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            for (int i = 0; i < segments.size(); i++) {
+                final int used = i == segments.size() - 1 ? tailLength : segmentSize;
+                bytes.clear();
+                bytes.asCharBuffer().put(segments.get(i), 0, used);
+                bytes.limit(used * BYTES_PER_CHAR);
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+            }
+        }
+        for (final char[] segment : segments) {
+            pool.release(segment);
+        }
+        segments.clear();
+        tailLength = 0;
+        spilledLength = length;
+    }
+
+    /**
+     * Gibt die Blöcke an den Pool zurück und löscht die ausgelagerte Datei. Der Puffer ist danach leer.
+     *
+     * @throws IOException
+     *             Falls die Datei nicht gelöscht werden kann.
+     */
+    synchronized void discard() throws IOException {
+        for (final char[] segment : segments) {
+            pool.release(segment);
+        }
+        segments.clear();
+        tailLength = 0;
+        spilledLength = 0;
+        length = 0;
+        window = null;
+        if (spillFile != null) {
+            Files.deleteIfExists(spillFile);
+            spillFile = null;
+        }
+    }
+
+    /**
+     * Gibt die Nummer des letzten Schreibzugriffs zurück.
+     *
+     * @return Nummer des letzten Zugriffs.
+     */
+    long getLastUse() {
+        return lastUse;
+    }
+
+    /**
+     * Gibt die Anzahl der im Speicher gehaltenen Blöcke zurück.
+     *
+     * @return Anzahl der Blöcke.
+     */
+    synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Gibt an, ob ein Teil des Inhalts in eine temporäre Datei ausgelagert wurde.
+     *
+     * @return {@code true}, falls Inhalt ausgelagert wurde.
+     */
+    public synchronized boolean isSpilled() {
+        return spilledLength > 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized int length() {
+        return length;
+    }
+
+    /**
+     * Gibt das Zeichen an der übergebenen Position zurück. Ausgelagerte Zeichen werden blockweise aus der Datei
+     * nachgeladen, so dass ein fortlaufender Zugriff nur einen Dateizugriff pro Block erfordert.
+     *
+     * @throws UncheckedIOException
+     *             Falls die ausgelagerte Datei nicht gelesen werden kann.
+     */
+    @Override
+    public synchronized char charAt(final int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Position " + index + " außerhalb des Puffers der Länge " + length);
+        }
+        if (index < spilledLength) {
+            loadWindow(index);
+            return window[index - windowStart];
+        }
+        final int memoryIndex = index - spilledLength;
+        return segments.get(memoryIndex / segmentSize)[memoryIndex % segmentSize];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized CharSequence subSequence(final int start, final int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException(
+                    "Bereich " + start + " bis " + end + " außerhalb des Puffers der Länge " + length);
+        }
+        final StringBuilder builder = new StringBuilder(end - start);
+        copyTo(builder, start, end);
+        return builder.toString();
+    }
+
+    /**
+     * Gibt den vollständigen Inhalt des Puffers als String zurück.
+     *
+     * @throws UncheckedIOException
+     *             Falls die ausgelagerte Datei nicht gelesen werden kann.
+     */
+    @Override
+    public synchronized String toString() {
+        final StringBuilder builder = new StringBuilder(length);
+        copyTo(builder, 0, length);
+        return builder.toString();
+    }
+
+    /**
+     * Öffnet einen Reader über den Inhalt des Puffers. Der Reader liefert die Zeichen, die zum Zeitpunkt des Öffnens im
+     * Puffer enthalten waren.
+     *
+     * @return Reader über den Inhalt des Puffers.
+     */
+    public Reader openReader() {
+        return new BufferReader(length());
+    }
+
+    /**
+     * Kopiert einen Bereich des Puffers in den übergebenen StringBuilder. Muss mit gesetzter Sperre aufgerufen werden.
+     *
+     * @param builder
+     *            Ziel der Kopie.
+     * @param start
+     *            Position des ersten zu kopierenden Zeichens.
+     * @param end
+     *            Position hinter dem letzten zu kopierenden Zeichen.
+     */
+    private void copyTo(final StringBuilder builder, final int start, final int end) {
+        int position = start;
+        while (position < end) {
+            position += copyPart(builder, position, end);
+        }
+    }
+
+    /**
+     * Kopiert einen möglichst großen zusammenhängenden Teil des Bereichs aus einem Block bzw. dem geladenen Ausschnitt
+     * der Datei in den übergebenen StringBuilder. Muss mit gesetzter Sperre aufgerufen werden.
+     *
+     * @param builder
+     *            Ziel der Kopie.
+     * @param position
+     *            Position des ersten zu kopierenden Zeichens.
+     * @param end
+     *            Position hinter dem letzten zu kopierenden Zeichen.
+     * @return Anzahl der kopierten Zeichen.
+     */
+    private int copyPart(final StringBuilder builder, final int position, final int end) {
+        final int count;
+        if (position < spilledLength) {
+            loadWindow(position);
+            count = Math.min(end, windowStart + windowLength) - position;
+            builder.append(window, position - windowStart, count);
+        } else {
+            final int memoryIndex = position - spilledLength;
+            final int offset = memoryIndex % segmentSize;
+            count = Math.min(end - position, segmentSize - offset);
+            builder.append(segments.get(memoryIndex / segmentSize), offset, count);
+        }
+        return count;
+    }
+
+    /**
+     * Lädt den Block der ausgelagerten Datei, der die übergebene Position enthält, falls er nicht bereits geladen ist.
+     * Muss mit gesetzter Sperre aufgerufen werden.
+     *
+     * @param index
+     *            Position eines ausgelagerten Zeichens.
+     * @throws UncheckedIOException
+     *             Falls die Datei nicht gelesen werden kann.
+     */
+    private void loadWindow(final int index) {
+        if (window != null && index >= windowStart && index < windowStart + windowLength) {
+            return;
+        }
+        if (window == null) {
+            window = new char[segmentSize];
+        }
+        windowStart = index - index % segmentSize;
+        windowLength = Math.min(segmentSize, spilledLength - windowStart);
+        final ByteBuffer bytes = ByteBuffer.allocate(windowLength * BYTES_PER_CHAR);
+        try (FileChannel channel = FileChannel.open(spillFile, StandardOpenOption.READ)) {
+            long filePosition = (long) windowStart * BYTES_PER_CHAR;
+            while (bytes.hasRemaining()) {
+                final int read = channel.read(bytes, filePosition);
+                if (read < 0) {
+                    throw new IOException("Die ausgelagerte Datei " + spillFile + " ist unvollständig.");
+                }
+                filePosition += read;
+            }
+        } catch (final IOException e) {
+            windowLength = 0;
+            throw new UncheckedIOException("Die ausgelagerte Datei " + spillFile + " kann nicht gelesen werden.", e);
+        }
+        bytes.flip();
+        bytes.asCharBuffer().get(window, 0, windowLength);
+    }
+
+    /**
+     * Reader über den Inhalt des Puffers.
+     *
+     * @author Christoph Lembeck
+     */
+    private final class BufferReader extends Reader {
+
+        /**
+         * Position hinter dem letzten zu lesenden Zeichen.
+         */
+        private final int end;
+
+        /**
+         * Position des nächsten zu lesenden Zeichens.
+         */
+        private int position;
+
+        /**
+         * Erstellt einen neuen Reader.
+         *
+         * @param end
+         *            Position hinter dem letzten zu lesenden Zeichen.
+         */
+        BufferReader(final int end) {
+            this.end = end;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int read(final char[] cbuf, final int off, final int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (position >= end) {
+                return -1;
+            }
+            final StringBuilder builder = new StringBuilder(Math.min(len, segmentSize));
+            synchronized (ChunkedCharBuffer.this) {
+                if (end > length) {
+                    throw new IOException("Der Puffer wurde zwischenzeitlich verworfen.");
+                }
+                try {
+                    copyTo(builder, position, Math.min(end, position + len));
+                } catch (final UncheckedIOException e) {
+                    throw e.getCause();
+                }
+            }
+            final int count = builder.length();
+            builder.getChars(0, count, cbuf, off);
+            position += count;
+            return count;
+        }
+
+        /**
+         * Funktionslos, da der Reader keine eigenen Ressourcen belegt.
+         */
+        @Override
+        public void close() {
+            // die ausgelagerte Datei wird nur für das Nachladen eines Blocks geöffnet
+        }
+    }
+}
@@ -3,9 +3,6 @@ package de.chrlembeck.codegen.generator.output;
 import java.io.IOException;
 import java.util.Objects;
 
-import org.antlr.v4.runtime.ParserRuleContext;
-import org.antlr.v4.runtime.tree.TerminalNode;
-
 import de.chrlembeck.codegen.generator.lang.Executable;
 
 public class CombinedGeneratorOutput implements GeneratorOutput {
@@ -46,17 +43,10 @@ public class CombinedGeneratorOutput implements GeneratorOutput {
         }
 
         @Override
-        public void append(final String text, final Executable<?> sourceExecutable, final ParserRuleContext context)
-                throws IOException {
-            firstWriter.append(text, sourceExecutable, context);
-            secondWriter.append(text, sourceExecutable, context);
-        }
-
-        @Override
-        public void append(final String text, final Executable<?> sourceExecutable, final TerminalNode terminalNode)
+        public void append(final String text, final Executable<?> sourceExecutable, final int sourceLocation)
                 throws IOException {
-            firstWriter.append(text, sourceExecutable, terminalNode);
-            secondWriter.append(text, sourceExecutable, terminalNode);
+            firstWriter.append(text, sourceExecutable, sourceLocation);
+            secondWriter.append(text, sourceExecutable, sourceLocation);
         }
 
         @Override
@@ -0,0 +1,163 @@
+package de.chrlembeck.codegen.generator.output;
+
+import java.net.URI;
+
+import javax.tools.Diagnostic;
+
+import de.chrlembeck.codegen.generator.Position;
+
+/**
+ * Meldung des Java-Compilers zu einem generierten Quelltext. Neben der Position im generierten Quelltext enthält die
+ * Meldung, soweit bekannt, die Stelle der Template-Datei, die den fehlerhaften Teil des Quelltextes erzeugt hat.
+ *
+ * @author Christoph Lembeck
+ * @see JavaCompilerOutput
+ */
+public final class CompilerMessage {
+
+    /**
+     * Art der Meldung.
+     */
+    private final Diagnostic.Kind kind;
+
+    /**
+     * Name des Kanals mit dem generierten Quelltext oder null.
+     */
+    private final String channelName;
+
+    /**
+     * Zeile im generierten Quelltext oder {@link Diagnostic#NOPOS}.
+     */
+    private final long line;
+
+    /**
+     * Spalte im generierten Quelltext oder {@link Diagnostic#NOPOS}.
+     */
+    private final long column;
+
+    /**
+     * Text der Meldung.
+     */
+    private final String message;
+
+    /**
+     * Template-Datei, aus der die betroffene Stelle stammt, oder null.
+     */
+    private final URI templateResource;
+
+    /**
+     * Position in der Template-Datei, aus der die betroffene Stelle stammt, oder null.
+     */
+    private final Position templatePosition;
+
+    /**
+     * Erstellt eine neue Meldung.
+     *
+     * @param kind
+     *            Art der Meldung.
+     * @param channelName
+     *            Name des Kanals mit dem generierten Quelltext oder null.
+     * @param line
+     *            Zeile im generierten Quelltext oder {@link Diagnostic#NOPOS}.
+     * @param column
+     *            Spalte im generierten Quelltext oder {@link Diagnostic#NOPOS}.
+     * @param message
+     *            Text der Meldung.
+     * @param templateResource
+     *            Template-Datei, aus der die betroffene Stelle stammt, oder null.
+     * @param templatePosition
+     *            Position in der Template-Datei, aus der die betroffene Stelle stammt, oder null.
+     */
+    public CompilerMessage(final Diagnostic.Kind kind, final String channelName, final long line, final long column,
+            final String message, final URI templateResource, final Position templatePosition) {
+        this.kind = kind;
+        this.channelName = channelName;
+        this.line = line;
+        this.column = column;
+        this.message = message;
+        this.templateResource = templateResource;
+        this.templatePosition = templatePosition;
+    }
+
+    /**
+     * Gibt die Art der Meldung zurück.
+     *
+     * @return Art der Meldung.
+     */
+    public Diagnostic.Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Gibt den Namen des Kanals mit dem generierten Quelltext zurück.
+     *
+     * @return Name des Kanals oder null, falls sich die Meldung auf keinen Quelltext bezieht.
+     */
+    public String getChannelName() {
+        return channelName;
+    }
+
+    /**
+     * Gibt die Zeile im generierten Quelltext zurück.
+     *
+     * @return Zeile im Quelltext oder {@link Diagnostic#NOPOS}.
+     */
+    public long getLine() {
+        return line;
+    }
+
+    /**
+     * Gibt die Spalte im generierten Quelltext zurück.
+     *
+     * @return Spalte im Quelltext oder {@link Diagnostic#NOPOS}.
+     */
+    public long getColumn() {
+        return column;
+    }
+
+    /**
+     * Gibt den Text der Meldung zurück.
+     *
+     * @return Text der Meldung.
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Gibt die Template-Datei zurück, aus der die betroffene Stelle des Quelltextes stammt.
+     *
+     * @return Template-Datei oder null, falls die Herkunft nicht bekannt ist.
+     */
+    public URI getTemplateResource() {
+        return templateResource;
+    }
+
+    /**
+     * Gibt die Position in der Template-Datei zurück, die die betroffene Stelle des Quelltextes erzeugt hat.
+     *
+     * @return Position in der Template-Datei oder null, falls die Herkunft nicht bekannt ist.
+     */
+    public Position getTemplatePosition() {
+        return templatePosition;
+    }
+
+    /**
+     * Gibt die Meldung samt Position im Template und im generierten Quelltext in lesbarer Form aus.
+     */
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        if (templateResource != null) {
+            builder.append(templateResource).append(':').append(templatePosition.toShortString()).append(' ');
+        }
+        if (channelName != null) {
+            builder.append('(').append(channelName);
+            if (line != Diagnostic.NOPOS) {
+                builder.append(':').append(line).append(':').append(column);
+            }
+            builder.append(") ");
+        }
+        return builder.append(kind).append(": ").append(message).toString();
+    }
+}
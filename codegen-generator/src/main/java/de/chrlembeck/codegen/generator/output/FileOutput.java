@@ -1,14 +1,16 @@
 package de.chrlembeck.codegen.generator.output;
 
-import java.io.BufferedOutputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.charset.Charset;
 import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.TreeMap;
 
 import org.slf4j.Logger;
@@ -18,6 +20,19 @@ import org.slf4j.LoggerFactory;
  * Ausgabeverwalter zum Schreiben der generierten Artefakte auf die Festplatte. Es wird ein root-Verzeichnis angegeben,
  * unter dem die Ausgaben erstellt werden. Die Jeweiligen Dateinamen ergeben sich aus den Namen der Ausgabekanäle. Aus
  * de/test/Foo.java wird so eine Datei im Verzeichnis de/test unterhalb des root-Verzeichnis mit dem Namen Foo.java.
+ * Das Anfordern und Schließen der Ausgabekanäle ist synchronisiert, so dass der Verwalter von mehreren Threads
+ * gleichzeitig verwendet werden kann.
+ * <p>
+ * Alle Zugriffe erfolgen über {@link Files}, so dass das root-Verzeichnis aus einem beliebigen {@link FileSystem}
+ * stammen kann, z.B. aus einem über {@link java.nio.file.FileSystems#newFileSystem(Path, Map)} geöffneten ZIP-Archiv.
+ * Die Verzeichnisse werden pro Verzeichnis nur einmal angelegt und bestehende Dateien nur dann geprüft, wenn die
+ * Einstellungen für das Überschreiben dies erfordern.
+ * <p>
+ * Die Writer eines Kanals werden nach dem Schließen verworfen, so dass ihre Puffer sofort freigegeben werden. Wird ein
+ * bereits geschlossener Kanal erneut angefordert, wird die Ausgabe an die bestehende Datei angehängt. Ein
+ * {@link ZipOutput} meldet in diesem Fall dagegen einen Fehler, da ein Eintrag im Archiv nicht erweitert werden kann.
+ * Die Anzahl der gleichzeitig geöffneten Dateien ist begrenzt (siehe {@link #setMaxOpenFiles(int)}), so dass auch
+ * Generatoren mit sehr vielen gleichzeitig beschriebenen Kanälen nicht an die Grenzen des Betriebssystems stoßen.
  *
  * @author Christoph Lembeck
  */
@@ -28,6 +43,11 @@ public class FileOutput<T extends GeneratorWriter> implements GeneratorOutput {
      */
     private static final Logger LOGGER = LoggerFactory.getLogger(FileOutput.class);
 
+    /**
+     * Voreinstellung für die maximale Anzahl gleichzeitig geöffneter Dateien.
+     */
+    public static final int DEFAULT_MAX_OPEN_FILES = 128;
+
     private String suffix;
 
     /**
@@ -36,12 +56,32 @@ public class FileOutput<T extends GeneratorWriter> implements GeneratorOutput {
     private final Path rootPath;
 
     /**
-     * Zuordnung von Channel-Namen zu den Writern, die die generierten Artefakte in Dateien schreiben.
+     * Zuordnung von Channel-Namen zu den Kanälen, deren Artefakte in Dateien geschrieben werden.
      */
-    private Map<String, T> writers = new TreeMap<>();
+    private final Map<String, Channel> channels = new TreeMap<>();
+
+    /**
+     * Verzeichnisse, die bereits angelegt wurden bzw. bereits existieren.
+     */
+    private final Set<Path> createdDirectories = new HashSet<>();
+
+    /**
+     * Pool für die Begrenzung der gleichzeitig geöffneten Dateien.
+     */
+    private final OpenFilePool openFiles = new OpenFilePool(DEFAULT_MAX_OPEN_FILES);
 
     private GeneratorWriterCreator<T> generatorWriterSupplier;
 
+    /**
+     * Legt fest, ob Dateien nur geschrieben werden, wenn sich ihr Inhalt geändert hat.
+     */
+    private boolean writeOnlyChanged;
+
+    /**
+     * Prüfsummen über den Inhalt der Dateien, die nur bei geändertem Inhalt geschrieben werden.
+     */
+    private final Map<Path, byte[]> contentHashes = new TreeMap<>();
+
     public static FileOutput<TextGeneratorWriter> simpleTextOutput(final Path rootPath) {
         return new FileOutput<TextGeneratorWriter>(rootPath,
                 (writer, channelName, path) -> new TextGeneratorWriter(writer));
@@ -62,26 +102,133 @@ public class FileOutput<T extends GeneratorWriter> implements GeneratorOutput {
      * {@inheritDoc}
      */
     @Override
-    public GeneratorWriter getWriter(final String channelName, final OutputPreferences prefs) throws IOException {
-        T writer = writers.get(channelName);
-        if (writer == null) {
+    public synchronized GeneratorWriter getWriter(final String channelName, final OutputPreferences prefs)
+            throws IOException {
+        Channel channel = channels.get(channelName);
+        if (channel == null) {
             final Path path = getPathFromChannel(channelName);
             final Path directory = path.getParent();
-            if (!directory.toFile().exists()) {
-                directory.toFile().mkdirs();
+            if (directory != null && createdDirectories.add(directory)) {
+                Files.createDirectories(directory);
             }
-            if (path.toFile().exists() && keepExisting(channelName, prefs, path)) {
-                writer = generatorWriterSupplier.createWriter(new NullWriter(), channelName, null);
+            final OverwritePreferences overwritePreferences = prefs.getOverwritePreferencesForChannel(channelName);
+            final WriteMode mode;
+            if ((overwritePreferences == OverwritePreferences.THROW_EXCEPTION
+                    || overwritePreferences == OverwritePreferences.KEEP_EXISTING) && Files.exists(path)
+                    && keepExisting(channelName, prefs, path)) {
+                mode = WriteMode.KEEP_EXISTING;
+            } else if (writeOnlyChanged || overwritePreferences == OverwritePreferences.WRITE_IF_CHANGED) {
+                mode = WriteMode.WRITE_IF_CHANGED;
             } else {
-                final FileOutputStream fileOut = new FileOutputStream(path.toFile());
-                final BufferedOutputStream bufOut = new BufferedOutputStream(fileOut);
-                writer = generatorWriterSupplier
-                        .createWriter(new OutputStreamWriter(bufOut, prefs.getCharsetForChannel(channelName)),
-                                channelName, path);
+                mode = WriteMode.WRITE;
             }
-            writers.put(channelName, writer);
+            channel = new Channel(channelName, path, prefs.getCharsetForChannel(channelName), mode);
+            channels.put(channelName, channel);
+        }
+        if (channel.writer == null) {
+            channel.writer = createWriter(channel);
+            channel.visited = true;
+        }
+        return channel.writer;
+    }
+
+    /**
+     * Erstellt einen neuen Writer für einen Kanal. Wurde der Kanal bereits zuvor beschrieben und geschlossen, wird die
+     * neue Ausgabe an die bestehende Datei angehängt.
+     *
+     * @param channel
+     *            Kanal, für den der Writer erstellt werden soll.
+     * @return Neuer Writer für den Kanal.
+     * @throws IOException
+     *             Falls die Datei nicht geöffnet oder gelesen werden kann.
+     */
+    private T createWriter(final Channel channel) throws IOException {
+        final Runnable closeListener = () -> channelClosed(channel);
+        switch (channel.mode) {
+            case KEEP_EXISTING:
+                return generatorWriterSupplier.createWriter(new NullWriter(closeListener), channel.name, null);
+            case WRITE_IF_CHANGED:
+                return generatorWriterSupplier.createWriter(new ChangedContentWriter(channel.path, channel.charset,
+                        (path, contentHash) -> {
+                            contentWritten(path, contentHash);
+                            closeListener.run();
+                        }, channel.visited), channel.name, channel.path);
+            default:
+                final ReopenableFileWriter fileWriter = new ReopenableFileWriter(channel.path, channel.charset,
+                        channel.visited, openFiles, closeListener);
+                // die Datei wird sofort angelegt bzw. geleert, auch wenn nichts in den Kanal geschrieben wird
+                fileWriter.open();
+                return generatorWriterSupplier.createWriter(fileWriter, channel.name, channel.path);
         }
-        return writer;
+    }
+
+    /**
+     * Verwirft den Writer eines Kanals, nachdem dieser geschlossen wurde, so dass seine Puffer freigegeben werden
+     * können.
+     *
+     * @param channel
+     *            Geschlossener Kanal.
+     */
+    private synchronized void channelClosed(final Channel channel) {
+        channel.writer = null;
+    }
+
+    /**
+     * Legt fest, wie viele Dateien höchstens gleichzeitig geöffnet sein dürfen. Wird die Grenze überschritten, werden
+     * die am längsten nicht mehr beschriebenen Dateien geschlossen und beim nächsten Schreiben im Anhänge-Modus wieder
+     * geöffnet. Dateien, die beim Verdrängen gerade von einem anderen Thread beschrieben werden, bleiben geöffnet.
+     *
+     * @param maxOpenFiles
+     *            Maximale Anzahl gleichzeitig geöffneter Dateien, mindestens 1. Voreingestellt ist
+     *            {@link #DEFAULT_MAX_OPEN_FILES}.
+     */
+    public void setMaxOpenFiles(final int maxOpenFiles) {
+        openFiles.setMaxOpenFiles(maxOpenFiles);
+    }
+
+    /**
+     * Gibt die Anzahl der aktuell geöffneten Dateien zurück.
+     *
+     * @return Anzahl der geöffneten Dateien.
+     */
+    int getOpenFileCount() {
+        return openFiles.getOpenFileCount();
+    }
+
+    /**
+     * Merkt sich die Prüfsumme über den Inhalt einer Datei, deren Inhalt feststeht.
+     * 
+     * @param path
+     *            Pfad der Datei.
+     * @param contentHash
+     *            Prüfsumme über den Inhalt der Datei.
+     */
+    private synchronized void contentWritten(final Path path, final byte[] contentHash) {
+        contentHashes.put(path, contentHash);
+    }
+
+    /**
+     * Gibt die Prüfsummen über den Inhalt aller Dateien zurück, die nur bei geändertem Inhalt geschrieben werden (siehe
+     * {@link OverwritePreferences#WRITE_IF_CHANGED} und {@link #setWriteOnlyChanged(boolean)}), unabhängig davon, ob
+     * die Datei tatsächlich geschrieben werden musste.
+     * 
+     * @return Zuordnung der Dateien zu den Prüfsummen über ihren Inhalt (SHA-256).
+     */
+    public synchronized Map<Path, byte[]> getContentHashes() {
+        return new TreeMap<>(contentHashes);
+    }
+
+    /**
+     * Legt fest, ob die Dateien aller Kanäle nur dann geschrieben werden, wenn sich ihr Inhalt gegenüber der
+     * bestehenden Datei geändert hat, als wäre für jeden Kanal {@link OverwritePreferences#WRITE_IF_CHANGED} gesetzt.
+     * Die Einstellungen {@link OverwritePreferences#KEEP_EXISTING} und {@link OverwritePreferences#THROW_EXCEPTION}
+     * behalten dabei ihre Wirkung.
+     * 
+     * @param writeOnlyChanged
+     *            {@code true}, falls nur geänderte Dateien geschrieben werden sollen.
+     */
+    public void setWriteOnlyChanged(final boolean writeOnlyChanged) {
+        this.writeOnlyChanged = writeOnlyChanged;
     }
 
     /**
@@ -129,16 +276,101 @@ public class FileOutput<T extends GeneratorWriter> implements GeneratorOutput {
      * {@inheritDoc}
      */
     @Override
-    public void closeAll() {
-        for (final GeneratorWriter writer : writers.values()) {
-            try {
-                writer.close();
-            } catch (final IOException e) {
-                LOGGER.error("Writer konnte nicht geschlossen werden.", e);
+    public synchronized void closeAll() {
+        for (final Channel channel : channels.values()) {
+            final T writer = channel.writer;
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (final IOException e) {
+                    LOGGER.error("Writer konnte nicht geschlossen werden.", e);
+                }
+                channel.writer = null;
             }
         }
     }
 
+    /**
+     * Art, wie die Datei eines Kanals beschrieben wird. Die Art wird beim ersten Anfordern des Kanals festgelegt und
+     * gilt auch für alle weiteren Writer des Kanals.
+     *
+     * @author Christoph Lembeck
+     */
+    private enum WriteMode {
+
+        /**
+         * Die bestehende Datei bleibt unverändert, die Ausgabe wird verworfen.
+         */
+        KEEP_EXISTING,
+
+        /**
+         * Die Datei wird nur geschrieben, wenn sich ihr Inhalt geändert hat.
+         */
+        WRITE_IF_CHANGED,
+
+        /**
+         * Die Datei wird direkt geschrieben.
+         */
+        WRITE
+    }
+
+    /**
+     * Zustand eines Ausgabekanals.
+     *
+     * @author Christoph Lembeck
+     */
+    private final class Channel {
+
+        /**
+         * Name des Kanals.
+         */
+        private final String name;
+
+        /**
+         * Pfad der Datei des Kanals.
+         */
+        private final Path path;
+
+        /**
+         * Zeichensatz für die Kodierung der Ausgabe.
+         */
+        private final Charset charset;
+
+        /**
+         * Art, wie die Datei beschrieben wird.
+         */
+        private final WriteMode mode;
+
+        /**
+         * Aktueller Writer des Kanals oder null, falls der Kanal gerade geschlossen ist.
+         */
+        private T writer;
+
+        /**
+         * Kennzeichnet, ob bereits ein Writer für den Kanal erstellt wurde.
+         */
+        private boolean visited;
+
+        /**
+         * Erstellt einen neuen Kanal.
+         *
+         * @param name
+         *            Name des Kanals.
+         * @param path
+         *            Pfad der Datei des Kanals.
+         * @param charset
+         *            Zeichensatz für die Kodierung der Ausgabe.
+         * @param mode
+         *            Art, wie die Datei beschrieben wird.
+         */
+        Channel(final String name, final Path path, final Charset charset, final WriteMode mode) {
+            this.name = name;
+            this.path = path;
+            this.charset = charset;
+            this.mode = mode;
+        }
+    }
+
     /**
      * Hilfsklasse für das Verhalten des Generators, wenn er eine existierende Datei nicht überschreiben soll.
      * 
@@ -146,6 +378,21 @@ public class FileOutput<T extends GeneratorWriter> implements GeneratorOutput {
      */
     static class NullWriter extends Writer {
 
+        /**
+         * Wird beim ersten Schließen aufgerufen oder null.
+         */
+        private Runnable closeListener;
+
+        /**
+         * Erstellt einen neuen Writer.
+         *
+         * @param closeListener
+         *            Wird beim ersten Schließen aufgerufen oder null.
+         */
+        NullWriter(final Runnable closeListener) {
+            this.closeListener = closeListener;
+        }
+
         /**
          * Funktionslos.
          */
@@ -163,11 +410,15 @@ public class FileOutput<T extends GeneratorWriter> implements GeneratorOutput {
         }
 
         /**
-         * Funktionslos.
+         * Benachrichtigt beim ersten Aufruf den Empfänger.
          */
         @Override
         public void close() throws IOException {
-            // do nothing
+            final Runnable listener = closeListener;
+            closeListener = null;
+            if (listener != null) {
+                listener.run();
+            }
         }
     }
 
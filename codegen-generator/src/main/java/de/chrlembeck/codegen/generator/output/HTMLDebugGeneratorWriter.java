@@ -1,43 +1,117 @@
 package de.chrlembeck.codegen.generator.output;
 
 import java.io.BufferedReader;
-import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.Reader;
 import java.io.Writer;
 import java.net.URI;
-import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
-import java.util.TreeMap;
 
-import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.Token;
-import org.antlr.v4.runtime.misc.Pair;
-import org.antlr.v4.runtime.tree.ParseTree;
-import org.antlr.v4.runtime.tree.TerminalNode;
+import org.antlr.v4.runtime.misc.Interval;
 
-import de.chrlembeck.codegen.generator.Position;
 import de.chrlembeck.codegen.generator.lang.Executable;
+import de.chrlembeck.codegen.generator.lang.SourceTable;
 import de.chrlembeck.codegen.generator.lang.TemplateFile;
-
+import de.chrlembeck.codegen.grammar.CodeGenLexer;
+
+/**
+ * Writer, der die generierte Ausgabe eines Kanals als HTML-Seite aufbereitet, in der jedes ausgegebene Fragment mit
+ * der Stelle im Template verknüpft ist, die es erzeugt hat.
+ *
+ * <p>
+ * Die Fragmente werden in einem einzigen Durchlauf zeichenweise maskiert und über einen wiederverwendeten Puffer
+ * geschrieben. Jedes Fragment trägt nur die Nummer seiner Quelle im Template. Die Beschreibung der Quellen (Template,
+ * Position, Token-Bereich) wird pro Quelle nur einmal in einer Tabelle am Ende der Seite abgelegt und von dem
+ * Javascript der Seite für Tooltip, Hervorhebung und Auswahl ausgewertet. Die Positionen werden dabei aus der
+ * {@link SourceTable} der jeweiligen Template-Datei übernommen, so dass der Syntaxbaum des Templates zur Laufzeit nicht
+ * mehr benötigt wird.
+ * </p>
+ *
+ * @author Christoph Lembeck
+ */
 public class HTMLDebugGeneratorWriter implements GeneratorWriter {
 
+    private final static String DEBUG_HTML_JAVASCRIPT = "/debug/debug_html_javascript.js";
+
+    private final static String DEBUG_HTML_STYLE = "/debug/debug_html_style.css";
+
+    /**
+     * Größe des Puffers, über den alle Ausgaben geschrieben werden.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Platz, der im Puffer für eine einzelne Ausgabe mindestens frei sein muss (Maskierung eines Zeichens samt
+     * eines zwischengespeicherten Surrogats oder eine Zahl).
+     */
+    private static final int MAX_ENTITY_LENGTH = 32;
+
+    /**
+     * Anzahl der Einträge pro Quelle in der Quellen-Tabelle: Index des Templates, Zeile, Spalte, Start- und
+     * End-Position im Template sowie Index des ersten und letzten Tokens.
+     */
+    private static final int SOURCE_FIELDS = 7;
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
     private final Writer writer;
 
+    /**
+     * Puffer, über den alle Ausgaben an den Writer gehen.
+     */
+    private final char[] buffer = new char[BUFFER_SIZE];
+
+    /**
+     * Anzahl der belegten Zeichen im Puffer.
+     */
+    private int bufferLength;
+
+    /**
+     * Zwischengespeichertes erstes Zeichen eines Surrogat-Paares, das zusammen mit dem folgenden Zeichen maskiert
+     * wird.
+     */
+    private char pendingHighSurrogate;
+
     private boolean headerWritten;
 
-    private final static String DEBUG_HTML_JAVASCRIPT = "/debug/debug_html_javascript.js";
+    /**
+     * Zuordnung der Templates zu ihrem Index in der Ausgabe in der Reihenfolge ihrer ersten Verwendung.
+     */
+    private final Map<URI, Integer> templateFileIndices = new LinkedHashMap<>();
 
-    private final static String DEBUG_HTML_STYLE = "/debug/debug_html_style.css";
+    /**
+     * Templates in der Reihenfolge ihres Index.
+     */
+    private TemplateFile[] templateFiles = new TemplateFile[4];
 
-    private Map<URI, Pair<Integer, TemplateFile>> templateFiles = new TreeMap<>();
+    /**
+     * Nummern der Quellen in der Quellen-Tabelle pro Template und Eintrag in dessen {@link SourceTable}. Einträge, die
+     * noch keine Ausgabe erzeugt haben, sind mit -1 belegt.
+     */
+    private int[][] sourceIds = new int[4][];
+
+    /**
+     * Anzahl der Quellen in der Quellen-Tabelle.
+     */
+    private int sourceCount;
+
+    /**
+     * Quellen-Tabelle mit {@link #SOURCE_FIELDS} Einträgen pro Quelle.
+     */
+    private int[] sources = new int[SOURCE_FIELDS * 64];
 
     private String channelName;
 
-    private File outputFile;
+    private Path outputPath;
 
     private long characterCount;
 
@@ -45,228 +119,450 @@ public class HTMLDebugGeneratorWriter implements GeneratorWriter {
 
     private String tokenStyles;
 
-    public HTMLDebugGeneratorWriter(final Writer writer, final String channelName, final File outputFile,
+    public HTMLDebugGeneratorWriter(final Writer writer, final String channelName, final Path outputPath,
             final String tokenStyles) {
         this.writer = Objects.requireNonNull(writer);
         this.channelName = channelName;
-        this.outputFile = outputFile;
+        this.outputPath = outputPath;
         this.tokenStyles = tokenStyles;
     }
 
     @Override
-    public void append(final String text, final Executable<?> sourceExecutable, final ParserRuleContext context)
+    public void append(final String text, final Executable<?> sourceExecutable, final int sourceLocation)
             throws IOException {
         final TemplateFile templateFile = sourceExecutable.getTemplateFile();
-        if (!templateFiles.containsKey(templateFile.getResourceIdentifier())) {
-            templateFiles.put(templateFile.getResourceIdentifier(),
-                    new Pair<Integer, TemplateFile>(templateFiles.size(), templateFile));
+        final int templateIdx = addTemplateFile(templateFile);
+        int sourceId = sourceIds[templateIdx][sourceLocation];
+        if (sourceId < 0) {
+            sourceId = addSource(templateIdx, templateFile.getSourceTable(), sourceLocation);
         }
-        final StringBuilder infoText = new StringBuilder();
-        final Token startToken = context.start;
-        final int length = context.stop.getStopIndex() - startToken.getStartIndex() + 1;
-        infoText.append("TemplateURI=" + sourceExecutable.getTemplateFile().getResourceIdentifier() + " ");
-        infoText.append(new Position(startToken).toShortString() + " length=" + length + "("
-                + startToken.getStartIndex() + ".." + context.stop.getStopIndex() + ")");
-        infoText.append("[" + context.getText() + "]");
-        infoText.append(" token=" + context.start.getTokenIndex() + "-" + context.stop.getTokenIndex());
-        append(text, infoText.toString(), getTemplateFileIndex(templateFile), startToken);
+        append(text, sourceId);
     }
 
-    @Override
-    public void append(final String text, final Executable<?> sourceExecutable, final TerminalNode terminal)
-            throws IOException {
-        final TemplateFile templateFile = sourceExecutable.getTemplateFile();
-        if (!templateFiles.containsKey(templateFile.getResourceIdentifier())) {
-            templateFiles.put(templateFile.getResourceIdentifier(),
-                    new Pair<Integer, TemplateFile>(templateFiles.size(), templateFile));
+    public int getTemplateFileIndex(final TemplateFile templateFile) {
+        return templateFileIndices.get(templateFile.getResourceIdentifier()).intValue();
+    }
+
+    /**
+     * Ermittelt den Index einer Template-Datei in der Ausgabe und nimmt sie bei ihrer ersten Verwendung auf.
+     * 
+     * @param templateFile
+     *            Template-Datei, aus der eine Ausgabe stammt.
+     * @return Index der Template-Datei in der Ausgabe.
+     */
+    private int addTemplateFile(final TemplateFile templateFile) {
+        final Integer index = templateFileIndices.get(templateFile.getResourceIdentifier());
+        if (index != null) {
+            return index.intValue();
         }
-        final StringBuilder infoText = new StringBuilder();
-        final Token token = terminal.getSymbol();
-        final int length = token.getStopIndex() - token.getStartIndex() + 1;
-        infoText.append("TemplateURI=" + sourceExecutable.getTemplateFile().getResourceIdentifier() + " ");
-        infoText.append(new Position(token).toShortString() + " length=" + length + "("
-                + token.getStartIndex() + ".." + token.getStopIndex() + ")");
-        infoText.append(" token=" + token.getTokenIndex());
-
-        append(text, infoText.toString(), getTemplateFileIndex(templateFile), token);
+        final int templateIdx = templateFileIndices.size();
+        templateFileIndices.put(templateFile.getResourceIdentifier(), Integer.valueOf(templateIdx));
+        if (templateIdx == templateFiles.length) {
+            templateFiles = Arrays.copyOf(templateFiles, templateFiles.length * 2);
+            sourceIds = Arrays.copyOf(sourceIds, sourceIds.length * 2);
+        }
+        templateFiles[templateIdx] = templateFile;
+        sourceIds[templateIdx] = new int[templateFile.getSourceTable().size()];
+        Arrays.fill(sourceIds[templateIdx], -1);
+        return templateIdx;
     }
 
-    public int getTemplateFileIndex(final TemplateFile templateFile) {
-        return templateFiles.get(templateFile.getResourceIdentifier()).a.intValue();
+    /**
+     * Nimmt eine Stelle des Templates, die zum ersten Mal eine Ausgabe erzeugt, in die Quellen-Tabelle auf.
+     * 
+     * @param templateIdx
+     *            Index der Template-Datei, aus der die Ausgabe stammt.
+     * @param sourceTable
+     *            Tabelle der Quellpositionen der Template-Datei.
+     * @param sourceLocation
+     *            Eintrag der Stelle in der Tabelle der Quellpositionen.
+     * @return Nummer der Quelle in der Quellen-Tabelle.
+     */
+    private int addSource(final int templateIdx, final SourceTable sourceTable, final int sourceLocation) {
+        final int id = sourceCount++;
+        final int offset = id * SOURCE_FIELDS;
+        if (offset + SOURCE_FIELDS > sources.length) {
+            sources = Arrays.copyOf(sources, sources.length * 2);
+        }
+        sources[offset] = templateIdx;
+        sources[offset + 1] = sourceTable.getLine(sourceLocation);
+        sources[offset + 2] = sourceTable.getColumn(sourceLocation);
+        sources[offset + 3] = sourceTable.getStartIndex(sourceLocation);
+        sources[offset + 4] = sourceTable.getStopIndex(sourceLocation);
+        sources[offset + 5] = sourceTable.getStartTokenIndex(sourceLocation);
+        sources[offset + 6] = sourceTable.getStopTokenIndex(sourceLocation);
+        sourceIds[templateIdx][sourceLocation] = id;
+        return id;
     }
 
-    private void append(final String text, final String infoText, final int templateFileIdx, final Token token)
-            throws IOException {
-        updateStatistics(text);
+    private void append(final String text, final int sourceId) throws IOException {
         if (!headerWritten) {
             writeHeader();
             headerWritten = true;
         }
-        writer.append("<a title=\"");
-        writer.append(infoText);
-        writer.append("\"");
-        writer.append(" onclick=\"selectToken(" + templateFileIdx + ", " + token.getTokenIndex() + ")\"");
-        writer.append(" onmouseover=\"highlightToken(" + templateFileIdx + ", " + token.getTokenIndex() + ")\"");
-        writer.append(" onmouseout=\"unhighlight()\"");
-        writer.append(">");
-        writer.append("<span style=\"border-style:solid; border-color: #800000; border-width: 1px;\">");
-        writer.append(escape(text));
-        writer.append("</span>");
-        writer.append("</a>");
-        // TODO ToolTip-Text wie hier anzeigen:
-        // https://www.w3schools.com/howto/tryit.asp?filename=tryhow_css_tooltip
+        write("<a data-s=\"");
+        write(sourceId);
+        write("\">");
+        characterCount += text.length();
+        lineCount += writeEscaped(text);
+        write("</a>");
     }
 
-    private void updateStatistics(final String text) {
-        characterCount += text.length();
-        lineCount += text.chars().parallel().filter(character -> character == '\n').count();
+    /**
+     * Schreibt den Text in einem einzigen Durchlauf HTML-maskiert in den Puffer. Leerzeichen und Zeilenumbrüche werden
+     * dabei durch sichtbare Symbole ergänzt.
+     * 
+     * @param text
+     *            Zu schreibender Text.
+     * @return Anzahl der Zeilenumbrüche in dem Text.
+     * @throws IOException
+     *             Falls der Puffer nicht geleert werden kann.
+     */
+    private int writeEscaped(final CharSequence text) throws IOException {
+        int newLines = 0;
+        final int length = text.length();
+        for (int i = 0; i < length; i++) {
+            final char character = text.charAt(i);
+            if (character == '\n') {
+                newLines++;
+            }
+            writeEscaped(character);
+        }
+        writePendingSurrogate();
+        return newLines;
+    }
+
+    /**
+     * Schreibt einen Text für eine Überschrift HTML-maskiert in den Puffer. Anders als bei der generierten Ausgabe
+     * werden Leerzeichen und Zeilenumbrüche dabei unverändert übernommen.
+     *
+     * @param text
+     *            Zu schreibender Text.
+     * @throws IOException
+     *             Falls der Puffer nicht geleert werden kann.
+     */
+    private void writeHeaderText(final String text) throws IOException {
+        final int length = text.length();
+        for (int i = 0; i < length; i++) {
+            final char character = text.charAt(i);
+            if (character == ' ' || character == '\n') {
+                if (bufferLength + MAX_ENTITY_LENGTH > BUFFER_SIZE) {
+                    flushBuffer();
+                }
+                writePendingSurrogate();
+                buffer[bufferLength++] = character;
+            } else {
+                writeEscaped(character);
+            }
+        }
+        writePendingSurrogate();
     }
 
-    private CharSequence escape(final String text) {
-        return text.replaceAll("&", "&amp;").replaceAll("\"", "&quot;").replaceAll("<", "&lt;").replaceAll(">", "&gt;")
-                .replaceAll("'", "&apos;").replaceAll(" ", "&#x22C5;").replaceAll("\n", "&#x21B5;\n");
+    /**
+     * Schreibt ein zwischengespeichertes Surrogat-Zeichen, auf das kein passendes zweites Zeichen mehr folgt.
+     */
+    private void writePendingSurrogate() {
+        if (pendingHighSurrogate != 0) {
+            writeCharacterReference(pendingHighSurrogate);
+            pendingHighSurrogate = 0;
+        }
+    }
+
+    /**
+     * Schreibt ein einzelnes Zeichen HTML-maskiert in den Puffer. Zeichen außerhalb von ASCII werden als numerische
+     * Referenz ausgegeben, damit die Seite unabhängig von der Kodierung der Ausgabe lesbar bleibt.
+     * 
+     * @param character
+     *            Zu schreibendes Zeichen.
+     * @throws IOException
+     *             Falls der Puffer nicht geleert werden kann.
+     */
+    private void writeEscaped(final char character) throws IOException {
+        if (bufferLength + MAX_ENTITY_LENGTH > BUFFER_SIZE) {
+            flushBuffer();
+        }
+        if (pendingHighSurrogate != 0) {
+            final char high = pendingHighSurrogate;
+            pendingHighSurrogate = 0;
+            if (Character.isLowSurrogate(character)) {
+                writeCharacterReference(Character.toCodePoint(high, character));
+                return;
+            }
+            writeCharacterReference(high);
+        }
+        switch (character) {
+            case ' ':
+                write("&#x22C5;");
+                break;
+            case '\n':
+                write("&#x21B5;\n");
+                break;
+            case '&':
+                write("&amp;");
+                break;
+            case '<':
+                write("&lt;");
+                break;
+            case '>':
+                write("&gt;");
+                break;
+            case '"':
+                write("&quot;");
+                break;
+            case '\'':
+                write("&apos;");
+                break;
+            default:
+                if (character < 128) {
+                    buffer[bufferLength++] = character;
+                } else if (Character.isHighSurrogate(character)) {
+                    pendingHighSurrogate = character;
+                } else {
+                    writeCharacterReference(character);
+                }
+        }
+    }
+
+    /**
+     * Schreibt eine numerische Zeichenreferenz (&amp;#x...;) in den Puffer.
+     * 
+     * @param codePoint
+     *            Code des auszugebenden Zeichens.
+     */
+    private void writeCharacterReference(final int codePoint) {
+        buffer[bufferLength++] = '&';
+        buffer[bufferLength++] = '#';
+        buffer[bufferLength++] = 'x';
+        int shift = 28;
+        while (shift > 0 && (codePoint >>> shift) == 0) {
+            shift -= 4;
+        }
+        for (; shift >= 0; shift -= 4) {
+            buffer[bufferLength++] = HEX_DIGITS[(codePoint >>> shift) & 0xf];
+        }
+        buffer[bufferLength++] = ';';
+    }
+
+    /**
+     * Schreibt den Text unverändert in den Puffer.
+     * 
+     * @param text
+     *            Zu schreibender Text.
+     * @throws IOException
+     *             Falls der Puffer nicht geleert werden kann.
+     */
+    private void write(final String text) throws IOException {
+        final int length = text.length();
+        if (bufferLength + length > BUFFER_SIZE) {
+            flushBuffer();
+            if (length > BUFFER_SIZE) {
+                writer.write(text);
+                return;
+            }
+        }
+        text.getChars(0, length, buffer, bufferLength);
+        bufferLength += length;
+    }
+
+    /**
+     * Schreibt eine nicht negative Zahl in Dezimaldarstellung in den Puffer, ohne dafür einen String zu erzeugen.
+     * 
+     * @param number
+     *            Zu schreibende Zahl.
+     * @throws IOException
+     *             Falls der Puffer nicht geleert werden kann.
+     */
+    private void write(final int number) throws IOException {
+        if (bufferLength + MAX_ENTITY_LENGTH > BUFFER_SIZE) {
+            flushBuffer();
+        }
+        if (number < 0) {
+            buffer[bufferLength++] = '-';
+            write(-number);
+            return;
+        }
+        int divisor = 1;
+        while (divisor <= number / 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            buffer[bufferLength++] = (char) ('0' + number / divisor % 10);
+        }
+    }
+
+    /**
+     * Gibt den Inhalt des Puffers an den Writer weiter.
+     * 
+     * @throws IOException
+     *             Falls beim Schreiben ein Fehler auftritt.
+     */
+    private void flushBuffer() throws IOException {
+        if (bufferLength > 0) {
+            writer.write(buffer, 0, bufferLength);
+            bufferLength = 0;
+        }
     }
 
     @Override
     public void close() throws IOException {
+        if (!headerWritten) {
+            writeHeader();
+            headerWritten = true;
+        }
         writeFooter();
+        flushBuffer();
         writer.close();
     }
 
     private void writeHeader() throws IOException {
-        writer.append("<!DOCTYPE html>\n<html>\n<head>\n");
-        writer.append("<style>\n");
+        write("<!DOCTYPE html>\n<html>\n<head>\n");
+        write("<style>\n");
         inlineFile(DEBUG_HTML_STYLE);
         if (tokenStyles != null) {
-            writer.append(tokenStyles);
-            writer.append("\n");
+            write(tokenStyles);
+            write("\n");
         }
-        writer.append("</style>\n");
-        writer.append("<script>\n");
+        write("</style>\n");
+        write("<script>\n");
         inlineFile(DEBUG_HTML_JAVASCRIPT);
-        writer.append("</script>\n<body>\n");
-        writer.append("<div class=\"panelHeader\">Channel: " + channelName + "</div>\n");
-        writer.append("<div class=\"generatedFilePanelContent\">\n");
-        writer.append("<pre>");
+        write("</script>\n</head>\n<body>\n");
+        write("<div class=\"panelHeader\">Channel: ");
+        writeHeaderText(String.valueOf(channelName));
+        write("</div>\n");
+        write("<div class=\"generatedFilePanelContent\">\n");
+        write("<pre>");
     }
 
     private void inlineFile(final String fileLocation) throws IOException {
         try (InputStream input = getClass().getResourceAsStream(fileLocation);
-                InputStreamReader inputReader = new InputStreamReader(input);
+                InputStreamReader inputReader = new InputStreamReader(input, StandardCharsets.UTF_8);
                 BufferedReader reader = new BufferedReader(inputReader)) {
             String line;
             while ((line = reader.readLine()) != null) {
-                writer.append(line);
-                writer.append('\n');
+                write(line);
+                write("\n");
             }
         }
     }
 
     private void writeFooter() throws IOException {
-        writer.append("</pre>\n");
-        writer.append("</div>\n");
-        for (final Pair<Integer, TemplateFile> idTemplateFile : templateFiles.values()) {
-            final TemplateFile templateFile = idTemplateFile.b;
-            writer.append("<div class=\"panelHeader\">" + templateFile.getResourceIdentifier() + "</div>\n");
-            writer.append("<div class=\"templatePanelContent\">");
-            writer.append("<pre>");
-            try (InputStream input = templateFile.getResourceIdentifier().toURL().openStream();
-                    InputStreamReader reader = new InputStreamReader(input, Charset.forName("UTF-8"))) {
-                insertParseTree(reader, 0, templateFile.getContext(), idTemplateFile.a);
+        write("</pre>\n");
+        write("</div>\n");
+        for (int templateIdx = 0; templateIdx < templateFileIndices.size(); templateIdx++) {
+            final TemplateFile templateFile = templateFiles[templateIdx];
+            write("<div class=\"panelHeader\">");
+            writeHeaderText(templateFile.getResourceIdentifier().toString());
+            write("</div>\n");
+            write("<div class=\"templatePanelContent\">");
+            write("<pre>");
+            try (InputStream input = templateFile.getResourceIdentifier().toURL().openStream()) {
+                insertTokens(CharStreams.fromStream(input, StandardCharsets.UTF_8), templateIdx);
             }
-            writer.append("</pre>\n");
-            writer.append("</div>\n");
+            writePendingSurrogate();
+            write("</pre>\n");
+            write("</div>\n");
         }
-        writer.append("</body>\n</html>");
+        writeSourceTable();
+        write("</body>\n</html>");
     }
 
-    private int insertParseTree(final Reader input, int pos, final ParseTree parseTree, final int templateIdx)
-            throws IOException {
-        if (parseTree.getChildCount() > 0) {
-            for (int i = 0; i < parseTree.getChildCount(); i++) {
-                pos = insertParseTree(input, pos, parseTree.getChild(i), templateIdx);
-            }
-            return pos;
-        } else {
-            final Token token = (Token) parseTree.getPayload();
-            final int tokenStart = token.getStartIndex();
-            while (pos < tokenStart) {
-                final int nextChar = input.read();
-                writer.append(htmlEscape((char) nextChar));
-                pos++;
+    /**
+     * Schreibt die Quellen-Tabelle als Javascript-Arrays an das Ende der Seite. {@code TEMPLATES} enthält die
+     * Identifier der Templates, {@code SOURCES} pro Quelle die {@link #SOURCE_FIELDS} Einträge hintereinander.
+     * 
+     * @throws IOException
+     *             Falls beim Schreiben ein Fehler auftritt.
+     */
+    private void writeSourceTable() throws IOException {
+        write("<script>\nTEMPLATES = [");
+        for (int templateIdx = 0; templateIdx < templateFileIndices.size(); templateIdx++) {
+            if (templateIdx > 0) {
+                write(",");
             }
-            final StringBuilder tokenText = new StringBuilder();
-            for (int i = tokenStart; i <= token.getStopIndex(); i++) {
-                tokenText.append(htmlEscape((char) input.read()));
-                pos++;
+            write("\"");
+            writeJavascriptString(templateFiles[templateIdx].getResourceIdentifier().toString());
+            write("\"");
+        }
+        write("];\nSOURCES = [");
+        final int length = sourceCount * SOURCE_FIELDS;
+        for (int i = 0; i < length; i++) {
+            if (i > 0) {
+                write(i % SOURCE_FIELDS == 0 ? ",\n" : ",");
             }
-            appendSourceToken(token, tokenText.toString(), templateIdx);
-
-            return pos;
+            write(sources[i]);
         }
+        write("];\n</script>\n");
     }
 
-    private void appendSourceToken(final Token token, final String tokenText, final int templateIdx)
-            throws IOException {
-        writer.append("<span id=\"token_" + templateIdx + "_" + token.getTokenIndex() + "\" class=\"token_"
-                + token.getType() + "\">");
-        writer.append(tokenText + "</span>");
+    /**
+     * Schreibt den Text als Inhalt eines Javascript-Strings in den Puffer.
+     * 
+     * @param text
+     *            Zu schreibender Text.
+     * @throws IOException
+     *             Falls der Puffer nicht geleert werden kann.
+     */
+    private void writeJavascriptString(final String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            final char character = text.charAt(i);
+            if (bufferLength + MAX_ENTITY_LENGTH > BUFFER_SIZE) {
+                flushBuffer();
+            }
+            if (character < 32 || character > 126 || character == '"' || character == '\\' || character == '<') {
+                write("\\u");
+                for (int shift = 12; shift >= 0; shift -= 4) {
+                    buffer[bufferLength++] = HEX_DIGITS[(character >>> shift) & 0xf];
+                }
+            } else {
+                buffer[bufferLength++] = character;
+            }
+        }
     }
 
-    private CharSequence htmlEscape(final char nextChar) {
-        if (nextChar > 127) {
-            return "&#x" + Integer.toHexString(nextChar) + ";";
-        }
-        if (nextChar == ' ') {
-            return "&#x22C5;";
-        }
-        if (nextChar == '\n') {
-            return "&#x21B5;\n";
-        }
-        if (nextChar == '&') {
-            return "&amp;";
-        }
-        if (nextChar == '<') {
-            return "&lt;";
-        }
-        if (nextChar == '>') {
-            return "&gt;";
-        }
-        if (nextChar == '"') {
-            return "&quot;";
-        }
-        if (nextChar == '\'') {
-            return "&apos;";
-        }
-        if (nextChar == 'ä') {
-            return "&auml;";
-        }
-        if (nextChar == 'Ä') {
-            return "&Auml;";
-        }
-        if (nextChar == 'ö') {
-            return "&ouml;";
-        }
-        if (nextChar == 'Ö') {
-            return "&Ouml;";
-        }
-        if (nextChar == 'ü') {
-            return "&uuml;";
-        }
-        if (nextChar == 'Ü') {
-            return "&Uuml;";
-        }
-        if (nextChar == '\u00ab') {
-            return "&laquo;";
-        }
-        if (nextChar == '\u00bb') {
-            return "&raquo;";
-        }
-        return Character.toString(nextChar);
+    /**
+     * Schreibt den Inhalt einer Template-Datei, in dem jedes Token, das auch im Syntaxbaum enthalten war, mit seinem
+     * Index markiert ist. Da die Template-Datei nach dem Einlesen keinen Syntaxbaum mehr hält, wird der Inhalt dafür
+     * erneut gelext. Die Token-Indizes stimmen dabei mit denen in der {@link SourceTable} überein.
+     * 
+     * @param input
+     *            Inhalt der Template-Datei.
+     * @param templateIdx
+     *            Index der Template-Datei in der Ausgabe.
+     * @throws IOException
+     *             Falls beim Schreiben ein Fehler auftritt.
+     */
+    private void insertTokens(final CharStream input, final int templateIdx) throws IOException {
+        final CodeGenLexer lexer = new CodeGenLexer(input);
+        lexer.removeErrorListeners();
+        int pos = 0;
+        int tokenIndex = 0;
+        Token token;
+        do {
+            token = lexer.nextToken();
+            if (token.getChannel() == Token.DEFAULT_CHANNEL) {
+                final int tokenStart = token.getStartIndex();
+                if (pos < tokenStart) {
+                    writeEscaped(input.getText(Interval.of(pos, tokenStart - 1)));
+                }
+                write("<span id=\"token_");
+                write(templateIdx);
+                write("_");
+                write(tokenIndex);
+                write("\" class=\"token_");
+                write(token.getType());
+                write("\">");
+                if (tokenStart <= token.getStopIndex()) {
+                    writeEscaped(input.getText(Interval.of(tokenStart, token.getStopIndex())));
+                }
+                write("</span>");
+                pos = token.getStopIndex() + 1;
+            }
+            tokenIndex++;
+        } while (token.getType() != Token.EOF);
     }
 
-    public File getOutputFile() {
-        return outputFile;
+    public Path getOutputPath() {
+        return outputPath;
     }
 
     public long getCharacterCount() {
@@ -276,4 +572,4 @@ public class HTMLDebugGeneratorWriter implements GeneratorWriter {
     public long getLineCount() {
         return lineCount;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,82 @@
+package de.chrlembeck.codegen.generator.output;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import de.chrlembeck.codegen.generator.AbstractCodeGenException;
+import de.chrlembeck.codegen.generator.Position;
+
+/**
+ * Wird geworfen, wenn die generierten Java-Quelltexte nicht übersetzt werden konnten. Die Exception enthält die
+ * Fehlermeldungen des Compilers samt der Stellen in den Template-Dateien, die die fehlerhaften Quelltexte erzeugt
+ * haben.
+ *
+ * @author Christoph Lembeck
+ * @see JavaCompilerOutput
+ */
+public class JavaCompilationException extends AbstractCodeGenException {
+
+    /**
+     * Version number of the current class.
+     *
+     * @see java.io.Serializable
+     */
+    private static final long serialVersionUID = 2317908455716283069L;
+
+    /**
+     * Fehlermeldungen des Compilers.
+     */
+    private final ArrayList<CompilerMessage> errors;
+
+    /**
+     * Erstellt eine neue Exception mit den übergebenen Fehlermeldungen.
+     *
+     * @param errors
+     *            Fehlermeldungen des Compilers.
+     */
+    public JavaCompilationException(final List<CompilerMessage> errors) {
+        super(buildMessage(errors));
+        this.errors = new ArrayList<>(errors);
+    }
+
+    /**
+     * Setzt den Text der Exception aus den Fehlermeldungen zusammen.
+     *
+     * @param errors
+     *            Fehlermeldungen des Compilers.
+     * @return Text der Exception.
+     */
+    private static String buildMessage(final List<CompilerMessage> errors) {
+        final StringBuilder builder = new StringBuilder(
+                "Die generierten Java-Quelltexte konnten nicht übersetzt werden.");
+        for (final CompilerMessage error : errors) {
+            builder.append(System.lineSeparator()).append(error);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Gibt die Fehlermeldungen des Compilers zurück.
+     *
+     * @return Unveränderbare Liste der Fehlermeldungen.
+     */
+    public List<CompilerMessage> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    /**
+     * Gibt die Position im Template zurück, die den ersten fehlerhaften Quelltext erzeugt hat.
+     *
+     * @return Position im Template oder null, falls die Herkunft des Fehlers nicht bekannt ist.
+     */
+    @Override
+    public Position getStartPosition() {
+        for (final CompilerMessage error : errors) {
+            if (error.getTemplatePosition() != null) {
+                return error.getTemplatePosition();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,554 @@
+package de.chrlembeck.codegen.generator.output;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.chrlembeck.codegen.generator.Position;
+import de.chrlembeck.codegen.generator.lang.Executable;
+import de.chrlembeck.codegen.generator.lang.SourceTable;
+import de.chrlembeck.codegen.generator.lang.TemplateFile;
+
+/**
+ * Ausgabeverwalter, der die generierten Java-Quelltexte ohne Umweg über die Festplatte direkt mit dem Java-Compiler
+ * der laufenden JVM übersetzt. Alle Kanäle, deren Name auf ".java" endet, werden im Speicher gesammelt und beim Aufruf
+ * von {@link #closeAll()} gemeinsam übersetzt. Die erzeugten Klassen stehen anschließend über
+ * {@link #getClassFiles()} zur Verfügung und werden, falls über {@link #setClassOutputDirectory(Path)} festgelegt, in
+ * das angegebene Verzeichnis geschrieben. Alle übrigen Kanäle werden an einen weiteren Ausgabeverwalter weitergereicht.
+ *
+ * <p>
+ * Zu jedem Abschnitt der Quelltexte merkt sich der Verwalter die Stelle des Templates, aus der er stammt. Meldungen
+ * des Compilers werden so auf die Positionen in den Template-Dateien zurückgeführt. Schlägt die Übersetzung fehl, wird
+ * eine {@link JavaCompilationException} mit allen Fehlermeldungen geworfen.
+ * </p>
+ *
+ * @author Christoph Lembeck
+ */
+public class JavaCompilerOutput implements GeneratorOutput {
+
+    /**
+     * Der Logger für diese Klasse.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(JavaCompilerOutput.class);
+
+    /**
+     * Endung der Kanäle, die Java-Quelltexte enthalten.
+     */
+    private static final String JAVA_SUFFIX = JavaFileObject.Kind.SOURCE.extension;
+
+    /**
+     * Ausgabeverwalter für alle Kanäle, die keine Java-Quelltexte enthalten, oder null.
+     */
+    private final GeneratorOutput resourceOutput;
+
+    /**
+     * Zuordnung von Channel-Namen zu den gesammelten Quelltexten.
+     */
+    private final Map<String, SourceBuffer> sources = new TreeMap<>();
+
+    /**
+     * Übersetzte Klassen, zugeordnet zu ihren binären Namen.
+     */
+    private final Map<String, byte[]> classFiles = new LinkedHashMap<>();
+
+    /**
+     * Meldungen des Compilers aus der letzten Übersetzung.
+     */
+    private final List<CompilerMessage> messages = new ArrayList<>();
+
+    /**
+     * Zusätzliche Optionen für den Compiler.
+     */
+    private List<String> compilerOptions = Collections.emptyList();
+
+    /**
+     * Verzeichnis, in das die übersetzten Klassen geschrieben werden, oder null.
+     */
+    private Path classOutputDirectory;
+
+    /**
+     * Erstellt einen neuen Verwalter.
+     *
+     * @param resourceOutput
+     *            Ausgabeverwalter für alle Kanäle, die keine Java-Quelltexte enthalten, oder null, falls das Template
+     *            ausschließlich Java-Quelltexte erzeugt.
+     */
+    public JavaCompilerOutput(final GeneratorOutput resourceOutput) {
+        this.resourceOutput = resourceOutput;
+    }
+
+    /**
+     * Legt zusätzliche Optionen für den Compiler fest, z.B. den Klassenpfad über {@code -classpath} oder die
+     * Zielversion über {@code --release}.
+     *
+     * @param compilerOptions
+     *            Optionen für den Compiler.
+     */
+    public synchronized void setCompilerOptions(final List<String> compilerOptions) {
+        this.compilerOptions = new ArrayList<>(compilerOptions);
+    }
+
+    /**
+     * Legt das Verzeichnis fest, in das die übersetzten Klassen geschrieben werden.
+     *
+     * @param classOutputDirectory
+     *            Verzeichnis für die Klassen oder null, falls die Klassen nur im Speicher gehalten werden sollen.
+     */
+    public synchronized void setClassOutputDirectory(final Path classOutputDirectory) {
+        this.classOutputDirectory = classOutputDirectory;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized GeneratorWriter getWriter(final String channelName, final OutputPreferences prefs)
+            throws IOException {
+        if (!channelName.endsWith(JAVA_SUFFIX)) {
+            if (resourceOutput == null) {
+                throw new IOException("Der Kanal " + channelName
+                        + " enthält keinen Java-Quelltext und es ist keine Ausgabe für weitere Dateien festgelegt.");
+            }
+            return resourceOutput.getWriter(channelName, prefs);
+        }
+        return sources.computeIfAbsent(channelName, SourceBuffer::new);
+    }
+
+    /**
+     * Schließt die Kanäle des weiteren Ausgabeverwalters und übersetzt anschließend alle gesammelten Java-Quelltexte.
+     *
+     * @throws IOException
+     *             Falls die Klassen nicht geschrieben werden können oder kein Compiler zur Verfügung steht.
+     * @throws JavaCompilationException
+     *             Falls die Quelltexte nicht übersetzt werden konnten.
+     */
+    @Override
+    public void closeAll() throws IOException {
+        if (resourceOutput != null) {
+            resourceOutput.closeAll();
+        }
+        compile();
+    }
+
+    /**
+     * Übersetzt alle bisher gesammelten Java-Quelltexte.
+     *
+     * @throws IOException
+     *             Falls die Klassen nicht geschrieben werden können oder kein Compiler zur Verfügung steht.
+     * @throws JavaCompilationException
+     *             Falls die Quelltexte nicht übersetzt werden konnten.
+     */
+    public synchronized void compile() throws IOException {
+        messages.clear();
+        classFiles.clear();
+        if (sources.isEmpty()) {
+            return;
+        }
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IOException("Die laufende Java-Umgebung stellt keinen Java-Compiler zur Verfügung.");
+        }
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        final Map<String, ClassFileObject> outputs = new LinkedHashMap<>();
+        final boolean success;
+        try (StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(diagnostics, null,
+                StandardCharsets.UTF_8);
+                JavaFileManager fileManager = new MemoryFileManager(standardFileManager, outputs)) {
+            success = compiler.getTask(null, fileManager, diagnostics, compilerOptions, null, sources.values())
+                    .call().booleanValue();
+        }
+        final List<CompilerMessage> errors = new ArrayList<>();
+        for (final Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            final CompilerMessage message = toMessage(diagnostic);
+            messages.add(message);
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                LOGGER.error(message.toString());
+                errors.add(message);
+            } else {
+                LOGGER.warn(message.toString());
+            }
+        }
+        if (!success) {
+            throw new JavaCompilationException(errors);
+        }
+        for (final ClassFileObject output : outputs.values()) {
+            classFiles.put(output.className, output.content.toByteArray());
+        }
+        if (classOutputDirectory != null) {
+            writeClassFiles(classOutputDirectory);
+        }
+    }
+
+    /**
+     * Schreibt die übersetzten Klassen in der Verzeichnisstruktur ihrer Pakete in das übergebene Verzeichnis.
+     *
+     * @param directory
+     *            Zielverzeichnis für die Klassen.
+     * @throws IOException
+     *             Falls beim Schreiben ein Fehler auftritt.
+     */
+    private void writeClassFiles(final Path directory) throws IOException {
+        for (final Map.Entry<String, byte[]> classFile : classFiles.entrySet()) {
+            final Path path = getClassFilePath(directory, classFile.getKey());
+            Files.createDirectories(path.getParent());
+            Files.write(path, classFile.getValue());
+        }
+    }
+
+    /**
+     * Ermittelt den Pfad der Klassendatei einer Klasse in der Verzeichnisstruktur ihres Pakets.
+     *
+     * @param directory
+     *            Zielverzeichnis für die Klassen.
+     * @param className
+     *            Binärer Name der Klasse.
+     * @return Pfad der Klassendatei.
+     */
+    private static Path getClassFilePath(final Path directory, final String className) {
+        return directory.resolve(className.replace('.', '/') + JavaFileObject.Kind.CLASS.extension);
+    }
+
+    /**
+     * Wandelt eine Meldung des Compilers um und ermittelt dabei die Stelle im Template, die den betroffenen Abschnitt
+     * des Quelltextes erzeugt hat.
+     *
+     * @param diagnostic
+     *            Meldung des Compilers.
+     * @return Meldung samt Position im Template.
+     */
+    private static CompilerMessage toMessage(final Diagnostic<? extends JavaFileObject> diagnostic) {
+        String channelName = null;
+        URI templateResource = null;
+        Position templatePosition = null;
+        if (diagnostic.getSource() instanceof SourceBuffer) {
+            final SourceBuffer source = (SourceBuffer) diagnostic.getSource();
+            channelName = source.channelName;
+            if (diagnostic.getPosition() != Diagnostic.NOPOS) {
+                final Executable<?> executable = source.getExecutableAt((int) diagnostic.getPosition());
+                if (executable != null) {
+                    final TemplateFile templateFile = executable.getTemplateFile();
+                    templateResource = templateFile.getResourceIdentifier();
+                    templatePosition = getTemplatePosition(executable, templateFile,
+                            source.getLocationAt((int) diagnostic.getPosition()));
+                }
+            }
+        }
+        return new CompilerMessage(diagnostic.getKind(), channelName, diagnostic.getLineNumber(),
+                diagnostic.getColumnNumber(), diagnostic.getMessage(Locale.getDefault()), templateResource,
+                templatePosition);
+    }
+
+    /**
+     * Ermittelt die Position einer Ausgabe in ihrer Template-Datei.
+     *
+     * @param executable
+     *            Ausführbares Element, das die Ausgabe erzeugt hat.
+     * @param templateFile
+     *            Template-Datei des Elements.
+     * @param sourceLocation
+     *            Eintrag der Ausgabe in der Tabelle der Quellpositionen oder -1.
+     * @return Position der Ausgabe im Template.
+     */
+    private static Position getTemplatePosition(final Executable<?> executable, final TemplateFile templateFile,
+            final int sourceLocation) {
+        final SourceTable sourceTable = templateFile.getSourceTable();
+        if (sourceLocation >= 0 && sourceTable != null && sourceLocation < sourceTable.size()) {
+            return sourceTable.getPosition(sourceLocation);
+        }
+        return executable.getStartPosition();
+    }
+
+    /**
+     * Gibt die übersetzten Klassen der letzten Übersetzung zurück.
+     *
+     * @return Zuordnung der binären Klassennamen zum Inhalt der Klassendateien.
+     */
+    public synchronized Map<String, byte[]> getClassFiles() {
+        return new LinkedHashMap<>(classFiles);
+    }
+
+    /**
+     * Gibt die Klassendateien zurück, die bei der letzten Übersetzung in das
+     * {@link #setClassOutputDirectory(Path) Ausgabeverzeichnis} geschrieben wurden.
+     *
+     * @return Zuordnung der Pfade der Klassendateien zu ihrem Inhalt. Ist kein Ausgabeverzeichnis festgelegt, ist die
+     *         Zuordnung leer.
+     */
+    public synchronized Map<Path, byte[]> getWrittenClassFiles() {
+        final Map<Path, byte[]> result = new LinkedHashMap<>();
+        if (classOutputDirectory != null) {
+            for (final Map.Entry<String, byte[]> classFile : classFiles.entrySet()) {
+                result.put(getClassFilePath(classOutputDirectory, classFile.getKey()), classFile.getValue());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gibt alle Meldungen des Compilers aus der letzten Übersetzung zurück.
+     *
+     * @return Meldungen des Compilers.
+     */
+    public synchronized List<CompilerMessage> getMessages() {
+        return new ArrayList<>(messages);
+    }
+
+    /**
+     * Java-Quelltext eines Kanals, der zugleich als Writer für den Generator und als Quelle für den Compiler dient.
+     * Aufeinanderfolgende Ausgaben gleicher Herkunft werden zu einem Abschnitt zusammengefasst.
+     *
+     * @author Christoph Lembeck
+     */
+    private static final class SourceBuffer extends SimpleJavaFileObject implements GeneratorWriter {
+
+        /**
+         * Name des Kanals.
+         */
+        private final String channelName;
+
+        /**
+         * Gesammelter Quelltext.
+         */
+        private final StringBuilder text = new StringBuilder();
+
+        /**
+         * Startposition jedes Abschnitts im Quelltext.
+         */
+        private int[] starts = new int[16];
+
+        /**
+         * Ausführbare Elemente, von denen die Abschnitte stammen.
+         */
+        private Executable<?>[] executables = new Executable<?>[16];
+
+        /**
+         * Quellpositionen, von denen die Abschnitte stammen.
+         */
+        private int[] locations = new int[16];
+
+        /**
+         * Anzahl der Abschnitte.
+         */
+        private int count;
+
+        /**
+         * Erstellt einen neuen, leeren Quelltext.
+         *
+         * @param channelName
+         *            Name des Kanals.
+         */
+        SourceBuffer(final String channelName) {
+            super(toUri(channelName), JavaFileObject.Kind.SOURCE);
+            this.channelName = channelName;
+        }
+
+        /**
+         * Erzeugt die URI, unter der der Compiler den Quelltext eines Kanals führt.
+         *
+         * @param channelName
+         *            Name des Kanals.
+         * @return URI des Quelltextes.
+         */
+        private static URI toUri(final String channelName) {
+            String path = channelName.replace('\\', '/');
+            if (!path.startsWith("/")) {
+                path = "/" + path;
+            }
+            try {
+                return new URI("string", null, path, null);
+            } catch (final URISyntaxException e) {
+                throw new IllegalArgumentException("Ungültiger Kanalname für einen Java-Quelltext: " + channelName,
+                        e);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void append(final String output, final Executable<?> sourceExecutable, final int sourceLocation) {
+            if (count == 0 || executables[count - 1] != sourceExecutable || locations[count - 1] != sourceLocation) {
+                if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, count * 2);
+                    executables = Arrays.copyOf(executables, count * 2);
+                    locations = Arrays.copyOf(locations, count * 2);
+                }
+                starts[count] = text.length();
+                executables[count] = sourceExecutable;
+                locations[count] = sourceLocation;
+                count++;
+            }
+            text.append(output);
+        }
+
+        /**
+         * Funktionslos, da der Quelltext bis zur Übersetzung gesammelt wird. Der Kanal kann danach weiter beschrieben
+         * werden.
+         */
+        @Override
+        public void close() {
+            // der Quelltext wird erst beim Abschließen der Ausgabe übersetzt
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public CharSequence getCharContent(final boolean ignoreEncodingErrors) {
+            return text;
+        }
+
+        /**
+         * Ermittelt den Abschnitt, der die übergebene Position des Quelltextes enthält.
+         *
+         * @param position
+         *            Position im Quelltext.
+         * @return Index des Abschnitts oder -1.
+         */
+        private int getSectionAt(final int position) {
+            int low = 0;
+            int high = count - 1;
+            int result = -1;
+            while (low <= high) {
+                final int middle = (low + high) >>> 1;
+                if (starts[middle] <= position) {
+                    result = middle;
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Gibt das ausführbare Element zurück, das die übergebene Position des Quelltextes erzeugt hat.
+         *
+         * @param position
+         *            Position im Quelltext.
+         * @return Ausführbares Element oder null, falls die Herkunft nicht bekannt ist.
+         */
+        Executable<?> getExecutableAt(final int position) {
+            final int section = getSectionAt(position);
+            return section < 0 ? null : executables[section];
+        }
+
+        /**
+         * Gibt die Quellposition des Abschnitts zurück, der die übergebene Position des Quelltextes enthält.
+         *
+         * @param position
+         *            Position im Quelltext.
+         * @return Eintrag in der Tabelle der Quellpositionen oder -1.
+         */
+        int getLocationAt(final int position) {
+            final int section = getSectionAt(position);
+            return section < 0 ? -1 : locations[section];
+        }
+    }
+
+    /**
+     * Klassendatei, die der Compiler in den Speicher schreibt.
+     *
+     * @author Christoph Lembeck
+     */
+    private static final class ClassFileObject extends SimpleJavaFileObject {
+
+        /**
+         * Binärer Name der Klasse.
+         */
+        private final String className;
+
+        /**
+         * Inhalt der Klassendatei.
+         */
+        private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+        /**
+         * Erstellt eine neue, leere Klassendatei.
+         *
+         * @param className
+         *            Binärer Name der Klasse.
+         */
+        ClassFileObject(final String className) {
+            super(URI.create("mem:///" + className.replace('.', '/') + JavaFileObject.Kind.CLASS.extension),
+                    JavaFileObject.Kind.CLASS);
+            this.className = className;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public OutputStream openOutputStream() {
+            content.reset();
+            return content;
+        }
+    }
+
+    /**
+     * Dateiverwalter für den Compiler, der die erzeugten Klassendateien im Speicher ablegt. Alle übrigen Zugriffe,
+     * insbesondere auf den Klassenpfad, werden an den Standard-Dateiverwalter weitergegeben.
+     *
+     * @author Christoph Lembeck
+     */
+    private static final class MemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+        /**
+         * Erzeugte Klassendateien, zugeordnet zu ihren binären Namen.
+         */
+        private final Map<String, ClassFileObject> outputs;
+
+        /**
+         * Erstellt einen neuen Dateiverwalter.
+         *
+         * @param fileManager
+         *            Standard-Dateiverwalter für alle übrigen Zugriffe.
+         * @param outputs
+         *            Ablage für die erzeugten Klassendateien.
+         */
+        MemoryFileManager(final StandardJavaFileManager fileManager, final Map<String, ClassFileObject> outputs) {
+            super(fileManager);
+            this.outputs = outputs;
+        }
+
+        /**
+         * Legt Klassendateien im Speicher an und gibt alle übrigen Anforderungen an den Standard-Dateiverwalter
+         * weiter.
+         */
+        @Override
+        public JavaFileObject getJavaFileForOutput(final Location location, final String className,
+                final JavaFileObject.Kind kind, final FileObject sibling) throws IOException {
+            if (kind != JavaFileObject.Kind.CLASS) {
+                return super.getJavaFileForOutput(location, className, kind, sibling);
+            }
+            return outputs.computeIfAbsent(className, ClassFileObject::new);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package de.chrlembeck.codegen.generator.output;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Begrenzt die Anzahl der gleichzeitig geöffneten Dateien der {@link ReopenableFileWriter} eines Ausgabeverwalters.
+ * Wird beim Öffnen einer Datei die Grenze überschritten, werden die am längsten nicht mehr beschriebenen Dateien
+ * geschlossen und ihre Puffer freigegeben. Die betroffenen Writer öffnen ihre Datei beim nächsten Schreiben
+ * selbstständig wieder im Anhänge-Modus.
+ * <p>
+ * Writer, die beim Verdrängen gerade von einem anderen Thread beschrieben werden, bleiben geöffnet. Die Grenze kann
+ * dadurch bei paralleler Ausgabe kurzzeitig um die Anzahl der schreibenden Threads überschritten werden.
+ *
+ * @author Christoph Lembeck
+ * @see FileOutput#setMaxOpenFiles(int)
+ */
+class OpenFilePool {
+
+    /**
+     * Fortlaufender Zähler für die Reihenfolge der Schreibzugriffe.
+     */
+    private final AtomicLong clock = new AtomicLong();
+
+    /**
+     * Aktuell geöffnete Writer.
+     */
+    private final Set<ReopenableFileWriter> openWriters = new LinkedHashSet<>();
+
+    /**
+     * Maximale Anzahl gleichzeitig geöffneter Dateien.
+     */
+    private volatile int maxOpenFiles;
+
+    /**
+     * Erstellt einen neuen Pool mit der übergebenen Grenze.
+     *
+     * @param maxOpenFiles
+     *            Maximale Anzahl gleichzeitig geöffneter Dateien.
+     */
+    OpenFilePool(final int maxOpenFiles) {
+        setMaxOpenFiles(maxOpenFiles);
+    }
+
+    /**
+     * Setzt die maximale Anzahl gleichzeitig geöffneter Dateien.
+     *
+     * @param maxOpenFiles
+     *            Maximale Anzahl gleichzeitig geöffneter Dateien, mindestens 1.
+     */
+    final void setMaxOpenFiles(final int maxOpenFiles) {
+        if (maxOpenFiles < 1) {
+            throw new IllegalArgumentException("Es muss mindestens eine Datei geöffnet werden dürfen.");
+        }
+        this.maxOpenFiles = maxOpenFiles;
+    }
+
+    /**
+     * Gibt die Nummer für einen neuen Schreibzugriff zurück.
+     *
+     * @return Fortlaufende Nummer des Zugriffs.
+     */
+    long tick() {
+        return clock.incrementAndGet();
+    }
+
+    /**
+     * Nimmt einen Writer auf, der gerade seine Datei geöffnet hat, und schließt bei Überschreiten der Grenze die
+     * Dateien der am längsten nicht mehr verwendeten Writer.
+     *
+     * @param writer
+     *            Writer, der seine Datei geöffnet hat.
+     * @throws IOException
+     *             Falls beim Schließen einer verdrängten Datei ein Fehler auftritt.
+     */
+    void opened(final ReopenableFileWriter writer) throws IOException {
+        final List<ReopenableFileWriter> candidates;
+        synchronized (openWriters) {
+            openWriters.add(writer);
+            if (openWriters.size() <= maxOpenFiles) {
+                return;
+            }
+            candidates = new ArrayList<>(openWriters);
+        }
+        candidates.remove(writer);
+        candidates.sort((first, second) -> Long.compare(first.getLastUse(), second.getLastUse()));
+        int excess = candidates.size() + 1 - maxOpenFiles;
+        for (int i = 0; i < candidates.size() && excess > 0; i++) {
+            if (candidates.get(i).tryRelease()) {
+                excess--;
+            }
+        }
+    }
+
+    /**
+     * Entfernt einen Writer, der seine Datei geschlossen hat.
+     *
+     * @param writer
+     *            Writer, der seine Datei geschlossen hat.
+     */
+    void closed(final ReopenableFileWriter writer) {
+        synchronized (openWriters) {
+            openWriters.remove(writer);
+        }
+    }
+
+    /**
+     * Gibt die Anzahl der aktuell geöffneten Dateien zurück.
+     *
+     * @return Anzahl der geöffneten Dateien.
+     */
+    int getOpenFileCount() {
+        synchronized (openWriters) {
+            return openWriters.size();
+        }
+    }
+}
@@ -15,5 +15,12 @@ public enum OverwritePreferences {
     /**
      * Überspringt das Überschreibend er Datei und behält statt dessen die existierende Datei.
      */
-    KEEP_EXISTING
+    KEEP_EXISTING,
+
+    /**
+     * Überschreibt eine existierende Datei nur, wenn sich ihr Inhalt tatsächlich geändert hat. Die Ausgabe wird dazu
+     * gepuffert, mit der bestehenden Datei verglichen und die Datei bei Bedarf atomar ersetzt. Unveränderte Dateien
+     * behalten ihren Änderungszeitpunkt.
+     */
+    WRITE_IF_CHANGED
 }
\ No newline at end of file
@@ -0,0 +1,154 @@
+package de.chrlembeck.codegen.generator.output;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.chrlembeck.codegen.generator.lang.Executable;
+
+/**
+ * Ausgabeverwalter, der sämtliche Zugriffe auf seine Ausgabekanäle lediglich aufzeichnet. Die aufgezeichneten Zugriffe
+ * können anschließend in unveränderter Reihenfolge auf einen anderen Ausgabeverwalter übertragen werden. Dieser erhält
+ * dabei exakt die gleichen Aufrufe (Öffnen der Kanäle, Ausgaben samt Herkunft, Schließen der Kanäle), die er auch bei
+ * einer direkten Generierung erhalten hätte.
+ *
+ * <p>
+ * Der Verwalter wird von der parallelen Generierung verwendet, um die Ausgaben mehrerer gleichzeitig ausgeführter
+ * OUTPUT-Blöcke anschließend in der Reihenfolge der sequentiellen Ausführung in die eigentlichen Ausgabekanäle zu
+ * schreiben. Eine einzelne Instanz ist nicht für die gleichzeitige Verwendung durch mehrere Threads gedacht.
+ * </p>
+ *
+ * @author Christoph Lembeck
+ */
+public class RecordingOutput implements GeneratorOutput {
+
+    /**
+     * Liste der aufgezeichneten Zugriffe in der Reihenfolge ihres Auftretens.
+     */
+    private final List<RecordedAction> actions = new ArrayList<>();
+
+    /**
+     * Anzahl der bisher angeforderten Writer.
+     */
+    private int writerCount;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public GeneratorWriter getWriter(final String channelName, final OutputPreferences prefs) {
+        final int writerIndex = writerCount++;
+        actions.add(replay -> replay.writers.add(replay.target.getWriter(channelName, prefs)));
+        return new RecordingWriter(writerIndex);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void closeAll() {
+        actions.add(replay -> replay.target.closeAll());
+    }
+
+    /**
+     * Überträgt alle bisher aufgezeichneten Zugriffe in der Reihenfolge ihres Auftretens auf den übergebenen
+     * Ausgabeverwalter.
+     *
+     * @param target
+     *            Ausgabeverwalter, in dessen Ausgabekanäle die aufgezeichneten Ausgaben geschrieben werden sollen.
+     * @throws IOException
+     *             Falls beim Schreiben in die Ausgabekanäle ein Fehler auftritt.
+     */
+    public void replay(final GeneratorOutput target) throws IOException {
+        final Replay replay = new Replay(target);
+        for (final RecordedAction action : actions) {
+            action.apply(replay);
+        }
+    }
+
+    /**
+     * Zustand während der Übertragung der aufgezeichneten Zugriffe.
+     *
+     * @author Christoph Lembeck
+     */
+    private static final class Replay {
+
+        /**
+         * Ausgabeverwalter, auf den die Zugriffe übertragen werden.
+         */
+        private final GeneratorOutput target;
+
+        /**
+         * Writer des Ziels, indiziert in der Reihenfolge, in der sie aufgezeichnet wurden.
+         */
+        private final List<GeneratorWriter> writers = new ArrayList<>();
+
+        /**
+         * Erstellt den Zustand für die Übertragung auf den übergebenen Ausgabeverwalter.
+         *
+         * @param target
+         *            Ausgabeverwalter, auf den die Zugriffe übertragen werden.
+         */
+        Replay(final GeneratorOutput target) {
+            this.target = target;
+        }
+    }
+
+    /**
+     * Ein einzelner aufgezeichneter Zugriff.
+     *
+     * @author Christoph Lembeck
+     */
+    @FunctionalInterface
+    private interface RecordedAction {
+
+        /**
+         * Wiederholt den Zugriff auf dem Ziel der Übertragung.
+         *
+         * @param replay
+         *            Zustand der Übertragung.
+         * @throws IOException
+         *             Falls beim Schreiben in die Ausgabekanäle ein Fehler auftritt.
+         */
+        void apply(Replay replay) throws IOException;
+    }
+
+    /**
+     * Writer, der die Ausgaben in einen Kanal aufzeichnet.
+     *
+     * @author Christoph Lembeck
+     */
+    private final class RecordingWriter implements GeneratorWriter {
+
+        /**
+         * Index des Writers in der Reihenfolge der Anforderung.
+         */
+        private final int writerIndex;
+
+        /**
+         * Erstellt einen neuen Writer mit dem übergebenen Index.
+         *
+         * @param writerIndex
+         *            Index des Writers in der Reihenfolge der Anforderung.
+         */
+        RecordingWriter(final int writerIndex) {
+            this.writerIndex = writerIndex;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void append(final String text, final Executable<?> sourceExecutable, final int sourceLocation) {
+            actions.add(replay -> replay.writers.get(writerIndex).append(text, sourceExecutable, sourceLocation));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close() {
+            actions.add(replay -> replay.writers.get(writerIndex).close());
+        }
+    }
+}
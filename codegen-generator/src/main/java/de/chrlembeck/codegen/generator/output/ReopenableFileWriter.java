@@ -0,0 +1,314 @@
+package de.chrlembeck.codegen.generator.output;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Writer für eine Ausgabedatei, dessen Datei nur so lange geöffnet ist, wie sie benötigt wird. Verdrängt der
+ * {@link OpenFilePool} die Datei, weil zu viele Dateien gleichzeitig geöffnet sind, wird sie geschlossen und ihr Puffer
+ * freigegeben. Beim nächsten Schreiben öffnet der Writer die Datei dann transparent im Anhänge-Modus wieder.
+ *
+ * <p>
+ * Schreibt der Zeichensatz zu Beginn eine Byte-Order-Mark (z.B. UTF-16), wird diese beim Fortsetzen einer nicht leeren
+ * Datei unterdrückt, damit sie nicht mitten in der Datei erneut erscheint.
+ * </p>
+ *
+ * @author Christoph Lembeck
+ */
+class ReopenableFileWriter extends Writer {
+
+    /**
+     * Zieldatei der Ausgabe.
+     */
+    private final Path path;
+
+    /**
+     * Zeichensatz für die Kodierung der Ausgabe.
+     */
+    private final Charset charset;
+
+    /**
+     * Anzahl der Bytes, die der Zeichensatz als Byte-Order-Mark vor die Ausgabe schreibt.
+     */
+    private final int byteOrderMarkLength;
+
+    /**
+     * Pool, der die Anzahl der geöffneten Dateien begrenzt.
+     */
+    private final OpenFilePool pool;
+
+    /**
+     * Wird nach dem Schließen des Writers aufgerufen.
+     */
+    private final Runnable closeListener;
+
+    /**
+     * Sperre für die Zugriffe auf die geöffnete Datei. Der Pool verdrängt nur Dateien, deren Sperre frei ist.
+     */
+    private final ReentrantLock fileLock = new ReentrantLock();
+
+    /**
+     * Writer auf die geöffnete Datei oder null, solange die Datei geschlossen ist.
+     */
+    private Writer out;
+
+    /**
+     * Kennzeichnet, ob der Writer bereits geschlossen wurde.
+     */
+    private boolean closed;
+
+    /**
+     * Gibt an, ob die Datei beim nächsten Öffnen fortgesetzt statt neu angelegt wird.
+     */
+    private boolean append;
+
+    /**
+     * Nummer des letzten Schreibzugriffs für die Auswahl der zu verdrängenden Dateien.
+     */
+    private volatile long lastUse;
+
+    /**
+     * Erstellt einen neuen Writer. Die Datei wird erst beim ersten Schreiben oder über {@link #open()} geöffnet.
+     *
+     * @param path
+     *            Zieldatei der Ausgabe.
+     * @param charset
+     *            Zeichensatz für die Kodierung der Ausgabe.
+     * @param append
+     *            {@code true}, falls eine bestehende Datei fortgesetzt werden soll, {@code false}, falls sie beim
+     *            ersten Öffnen ersetzt wird.
+     * @param pool
+     *            Pool, der die Anzahl der geöffneten Dateien begrenzt.
+     * @param closeListener
+     *            Wird nach dem Schließen des Writers aufgerufen.
+     */
+    ReopenableFileWriter(final Path path, final Charset charset, final boolean append, final OpenFilePool pool,
+            final Runnable closeListener) {
+        this.path = Objects.requireNonNull(path);
+        this.charset = Objects.requireNonNull(charset);
+        this.byteOrderMarkLength = getByteOrderMarkLength(charset);
+        this.append = append;
+        this.pool = Objects.requireNonNull(pool);
+        this.closeListener = Objects.requireNonNull(closeListener);
+    }
+
+    /**
+     * Öffnet die Datei, falls sie noch nicht geöffnet ist.
+     *
+     * @throws IOException
+     *             Falls die Datei nicht geöffnet werden kann.
+     */
+    void open() throws IOException {
+        fileLock.lock();
+        try {
+            ensureOpen();
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    /**
+     * Öffnet die Datei bei Bedarf und vermerkt den Zugriff. Muss mit gesetzter Sperre aufgerufen werden.
+     *
+     * @return Writer auf die geöffnete Datei.
+     * @throws IOException
+     *             Falls die Datei nicht geöffnet werden kann.
+     */
+    private Writer ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Der Writer für die Datei " + path + " wurde bereits geschlossen.");
+        }
+        lastUse = pool.tick();
+        if (out == null) {
+            OutputStream stream = new BufferedOutputStream(Files.newOutputStream(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING));
+            if (append && byteOrderMarkLength > 0 && Files.size(path) > 0) {
+                stream = new SkippingOutputStream(stream, byteOrderMarkLength);
+            }
+            out = new OutputStreamWriter(stream, charset);
+            append = true;
+            pool.opened(this);
+        }
+        return out;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(final char[] cbuf, final int off, final int len) throws IOException {
+        fileLock.lock();
+        try {
+            ensureOpen().write(cbuf, off, len);
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(final String str, final int off, final int len) throws IOException {
+        fileLock.lock();
+        try {
+            ensureOpen().write(str, off, len);
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void flush() throws IOException {
+        fileLock.lock();
+        try {
+            if (out != null) {
+                out.flush();
+            }
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    /**
+     * Schließt die Datei endgültig, gibt die Puffer frei und benachrichtigt den Empfänger.
+     */
+    @Override
+    public void close() throws IOException {
+        fileLock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            release();
+        } finally {
+            fileLock.unlock();
+        }
+        closeListener.run();
+    }
+
+    /**
+     * Schließt die Datei auf Anforderung des Pools, sofern sie nicht gerade beschrieben wird.
+     *
+     * @return {@code true}, falls die Datei geschlossen wurde, {@code false}, falls sie gerade verwendet wird.
+     * @throws IOException
+     *             Falls beim Schließen der Datei ein Fehler auftritt.
+     */
+    boolean tryRelease() throws IOException {
+        if (!fileLock.tryLock()) {
+            return false;
+        }
+        try {
+            release();
+            return true;
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    /**
+     * Schließt die Datei, falls sie geöffnet ist. Muss mit gesetzter Sperre aufgerufen werden.
+     *
+     * @throws IOException
+     *             Falls beim Schließen der Datei ein Fehler auftritt.
+     */
+    private void release() throws IOException {
+        if (out != null) {
+            final Writer openWriter = out;
+            out = null;
+            pool.closed(this);
+            openWriter.close();
+        }
+    }
+
+    /**
+     * Gibt die Nummer des letzten Schreibzugriffs zurück.
+     *
+     * @return Nummer des letzten Zugriffs.
+     */
+    long getLastUse() {
+        return lastUse;
+    }
+
+    /**
+     * Ermittelt die Länge der Byte-Order-Mark, die der Zeichensatz vor die Ausgabe schreibt, aus dem Unterschied der
+     * Kodierungen von einem und zwei Zeichen.
+     *
+     * @param charset
+     *            Zu prüfender Zeichensatz.
+     * @return Länge der Byte-Order-Mark oder 0, falls der Zeichensatz keine schreibt.
+     */
+    private static int getByteOrderMarkLength(final Charset charset) {
+        if (!charset.canEncode()) {
+            return 0;
+        }
+        final int single = charset.encode("a").remaining();
+        final int twice = charset.encode("aa").remaining();
+        return Math.max(0, 2 * single - twice);
+    }
+
+    /**
+     * Stream, der die ersten Bytes der Ausgabe verwirft.
+     *
+     * @author Christoph Lembeck
+     */
+    private static final class SkippingOutputStream extends FilterOutputStream {
+
+        /**
+         * Anzahl der noch zu verwerfenden Bytes.
+         */
+        private int remainingSkip;
+
+        /**
+         * Erstellt einen neuen Stream.
+         *
+         * @param out
+         *            Stream, in den die übrigen Bytes geschrieben werden.
+         * @param skip
+         *            Anzahl der zu verwerfenden Bytes am Anfang der Ausgabe.
+         */
+        SkippingOutputStream(final OutputStream out, final int skip) {
+            super(out);
+            this.remainingSkip = skip;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void write(final int b) throws IOException {
+            if (remainingSkip > 0) {
+                remainingSkip--;
+            } else {
+                out.write(b);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            final int skipped = Math.min(remainingSkip, len);
+            remainingSkip -= skipped;
+            if (len > skipped) {
+                out.write(b, off + skipped, len - skipped);
+            }
+        }
+    }
+}
@@ -4,9 +4,6 @@ import java.io.IOException;
 import java.io.Writer;
 import java.util.Objects;
 
-import org.antlr.v4.runtime.ParserRuleContext;
-import org.antlr.v4.runtime.tree.TerminalNode;
-
 import de.chrlembeck.codegen.generator.lang.Executable;
 
 public class TextGeneratorWriter implements GeneratorWriter {
@@ -18,13 +15,7 @@ public class TextGeneratorWriter implements GeneratorWriter {
     }
 
     @Override
-    public void append(final String text, final Executable<?> sourceExecutable, final TerminalNode terminalNode)
-            throws IOException {
-        writer.append(text);
-    }
-
-    @Override
-    public void append(final String text, final Executable<?> sourceExecutable, final ParserRuleContext context)
+    public void append(final String text, final Executable<?> sourceExecutable, final int sourceLocation)
             throws IOException {
         writer.append(text);
     }
@@ -0,0 +1,321 @@
+package de.chrlembeck.codegen.generator.output;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Ausgabeverwalter, der die generierten Artefakte direkt als Einträge in ein ZIP- oder JAR-Archiv schreibt. Aus dem
+ * Kanal de/test/Foo.java wird so der Eintrag de/test/Foo.java im Archiv. Für die einzelnen Artefakte werden weder
+ * Verzeichnisse angelegt noch Dateien geöffnet, so dass bei sehr vielen kleinen Ausgaben die Kosten pro Datei
+ * entfallen.
+ *
+ * <p>
+ * Da ein Archiv immer nur einen Eintrag gleichzeitig aufnehmen kann, sammelt jeder Kanal seine Ausgabe zunächst im
+ * Speicher und wird beim Schließen seines Writers als vollständiger Eintrag in das Archiv geschrieben. Der Puffer wird
+ * danach sofort freigegeben. Das Archiv wird mit {@link #closeAll()} abgeschlossen. Die Einstellungen für das
+ * Überschreiben bestehender Dateien haben keine Wirkung, da jedes Archiv neu erstellt wird.
+ * </p>
+ *
+ * <p>
+ * Solange der Writer eines Kanals geöffnet ist, liefert {@link #getWriter(String, OutputPreferences)} für diesen Kanal
+ * denselben Writer. Wird ein Kanal erneut angefordert, dessen Eintrag bereits geschrieben wurde, wird eine
+ * {@link ZipException} geworfen, da ein Eintrag nachträglich nicht mehr erweitert werden kann. Ein {@link FileOutput}
+ * hängt die Ausgabe in diesem Fall dagegen an die bestehende Datei an. Die Writer der Kanäle erhalten beim Erzeugen
+ * keinen Pfad, da die Einträge nicht als eigene Dateien existieren.
+ * </p>
+ *
+ * <p>
+ * Sollen die Artefakte in ein bestehendes Archiv oder in ein anderes Dateisystem geschrieben werden, kann statt dessen
+ * ein {@link FileOutput} mit einem Pfad aus dem entsprechenden {@link java.nio.file.FileSystem} verwendet werden.
+ * </p>
+ *
+ * @param <T>
+ *            Typ der Writer, die für die Kanäle erzeugt werden.
+ * @author Christoph Lembeck
+ */
+public class ZipOutput<T extends GeneratorWriter> implements GeneratorOutput {
+
+    /**
+     * Der Logger für diese Klasse.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(ZipOutput.class);
+
+    /**
+     * Datenstrom des Archivs.
+     */
+    private final ZipOutputStream zipOut;
+
+    /**
+     * Erzeugt die Writer für die Kanäle aus den Writern auf die Puffer.
+     */
+    private final GeneratorWriterCreator<T> generatorWriterSupplier;
+
+    /**
+     * Zuordnung von Channel-Namen zu den Writern der noch nicht geschriebenen Kanäle.
+     */
+    private final Map<String, T> openWriters = new LinkedHashMap<>();
+
+    /**
+     * Namen der bereits in das Archiv geschriebenen Einträge.
+     */
+    private final Set<String> writtenEntries = new HashSet<>();
+
+    /**
+     * Kennzeichnet, ob das Archiv bereits abgeschlossen wurde.
+     */
+    private boolean finished;
+
+    /**
+     * Erstellt einen neuen Verwalter, der in das übergebene Archiv schreibt. Auf diese Weise kann z.B. auch ein
+     * {@link java.util.jar.JarOutputStream} mit einem eigenen Manifest verwendet werden.
+     *
+     * @param zipOut
+     *            Datenstrom des Archivs. Wird von {@link #closeAll()} geschlossen.
+     * @param generatorWriterSupplier
+     *            Erzeugt die Writer für die Kanäle. Als Pfad der Ausgabe wird dabei null übergeben.
+     */
+    public ZipOutput(final ZipOutputStream zipOut, final GeneratorWriterCreator<T> generatorWriterSupplier) {
+        this.zipOut = Objects.requireNonNull(zipOut);
+        this.generatorWriterSupplier = Objects.requireNonNull(generatorWriterSupplier);
+    }
+
+    /**
+     * Erstellt einen neuen Verwalter, der ein neues Archiv an der übergebenen Stelle anlegt. Eine bestehende Datei
+     * wird ersetzt.
+     *
+     * @param zipFile
+     *            Pfad des zu erstellenden Archivs.
+     * @param generatorWriterSupplier
+     *            Erzeugt die Writer für die Kanäle. Als Pfad der Ausgabe wird dabei null übergeben.
+     * @throws IOException
+     *             Falls das Archiv nicht angelegt werden kann.
+     */
+    public ZipOutput(final Path zipFile, final GeneratorWriterCreator<T> generatorWriterSupplier)
+            throws IOException {
+        this(new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(zipFile))), generatorWriterSupplier);
+    }
+
+    /**
+     * Erstellt einen Verwalter, der die Ausgaben als reinen Text in ein neues Archiv schreibt.
+     *
+     * @param zipFile
+     *            Pfad des zu erstellenden Archivs.
+     * @return Verwalter für die Ausgabe in das Archiv.
+     * @throws IOException
+     *             Falls das Archiv nicht angelegt werden kann.
+     */
+    public static ZipOutput<TextGeneratorWriter> simpleTextOutput(final Path zipFile) throws IOException {
+        return new ZipOutput<>(zipFile, (writer, channelName, path) -> new TextGeneratorWriter(writer));
+    }
+
+    /**
+     * Legt die Kompressionsstufe für die folgenden Einträge fest.
+     *
+     * @param level
+     *            Kompressionsstufe von 0 bis 9 oder {@link java.util.zip.Deflater#DEFAULT_COMPRESSION}.
+     */
+    public synchronized void setLevel(final int level) {
+        zipOut.setLevel(level);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized GeneratorWriter getWriter(final String channelName, final OutputPreferences prefs)
+            throws IOException {
+        T writer = openWriters.get(channelName);
+        if (writer == null) {
+            final String entryName = getEntryName(channelName);
+            if (finished) {
+                throw new IOException("Das Archiv wurde bereits abgeschlossen: " + entryName);
+            }
+            if (writtenEntries.contains(entryName)) {
+                throw new ZipException("Der Eintrag wurde bereits in das Archiv geschrieben: " + entryName);
+            }
+            final EntryWriter entryWriter = new EntryWriter(channelName, entryName,
+                    prefs.getCharsetForChannel(channelName));
+            writer = generatorWriterSupplier.createWriter(entryWriter, channelName, null);
+            openWriters.put(channelName, writer);
+        }
+        return writer;
+    }
+
+    /**
+     * Ermittelt aus dem Channel-Namen den Namen des Eintrags im Archiv.
+     *
+     * @param channelName
+     *            Name des Ausgabe-Channels.
+     * @return Name des Eintrags mit '/' als Trennzeichen und ohne führendes '/'.
+     */
+    private static String getEntryName(final String channelName) {
+        String entryName = channelName.replace('\\', '/');
+        while (entryName.startsWith("/")) {
+            entryName = entryName.substring(1);
+        }
+        return entryName;
+    }
+
+    /**
+     * Schreibt einen vollständigen Eintrag in das Archiv.
+     *
+     * @param channelName
+     *            Name des Kanals.
+     * @param entryName
+     *            Name des Eintrags.
+     * @param content
+     *            Inhalt des Eintrags.
+     * @throws IOException
+     *             Falls beim Schreiben ein Fehler auftritt.
+     */
+    private synchronized void writeEntry(final String channelName, final String entryName,
+            final ByteArrayOutputStream content) throws IOException {
+        openWriters.remove(channelName);
+        if (finished) {
+            throw new IOException("Das Archiv wurde bereits abgeschlossen: " + entryName);
+        }
+        writtenEntries.add(entryName);
+        zipOut.putNextEntry(new ZipEntry(entryName));
+        content.writeTo(zipOut);
+        zipOut.closeEntry();
+    }
+
+    /**
+     * Schreibt alle noch geöffneten Kanäle in das Archiv und schließt es ab.
+     *
+     * @throws IOException
+     *             Falls das Archiv nicht abgeschlossen werden kann.
+     */
+    @Override
+    public synchronized void closeAll() throws IOException {
+        if (finished) {
+            return;
+        }
+        final List<T> writers = new ArrayList<>(openWriters.values());
+        for (final T writer : writers) {
+            try {
+                writer.close();
+            } catch (final IOException e) {
+                LOGGER.error("Writer konnte nicht geschlossen werden.", e);
+            }
+        }
+        finished = true;
+        zipOut.close();
+    }
+
+    /**
+     * Writer, der die Ausgabe eines Kanals sammelt und beim Schließen als Eintrag in das Archiv schreibt.
+     *
+     * @author Christoph Lembeck
+     */
+    private final class EntryWriter extends Writer {
+
+        /**
+         * Name des Kanals.
+         */
+        private final String channelName;
+
+        /**
+         * Name des Eintrags im Archiv.
+         */
+        private final String entryName;
+
+        /**
+         * Puffer für den kodierten Inhalt des Eintrags.
+         */
+        private ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+        /**
+         * Writer, der die Zeichen in den Puffer kodiert, oder null, nachdem der Eintrag geschrieben wurde.
+         */
+        private Writer encoder;
+
+        /**
+         * Erstellt einen neuen Writer für einen Eintrag.
+         *
+         * @param channelName
+         *            Name des Kanals.
+         * @param entryName
+         *            Name des Eintrags im Archiv.
+         * @param charset
+         *            Zeichensatz für die Kodierung der Ausgabe.
+         */
+        EntryWriter(final String channelName, final String entryName, final Charset charset) {
+            this.channelName = channelName;
+            this.entryName = entryName;
+            this.encoder = new OutputStreamWriter(content, charset);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void write(final char[] cbuf, final int off, final int len) throws IOException {
+            encoder().write(cbuf, off, len);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void write(final String str, final int off, final int len) throws IOException {
+            encoder().write(str, off, len);
+        }
+
+        /**
+         * Funktionslos, da der Eintrag erst beim Schließen geschrieben wird.
+         */
+        @Override
+        public void flush() {
+            // der Eintrag wird erst beim Schließen vollständig geschrieben
+        }
+
+        /**
+         * Schreibt den gesammelten Inhalt als Eintrag in das Archiv und gibt den Puffer frei.
+         */
+        @Override
+        public void close() throws IOException {
+            if (encoder == null) {
+                return;
+            }
+            encoder.close();
+            encoder = null;
+            final ByteArrayOutputStream entryContent = content;
+            content = null;
+            writeEntry(channelName, entryName, entryContent);
+        }
+
+        /**
+         * Gibt den Writer für die Kodierung der Zeichen zurück.
+         *
+         * @return Writer auf den Puffer.
+         * @throws IOException
+         *             Falls der Eintrag bereits geschrieben wurde.
+         */
+        private Writer encoder() throws IOException {
+            if (encoder == null) {
+                throw new IOException("Der Eintrag wurde bereits in das Archiv geschrieben: " + entryName);
+            }
+            return encoder;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package de.chrlembeck.codegen.generator.visitor;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -27,6 +28,6 @@ public class ExpressionListVisitor extends CodeGenParserBaseVisitor<List<Express
     public List<Expression> visitExpressionList(final ExpressionListContext ctx) {
         final ExpressionVisitor eVisitor = new ExpressionVisitor();
         return ctx.expression().stream().map(expressionCtx -> expressionCtx.accept(eVisitor))
-                .collect(Collectors.toList());
+                .collect(Collectors.toCollection(ArrayList::new));
     }
 }
\ No newline at end of file
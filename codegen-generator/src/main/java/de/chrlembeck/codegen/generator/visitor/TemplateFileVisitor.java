@@ -10,7 +10,11 @@ import org.antlr.v4.runtime.tree.TerminalNode;
 import de.chrlembeck.codegen.generator.ParserException;
 import de.chrlembeck.codegen.generator.lang.AbstractTemplateMember;
 import de.chrlembeck.codegen.generator.lang.CommentStatement;
+import de.chrlembeck.codegen.generator.lang.SourceLocationCompactor;
 import de.chrlembeck.codegen.generator.lang.TemplateFile;
+import de.chrlembeck.codegen.generator.lang.TemplateOptimizer;
+import de.chrlembeck.codegen.generator.lang.TemplateTypeChecker;
+import de.chrlembeck.codegen.generator.lang.VariableResolver;
 import de.chrlembeck.codegen.grammar.CodeGenParser.CommentStatementContext;
 import de.chrlembeck.codegen.grammar.CodeGenParser.ImportStatementContext;
 import de.chrlembeck.codegen.grammar.CodeGenParser.TemplateFileContext;
@@ -74,6 +78,10 @@ public class TemplateFileVisitor extends CodeGenParserBaseVisitor<TemplateFile>
             }
         }
         final TemplateFile templateFile = new TemplateFile(resourceIdentifier, ctx, statements);
+        VariableResolver.resolve(templateFile);
+        TemplateOptimizer.optimize(templateFile);
+        TemplateTypeChecker.check(templateFile);
+        SourceLocationCompactor.compact(templateFile);
         return templateFile;
     }
 
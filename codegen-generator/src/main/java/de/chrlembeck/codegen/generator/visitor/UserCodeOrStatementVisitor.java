@@ -98,7 +98,7 @@ public class UserCodeOrStatementVisitor
         final List<UserCodeOrStatements<?>> ifBlock = ctx.userCodeOrStatements(0)
                 .accept(new UserCodeOrStatementsVisitor());
         final List<UserCodeOrStatements<?>> elseBlock = ctx.userCodeOrStatements().size() == 1 ? null
-                : ctx.userCodeOrStatements(0).accept(new UserCodeOrStatementsVisitor());
+                : ctx.userCodeOrStatements(1).accept(new UserCodeOrStatementsVisitor());
         return new IfStatement(ctx, expression, ifBlock, elseBlock);
     }
 
@@ -1,5 +1,6 @@
 package de.chrlembeck.codegen.generator.visitor;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -25,8 +26,11 @@ public class UserCodeOrStatementsVisitor extends CodeGenParserBaseVisitor<List<U
      */
     @Override
     public List<UserCodeOrStatements<?>> visitUserCodeOrStatements(final UserCodeOrStatementsContext ctx) {
+        if (ctx.children == null) {
+            return new ArrayList<>();
+        }
         final UserCodeOrStatementVisitor visitor = new UserCodeOrStatementVisitor();
         return ctx.children.stream().map(parseTree -> (UserCodeOrStatements<?>) parseTree.accept(visitor))
-                .collect(Collectors.toList());
+                .collect(Collectors.toCollection(ArrayList::new));
     }
 }
\ No newline at end of file
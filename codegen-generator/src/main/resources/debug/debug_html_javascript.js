@@ -33,4 +33,72 @@ function unhighlight() {
     	    lastHighlightedTemplateElement.style.backgroundColor = CSS_TEMPLATE_FILE_BACKGROUND;
     	}
     }
-}
\ No newline at end of file
+}
+
+/*
+ * Die Fragmente der generierten Ausgabe tragen im Attribut data-s nur die Nummer ihrer Quelle. Die Beschreibung der
+ * Quellen steht in den Tabellen TEMPLATES und SOURCES am Ende der Seite (pro Quelle: Template-Index, Zeile, Spalte,
+ * Start- und End-Position, erstes und letztes Token).
+ */
+var SOURCE_FIELDS = 7;
+
+function findFragment(event) {
+    var element = event.target;
+    while (element !== null && element.nodeType === 1) {
+        if (element.hasAttribute("data-s")) {
+            return element;
+        }
+        element = element.parentNode;
+    }
+    return null;
+}
+
+function sourceField(sourceId, field) {
+    return SOURCES[sourceId * SOURCE_FIELDS + field];
+}
+
+function describeSource(sourceId) {
+    var templateIdx = sourceField(sourceId, 0);
+    var start = sourceField(sourceId, 3);
+    var stop = sourceField(sourceId, 4);
+    var firstToken = sourceField(sourceId, 5);
+    var lastToken = sourceField(sourceId, 6);
+    var info = "TemplateURI=" + TEMPLATES[templateIdx] + " " + sourceField(sourceId, 1) + ":"
+            + sourceField(sourceId, 2) + " length=" + (stop - start + 1) + "(" + start + ".." + stop + ")";
+    if (firstToken === lastToken) {
+        return info + " token=" + firstToken;
+    }
+    var text = "";
+    for (var tokenIdx = firstToken; tokenIdx <= lastToken; tokenIdx++) {
+        var token = document.getElementById("token_" + templateIdx + "_" + tokenIdx);
+        if (token !== null) {
+            text += token.textContent;
+        }
+    }
+    return info + "[" + text + "] token=" + firstToken + "-" + lastToken;
+}
+
+document.addEventListener("click", function(event) {
+    var fragment = findFragment(event);
+    if (fragment !== null) {
+        var sourceId = Number(fragment.getAttribute("data-s"));
+        selectToken(sourceField(sourceId, 0), sourceField(sourceId, 5));
+    }
+});
+
+document.addEventListener("mouseover", function(event) {
+    var fragment = findFragment(event);
+    if (fragment !== null) {
+        var sourceId = Number(fragment.getAttribute("data-s"));
+        if (!fragment.hasAttribute("title")) {
+            fragment.setAttribute("title", describeSource(sourceId));
+        }
+        highlightToken(sourceField(sourceId, 0), sourceField(sourceId, 5));
+    }
+});
+
+document.addEventListener("mouseout", function(event) {
+    if (findFragment(event) !== null) {
+        unhighlight();
+    }
+});
@@ -0,0 +1,101 @@
+package de.chrlembeck.codegen.generator;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.chrlembeck.codegen.generator.output.BasicOutputPreferences;
+import de.chrlembeck.codegen.generator.output.BufferedOutput;
+
+/**
+ * Tests für den Aufruf von Templates über EXEC, auch über Imports aus anderen Template-Dateien.
+ *
+ * @author Christoph Lembeck
+ */
+public class ExecuteStatementTest {
+
+    /**
+     * Verzeichnis für die Template-Dateien.
+     */
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Aufrufe über Imports und innerhalb der Datei, wobei die Variablen des aufrufenden Templates erhalten bleiben.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testNestedCalls() throws Exception {
+        Files.writeString(tempDir.resolve("import.codegen"),
+                "«TEMPLATE item FOR java.lang.String»[«this»]«ENDTEMPLATE»"
+                        + "«TEMPLATE item FOR java.lang.Integer»#«this»«ENDTEMPLATE»",
+                StandardCharsets.UTF_8);
+        final Path main = tempDir.resolve("main.codegen");
+        Files.writeString(main, "«IMPORT lib AS import.codegen»"
+                + "«TEMPLATE root FOR java.util.List»«OUTPUT \"out1\"»"
+                + "«FOREACH list FROM this»«EXEC row FOR list»«list.size()»;«ENDFOREACH»"
+                + "«ENDOUTPUT»«ENDTEMPLATE»"
+                + "«TEMPLATE row FOR java.util.List»«FOREACH x FROM this»«EXEC lib.item FOR x»«x»«ENDFOREACH»"
+                + "«ENDTEMPLATE»",
+                StandardCharsets.UTF_8);
+        final List<List<Object>> model = Arrays.asList(Arrays.asList("a", Integer.valueOf(1)),
+                Arrays.asList(Integer.valueOf(2), "b", "c"));
+        for (final ExecutionMode executionMode : ExecutionMode.values()) {
+            // zwei Durchläufe mit jeweils eigenem Resolver verknüpfen die Aufrufstellen neu
+            for (int run = 0; run < 2; run++) {
+                Assertions.assertEquals("[a]a#112;#22[b]b[c]c3;",
+                        generate(main.toUri(), model, executionMode), executionMode.name());
+            }
+        }
+    }
+
+    /**
+     * Fehlt ein passendes Template, wird wie bisher ein Fehler gemeldet.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testMissingTemplate() throws Exception {
+        final Path main = tempDir.resolve("missing.codegen");
+        Files.writeString(main, "«TEMPLATE root FOR java.util.List»«OUTPUT \"out1\"»"
+                + "«EXEC item FOREACH this»«ENDOUTPUT»«ENDTEMPLATE»"
+                + "«TEMPLATE item FOR java.lang.String»«this»«ENDTEMPLATE»",
+                StandardCharsets.UTF_8);
+        final RuntimeException exception = Assertions.assertThrows(RuntimeException.class,
+                () -> generate(main.toUri(), Arrays.asList("a", Integer.valueOf(1)), ExecutionMode.INTERPRETED));
+        Assertions.assertTrue(exception.getMessage().contains("java.lang.Integer"), exception.getMessage());
+    }
+
+    /**
+     * Führt das Template root mit einem neuen Resolver aus.
+     *
+     * @param template
+     *            Identifier der Template-Datei.
+     * @param model
+     *            Modell für die Generierung.
+     * @param executionMode
+     *            Art der Ausführung der Templates.
+     * @return Inhalt des Ausgabekanals out1.
+     * @throws Exception
+     *             Bei einem Problem bei der Generierung.
+     */
+    private static String generate(final URI template, final Object model, final ExecutionMode executionMode)
+            throws Exception {
+        final BufferedOutput output = new BufferedOutput();
+        final Generator generator = new Generator(new SimpleTemplateResolver(template, new TemplateCache()), output,
+                new BasicOutputPreferences());
+        generator.setExecutionMode(executionMode);
+        generator.generate(template, "root", model);
+        return output.getContent("out1");
+    }
+}
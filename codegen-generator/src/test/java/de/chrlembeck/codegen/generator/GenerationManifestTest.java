@@ -0,0 +1,168 @@
+package de.chrlembeck.codegen.generator;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.chrlembeck.codegen.generator.output.BasicOutputPreferences;
+import de.chrlembeck.codegen.generator.output.FileOutput;
+import de.chrlembeck.codegen.generator.output.OverwritePreferences;
+import de.chrlembeck.codegen.generator.output.TextGeneratorWriter;
+
+/**
+ * Tests für die inkrementelle Generierung mit Hilfe des {@link GenerationManifest}s.
+ *
+ * @author Christoph Lembeck
+ */
+public class GenerationManifestTest {
+
+    /**
+     * Template-Datei, die pro Element des Modells eine Datei erzeugt.
+     */
+    private static final String TEMPLATE = "«TEMPLATE root FOR java.util.List»"
+            + "«FOREACH item FROM this»«OUTPUT item + \".txt\"»Inhalt «item»«ENDOUTPUT»«ENDFOREACH»"
+            + "«ENDTEMPLATE»";
+
+    /**
+     * Zeitpunkt, auf den die Änderungszeitpunkte der erzeugten Dateien zurückgesetzt werden.
+     */
+    private static final FileTime OLD_TIME = FileTime.fromMillis(1_000_000_000_000L);
+
+    /**
+     * Verzeichnis für Templates, Ausgaben und Manifest.
+     */
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Im inkrementellen Modus werden nur Dateien geschrieben, deren Inhalt sich geändert hat.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testOnlyChangedFilesAreWritten() throws Exception {
+        final URI template = writeTemplate(TEMPLATE);
+        final Path outputDir = tempDir.resolve("out");
+        generate(template, outputDir, Arrays.asList("a", "b"));
+        Files.setLastModifiedTime(outputDir.resolve("a.txt"), OLD_TIME);
+        Files.setLastModifiedTime(outputDir.resolve("b.txt"), OLD_TIME);
+        Files.writeString(outputDir.resolve("b.txt"), "manuell geändert", StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(outputDir.resolve("b.txt"), OLD_TIME);
+
+        final FileOutput<TextGeneratorWriter> output = generate(template, outputDir, Arrays.asList("a", "b", "c"));
+        Assertions.assertEquals(OLD_TIME, Files.getLastModifiedTime(outputDir.resolve("a.txt")));
+        Assertions.assertNotEquals(OLD_TIME, Files.getLastModifiedTime(outputDir.resolve("b.txt")));
+        Assertions.assertEquals("Inhalt b", Files.readString(outputDir.resolve("b.txt"), StandardCharsets.UTF_8));
+        Assertions.assertEquals("Inhalt c", Files.readString(outputDir.resolve("c.txt"), StandardCharsets.UTF_8));
+        Assertions.assertEquals(3, output.getContentHashes().size());
+    }
+
+    /**
+     * Das Manifest erkennt Änderungen an Konfiguration, Modell, Templates und erzeugten Dateien.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testUpToDate() throws Exception {
+        final URI template = writeTemplate(TEMPLATE);
+        final Path outputDir = tempDir.resolve("out");
+        final Path manifestFile = tempDir.resolve("cache").resolve("manifest.txt");
+        final List<String> model = new ArrayList<>(Arrays.asList("a", "b"));
+        final String fingerprint = GenerationManifest.fingerprint(model);
+        Assertions.assertNull(GenerationManifest.read(manifestFile));
+
+        final GenerationManifest manifest = new GenerationManifest("config", fingerprint);
+        final FileOutput<TextGeneratorWriter> output = generate(template, outputDir, model);
+        manifest.addTemplate(template);
+        for (final Entry<Path, byte[]> entry : output.getContentHashes().entrySet()) {
+            manifest.addOutput(entry.getKey(), entry.getValue());
+        }
+        manifest.write(manifestFile);
+
+        final GenerationManifest stored = GenerationManifest.read(manifestFile);
+        Assertions.assertEquals(manifest.getTemplates(), stored.getTemplates());
+        Assertions.assertEquals(manifest.getOutputs(), stored.getOutputs());
+        Assertions.assertTrue(stored.isUpToDate(new GenerationManifest("config", fingerprint)));
+        Assertions.assertFalse(stored.isUpToDate(new GenerationManifest("other config", fingerprint)));
+
+        model.add("c");
+        Assertions.assertFalse(stored.isUpToDate(new GenerationManifest("config",
+                GenerationManifest.fingerprint(model))));
+        Assertions.assertFalse(stored.isUpToDate(new GenerationManifest("config", null)));
+
+        // gleicher Inhalt mit neuem Zeitstempel gilt als unverändert, anderer Inhalt nicht
+        final Path outputFile = outputDir.resolve("a.txt");
+        Files.setLastModifiedTime(outputFile, OLD_TIME);
+        Assertions.assertTrue(stored.isUpToDate(new GenerationManifest("config", fingerprint)));
+        Files.writeString(outputFile, "Inhalt x", StandardCharsets.UTF_8);
+        Assertions.assertFalse(stored.isUpToDate(new GenerationManifest("config", fingerprint)));
+        Files.writeString(outputFile, "Inhalt a", StandardCharsets.UTF_8);
+        Assertions.assertTrue(stored.isUpToDate(new GenerationManifest("config", fingerprint)));
+
+        writeTemplate(TEMPLATE.replace("Inhalt", "Text"));
+        Assertions.assertFalse(stored.isUpToDate(new GenerationManifest("config", fingerprint)));
+    }
+
+    /**
+     * Für nicht serialisierbare Modelle kann kein Fingerabdruck ermittelt werden.
+     */
+    @Test
+    public void testFingerprintOfUnserializableModel() {
+        Assertions.assertNull(GenerationManifest.fingerprint(Arrays.asList(new Object())));
+        Assertions.assertEquals(GenerationManifest.fingerprint(new ArrayList<>(Arrays.asList("a"))),
+                GenerationManifest.fingerprint(new ArrayList<>(Arrays.asList("a"))));
+    }
+
+    /**
+     * Schreibt die Template-Datei in das temporäre Verzeichnis.
+     *
+     * @param content
+     *            Inhalt der Template-Datei.
+     * @return Identifier der Template-Datei.
+     * @throws Exception
+     *             Bei einem Problem beim Schreiben.
+     */
+    private URI writeTemplate(final String content) throws Exception {
+        final Path path = tempDir.resolve("template.codegen");
+        Files.writeString(path, content, StandardCharsets.UTF_8);
+        return path.toUri();
+    }
+
+    /**
+     * Führt die Generierung im inkrementellen Modus aus.
+     *
+     * @param template
+     *            Identifier der Template-Datei.
+     * @param outputDir
+     *            Verzeichnis für die erzeugten Dateien.
+     * @param model
+     *            Modell für die Generierung.
+     * @return Verwendeter Ausgabeverwalter.
+     * @throws Exception
+     *             Bei einem Problem bei der Generierung.
+     */
+    private static FileOutput<TextGeneratorWriter> generate(final URI template, final Path outputDir,
+            final List<String> model) throws Exception {
+        final FileOutput<TextGeneratorWriter> output = FileOutput.simpleTextOutput(outputDir);
+        output.setWriteOnlyChanged(true);
+        final BasicOutputPreferences preferences = new BasicOutputPreferences();
+        preferences.setDefaultOverwritePreferences(OverwritePreferences.OVERWRITE);
+        final TemplateCache cache = new TemplateCache();
+        new Generator(new SimpleTemplateResolver(template, cache), output, preferences).generate(template, "root",
+                model);
+        output.closeAll();
+        return output;
+    }
+}
@@ -0,0 +1,160 @@
+package de.chrlembeck.codegen.generator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.chrlembeck.codegen.generator.lang.TemplateFile;
+import de.chrlembeck.codegen.generator.output.BasicOutputPreferences;
+import de.chrlembeck.codegen.generator.output.BufferedOutput;
+
+/**
+ * Tests für die parallele Ausführung der OUTPUT-Blöcke. Die Ausgaben müssen in allen Fällen identisch zu denen einer
+ * sequentiellen Ausführung sein.
+ *
+ * @author Christoph Lembeck
+ */
+public class ParallelGeneratorTest {
+
+    /**
+     * Template-Datei, die pro Element des Modells einen eigenen Ausgabekanal beschreibt und zusätzlich alle Elemente
+     * in einem gemeinsamen Kanal sammelt.
+     */
+    private static final String TEMPLATE = "«TEMPLATE root FOR java.util.List»" +
+            "«OUTPUT \"all\"»start;«ENDOUTPUT»" +
+            "«EXEC item FOREACH this»" +
+            "«FOREACH i FROM this COUNTER c»«OUTPUT \"counter/\" + i»«c.getIndex()»«ENDOUTPUT»«ENDFOREACH»" +
+            "«OUTPUT \"all\"»end«ENDOUTPUT»" +
+            "«ENDTEMPLATE»" +
+            "«TEMPLATE item FOR java.lang.String»" +
+            "«OUTPUT \"item/\" + this»«this»:«this.charAt(1)»:«this.length()»«ENDOUTPUT»" +
+            "«OUTPUT \"all\"»«this»;«ENDOUTPUT»" +
+            "«ENDTEMPLATE»";
+
+    /**
+     * Vergleicht die Ausgaben der parallelen Ausführung mit denen der sequentiellen Ausführung.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testParallelOutputIsIdentical() throws Exception {
+        final List<String> model = createModel(500);
+        final ExecutorService fixedThreadPool = Executors.newFixedThreadPool(4);
+        try {
+            for (final ExecutionMode executionMode : ExecutionMode.values()) {
+                final BufferedOutput expected = generate(model, executionMode, null);
+                Assertions.assertEquals(1001, expected.getChannelNames().size());
+                assertSameContent(expected, generate(model, executionMode, ForkJoinPool.commonPool()));
+                assertSameContent(expected, generate(model, executionMode, fixedThreadPool));
+            }
+        } finally {
+            fixedThreadPool.shutdown();
+        }
+    }
+
+    /**
+     * Ein Fehler in einem parallel ausgeführten Block muss an den Aufrufer weitergegeben werden. Die bis zu dem Fehler
+     * geschriebenen Ausgaben müssen dabei denen der sequentiellen Ausführung entsprechen.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testFailureInParallelOutput() throws Exception {
+        final List<String> model = createModel(100);
+        model.set(50, "x");
+        for (final ExecutionMode executionMode : ExecutionMode.values()) {
+            final BufferedOutput expected = new BufferedOutput();
+            Assertions.assertThrows(StringIndexOutOfBoundsException.class,
+                    () -> generate(model, executionMode, null, expected));
+            final BufferedOutput actual = new BufferedOutput();
+            Assertions.assertThrows(StringIndexOutOfBoundsException.class,
+                    () -> generate(model, executionMode, ForkJoinPool.commonPool(), actual));
+            assertSameContent(expected, actual);
+        }
+    }
+
+    /**
+     * Erstellt ein Modell aus der übergebenen Anzahl unterschiedlicher Zeichenketten.
+     *
+     * @param size
+     *            Anzahl der Elemente.
+     * @return Liste mit Zeichenketten.
+     */
+    private static List<String> createModel(final int size) {
+        final List<String> model = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            model.add("e" + i);
+        }
+        return model;
+    }
+
+    /**
+     * Führt das Template mit den übergebenen Einstellungen aus.
+     *
+     * @param model
+     *            Modell für die Generierung.
+     * @param executionMode
+     *            Ausführungsmodus des Generators.
+     * @param executor
+     *            Executor für die parallele Ausführung oder null für eine sequentielle Ausführung.
+     * @return Ausgaben des Generators.
+     * @throws IOException
+     *             Bei einem Problem bei der Ausführung.
+     */
+    private static BufferedOutput generate(final List<String> model, final ExecutionMode executionMode,
+            final Executor executor) throws IOException {
+        final BufferedOutput out = new BufferedOutput();
+        generate(model, executionMode, executor, out);
+        return out;
+    }
+
+    /**
+     * Führt das Template mit den übergebenen Einstellungen aus und schreibt die Ausgaben in den übergebenen
+     * Ausgabeverwalter.
+     *
+     * @param model
+     *            Modell für die Generierung.
+     * @param executionMode
+     *            Ausführungsmodus des Generators.
+     * @param executor
+     *            Executor für die parallele Ausführung oder null für eine sequentielle Ausführung.
+     * @param out
+     *            Ausgabeverwalter für die Ausgaben des Generators.
+     * @throws IOException
+     *             Bei einem Problem bei der Ausführung.
+     */
+    private static void generate(final List<String> model, final ExecutionMode executionMode,
+            final Executor executor, final BufferedOutput out) throws IOException {
+        final TemplateFile templateFile = SimpleGeneratorTest.parse(TEMPLATE);
+        final Generator generator = new Generator(new SimpleTemplateResolver(templateFile), out,
+                new BasicOutputPreferences());
+        generator.setExecutionMode(executionMode);
+        generator.setOutputExecutor(executor);
+        generator.generate(templateFile, "root", model);
+    }
+
+    /**
+     * Prüft, ob beide Ausgabeverwalter die gleichen Kanäle mit den gleichen Inhalten enthalten.
+     *
+     * @param expected
+     *            Erwartete Ausgaben.
+     * @param actual
+     *            Tatsächliche Ausgaben.
+     */
+    private static void assertSameContent(final BufferedOutput expected, final BufferedOutput actual) {
+        Assertions.assertEquals(new ArrayList<>(expected.getChannelNames()),
+                new ArrayList<>(actual.getChannelNames()));
+        for (final String channelName : expected.getChannelNames()) {
+            Assertions.assertEquals(expected.getContent(channelName), actual.getContent(channelName), channelName);
+        }
+    }
+}
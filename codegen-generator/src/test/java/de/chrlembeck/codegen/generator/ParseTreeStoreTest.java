@@ -0,0 +1,243 @@
+package de.chrlembeck.codegen.generator;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.List;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.chrlembeck.codegen.generator.lang.TemplateFile;
+import de.chrlembeck.codegen.generator.output.BasicOutputPreferences;
+import de.chrlembeck.codegen.generator.output.BufferedOutput;
+import de.chrlembeck.codegen.grammar.CodeGenLexer;
+import de.chrlembeck.codegen.grammar.CodeGenParser;
+import de.chrlembeck.codegen.grammar.CodeGenParser.TemplateFileContext;
+
+/**
+ * Tests für den persistenten Speicher der Syntaxbäume.
+ *
+ * @author Christoph Lembeck
+ */
+public class ParseTreeStoreTest {
+
+    /**
+     * Template-Datei mit möglichst vielen unterschiedlichen Sprachelementen. Der Aufruf von {@code unknown} in der
+     * letzten Zeile führt zu einem Fehler an einer bekannten Position.
+     */
+    private static final String TEMPLATE = "«TEMPLATE root FOR java.util.List»\n"
+            + "«OUTPUT \"out1\"»«FOREACH i FROM this COUNTER c SEPARATOR \", \"»«c.getIndex()»«i»«ENDFOREACH»;"
+            + "«EXEC item FOREACH this SEPARATOR \"-\"»;«this.size() * 2 + 1»;«this instanceof java.util.List»"
+            + "«IF this.isEmpty()»leer«ENDIF»«IF this.size() > 2»voll«ENDIF»«ENDOUTPUT»\n"
+            + "«ENDTEMPLATE»\n"
+            + "«TEMPLATE item FOR java.lang.String»«this.toUpperCase()»«ENDTEMPLATE»\n"
+            + "«TEMPLATE broken FOR java.lang.Object»\n"
+            + "«OUTPUT \"out1\"»  «unknown»«ENDOUTPUT»«ENDTEMPLATE»";
+
+    /**
+     * Verzeichnis für die Template-Datei und den Speicher.
+     */
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Ein geschriebener und wieder gelesener Syntaxbaum muss in Struktur und Token-Positionen mit dem Original
+     * übereinstimmen.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testRoundTrip() throws Exception {
+        final CodeGenParser parser = new CodeGenParser(
+                new CommonTokenStream(new CodeGenLexer(CharStreams.fromString(TEMPLATE))));
+        final TemplateFileContext original = parser.templateFile();
+        final ParseTreeStore store = new ParseTreeStore(tempDir.resolve("cache"));
+        final byte[] hash = new byte[] { 1, 2, 3 };
+        Assertions.assertNull(store.load(hash));
+        store.store(hash, original);
+        final TemplateFileContext loaded = store.load(hash);
+        Assertions.assertNotNull(loaded);
+        Assertions.assertEquals(original.toStringTree(parser), loaded.toStringTree(parser));
+        assertSameTokens(original, loaded);
+    }
+
+    /**
+     * Auch Texte mit mehr als 65535 Bytes, wie z.B. lange Literale, müssen gespeichert und wieder gelesen werden können.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testLargeLiteral() throws Exception {
+        final String literal = "ä".repeat(40_000);
+        final String content = "«TEMPLATE root FOR java.lang.Object»«OUTPUT \"out1\"»" + literal
+                + "«ENDOUTPUT»«ENDTEMPLATE»";
+        final CodeGenParser parser = new CodeGenParser(
+                new CommonTokenStream(new CodeGenLexer(CharStreams.fromString(content))));
+        final TemplateFileContext original = parser.templateFile();
+        final ParseTreeStore store = new ParseTreeStore(tempDir.resolve("cache"));
+        final byte[] hash = new byte[] { 4, 5, 6 };
+        store.store(hash, original);
+        final TemplateFileContext loaded = store.load(hash);
+        Assertions.assertNotNull(loaded);
+        assertSameTokens(original, loaded);
+        Assertions.assertTrue(loaded.getText().contains(literal));
+    }
+
+    /**
+     * Ein Template aus dem Speicher muss die gleichen Ausgaben und bei Fehlern die gleichen Positionen liefern wie ein
+     * frisch geparstes Template.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testGenerateFromStore() throws Exception {
+        final Path templatePath = tempDir.resolve("test.codegen");
+        Files.writeString(templatePath, TEMPLATE, StandardCharsets.UTF_8);
+        final URI uri = templatePath.toUri();
+        final ParseTreeStore store = new ParseTreeStore(tempDir.resolve("cache"));
+
+        final TemplateFile parsed = new TemplateCache().getOrLoadTemplateFile(uri, null, store);
+        final TemplateFile loaded = new TemplateCache().getOrLoadTemplateFile(uri, null, store);
+        Assertions.assertNotSame(parsed, loaded);
+        try (var files = Files.list(store.getDirectory())) {
+            Assertions.assertEquals(1, files.count());
+        }
+
+        final List<String> model = Arrays.asList("a", "b", "c");
+        for (final ExecutionMode executionMode : ExecutionMode.values()) {
+            Assertions.assertEquals("0a, 1b, 2c;A-B-C;7;truevoll",
+                    generate(parsed, "root", model, executionMode).getContent("out1"));
+            Assertions.assertEquals(generate(parsed, "root", model, executionMode).getContent("out1"),
+                    generate(loaded, "root", model, executionMode).getContent("out1"));
+            final GeneratorException expected = Assertions.assertThrows(GeneratorException.class,
+                    () -> generate(parsed, "broken", model, executionMode));
+            final GeneratorException actual = Assertions.assertThrows(GeneratorException.class,
+                    () -> generate(loaded, "broken", model, executionMode));
+            Assertions.assertEquals(6, expected.getStartPosition().getLine());
+            Assertions.assertEquals(19, expected.getStartPosition().getColumn());
+            Assertions.assertEquals(expected.getStartPosition().getLine(), actual.getStartPosition().getLine());
+            Assertions.assertEquals(expected.getStartPosition().getColumn(), actual.getStartPosition().getColumn());
+            Assertions.assertEquals(expected.getMessage(), actual.getMessage());
+        }
+    }
+
+    /**
+     * Ist ein Syntaxbaum zur Prüfsumme einer Datei im Speicher vorhanden, wird die Datei nicht erneut geparst.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testStoredTreeIsUsed() throws Exception {
+        final Path templatePath = tempDir.resolve("other.codegen");
+        final String content = "«TEMPLATE root FOR java.lang.Object»«OUTPUT \"out1\"»original«ENDOUTPUT»«ENDTEMPLATE»";
+        Files.writeString(templatePath, content, StandardCharsets.UTF_8);
+        final ParseTreeStore store = new ParseTreeStore(tempDir.resolve("cache"));
+        final CodeGenParser parser = new CodeGenParser(new CommonTokenStream(
+                new CodeGenLexer(CharStreams.fromString(content.replace("original", "gespeichert")))));
+        store.store(MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8)),
+                parser.templateFile());
+
+        final TemplateFile templateFile = new TemplateCache().getOrLoadTemplateFile(templatePath.toUri(), null, store);
+        Assertions.assertEquals("gespeichert",
+                generate(templateFile, "root", "", ExecutionMode.INTERPRETED).getContent("out1"));
+    }
+
+    /**
+     * Beschädigte Dateien im Speicher werden ignoriert.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testCorruptFileIsIgnored() throws Exception {
+        final ParseTreeStore store = new ParseTreeStore(tempDir);
+        final byte[] hash = new byte[] { 42 };
+        Files.write(tempDir.resolve("2a.ast"), new byte[] { 0x43, 0x47, 0x41, 0x53, 0, 1 });
+        Assertions.assertNull(store.load(hash));
+    }
+
+    /**
+     * Vergleicht die Tokens zweier Syntaxbäume einschließlich ihrer Positionen.
+     *
+     * @param expected
+     *            Erwarteter Knoten.
+     * @param actual
+     *            Tatsächlicher Knoten.
+     */
+    private static void assertSameTokens(final ParseTree expected, final ParseTree actual) {
+        Assertions.assertEquals(expected.getChildCount(), actual.getChildCount());
+        Assertions.assertSame(expected.getClass(), actual.getClass());
+        if (expected instanceof TerminalNode) {
+            final Token expectedToken = ((TerminalNode) expected).getSymbol();
+            final Token actualToken = ((TerminalNode) actual).getSymbol();
+            Assertions.assertEquals(expectedToken.getType(), actualToken.getType());
+            Assertions.assertEquals(expectedToken.getText(), actualToken.getText());
+            Assertions.assertEquals(expectedToken.getLine(), actualToken.getLine());
+            Assertions.assertEquals(expectedToken.getCharPositionInLine(), actualToken.getCharPositionInLine());
+            Assertions.assertEquals(expectedToken.getStartIndex(), actualToken.getStartIndex());
+            Assertions.assertEquals(expectedToken.getStopIndex(), actualToken.getStopIndex());
+            Assertions.assertEquals(expectedToken.getTokenIndex(), actualToken.getTokenIndex());
+            Assertions.assertSame(actual, actual.getParent().getChild(indexOf(actual)));
+        }
+        for (int i = 0; i < expected.getChildCount(); i++) {
+            Assertions.assertSame(actual, actual.getChild(i).getParent());
+            assertSameTokens(expected.getChild(i), actual.getChild(i));
+        }
+    }
+
+    /**
+     * Ermittelt die Position eines Knotens innerhalb seines Elternknotens.
+     *
+     * @param node
+     *            Knoten mit Elternknoten.
+     * @return Position des Knotens.
+     */
+    private static int indexOf(final ParseTree node) {
+        final ParseTree parent = node.getParent();
+        for (int i = 0; i < parent.getChildCount(); i++) {
+            if (parent.getChild(i) == node) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Führt ein Template der übergebenen Template-Datei aus.
+     *
+     * @param templateFile
+     *            Template-Datei.
+     * @param templateName
+     *            Name des auszuführenden Templates.
+     * @param model
+     *            Modell für die Generierung.
+     * @param executionMode
+     *            Ausführungsmodus des Generators.
+     * @return Ausgaben des Generators.
+     * @throws Exception
+     *             Bei einem Problem bei der Ausführung.
+     */
+    private static BufferedOutput generate(final TemplateFile templateFile, final String templateName,
+            final Object model, final ExecutionMode executionMode) throws Exception {
+        final BufferedOutput out = new BufferedOutput();
+        final Generator generator = new Generator(new SimpleTemplateResolver(templateFile), out,
+                new BasicOutputPreferences());
+        generator.setExecutionMode(executionMode);
+        generator.generate(templateFile, templateName, model);
+        return out;
+    }
+}
@@ -118,6 +118,34 @@ public class SimpleGeneratorTest {
                 "«ENDTEMPLATE»", Arrays.asList("a", "b", "c"));
     }
 
+    /**
+     * IF mit ELSE-Block, auch mit leeren Blöcken.
+     * 
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testIfElse() throws Exception {
+        checkOut1ForRoot("voll;leer;", "«TEMPLATE root FOR java.lang.String»" +
+                "«OUTPUT \"out1\"»«IF this.isEmpty()»leer«ELSE»voll«ENDIF»;" +
+                "«IF this.isEmpty()»«ELSE»leer«ENDIF»;«IF this.isEmpty()»x«ELSE»«ENDIF»«ENDOUTPUT»" +
+                "«ENDTEMPLATE»", "abc");
+    }
+
+    /**
+     * Berechnungen und Vergleiche mit der Zählvariablen.
+     * 
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testForEachCounterArithmetic() throws Exception {
+        checkOut1ForRoot("1a:false;3b:true;5c:false;", "«TEMPLATE root FOR java.util.List»" +
+                "«OUTPUT \"out1\"»«FOREACH i FROM this COUNTER c»«c.getIndex() * 2 + 1»«i»:" +
+                "«c.getIndex() % 2 != 0 && c.getIndex() < 2 + 1L»;«ENDFOREACH»«ENDOUTPUT»«ENDTEMPLATE»",
+                Arrays.asList("a", "b", "c"));
+    }
+
     /**
      * FOREACH mit Trennzeichen und Zähler.
      * 
@@ -131,6 +159,60 @@ public class SimpleGeneratorTest {
                 "«ENDFOREACH»«ENDOUTPUT»«ENDTEMPLATE»", Arrays.asList("a", "b", "c"));
     }
 
+    /**
+     * FOREACH über Arrays von Objekten und primitiven Typen. Die Elemente primitiver Arrays behalten ihren primitiven
+     * Typ.
+     * 
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testForEachArray() throws Exception {
+        checkOut1ForRoot("2,4,600", "«TEMPLATE root FOR java.lang.Object»" +
+                "«OUTPUT \"out1\"»«FOREACH i FROM this SEPARATOR \",\"»«i * 2»«ENDFOREACH»«ENDOUTPUT»" +
+                "«ENDTEMPLATE»", new int[] { 1, 2, 300 });
+        checkOut1ForRoot("0a, 1b, 2c", "«TEMPLATE root FOR java.lang.String»" +
+                "«OUTPUT \"out1\"»«FOREACH i FROM this.split(\";\") COUNTER c SEPARATOR \", \"»«c.getIndex()»«i»" +
+                "«ENDFOREACH»«ENDOUTPUT»«ENDTEMPLATE»", "a;b;c");
+        checkOut1ForRoot("a:false;b:false;c:true;", "«TEMPLATE root FOR java.lang.String»" +
+                "«OUTPUT \"out1\"»«FOREACH i FROM this.toCharArray() COUNTER c»«i»:«c.isLast()»;" +
+                "«ENDFOREACH»«ENDOUTPUT»«ENDTEMPLATE»", "abc");
+    }
+
+    /**
+     * FOREACH über Streams, Iteratoren und Spliteratoren, die schrittweise verarbeitet werden.
+     * 
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testForEachStreamIteratorAndSpliterator() throws Exception {
+        for (final String source : Arrays.asList("stream()", "iterator()", "spliterator()")) {
+            checkOut1ForRoot("0a, 1b, 2c", "«TEMPLATE root FOR java.util.List»" +
+                    "«OUTPUT \"out1\"»«FOREACH i FROM this." + source + " COUNTER c SEPARATOR \", \"»" +
+                    "«c.getIndex()»«i»«ENDFOREACH»«ENDOUTPUT»«ENDTEMPLATE»", Arrays.asList("a", "b", "c"));
+        }
+        checkOut1ForRoot("98,99,100", "«TEMPLATE root FOR java.lang.String»" +
+                "«OUTPUT \"out1\"»«FOREACH i FROM this.chars() SEPARATOR \",\"»«i + 1»«ENDFOREACH»«ENDOUTPUT»" +
+                "«ENDTEMPLATE»", "abc");
+        checkOut1ForRoot("", "«TEMPLATE root FOR java.util.List»" +
+                "«OUTPUT \"out1\"»«FOREACH i FROM this.stream() SEPARATOR \",\"»«i»«ENDFOREACH»«ENDOUTPUT»" +
+                "«ENDTEMPLATE»", Arrays.asList());
+    }
+
+    /**
+     * FOREACH über eine Liste mit null-Elementen durchläuft alle Elemente.
+     * 
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testForEachWithNullElement() throws Exception {
+        checkOut1ForRoot("a,null,c", "«TEMPLATE root FOR java.util.List»" +
+                "«OUTPUT \"out1\"»«FOREACH i FROM this SEPARATOR \",\"»«i»«ENDFOREACH»«ENDOUTPUT»" +
+                "«ENDTEMPLATE»", Arrays.asList("a", null, "c"));
+    }
+
     /**
      * Einige Primary-Literale.
      * 
@@ -462,6 +544,91 @@ public class SimpleGeneratorTest {
                 "«ENDTEMPLATE»", "");
     }
 
+    /**
+     * Attributzugriff über Getter nach JavaBean-Konvention.
+     * 
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testBeanGetter() throws Exception {
+        checkOut1ForRoot("false;3;3", "«TEMPLATE root FOR java.lang.String»" +
+                "«OUTPUT \"out1\"»«this.empty»;«this.bytes.length»;«this.chars().toArray().length»«ENDOUTPUT»" +
+                "«ENDTEMPLATE»", "abc");
+    }
+
+    /**
+     * Methodenaufrufe, bei denen die Argumente nur über Obertypen, Boxing oder erweiternde Konvertierungen zu den
+     * Parametern passen.
+     * 
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testMethodCallWithSupertypeArguments() throws Exception {
+        checkOut1ForRoot("true;false;2;true", "«TEMPLATE root FOR java.lang.String»" +
+                "«OUTPUT \"out1\"»«this.equals(\"abc\")»;«java.util.Objects.equals(this, null)»;" +
+                "«java.lang.Math.max(1, 2L)»;«this.contains(\"b\")»«ENDOUTPUT»" +
+                "«ENDTEMPLATE»", "abc");
+    }
+
+    /**
+     * Methodenaufrufe auf Objekten nicht öffentlicher Klassen und mit wechselnden Empfängertypen an der gleichen
+     * Aufrufstelle.
+     * 
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testPolymorphicMethodCall() throws Exception {
+        checkOut1ForRoot("3:2;3;1;", "«TEMPLATE root FOR java.util.List»" +
+                "«OUTPUT \"out1\"»«this.size()»:«FOREACH i FROM this»«i.length()»;«ENDFOREACH»«ENDOUTPUT»" +
+                "«ENDTEMPLATE»", Arrays.asList("ab", new StringBuilder("abc"), Character.toString('a')));
+    }
+
+    /**
+     * IF-Statement mit erfüllter und nicht erfüllter Bedingung.
+     * 
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testIf() throws Exception {
+        checkOut1ForRoot("ja", "«TEMPLATE root FOR java.lang.String»" +
+                "«OUTPUT \"out1\"»«IF this.length() > 2»ja«ENDIF»«IF this.isEmpty()»nein«ENDIF»«ENDOUTPUT»" +
+                "«ENDTEMPLATE»", "abc");
+    }
+
+    /**
+     * Aufruf eines weiteren Templates für jedes Element einer Liste.
+     * 
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testExecuteForEach() throws Exception {
+        checkOut1ForRoot("[a]-[b]-[c]", "«TEMPLATE root FOR java.util.List»" +
+                "«OUTPUT \"out1\"»«EXEC item FOREACH this SEPARATOR \"-\"»«ENDOUTPUT»" +
+                "«ENDTEMPLATE»" +
+                "«TEMPLATE item FOR java.lang.String»[«this»]«ENDTEMPLATE»", Arrays.asList("a", "b", "c"));
+    }
+
+    /**
+     * Verschachtelte FOREACH-Schleifen, bei denen die innere Schleife die Variable der äußeren Schleife verdeckt und
+     * aufeinander folgende Schleifen dieselben Variablennamen verwenden.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testNestedForEachShadowing() throws Exception {
+        checkOut1ForRoot("0a(0a,1b)1b(0a,1b)|a:0b:1", "«TEMPLATE root FOR java.util.List»" +
+                "«OUTPUT \"out1\"»«FOREACH i FROM this COUNTER c»«c.getIndex()»«i»(" +
+                "«FOREACH i FROM this COUNTER c SEPARATOR \",\"»«c.getIndex()»«i»«ENDFOREACH»)«ENDFOREACH»|" +
+                "«FOREACH c FROM this COUNTER i SEPARATOR \"\"»«c»:«i.getIndex()»«ENDFOREACH»«ENDOUTPUT»" +
+                "«ENDTEMPLATE»", Arrays.asList("a", "b"));
+    }
+
     /**
      * Test für ein Import-Statement.
      * 
@@ -490,9 +657,11 @@ public class SimpleGeneratorTest {
      */
     public static void checkOut1ForRoot(final String expected, final String input, final Object model)
             throws IOException {
-        final BufferedOutput out = createOutput(input, "root", model);
-        final String content = out.getContent("out1");
-        Assertions.assertEquals(expected, content);
+        for (final ExecutionMode executionMode : ExecutionMode.values()) {
+            final BufferedOutput out = createOutput(input, "root", model, executionMode);
+            final String content = out.getContent("out1");
+            Assertions.assertEquals(expected, content, executionMode.name());
+        }
     }
 
     /**
@@ -510,10 +679,32 @@ public class SimpleGeneratorTest {
      */
     public static BufferedOutput createOutput(final String input, final String templateName, final Object model)
             throws IOException {
+        return createOutput(input, templateName, model, ExecutionMode.INTERPRETED);
+    }
+
+    /**
+     * Startet den Generator im angegebenen Ausführungsmodus mit der textuellen Template-Datei und dem Modell und führt
+     * das gewünschte Template aus.
+     * 
+     * @param input
+     *            Inhalt der Template-Datei-Beschreibung.
+     * @param templateName
+     *            Name des auszuführenden Templates.
+     * @param model
+     *            Modell für die Ausführung
+     * @param executionMode
+     *            Ausführungsmodus des Generators.
+     * @return BufferedOutput-Objekt, welches für die Ausgabe verwendet wurde.
+     * @throws IOException
+     *             Bei einem Problem bei der Ausführung.
+     */
+    public static BufferedOutput createOutput(final String input, final String templateName, final Object model,
+            final ExecutionMode executionMode) throws IOException {
         final BufferedOutput out = new BufferedOutput();
         final TemplateFile templateFile = parse(input);
         final Generator generator = new Generator(new SimpleTemplateResolver(templateFile), out,
                 new BasicOutputPreferences());
+        generator.setExecutionMode(executionMode);
         generator.generate(templateFile.getResourceIdentifier(), templateName, model);
         return out;
     }
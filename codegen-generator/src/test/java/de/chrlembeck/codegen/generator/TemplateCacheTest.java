@@ -0,0 +1,127 @@
+package de.chrlembeck.codegen.generator;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.chrlembeck.codegen.generator.lang.TemplateFile;
+
+/**
+ * Tests für den gemeinsam nutzbaren Cache der Template-Dateien.
+ *
+ * @author Christoph Lembeck
+ */
+public class TemplateCacheTest {
+
+    /**
+     * Inhalt der Template-Datei für die Tests.
+     */
+    private static final String TEMPLATE = "«TEMPLATE root FOR java.lang.Object»abc«ENDTEMPLATE»";
+
+    /**
+     * Verzeichnis für die temporären Template-Dateien.
+     */
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Gleichzeitige Anfragen nach der gleichen Datei müssen alle die gleiche, nur einmal übersetzte Instanz erhalten.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testConcurrentRequestsShareOneInstance() throws Exception {
+        final URI uri = writeTemplate("concurrent.codegen", TEMPLATE);
+        final TemplateCache cache = new TemplateCache();
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Callable<TemplateFile>> tasks = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                tasks.add(() -> new SimpleTemplateResolver(uri, cache).getOrLoadTemplateFile(uri));
+            }
+            final List<Future<TemplateFile>> results = executor.invokeAll(tasks);
+            final TemplateFile first = results.get(0).get();
+            for (final Future<TemplateFile> result : results) {
+                Assertions.assertSame(first, result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Eine geänderte Datei muss neu übersetzt werden, eine nur mit einem neuen Zeitstempel versehene Datei dagegen
+     * nicht.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testInvalidation() throws Exception {
+        final URI uri = writeTemplate("changing.codegen", TEMPLATE);
+        final Path path = Path.of(uri);
+        final TemplateCache cache = new TemplateCache();
+        cache.setCheckInterval(Duration.ZERO);
+        final TemplateFile first = cache.getOrLoadTemplateFile(uri, null);
+        Assertions.assertSame(first, cache.getOrLoadTemplateFile(uri, null));
+
+        Files.setLastModifiedTime(path, FileTime.fromMillis(Files.getLastModifiedTime(path).toMillis() + 10_000));
+        Assertions.assertSame(first, cache.getOrLoadTemplateFile(uri, null));
+
+        Files.writeString(path, TEMPLATE.replace("abc", "xyz"), StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(path, FileTime.fromMillis(Files.getLastModifiedTime(path).toMillis() + 20_000));
+        final TemplateFile changed = cache.getOrLoadTemplateFile(uri, null);
+        Assertions.assertNotSame(first, changed);
+        Assertions.assertSame(changed, cache.getOrLoadTemplateFile(uri, null));
+
+        cache.invalidate(uri);
+        Assertions.assertNotSame(changed, cache.getOrLoadTemplateFile(uri, null));
+    }
+
+    /**
+     * Innerhalb des Prüfintervalls wird die Datei nicht erneut geprüft.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testCheckInterval() throws Exception {
+        final URI uri = writeTemplate("interval.codegen", TEMPLATE);
+        final TemplateCache cache = new TemplateCache();
+        cache.setCheckInterval(Duration.ofHours(1));
+        final TemplateFile first = cache.getOrLoadTemplateFile(uri, null);
+        Files.writeString(Path.of(uri), TEMPLATE.replace("abc", "xyz"), StandardCharsets.UTF_8);
+        Assertions.assertSame(first, cache.getOrLoadTemplateFile(uri, null));
+    }
+
+    /**
+     * Schreibt eine Template-Datei in das temporäre Verzeichnis.
+     *
+     * @param name
+     *            Name der Datei.
+     * @param content
+     *            Inhalt der Datei.
+     * @return URI der geschriebenen Datei.
+     * @throws Exception
+     *             Bei einem Problem beim Schreiben.
+     */
+    private URI writeTemplate(final String name, final String content) throws Exception {
+        final Path path = tempDir.resolve(name);
+        Files.writeString(path, content, StandardCharsets.UTF_8);
+        return path.toUri();
+    }
+}
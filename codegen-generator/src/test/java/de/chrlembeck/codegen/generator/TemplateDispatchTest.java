@@ -0,0 +1,79 @@
+package de.chrlembeck.codegen.generator;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.chrlembeck.codegen.generator.lang.TemplateFile;
+import de.chrlembeck.codegen.generator.lang.TemplateStatement;
+import de.chrlembeck.codegen.generator.lang.UserCode;
+
+/**
+ * Tests zur Auswahl des auszuführenden Templates anhand von Namen und Modelltyp.
+ *
+ * @author Christoph Lembeck
+ */
+public class TemplateDispatchTest {
+
+    /**
+     * Template-Datei mit mehreren Templates gleichen Namens für unterschiedlich spezielle Typen, wobei die
+     * allgemeineren Typen vor den spezielleren stehen.
+     */
+    private static final String TEMPLATES = "«TEMPLATE root FOR java.util.List»"
+            + "«OUTPUT \"out1\"»«EXEC show FOREACH this SEPARATOR \",\"»«ENDOUTPUT»"
+            + "«ENDTEMPLATE»"
+            + "«TEMPLATE show FOR java.lang.Object»Object«ENDTEMPLATE»"
+            + "«TEMPLATE show FOR java.lang.CharSequence»CharSequence«ENDTEMPLATE»"
+            + "«TEMPLATE show FOR java.lang.Comparable»Comparable«ENDTEMPLATE»"
+            + "«TEMPLATE show FOR java.lang.String»String«ENDTEMPLATE»"
+            + "«TEMPLATE show FOR java.lang.String»String2«ENDTEMPLATE»"
+            + "«TEMPLATE other FOR java.lang.Number»Number«ENDTEMPLATE»";
+
+    /**
+     * Das Template mit dem speziellsten passenden Typ wird ausgewählt, bei gleich gut passenden Typen das erste.
+     */
+    @Test
+    public void testMostSpecificTemplate() {
+        final TemplateFile templateFile = SimpleGeneratorTest.parse(TEMPLATES);
+        Assertions.assertEquals("java.lang.String", templateFile.findTemplate("show", String.class).getType());
+        Assertions.assertEquals("String",
+                ((UserCode) templateFile.findTemplate("show", String.class).getCodeOrStatements().get(0)).getCode());
+        Assertions.assertEquals("java.lang.CharSequence",
+                templateFile.findTemplate("show", StringBuilder.class).getType());
+        Assertions.assertEquals("java.lang.Comparable", templateFile.findTemplate("show", Integer.class).getType());
+        Assertions.assertEquals("java.lang.Object", templateFile.findTemplate("show", Object.class).getType());
+        Assertions.assertEquals("java.lang.Number", templateFile.findTemplate("other", Integer.class).getType());
+        Assertions.assertNull(templateFile.findTemplate("other", String.class));
+        Assertions.assertNull(templateFile.findTemplate("unknown", String.class));
+    }
+
+    /**
+     * Wiederholte Suchen liefern dasselbe Template.
+     */
+    @Test
+    public void testMemoizedLookup() {
+        final TemplateFile templateFile = SimpleGeneratorTest.parse(TEMPLATES);
+        final TemplateStatement first = templateFile.findTemplate("show", Long.class);
+        Assertions.assertSame(first, templateFile.findTemplate("show", Long.class));
+        Assertions.assertNull(templateFile.findTemplate("other", Boolean.class));
+        Assertions.assertNull(templateFile.findTemplate("other", Boolean.class));
+    }
+
+    /**
+     * Aufruf der Templates über EXEC in beiden Ausführungsmodi.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testExecuteDispatch() throws Exception {
+        for (final ExecutionMode executionMode : ExecutionMode.values()) {
+            Assertions.assertEquals("String,CharSequence,Comparable,Object",
+                    SimpleGeneratorTest.createOutput(TEMPLATES, "root",
+                            Arrays.asList("a", new StringBuilder("b"), Integer.valueOf(1), new Object()),
+                            executionMode).getContent("out1"),
+                    executionMode.name());
+        }
+    }
+}
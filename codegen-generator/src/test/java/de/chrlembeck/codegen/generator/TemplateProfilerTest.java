@@ -0,0 +1,160 @@
+package de.chrlembeck.codegen.generator;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.chrlembeck.codegen.generator.TemplateProfiler.Entry;
+import de.chrlembeck.codegen.generator.lang.TemplateFile;
+import de.chrlembeck.codegen.generator.output.BasicOutputPreferences;
+import de.chrlembeck.codegen.generator.output.BufferedOutput;
+
+/**
+ * Tests für die Erstellung von Laufzeitprofilen mit dem {@link TemplateProfiler}.
+ *
+ * @author Christoph Lembeck
+ */
+public class TemplateProfilerTest {
+
+    /**
+     * Template-Datei mit einer Schleife, die für jedes Element des Modells ein weiteres Template aufruft. Der
+     * Methodenaufruf auf dem Typ Object kann nicht vorab gebunden werden und erzeugt beim ersten Aufruf einen
+     * Fehlzugriff auf den Cache.
+     */
+    private static final String TEMPLATE = "«TEMPLATE root FOR java.util.List»«OUTPUT \"out1\"»"
+            + "«FOREACH item FROM this»«EXEC line FOR item»«ENDFOREACH»«ENDOUTPUT»«ENDTEMPLATE»"
+            + "«TEMPLATE line FOR java.lang.Object»[«this.length()»]«ENDTEMPLATE»";
+
+    /**
+     * Modell für die Generierung.
+     */
+    private static final List<String> MODEL = Arrays.asList("a", "bb", "ccc");
+
+    /**
+     * Erwartete Ausgabe der Generierung.
+     */
+    private static final String EXPECTED = "[1][2][3]";
+
+    /**
+     * Anzahl der Aufrufe, ausgegebene Zeichen und Cache-Fehlzugriffe werden in beiden Ausführungsmodi pro Element
+     * erfasst.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testEntries() throws Exception {
+        for (final ExecutionMode executionMode : ExecutionMode.values()) {
+            final Generator generator = createGenerator();
+            generator.setExecutionMode(executionMode);
+            final TemplateProfiler profiler = generate(generator);
+
+            final Entry root = findEntry(profiler, "TEMPLATE root ");
+            Assertions.assertEquals(1, root.getCalls(), executionMode.name());
+            Assertions.assertEquals(EXPECTED.length(), root.getCharacters(), executionMode.name());
+            Assertions.assertTrue(root.getTotalNanos() >= root.getSelfNanos(), executionMode.name());
+            Assertions.assertEquals(1, findEntry(profiler, "FOREACH item ").getCalls(), executionMode.name());
+            Assertions.assertEquals(3, findEntry(profiler, "EXECUTE line ").getCalls(), executionMode.name());
+            final Entry line = findEntry(profiler, "TEMPLATE line ");
+            Assertions.assertEquals(3, line.getCalls(), executionMode.name());
+            Assertions.assertEquals(EXPECTED.length(), line.getCharacters(), executionMode.name());
+            final Entry expression = findEntry(profiler, "EXPRESSION ");
+            Assertions.assertEquals(3, expression.getCalls(), executionMode.name());
+            Assertions.assertEquals(3, expression.getSelfCharacters(), executionMode.name());
+            Assertions.assertEquals(1, expression.getCacheMisses(), executionMode.name());
+        }
+    }
+
+    /**
+     * Bei der parallelen Ausführung der OUTPUT-Blöcke werden die Aufrufe unterhalb des aufrufenden Elements erfasst.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testParallelOutput() throws Exception {
+        final Generator generator = createGenerator();
+        generator.setOutputExecutor(ForkJoinPool.commonPool());
+        final TemplateProfiler profiler = generate(generator);
+        Assertions.assertEquals(EXPECTED.length(), findEntry(profiler, "TEMPLATE root ").getCharacters());
+        Assertions.assertEquals(3, findEntry(profiler, "TEMPLATE line ").getCalls());
+    }
+
+    /**
+     * Die Aufrufpfade werden im Collapsed-Stack-Format und die Zusammenfassung im JSON-Format ausgegeben.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testExport() throws Exception {
+        final TemplateProfiler profiler = generate(createGenerator());
+
+        final StringWriter collapsed = new StringWriter();
+        profiler.writeCollapsedStacks(collapsed);
+        final String[] lines = collapsed.toString().split("\n");
+        Assertions.assertTrue(lines.length > 0);
+        for (final String stackLine : lines) {
+            Assertions.assertTrue(
+                    stackLine.matches("TEMPLATE root FOR java\\.util\\.List \\(\\.:1:1\\)(;[^;]+)* \\d+"), stackLine);
+        }
+        Assertions.assertTrue(Arrays.stream(lines).anyMatch(stackLine -> stackLine
+                .matches(".*;FOREACH item \\([^)]*\\);EXECUTE line \\([^)]*\\);TEMPLATE line [^;]* \\d+")));
+
+        final StringWriter summary = new StringWriter();
+        profiler.writeSummary(summary);
+        final String json = summary.toString();
+        Assertions.assertTrue(json.startsWith("{\n  \"totalNanos\": "), json);
+        Assertions.assertTrue(json.contains("{\"label\": \"TEMPLATE line FOR java.lang.Object (.:1:"), json);
+        Assertions.assertTrue(json.contains("\"calls\": 3, "), json);
+        Assertions.assertTrue(json.endsWith("\n  ]\n}\n"), json);
+    }
+
+    /**
+     * Erstellt einen Generator für die Ausgabe in einen Puffer.
+     *
+     * @return Neuer Generator.
+     */
+    private static Generator createGenerator() {
+        final TemplateFile templateFile = SimpleGeneratorTest.parse(TEMPLATE);
+        return new Generator(new SimpleTemplateResolver(templateFile), new BufferedOutput(),
+                new BasicOutputPreferences());
+    }
+
+    /**
+     * Führt die Generierung mit einem neuen Profiler aus und prüft die Ausgabe.
+     *
+     * @param generator
+     *            Zu verwendender Generator.
+     * @return Profiler mit den erfassten Daten.
+     * @throws IOException
+     *             Bei einem Laufzeitproblem.
+     */
+    private static TemplateProfiler generate(final Generator generator) throws IOException {
+        final TemplateProfiler profiler = new TemplateProfiler();
+        generator.setProfiler(profiler);
+        generator.generate(URI.create("."), "root", MODEL);
+        Assertions.assertEquals(EXPECTED, ((BufferedOutput) generator.getGeneratorOutput()).getContent("out1"));
+        return profiler;
+    }
+
+    /**
+     * Sucht den Eintrag zu dem Element, dessen Bezeichnung mit dem übergebenen Text beginnt.
+     *
+     * @param profiler
+     *            Profiler mit den erfassten Daten.
+     * @param labelPrefix
+     *            Anfang der Bezeichnung.
+     * @return Gefundener Eintrag.
+     */
+    private static Entry findEntry(final TemplateProfiler profiler, final String labelPrefix) {
+        return profiler.getEntries().stream().filter(entry -> entry.getLabel().startsWith(labelPrefix)).findFirst()
+                .orElseThrow(() -> new AssertionError("Kein Eintrag für " + labelPrefix));
+    }
+}
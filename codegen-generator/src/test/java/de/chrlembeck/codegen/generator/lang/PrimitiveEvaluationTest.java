@@ -0,0 +1,140 @@
+package de.chrlembeck.codegen.generator.lang;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests für die Ermittlung der statischen Typen und die Auswertung der Ausdrücke ohne Verpacken der Zwischenergebnisse.
+ *
+ * @author Christoph Lembeck
+ */
+public class PrimitiveEvaluationTest {
+
+    /**
+     * Arithmetik auf int-Werten.
+     */
+    @Test
+    void testIntArithmetic() {
+        final Expression expression = plus(mult(integer("6"), integer("7")), sign(integer("2")));
+        assertEquals(int.class, expression.getStaticType());
+        assertEquals(40, expression.evaluateInt(null, null));
+        final ObjectWithType<?> result = expression.evaluate(null, null);
+        assertEquals(int.class, result.getType());
+        assertEquals(Integer.valueOf(40), result.getObject());
+        assertSame(result, expression.evaluate(null, null));
+        assertEquals(Integer.MIN_VALUE, plus(integer("2147483647"), integer("1")).evaluateInt(null, null));
+        assertThrows(ArithmeticException.class,
+                () -> new MultDivModExpression(null, integer("1"), integer("0"), MultDivModExpression.Operator.DIV)
+                        .evaluate(null, null));
+    }
+
+    /**
+     * Gemischte Operanden werden gemäß binary numeric promotion erweitert.
+     */
+    @Test
+    void testPromotion() {
+        final Expression longExpression = plus(integer("1"), integer("4294967296L"));
+        assertEquals(long.class, longExpression.getStaticType());
+        assertEquals(4294967297L, longExpression.evaluateLong(null, null));
+        assertEquals(Long.valueOf(4294967297L), longExpression.evaluate(null, null).getObject());
+
+        final Expression doubleExpression = mult(longExpression, new FloatingPointLiteral(null, "0.5"));
+        assertEquals(double.class, doubleExpression.getStaticType());
+        assertEquals(2147483648.5, doubleExpression.evaluateDouble(null, null));
+
+        final Expression shift = new ShiftExpression(null, integer("1"), integer("33L"),
+                ShiftExpression.Operator.LEFT_SHIFT);
+        assertEquals(int.class, shift.getStaticType());
+        assertEquals(2, shift.evaluateInt(null, null));
+
+        assertNull(plus(integer("1"), new FloatingPointLiteral(null, "1f")).getStaticType());
+        assertEquals(String.class, plus(integer("1"), new StringLiteral(null, "\"a\"")).getStaticType());
+    }
+
+    /**
+     * Vergleiche und logische Verknüpfungen.
+     */
+    @Test
+    void testBoolean() {
+        final Expression less = new CompareExpression(null, integer("3"), integer("4L"),
+                CompareExpression.Operator.LESS_THAN);
+        final Expression equals = new EqualsExpression(null, plus(integer("1"), integer("1")),
+                new FloatingPointLiteral(null, "2.0"), EqualsExpression.Operator.EQUAL);
+        final Expression and = new ConditionalAndExpression(null, less, equals);
+        final Expression not = new NegationExpression(null, NegationExpression.Operator.BOOLEAN_NEGATION, and);
+        assertEquals(boolean.class, not.getStaticType());
+        assertTrue(and.evaluateBoolean(null, null));
+        assertFalse(not.evaluateBoolean(null, null));
+        assertSame(ObjectWithType.ofBoolean(false), not.evaluate(null, null));
+
+        final Expression conditional = new ConditionalExpression(null, not, integer("1"), integer("2"));
+        assertEquals(int.class, conditional.getStaticType());
+        assertEquals(2, conditional.evaluateInt(null, null));
+        assertEquals(5L, plus(conditional, integer("3L")).evaluateLong(null, null));
+    }
+
+    /**
+     * Kleine int-Werte werden ohne neue Objekte verpackt.
+     */
+    @Test
+    void testIntCache() {
+        assertSame(ObjectWithType.ofInt(-128), ObjectWithType.ofInt(-128));
+        assertSame(ObjectWithType.ofInt(1023), ObjectWithType.ofInt(1023));
+        assertEquals(Integer.valueOf(1024), ObjectWithType.ofInt(1024).getObject());
+        assertEquals(int.class, ObjectWithType.ofInt(1024).getType());
+    }
+
+    /**
+     * Erzeugt ein Literal für eine ganze Zahl.
+     * 
+     * @param text
+     *            Text des Literals.
+     * @return Literal für die Zahl.
+     */
+    private static Expression integer(final String text) {
+        return new IntegerLiteral(null, text);
+    }
+
+    /**
+     * Erzeugt eine Addition.
+     * 
+     * @param left
+     *            Linker Operand.
+     * @param right
+     *            Rechter Operand.
+     * @return Ausdruck für die Addition.
+     */
+    private static Expression plus(final Expression left, final Expression right) {
+        return new PlusMinusExpression(null, left, right, PlusMinusExpression.Operator.PLUS);
+    }
+
+    /**
+     * Erzeugt eine Multiplikation.
+     * 
+     * @param left
+     *            Linker Operand.
+     * @param right
+     *            Rechter Operand.
+     * @return Ausdruck für die Multiplikation.
+     */
+    private static Expression mult(final Expression left, final Expression right) {
+        return new MultDivModExpression(null, left, right, MultDivModExpression.Operator.MULT);
+    }
+
+    /**
+     * Erzeugt ein negatives Vorzeichen.
+     * 
+     * @param expression
+     *            Operand.
+     * @return Ausdruck für die Vorzeichenumkehr.
+     */
+    private static Expression sign(final Expression expression) {
+        return new SignExpression(null, SignExpression.Operator.MINUS, expression);
+    }
+}
@@ -0,0 +1,126 @@
+package de.chrlembeck.codegen.generator.lang;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Set;
+
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.junit.jupiter.api.Test;
+
+import de.chrlembeck.codegen.generator.SimpleGeneratorTest;
+
+/**
+ * Tests für die Übernahme der Quellpositionen in die {@link SourceTable} durch den {@link SourceLocationCompactor}.
+ *
+ * @author Christoph Lembeck
+ */
+public class SourceLocationCompactorTest {
+
+    /**
+     * Template-Datei mit Schleife, Bedingung, Typangaben und einem beim Einlesen zusammengefassten Code-Block.
+     */
+    private static final String TEMPLATE = "«IMPORT lib AS lib.codegen»«COMMENT»Kommentar«ENDCOMMENT»\n"
+            + "«TEMPLATE root FOR java.util.List»«OUTPUT \"out1\"»\n"
+            + "«FOREACH item FROM this COUNTER c SEPARATOR \",\"»«IF item instanceof java.lang.String»"
+            + "«((java.lang.String) item).length()»«ELSE»«java.lang.Integer.class.getSimpleName()»«ENDIF»"
+            + "«ENDFOREACH»-«1 + 2»«ENDOUTPUT»«ENDTEMPLATE»";
+
+    /**
+     * Nach dem Einlesen ist der Syntaxbaum von der Template-Datei aus nicht mehr erreichbar.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    void testParseTreeIsReleased() throws Exception {
+        SimpleGeneratorTest.checkOut1ForRoot("\n1,Integer,3-3", TEMPLATE, Arrays.asList("a", 1, "abc"));
+
+        final TemplateFile templateFile = SimpleGeneratorTest.parse(TEMPLATE);
+        assertNull(templateFile.getContext());
+        final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        final Deque<Object> pending = new LinkedList<>();
+        pending.push(templateFile);
+        while (!pending.isEmpty()) {
+            final Object object = pending.pop();
+            if (object == null || !visited.add(object)) {
+                continue;
+            }
+            assertFalse(object instanceof ParseTree || object instanceof Token,
+                    () -> "Syntaxbaum erreichbar über " + object.getClass().getName());
+            if (object instanceof Collection) {
+                pending.addAll((Collection<?>) object);
+            } else if (object instanceof Map) {
+                pending.addAll(((Map<?, ?>) object).keySet());
+                pending.addAll(((Map<?, ?>) object).values());
+            } else if (object.getClass().isArray() && !object.getClass().getComponentType().isPrimitive()) {
+                for (int i = 0; i < Array.getLength(object); i++) {
+                    pending.push(Array.get(object, i));
+                }
+            } else if (object.getClass().getName().startsWith("de.chrlembeck.codegen.")) {
+                pushFields(object, pending);
+            }
+        }
+    }
+
+    /**
+     * Positionen der Elemente werden nach dem Freigeben des Syntaxbaums aus der Tabelle ermittelt.
+     */
+    @Test
+    void testPositionsFromSourceTable() {
+        final TemplateFile templateFile = SimpleGeneratorTest.parse(TEMPLATE);
+        final SourceTable table = templateFile.getSourceTable();
+        final TemplateStatement template = templateFile.getTemplateStatements().get(0);
+        assertEquals("2:1", template.getStartPosition().toShortString());
+        final OutputStatement output = (OutputStatement) template.getCodeOrStatements().get(0);
+        final ForStatement forStatement = (ForStatement) output.getCodeOrStatements().get(1);
+        assertEquals("3:1", forStatement.getStartPosition().toShortString());
+        assertEquals(TEMPLATE.indexOf("«FOREACH"), table.getStartIndex(forStatement.getSourceLocation()));
+        assertEquals(TEMPLATE.indexOf("«ENDFOREACH»") + "«ENDFOREACH»".length() - 1,
+                table.getStopIndex(forStatement.getSourceLocation()));
+
+        final Expression separator = forStatement.getSeparatorExpression();
+        assertEquals(TEMPLATE.indexOf("\",\""), table.getStartIndex(separator.getSourceLocation()));
+        assertEquals(table.getStartTokenIndex(separator.getSourceLocation()),
+                table.getStopTokenIndex(separator.getSourceLocation()));
+
+        // die Ausgabe "-3" wird beim Einlesen zu einem Code-Block über beide Elemente zusammengefasst
+        final UserCode merged = (UserCode) output.getCodeOrStatements().get(2);
+        assertEquals("-3", merged.getCode());
+        assertEquals(TEMPLATE.indexOf('-'), table.getStartIndex(merged.getSourceLocation()));
+        assertEquals(TEMPLATE.indexOf("«ENDOUTPUT»") - 1, table.getStopIndex(merged.getSourceLocation()));
+    }
+
+    /**
+     * Legt die Werte aller Instanzvariablen des Objekts auf den Stapel der noch zu prüfenden Objekte.
+     *
+     * @param object
+     *            Zu untersuchendes Objekt.
+     * @param pending
+     *            Stapel der noch zu prüfenden Objekte.
+     * @throws IllegalAccessException
+     *             Falls eine Instanzvariable nicht gelesen werden kann.
+     */
+    private static void pushFields(final Object object, final Deque<Object> pending) throws IllegalAccessException {
+        for (Class<?> type = object.getClass(); type != null; type = type.getSuperclass()) {
+            for (final Field field : type.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) && !field.getType().isPrimitive()) {
+                    field.setAccessible(true);
+                    pending.push(field.get(object));
+                }
+            }
+        }
+    }
+}
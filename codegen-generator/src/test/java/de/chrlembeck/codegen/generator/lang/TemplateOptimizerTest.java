@@ -0,0 +1,131 @@
+package de.chrlembeck.codegen.generator.lang;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.chrlembeck.codegen.generator.SimpleGeneratorTest;
+
+/**
+ * Tests für die Vereinfachung der Templates durch den {@link TemplateOptimizer}.
+ *
+ * @author Christoph Lembeck
+ */
+public class TemplateOptimizerTest {
+
+    /**
+     * Konstante Ausdrücke und benachbarte Code-Blöcke werden zu einem einzigen Code-Block zusammengefasst.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    void testMergeConstantOutput() throws Exception {
+        final String template = "«TEMPLATE root FOR java.lang.String»«OUTPUT \"out1\"»"
+                + "a«1 + 2 * 3»b«\"x\" + 'y' + 1L»c«-(2 << 3)»;«java.lang.Integer.MAX_VALUE»"
+                + "«ENDOUTPUT»«ENDTEMPLATE»";
+        SimpleGeneratorTest.checkOut1ForRoot("a7bxy1c-16;2147483647", template, "");
+
+        final List<UserCodeOrStatements<?>> block = getOutputBlock(template);
+        assertEquals(1, block.size());
+        assertTrue(block.get(0) instanceof UserCode);
+        final UserCode userCode = (UserCode) block.get(0);
+        assertEquals("a7bxy1c-16;2147483647", userCode.getCode());
+        assertTrue(userCode.getParent() instanceof OutputStatement);
+    }
+
+    /**
+     * Dynamische Ausdrücke trennen die zusammengefassten Blöcke, konstante Teilausdrücke werden dennoch vorab
+     * berechnet.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    void testPartialFolding() throws Exception {
+        final String template = "«TEMPLATE root FOR java.lang.String»«OUTPUT \"out1\"»"
+                + "<«this.length() + 60 * 60»>«java.lang.String.valueOf(2 * 21)»«ENDOUTPUT»«ENDTEMPLATE»";
+        SimpleGeneratorTest.checkOut1ForRoot("<3603>42", template, "abc");
+
+        final List<UserCodeOrStatements<?>> block = getOutputBlock(template);
+        assertEquals(4, block.size());
+        final Expression sum = ((ExpressionStatement) block.get(1)).getExpression();
+        assertTrue(sum.getSubExpressions().get(1) instanceof ConstantExpression);
+        final ConstantExpression constant = (ConstantExpression) sum.getSubExpressions().get(1);
+        assertEquals(Integer.valueOf(3600), constant.evaluate(null, null).getObject());
+        assertTrue(constant.getOriginal() instanceof MultDivModExpression);
+        final MethodCallExpression methodCall = (MethodCallExpression) ((ExpressionStatement) block.get(3))
+                .getExpression();
+        assertTrue(methodCall.getArguments().get(0) instanceof ConstantExpression);
+    }
+
+    /**
+     * If-Statements mit konstanter Bedingung werden durch den ausgewählten Block ersetzt.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    void testConstantIf() throws Exception {
+        final String template = "«TEMPLATE root FOR java.lang.String»«OUTPUT \"out1\"»"
+                + "a«IF 1 < 2»b«ELSE»c«ENDIF»d«IF java.lang.Integer.MAX_VALUE == 0»e«ENDIF»"
+                + "«IF false»f«ELSE»«IF this.isEmpty()»g«ELSE»h«ENDIF»«ENDIF»"
+                + "«IF java.lang.String.class == \"\".getClass() ? true : 1 / 0 == 0»i«ENDIF»«ENDOUTPUT»«ENDTEMPLATE»";
+        SimpleGeneratorTest.checkOut1ForRoot("abdhi", template, "abc");
+        SimpleGeneratorTest.checkOut1ForRoot("abdgi", template, "");
+
+        final List<UserCodeOrStatements<?>> block = getOutputBlock(template);
+        assertEquals(3, block.size());
+        assertEquals("abd", ((UserCode) block.get(0)).getCode());
+        assertTrue(block.get(1) instanceof IfStatement);
+        final IfStatement ifStatement = (IfStatement) block.get(1);
+        assertTrue(ifStatement.getParent() instanceof OutputStatement);
+        assertEquals("h", ((UserCode) ifStatement.getElseBlock().get(0)).getCode());
+    }
+
+    /**
+     * Nur Konstanten mit primitivem Typ, Zeichenketten und Enum-Konstanten werden vorab gelesen, veränderliche Objekte
+     * wie {@code System.out} nicht.
+     */
+    @Test
+    void testOnlyImmutableFieldsAreFolded() {
+        final List<UserCodeOrStatements<?>> block = getOutputBlock("«TEMPLATE root FOR java.lang.String»"
+                + "«OUTPUT \"out1\"»«java.lang.System.out»;«java.lang.Integer.MAX_VALUE»;"
+                + "«java.time.DayOfWeek.MONDAY»«ENDOUTPUT»«ENDTEMPLATE»");
+        assertEquals(2, block.size());
+        assertTrue(((ExpressionStatement) block.get(0)).getExpression() instanceof AttributeExpression);
+        assertEquals(";2147483647;MONDAY", ((UserCode) block.get(1)).getCode());
+    }
+
+    /**
+     * Ausdrücke, deren Auswertung fehlschlägt, werden nicht vorab berechnet, sondern melden den Fehler erst bei der
+     * Generierung.
+     */
+    @Test
+    void testFailingExpressionIsNotFolded() {
+        final String template = "«TEMPLATE root FOR java.lang.String»«OUTPUT \"out1\"»a«1 / 0»«ENDOUTPUT»"
+                + "«ENDTEMPLATE»";
+        final List<UserCodeOrStatements<?>> block = getOutputBlock(template);
+        assertEquals(2, block.size());
+        assertTrue(((ExpressionStatement) block.get(1)).getExpression() instanceof MultDivModExpression);
+        assertThrows(RuntimeException.class, () -> SimpleGeneratorTest.createOutput(template, "root", ""));
+    }
+
+    /**
+     * Liest die Template-Datei ein und gibt den Inhalt des ersten Output-Statements im ersten Template zurück.
+     *
+     * @param template
+     *            Inhalt der Template-Datei.
+     * @return Elemente innerhalb des Output-Statements.
+     */
+    private static List<UserCodeOrStatements<?>> getOutputBlock(final String template) {
+        final TemplateFile templateFile = SimpleGeneratorTest.parse(template);
+        final OutputStatement output = (OutputStatement) templateFile.getTemplateStatements().get(0)
+                .getCodeOrStatements().get(0);
+        return output.getCodeOrStatements();
+    }
+}
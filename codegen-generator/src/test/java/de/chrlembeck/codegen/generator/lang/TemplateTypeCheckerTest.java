@@ -0,0 +1,131 @@
+package de.chrlembeck.codegen.generator.lang;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import de.chrlembeck.codegen.generator.Position;
+import de.chrlembeck.codegen.generator.SimpleGeneratorTest;
+
+/**
+ * Tests für die Prüfung der Templates gegen ihre Modelltypen durch den {@link TemplateTypeChecker}.
+ *
+ * @author Christoph Lembeck
+ */
+public class TemplateTypeCheckerTest {
+
+    /**
+     * Attributzugriffe und Methodenaufrufe auf dem Modelltyp werden bereits beim Einlesen gebunden.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    void testBindMembersOfModelType() throws Exception {
+        final String template = "«TEMPLATE root FOR java.lang.String»«OUTPUT \"out1\"»"
+                + "«this.length()»;«this.bytes.length»;«this.substring(1).toUpperCase()»«ENDOUTPUT»«ENDTEMPLATE»";
+        SimpleGeneratorTest.checkOut1ForRoot("3;3;BC", template, "abc");
+
+        final TemplateFile templateFile = SimpleGeneratorTest.parse(template);
+        assertTrue(templateFile.getTypeWarnings().isEmpty());
+        final List<UserCodeOrStatements<?>> block = getOutputBlock(templateFile);
+        final MethodCallExpression length = (MethodCallExpression) ((ExpressionStatement) block.get(0))
+                .getExpression();
+        assertNotNull(length.getBoundTarget());
+        assertEquals(int.class, length.getBoundTarget().getReturnType());
+        final AttributeExpression arrayLength = (AttributeExpression) ((ExpressionStatement) block.get(2))
+                .getExpression();
+        assertNotNull(arrayLength.getBoundTarget());
+        assertNotNull(((AttributeExpression) arrayLength.getExpression()).getBoundTarget());
+        final MethodCallExpression toUpperCase = (MethodCallExpression) ((ExpressionStatement) block.get(4))
+                .getExpression();
+        assertNotNull(toUpperCase.getBoundTarget());
+    }
+
+    /**
+     * Der Typ der Schleifenvariablen wird aus dem Typargument des durchlaufenen Iterable ermittelt.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    void testGenericElementType() throws Exception {
+        final String template = "«TEMPLATE root FOR java.nio.file.Path»«OUTPUT \"out1\"»"
+                + "«FOREACH p FROM this SEPARATOR \",\"»«p.getFileName().toString().length()»«ENDFOREACH»"
+                + "«ENDOUTPUT»«ENDTEMPLATE»";
+        final Path model = Paths.get("a", "bc", "def");
+        SimpleGeneratorTest.checkOut1ForRoot("1,2,3", template, model);
+
+        final TemplateFile templateFile = SimpleGeneratorTest.parse(template);
+        assertTrue(templateFile.getTypeWarnings().isEmpty());
+        final ForStatement forStatement = (ForStatement) getOutputBlock(templateFile).get(0);
+        final MethodCallExpression length = (MethodCallExpression) ((ExpressionStatement) forStatement
+                .getLoopBody().get(0)).getExpression();
+        assertNotNull(length.getBoundTarget());
+        final MethodCallExpression toString = (MethodCallExpression) ((AttributeExpression) length
+                .getMethodExpression()).getExpression();
+        final MethodCallExpression getFileName = (MethodCallExpression) ((AttributeExpression) toString
+                .getMethodExpression()).getExpression();
+        assertNotNull(getFileName.getBoundTarget());
+        assertEquals(Path.class, getFileName.getBoundTarget().getReturnType());
+    }
+
+    /**
+     * Ohne Typargumente ist der Elementtyp unbekannt, so dass weder gebunden noch gewarnt wird.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    void testRawTypeIsNotChecked() throws Exception {
+        final String template = "«TEMPLATE root FOR java.util.List»«OUTPUT \"out1\"»"
+                + "«FOREACH i FROM this»«i.length()»«ENDFOREACH»«ENDOUTPUT»«ENDTEMPLATE»";
+        SimpleGeneratorTest.checkOut1ForRoot("13", template, Arrays.asList("a", "bcd"));
+
+        final TemplateFile templateFile = SimpleGeneratorTest.parse(template);
+        assertTrue(templateFile.getTypeWarnings().isEmpty());
+        final ForStatement forStatement = (ForStatement) getOutputBlock(templateFile).get(0);
+        assertNull(((MethodCallExpression) ((ExpressionStatement) forStatement.getLoopBody().get(0))
+                .getExpression()).getBoundTarget());
+    }
+
+    /**
+     * Tippfehler in Attribut- und Methodennamen werden bereits beim Einlesen als Warnung gemeldet.
+     */
+    @Test
+    void testUnknownMembersAreReported() {
+        final String template = "«TEMPLATE root FOR java.lang.String»«OUTPUT \"out1\"»"
+                + "«this.lenght()»«this.bytez»«this.length(1)»«java.lang.Math.PII»«ENDOUTPUT»«ENDTEMPLATE»";
+        final Map<Position, String> warnings = SimpleGeneratorTest.parse(template).getTypeWarnings();
+        assertEquals(4, warnings.size());
+        final List<String> messages = Arrays.asList(warnings.values().toArray(new String[0]));
+        assertEquals("Die Methode 'lenght' mit 0 Argument(en) wurde in der Klasse java.lang.String nicht gefunden.",
+                messages.get(0));
+        assertEquals("Das Attribut 'bytez' wurde in der Klasse java.lang.String nicht gefunden.", messages.get(1));
+        assertEquals("Die Methode 'length' mit 1 Argument(en) wurde in der Klasse java.lang.String nicht gefunden.",
+                messages.get(2));
+        assertEquals("Das Attribut 'PII' wurde in der Klasse java.lang.Math nicht gefunden.", messages.get(3));
+    }
+
+    /**
+     * Liest das erste Output-Statement im ersten Template der Template-Datei.
+     *
+     * @param templateFile
+     *            Eingelesene Template-Datei.
+     * @return Elemente innerhalb des Output-Statements.
+     */
+    private static List<UserCodeOrStatements<?>> getOutputBlock(final TemplateFile templateFile) {
+        final OutputStatement output = (OutputStatement) templateFile.getTemplateStatements().get(0)
+                .getCodeOrStatements().get(0);
+        return output.getCodeOrStatements();
+    }
+}
@@ -0,0 +1,89 @@
+package de.chrlembeck.codegen.generator.model;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.chrlembeck.codegen.generator.ExecutionMode;
+import de.chrlembeck.codegen.generator.SimpleGeneratorTest;
+
+/**
+ * Tests für Modelle, deren Elemente erst beim Durchlaufen gelesen werden.
+ *
+ * @author Christoph Lembeck
+ */
+public class StreamingIterableTest {
+
+    /**
+     * Template-Datei, die die Elemente des Modells sowohl über EXEC ... FOREACH als auch über FOREACH durchläuft.
+     */
+    private static final String TEMPLATE = "«TEMPLATE root FOR java.lang.Iterable»«OUTPUT \"out1\"»"
+            + "«EXEC item FOREACH this SEPARATOR \",\"»;«FOREACH i FROM this»«i.length()»«ENDFOREACH»"
+            + "«ENDOUTPUT»«ENDTEMPLATE»"
+            + "«TEMPLATE item FOR java.lang.String»[«this»]«ENDTEMPLATE»";
+
+    /**
+     * Der Generator schließt jeden Cursor, den er zum Durchlaufen der Elemente öffnet.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testCursorsAreClosed() throws Exception {
+        final AtomicInteger opened = new AtomicInteger();
+        final AtomicInteger closed = new AtomicInteger();
+        final StreamingIterable<String> model = StreamingIterable.ofStream(() -> {
+            opened.incrementAndGet();
+            return IntStream.range(1, 4).mapToObj(i -> "e" + i).onClose(closed::incrementAndGet);
+        });
+        SimpleGeneratorTest.checkOut1ForRoot("[e1],[e2],[e3];222", TEMPLATE, model);
+        Assertions.assertEquals(2 * ExecutionMode.values().length, opened.get());
+        Assertions.assertEquals(opened.get(), closed.get());
+    }
+
+    /**
+     * Bricht die Generierung ab, wird der Cursor trotzdem geschlossen.
+     */
+    @Test
+    public void testCursorIsClosedOnFailure() {
+        final AtomicInteger closed = new AtomicInteger();
+        final List<Object> elements = Arrays.asList("a", Integer.valueOf(1));
+        final StreamingIterable<Object> model = StreamingIterable
+                .ofStream(() -> elements.stream().onClose(closed::incrementAndGet));
+        Assertions.assertThrows(RuntimeException.class,
+                () -> SimpleGeneratorTest.createOutput(TEMPLATE, "root", model));
+        Assertions.assertEquals(1, closed.get());
+    }
+
+    /**
+     * In Abschnitten serialisierte Dateien können mehrfach durchlaufen und für die Generierung verwendet werden.
+     *
+     * @param tempDir
+     *            Temporäres Verzeichnis für die Modelldatei.
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testChunkedDeserialization(@TempDir final Path tempDir) throws Exception {
+        final Path file = tempDir.resolve("model.ser");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            ModelFactoryHelper.writeChunks(out, Arrays.asList("x", "yy", "zzz"));
+        }
+        final StreamingIterable<String> model = ModelFactoryHelper.byChunkedDeserialization(file, String.class, null);
+        for (int i = 0; i < 2; i++) {
+            final List<String> elements = new ArrayList<>();
+            model.forEach(elements::add);
+            Assertions.assertEquals(Arrays.asList("x", "yy", "zzz"), elements);
+        }
+        SimpleGeneratorTest.checkOut1ForRoot("[x],[yy],[zzz];123", TEMPLATE, model);
+    }
+}
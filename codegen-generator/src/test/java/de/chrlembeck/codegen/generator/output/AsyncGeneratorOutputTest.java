@@ -0,0 +1,193 @@
+package de.chrlembeck.codegen.generator.output;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.chrlembeck.codegen.generator.lang.Executable;
+
+/**
+ * Tests für die asynchrone Weitergabe der Ausgaben durch den {@link AsyncGeneratorOutput}.
+ *
+ * @author Christoph Lembeck
+ */
+public class AsyncGeneratorOutputTest {
+
+    /**
+     * Die Ausgaben mehrerer gleichzeitig geöffneter Kanäle kommen vollständig und in der richtigen Reihenfolge an,
+     * auch wenn die Warteschlange deutlich kleiner als die Ausgabe ist.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testWritesInOrder() throws Exception {
+        final BufferedOutput target = new BufferedOutput();
+        final AsyncGeneratorOutput output = new AsyncGeneratorOutput(target, 2, 5);
+        final BasicOutputPreferences preferences = new BasicOutputPreferences();
+        final List<GeneratorWriter> writers = new ArrayList<>();
+        final List<StringBuilder> expected = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            writers.add(output.getWriter("channel" + i, preferences));
+            expected.add(new StringBuilder());
+        }
+        for (int round = 0; round < 1000; round++) {
+            for (int i = 0; i < writers.size(); i++) {
+                final String text = round + "/" + i + ";";
+                writers.get(i).append(text, null, -1);
+                expected.get(i).append(text);
+            }
+        }
+        writers.get(0).close();
+        output.closeAll();
+        for (int i = 0; i < writers.size(); i++) {
+            Assertions.assertEquals(expected.get(i).toString(), target.getContent("channel" + i));
+        }
+    }
+
+    /**
+     * Die Herkunft der Ausgaben wird an den Ziel-Verwalter weitergegeben, wobei aufeinanderfolgende Ausgaben gleicher
+     * Herkunft zusammengefasst werden dürfen.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testSourceLocations() throws Exception {
+        final List<String> appends = Collections.synchronizedList(new ArrayList<>());
+        final GeneratorWriter targetWriter = new GeneratorWriter() {
+
+            @Override
+            public void append(final String text, final Executable<?> sourceExecutable, final int sourceLocation) {
+                appends.add(sourceLocation + ":" + text);
+            }
+
+            @Override
+            public void close() {
+                appends.add("close");
+            }
+        };
+        final AsyncGeneratorOutput output = new AsyncGeneratorOutput(new SingleWriterOutput(targetWriter));
+        try (GeneratorWriter writer = output.getWriter("out", new BasicOutputPreferences())) {
+            writer.append("a", null, 1);
+            writer.append("b", null, 1);
+            writer.append("c", null, 2);
+            writer.append("d", null, 1);
+        }
+        output.closeAll();
+        Assertions.assertEquals(List.of("1:ab", "2:c", "1:d", "close"), appends);
+    }
+
+    /**
+     * Ein Fehler beim Schreiben wird beim Schließen gemeldet.
+     */
+    @Test
+    public void testFailureReported() {
+        final IOException failure = new IOException("Datenträger voll");
+        final GeneratorWriter targetWriter = new GeneratorWriter() {
+
+            @Override
+            public void append(final String text, final Executable<?> sourceExecutable, final int sourceLocation)
+                    throws IOException {
+                throw failure;
+            }
+
+            @Override
+            public void close() {
+                // nichts zu tun
+            }
+        };
+        final AsyncGeneratorOutput output = new AsyncGeneratorOutput(new SingleWriterOutput(targetWriter), 1, 1);
+        final IOException exception = Assertions.assertThrows(IOException.class, () -> {
+            try (GeneratorWriter writer = output.getWriter("out", new BasicOutputPreferences())) {
+                writer.append("a", null, -1);
+            }
+            output.closeAll();
+        });
+        Assertions.assertSame(failure, exception.getCause());
+    }
+
+    /**
+     * Ein Fehler beim Öffnen eines Kanals wird schon beim nächsten Zugriff des Generators gemeldet und nicht erst beim
+     * Schließen.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testFailFast() throws Exception {
+        final IOException failure = new IOException("Kanal kann nicht geöffnet werden");
+        final AsyncGeneratorOutput output = new AsyncGeneratorOutput(new GeneratorOutput() {
+
+            @Override
+            public GeneratorWriter getWriter(final String channelName, final OutputPreferences prefs)
+                    throws IOException {
+                throw failure;
+            }
+
+            @Override
+            public void closeAll() {
+                // nichts zu tun
+            }
+        }, 4, 1);
+        final BasicOutputPreferences prefs = new BasicOutputPreferences();
+        final GeneratorWriter writer = output.getWriter("a", prefs);
+        final IOException exception = Assertions.assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            while (true) {
+                try {
+                    writer.append("x", null, -1);
+                } catch (final IOException e) {
+                    return e;
+                }
+                Thread.sleep(10);
+            }
+        });
+        Assertions.assertSame(failure, exception.getCause());
+        Assertions.assertThrows(IOException.class, () -> output.getWriter("b", prefs));
+        Assertions.assertThrows(IOException.class, output::closeAll);
+    }
+
+    /**
+     * Ausgabeverwalter, der für jeden Kanal denselben Writer liefert.
+     *
+     * @author Christoph Lembeck
+     */
+    private static final class SingleWriterOutput implements GeneratorOutput {
+
+        /**
+         * Writer für alle Kanäle.
+         */
+        private final GeneratorWriter writer;
+
+        /**
+         * Erstellt einen neuen Verwalter.
+         *
+         * @param writer
+         *            Writer für alle Kanäle.
+         */
+        SingleWriterOutput(final GeneratorWriter writer) {
+            this.writer = writer;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public GeneratorWriter getWriter(final String channelName, final OutputPreferences prefs) {
+            return writer;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void closeAll() {
+            // die Writer werden einzeln geschlossen
+        }
+    }
+}
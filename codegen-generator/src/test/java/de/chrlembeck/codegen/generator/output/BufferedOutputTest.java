@@ -0,0 +1,131 @@
+package de.chrlembeck.codegen.generator.output;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests für das Sammeln der Ausgaben in Blöcken und das Auslagern der Kanäle durch den {@link BufferedOutput}.
+ *
+ * @author Christoph Lembeck
+ */
+public class BufferedOutputTest {
+
+    /**
+     * Verzeichnis für die ausgelagerten Kanäle.
+     */
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Ausgaben über mehrere Blöcke und über mehrere Writer desselben Kanals werden vollständig gesammelt.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testChunkedContent() throws Exception {
+        final BufferedOutput output = new BufferedOutput();
+        final StringBuilder expected = new StringBuilder();
+        try (GeneratorWriter writer = output.getWriter("out", null)) {
+            writer.append("x".repeat(BufferedOutput.SEGMENT_SIZE - 1), null, -1);
+            writer.append("ab", null, -1);
+            expected.append("x".repeat(BufferedOutput.SEGMENT_SIZE - 1)).append("ab");
+        }
+        try (GeneratorWriter writer = output.getWriter("out", null)) {
+            final String text = "0123456789".repeat(BufferedOutput.SEGMENT_SIZE);
+            writer.append(text, null, -1);
+            expected.append(text);
+        }
+        output.closeAll();
+        Assertions.assertEquals(expected.toString(), output.getContent("out"));
+        final CharSequence sequence = output.getContentSequence("out");
+        Assertions.assertEquals(expected.length(), sequence.length());
+        Assertions.assertEquals('a', sequence.charAt(BufferedOutput.SEGMENT_SIZE - 1));
+        Assertions.assertEquals("b0123", sequence.subSequence(BufferedOutput.SEGMENT_SIZE,
+                BufferedOutput.SEGMENT_SIZE + 5).toString());
+        Assertions.assertEquals(expected.toString(), read(output.openContentReader("out")));
+        Assertions.assertNull(output.getContent("unbekannt"));
+    }
+
+    /**
+     * Übersteigen die Ausgaben die Speichergrenze, werden die am längsten nicht beschriebenen Kanäle ausgelagert,
+     * bleiben aber vollständig lesbar.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testSpillToDisk() throws Exception {
+        final BufferedOutput output = new BufferedOutput();
+        output.setMemoryThreshold(4L * BufferedOutput.SEGMENT_SIZE);
+        output.setSpillDirectory(tempDir);
+        final List<GeneratorWriter> writers = new ArrayList<>();
+        final List<StringBuilder> expected = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            writers.add(output.getWriter("channel" + i, null));
+            expected.add(new StringBuilder());
+        }
+        for (int round = 0; round < 2000; round++) {
+            for (int i = 0; i < writers.size(); i++) {
+                final String text = "Zeile " + round + " in Kanal " + i + " äöü\n";
+                writers.get(i).append(text, null, -1);
+                expected.get(i).append(text);
+            }
+        }
+        output.closeAll();
+        Assertions.assertTrue(countFiles() > 0, "es wurden keine Kanäle ausgelagert");
+        for (int i = 0; i < writers.size(); i++) {
+            final String channelName = "channel" + i;
+            final String content = expected.get(i).toString();
+            Assertions.assertEquals(content, output.getContent(channelName));
+            Assertions.assertEquals(content, read(output.openContentReader(channelName)));
+            final CharSequence sequence = output.getContentSequence(channelName);
+            for (int index = 0; index < content.length(); index += 997) {
+                Assertions.assertEquals(content.charAt(index), sequence.charAt(index));
+            }
+        }
+        output.discard();
+        Assertions.assertEquals(0, countFiles());
+        Assertions.assertTrue(output.getChannelNames().isEmpty());
+    }
+
+    /**
+     * Liest den vollständigen Inhalt eines Readers.
+     *
+     * @param reader
+     *            Zu lesender Reader.
+     * @return Inhalt des Readers.
+     * @throws IOException
+     *             Bei einem Problem beim Lesen.
+     */
+    private static String read(final Reader reader) throws IOException {
+        final StringWriter content = new StringWriter();
+        try (Reader in = reader) {
+            in.transferTo(content);
+        }
+        return content.toString();
+    }
+
+    /**
+     * Zählt die Dateien im Verzeichnis für die ausgelagerten Kanäle.
+     *
+     * @return Anzahl der Dateien.
+     * @throws IOException
+     *             Falls das Verzeichnis nicht gelesen werden kann.
+     */
+    private long countFiles() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.count();
+        }
+    }
+}
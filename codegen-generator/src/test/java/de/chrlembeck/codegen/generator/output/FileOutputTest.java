@@ -0,0 +1,241 @@
+package de.chrlembeck.codegen.generator.output;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests für das Schreiben der generierten Artefakte in Dateien.
+ *
+ * @author Christoph Lembeck
+ */
+public class FileOutputTest {
+
+    /**
+     * Zeitpunkt, auf den die Änderungszeitpunkte der bestehenden Dateien zurückgesetzt werden.
+     */
+    private static final FileTime OLD_TIME = FileTime.fromMillis(1_000_000_000_000L);
+
+    /**
+     * Verzeichnis für die erzeugten Dateien.
+     */
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Mit {@link OverwritePreferences#WRITE_IF_CHANGED} werden nur Dateien mit geändertem Inhalt ersetzt.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testWriteIfChanged() throws Exception {
+        final String longContent = "x".repeat(20_000);
+        write("same.txt", "gleich", OverwritePreferences.OVERWRITE);
+        write("long.txt", longContent, OverwritePreferences.OVERWRITE);
+        write("changed.txt", "alt", OverwritePreferences.OVERWRITE);
+        write("prefix.txt", "abc", OverwritePreferences.OVERWRITE);
+        for (final String name : new String[] { "same.txt", "long.txt", "changed.txt", "prefix.txt" }) {
+            Files.setLastModifiedTime(tempDir.resolve(name), OLD_TIME);
+        }
+
+        write("same.txt", "gleich", OverwritePreferences.WRITE_IF_CHANGED);
+        write("long.txt", longContent, OverwritePreferences.WRITE_IF_CHANGED);
+        write("changed.txt", "neu", OverwritePreferences.WRITE_IF_CHANGED);
+        write("prefix.txt", "abd", OverwritePreferences.WRITE_IF_CHANGED);
+        write("new.txt", "neue Datei", OverwritePreferences.WRITE_IF_CHANGED);
+
+        Assertions.assertEquals(OLD_TIME, Files.getLastModifiedTime(tempDir.resolve("same.txt")));
+        Assertions.assertEquals(OLD_TIME, Files.getLastModifiedTime(tempDir.resolve("long.txt")));
+        Assertions.assertNotEquals(OLD_TIME, Files.getLastModifiedTime(tempDir.resolve("changed.txt")));
+        Assertions.assertEquals("neu", read("changed.txt"));
+        Assertions.assertEquals("abd", read("prefix.txt"));
+        Assertions.assertEquals("neue Datei", read("new.txt"));
+        try (Stream<Path> files = Files.list(tempDir)) {
+            Assertions.assertEquals(5, files.count(), "temporäre Dateien wurden nicht entfernt");
+        }
+    }
+
+    /**
+     * Mit {@link OverwritePreferences#OVERWRITE} werden die Dateien immer neu geschrieben.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testOverwrite() throws Exception {
+        write("same.txt", "gleich", OverwritePreferences.OVERWRITE);
+        Files.setLastModifiedTime(tempDir.resolve("same.txt"), OLD_TIME);
+        write("same.txt", "gleich", OverwritePreferences.OVERWRITE);
+        Assertions.assertNotEquals(OLD_TIME, Files.getLastModifiedTime(tempDir.resolve("same.txt")));
+    }
+
+    /**
+     * Werden mehr Kanäle gleichzeitig beschrieben, als Dateien geöffnet sein dürfen, werden die am längsten nicht
+     * verwendeten Dateien geschlossen und beim nächsten Schreiben fortgesetzt.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testMaxOpenFiles() throws Exception {
+        final FileOutput<TextGeneratorWriter> output = FileOutput.simpleTextOutput(tempDir);
+        output.setMaxOpenFiles(2);
+        final BasicOutputPreferences preferences = new BasicOutputPreferences();
+        preferences.setDefaultCharset(StandardCharsets.UTF_8);
+        final List<GeneratorWriter> writers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            writers.add(output.getWriter("dir/file" + i + ".txt", preferences));
+            Assertions.assertTrue(output.getOpenFileCount() <= 2);
+        }
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < writers.size(); i++) {
+                writers.get(i).append(round + "-" + i + ";", null, -1);
+                Assertions.assertTrue(output.getOpenFileCount() <= 2);
+            }
+        }
+        output.closeAll();
+        Assertions.assertEquals(0, output.getOpenFileCount());
+        for (int i = 0; i < writers.size(); i++) {
+            Assertions.assertEquals("0-" + i + ";1-" + i + ";2-" + i + ";", read("dir/file" + i + ".txt"));
+        }
+    }
+
+    /**
+     * Beim Fortsetzen einer verdrängten Datei wird die Byte-Order-Mark des Zeichensatzes nicht erneut geschrieben.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testReopenWithByteOrderMark() throws Exception {
+        final FileOutput<TextGeneratorWriter> output = FileOutput.simpleTextOutput(tempDir);
+        output.setMaxOpenFiles(1);
+        final BasicOutputPreferences preferences = new BasicOutputPreferences();
+        preferences.setDefaultCharset(StandardCharsets.UTF_16);
+        final GeneratorWriter first = output.getWriter("first.txt", preferences);
+        final GeneratorWriter second = output.getWriter("second.txt", preferences);
+        for (int round = 0; round < 2; round++) {
+            first.append("a" + round, null, -1);
+            second.append("b" + round, null, -1);
+        }
+        output.closeAll();
+        Assertions.assertEquals("a0a1", Files.readString(tempDir.resolve("first.txt"), StandardCharsets.UTF_16));
+        Assertions.assertEquals("b0b1", Files.readString(tempDir.resolve("second.txt"), StandardCharsets.UTF_16));
+        Assertions.assertEquals(2 + 2 * 4, Files.size(tempDir.resolve("first.txt")));
+    }
+
+    /**
+     * Wird ein Kanal nach dem Schließen erneut angefordert, wird die Ausgabe an die Datei angehängt. Eine beim ersten
+     * Anfordern beibehaltene Datei bleibt auch bei weiteren Anforderungen unverändert.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testReopenChannel() throws Exception {
+        write("same.txt", "alt", OverwritePreferences.OVERWRITE);
+        for (final OverwritePreferences overwritePreferences : new OverwritePreferences[] {
+            OverwritePreferences.OVERWRITE, OverwritePreferences.WRITE_IF_CHANGED,
+            OverwritePreferences.KEEP_EXISTING }) {
+            final FileOutput<TextGeneratorWriter> output = FileOutput.simpleTextOutput(tempDir);
+            final BasicOutputPreferences preferences = new BasicOutputPreferences();
+            preferences.setDefaultCharset(StandardCharsets.UTF_8);
+            preferences.setDefaultOverwritePreferences(overwritePreferences);
+            final String name = overwritePreferences + ".txt";
+            for (final String channelName : new String[] { name, "same.txt", name, "same.txt" }) {
+                try (GeneratorWriter writer = output.getWriter(channelName, preferences)) {
+                    writer.append("[" + channelName + "]", null, -1);
+                }
+            }
+            output.closeAll();
+            Assertions.assertEquals("[" + name + "][" + name + "]", read(name));
+            Assertions.assertEquals("[same.txt][same.txt]", read("same.txt"));
+        }
+    }
+
+    /**
+     * Die Dateien können auch in ein anderes Dateisystem wie ein ZIP-Archiv geschrieben werden.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testZipFileSystem() throws Exception {
+        final Path zipFile = tempDir.resolve("out.zip");
+        try (FileSystem zipFileSystem = FileSystems.newFileSystem(zipFile, Map.of("create", "true"))) {
+            final Path root = zipFileSystem.getPath("/");
+            for (final OverwritePreferences overwritePreferences : new OverwritePreferences[] {
+                OverwritePreferences.OVERWRITE, OverwritePreferences.WRITE_IF_CHANGED }) {
+                final FileOutput<TextGeneratorWriter> output = FileOutput.simpleTextOutput(root);
+                final BasicOutputPreferences preferences = new BasicOutputPreferences();
+                preferences.setDefaultCharset(StandardCharsets.UTF_8);
+                preferences.setDefaultOverwritePreferences(overwritePreferences);
+                for (final String channelName : new String[] { "de/test/A.java", "de/test/B.java", "de/test/A.java" }) {
+                    try (GeneratorWriter writer = output.getWriter(channelName, preferences)) {
+                        writer.append(overwritePreferences + ";", null, -1);
+                    }
+                }
+                output.closeAll();
+                Assertions.assertEquals(overwritePreferences + ";" + overwritePreferences + ";",
+                        Files.readString(root.resolve("de/test/A.java"), StandardCharsets.UTF_8));
+                Assertions.assertEquals(overwritePreferences + ";",
+                        Files.readString(root.resolve("de/test/B.java"), StandardCharsets.UTF_8));
+            }
+        }
+        try (FileSystem zipFileSystem = FileSystems.newFileSystem(zipFile)) {
+            try (Stream<Path> files = Files.list(zipFileSystem.getPath("/de/test"))) {
+                Assertions.assertEquals(2, files.count(), "temporäre Dateien wurden nicht entfernt");
+            }
+        }
+    }
+
+    /**
+     * Schreibt den Inhalt über einen neuen Ausgabeverwalter in einen Kanal.
+     *
+     * @param channelName
+     *            Name des Kanals.
+     * @param content
+     *            Zu schreibender Inhalt.
+     * @param overwritePreferences
+     *            Verhalten beim Antreffen einer bestehenden Datei.
+     * @throws IOException
+     *             Bei einem Problem beim Schreiben.
+     */
+    private void write(final String channelName, final String content,
+            final OverwritePreferences overwritePreferences) throws IOException {
+        final FileOutput<TextGeneratorWriter> output = FileOutput.simpleTextOutput(tempDir);
+        final BasicOutputPreferences preferences = new BasicOutputPreferences();
+        preferences.setDefaultCharset(StandardCharsets.UTF_8);
+        preferences.setDefaultOverwritePreferences(overwritePreferences);
+        try (GeneratorWriter writer = output.getWriter(channelName, preferences)) {
+            writer.append(content, null, -1);
+        }
+        output.closeAll();
+    }
+
+    /**
+     * Liest den Inhalt einer erzeugten Datei.
+     *
+     * @param name
+     *            Name der Datei.
+     * @return Inhalt der Datei.
+     * @throws IOException
+     *             Bei einem Problem beim Lesen.
+     */
+    private String read(final String name) throws IOException {
+        return Files.readString(tempDir.resolve(name), StandardCharsets.UTF_8);
+    }
+}
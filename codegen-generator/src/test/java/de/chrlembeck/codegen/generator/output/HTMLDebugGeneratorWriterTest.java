@@ -0,0 +1,79 @@
+package de.chrlembeck.codegen.generator.output;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.chrlembeck.codegen.generator.Generator;
+import de.chrlembeck.codegen.generator.SimpleTemplateResolver;
+import de.chrlembeck.codegen.generator.TemplateCache;
+
+/**
+ * Tests für die Aufbereitung der generierten Ausgabe als HTML-Seite zur Fehlersuche.
+ *
+ * @author Christoph Lembeck
+ */
+public class HTMLDebugGeneratorWriterTest {
+
+    /**
+     * Verzeichnis für Template und Ausgaben.
+     */
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Fragmente werden maskiert, gezählt und verweisen über die Quellen-Tabelle auf das Template.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testFragmentsAndSourceTable() throws Exception {
+        final Path templatePath = tempDir.resolve("template.codegen");
+        Files.writeString(templatePath, "«TEMPLATE root FOR java.util.List»«OUTPUT \"debug out\"»"
+                + "«FOREACH item FROM this»<b>«item»</b>\n«ENDFOREACH»«ENDOUTPUT»«ENDTEMPLATE»",
+                StandardCharsets.UTF_8);
+        final URI template = templatePath.toUri();
+        final Map<String, HTMLDebugGeneratorWriter> writers = new TreeMap<>();
+        final FileOutput<HTMLDebugGeneratorWriter> output = new FileOutput<>(tempDir.resolve("debug"),
+                (writer, channelName, path) -> {
+                    final HTMLDebugGeneratorWriter debugWriter = new HTMLDebugGeneratorWriter(writer, channelName,
+                            path, null);
+                    writers.put(channelName, debugWriter);
+                    return debugWriter;
+                });
+        output.setSuffix(".html");
+        final BasicOutputPreferences preferences = new BasicOutputPreferences();
+        preferences.setDefaultCharset(StandardCharsets.UTF_8);
+        new Generator(new SimpleTemplateResolver(template, new TemplateCache()), output, preferences)
+                .generate(template, "root", Arrays.asList("a & \"b\"", "ä😀"));
+        output.closeAll();
+
+        final HTMLDebugGeneratorWriter writer = writers.get("debug out");
+        Assertions.assertEquals(3, writer.getLineCount());
+        Assertions.assertEquals("<b>a & \"b\"</b>\n<b>ä😀</b>\n".length(), writer.getCharacterCount());
+
+        final String html = Files.readString(writer.getOutputPath(), StandardCharsets.UTF_8);
+        Assertions.assertTrue(html.contains("Channel: debug out</div>"));
+        Assertions.assertFalse(html.contains("title="), "Metadaten dürfen nicht pro Fragment ausgegeben werden");
+        Assertions.assertTrue(html.contains(">a&#x22C5;&amp;&#x22C5;&quot;b&quot;</a>"));
+        Assertions.assertTrue(html.contains(">&#xe4;&#x1f600;</a>"));
+        Assertions.assertTrue(html.contains("&lt;/b&gt;&#x21B5;\n</a>"));
+
+        // Die drei Quellen (zwei statische Texte, ein Ausdruck) stehen unabhängig von der Anzahl der Elemente nur
+        // einmal in der Tabelle.
+        final int tableStart = html.indexOf("SOURCES = [");
+        final String sources = html.substring(tableStart, html.indexOf("];", tableStart));
+        Assertions.assertEquals(3, sources.split("\n").length);
+        Assertions.assertTrue(html.contains("TEMPLATES = [\"" + template + "\"]"));
+        Assertions.assertTrue(html.contains("<span id=\"token_0_"));
+    }
+}
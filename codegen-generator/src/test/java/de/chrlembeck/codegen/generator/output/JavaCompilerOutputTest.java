@@ -0,0 +1,101 @@
+package de.chrlembeck.codegen.generator.output;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.chrlembeck.codegen.generator.Generator;
+import de.chrlembeck.codegen.generator.SimpleGeneratorTest;
+import de.chrlembeck.codegen.generator.SimpleTemplateResolver;
+import de.chrlembeck.codegen.generator.lang.TemplateFile;
+
+/**
+ * Tests für die Übersetzung der generierten Java-Quelltexte durch den {@link JavaCompilerOutput}.
+ *
+ * @author Christoph Lembeck
+ */
+public class JavaCompilerOutputTest {
+
+    /**
+     * Template, das eine Klasse mit dem Modell als Rumpf erzeugt.
+     */
+    private static final String TEMPLATE = "«TEMPLATE root FOR java.lang.String»"
+            + "«OUTPUT \"de/test/Foo.java\"»package de.test;\n"
+            + "public class Foo {\n"
+            + "    «this»\n"
+            + "}\n«ENDOUTPUT»"
+            + "«OUTPUT \"de/test/foo.properties\"»key=value«ENDOUTPUT»"
+            + "«ENDTEMPLATE»";
+
+    /**
+     * Verzeichnis für die übersetzten Klassen.
+     */
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Gültige Quelltexte werden im Speicher übersetzt, alle übrigen Kanäle werden weitergereicht.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testCompile() throws Exception {
+        final BufferedOutput resources = new BufferedOutput();
+        final JavaCompilerOutput output = new JavaCompilerOutput(resources);
+        output.setClassOutputDirectory(tempDir);
+        generate(output, "private int value = 1;");
+        output.closeAll();
+        final Map<String, byte[]> classFiles = output.getClassFiles();
+        Assertions.assertEquals(1, classFiles.size());
+        Assertions.assertTrue(classFiles.containsKey("de.test.Foo"));
+        Assertions.assertTrue(Files.isRegularFile(tempDir.resolve("de/test/Foo.class")));
+        Assertions.assertArrayEquals(classFiles.get("de.test.Foo"),
+                output.getWrittenClassFiles().get(tempDir.resolve("de/test/Foo.class")));
+        Assertions.assertEquals("key=value", resources.getContent("de/test/foo.properties"));
+        Assertions.assertNull(resources.getContent("de/test/Foo.java"));
+    }
+
+    /**
+     * Fehler im Quelltext werden auf die Stelle im Template zurückgeführt, die den fehlerhaften Abschnitt erzeugt hat.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testCompilationError() throws Exception {
+        final JavaCompilerOutput output = new JavaCompilerOutput(new BufferedOutput());
+        generate(output, "private int value = ;");
+        final JavaCompilationException exception = Assertions.assertThrows(JavaCompilationException.class,
+                output::closeAll);
+        Assertions.assertFalse(exception.getErrors().isEmpty());
+        final CompilerMessage error = exception.getErrors().get(0);
+        Assertions.assertEquals("de/test/Foo.java", error.getChannelName());
+        Assertions.assertEquals(3, error.getLine());
+        Assertions.assertNotNull(error.getTemplateResource());
+        Assertions.assertEquals(3, exception.getStartPosition().getLine());
+        Assertions.assertTrue(output.getClassFiles().isEmpty());
+    }
+
+    /**
+     * Führt das Template mit dem übergebenen Modell aus.
+     *
+     * @param output
+     *            Ausgabeverwalter für den Generator.
+     * @param model
+     *            Rumpf der zu erzeugenden Klasse.
+     * @throws IOException
+     *             Bei einem Problem bei der Ausgabe.
+     */
+    private static void generate(final GeneratorOutput output, final String model) throws IOException {
+        final TemplateFile templateFile = SimpleGeneratorTest.parse(TEMPLATE);
+        final Generator generator = new Generator(new SimpleTemplateResolver(templateFile), output,
+                new BasicOutputPreferences());
+        generator.generate(templateFile.getResourceIdentifier(), "root", model);
+    }
+}
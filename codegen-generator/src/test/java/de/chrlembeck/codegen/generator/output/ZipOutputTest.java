@@ -0,0 +1,96 @@
+package de.chrlembeck.codegen.generator.output;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests für das Schreiben der generierten Artefakte in ein ZIP-Archiv.
+ *
+ * @author Christoph Lembeck
+ */
+public class ZipOutputTest {
+
+    /**
+     * Verzeichnis für das erzeugte Archiv.
+     */
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Gleichzeitig geöffnete Kanäle werden als vollständige Einträge in das Archiv geschrieben, noch offene Kanäle
+     * beim Abschließen des Archivs.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testWriteEntries() throws Exception {
+        final Path zipFile = tempDir.resolve("out.zip");
+        final ZipOutput<TextGeneratorWriter> output = ZipOutput.simpleTextOutput(zipFile);
+        final BasicOutputPreferences preferences = new BasicOutputPreferences();
+        preferences.setDefaultCharset(StandardCharsets.UTF_8);
+        try (GeneratorWriter outer = output.getWriter("/de/test/Foo.java", preferences)) {
+            outer.append("class Foo {", null, -1);
+            try (GeneratorWriter inner = output.getWriter("de/test/Bar.java", preferences)) {
+                inner.append("class Bär {}", null, -1);
+            }
+            outer.append("}", null, -1);
+        }
+        output.getWriter("open.txt", preferences).append("offen", null, -1);
+        output.closeAll();
+
+        try (ZipFile zip = new ZipFile(zipFile.toFile(), StandardCharsets.UTF_8)) {
+            final List<String> names = new ArrayList<>();
+            for (final ZipEntry entry : Collections.list(zip.entries())) {
+                names.add(entry.getName());
+            }
+            Assertions.assertEquals(List.of("de/test/Bar.java", "de/test/Foo.java", "open.txt"), names);
+            Assertions.assertEquals("class Foo {}", read(zip, "de/test/Foo.java"));
+            Assertions.assertEquals("class Bär {}", read(zip, "de/test/Bar.java"));
+            Assertions.assertEquals("offen", read(zip, "open.txt"));
+        }
+    }
+
+    /**
+     * Ein bereits in das Archiv geschriebener Kanal kann nicht erneut angefordert werden.
+     *
+     * @throws Exception
+     *             Bei einem Laufzeitproblem.
+     */
+    @Test
+    public void testChannelWrittenOnce() throws Exception {
+        final ZipOutput<TextGeneratorWriter> output = ZipOutput.simpleTextOutput(tempDir.resolve("out.zip"));
+        final BasicOutputPreferences preferences = new BasicOutputPreferences();
+        try (GeneratorWriter writer = output.getWriter("a.txt", preferences)) {
+            writer.append("a", null, -1);
+        }
+        Assertions.assertThrows(ZipException.class, () -> output.getWriter("a.txt", preferences));
+        output.closeAll();
+    }
+
+    /**
+     * Liest den Inhalt eines Eintrags.
+     *
+     * @param zip
+     *            Zu lesendes Archiv.
+     * @param name
+     *            Name des Eintrags.
+     * @return Inhalt des Eintrags.
+     * @throws IOException
+     *             Bei einem Problem beim Lesen.
+     */
+    private static String read(final ZipFile zip, final String name) throws IOException {
+        return new String(zip.getInputStream(zip.getEntry(name)).readAllBytes(), StandardCharsets.UTF_8);
+    }
+}
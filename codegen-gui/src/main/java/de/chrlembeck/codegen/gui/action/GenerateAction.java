@@ -2,14 +2,18 @@ package de.chrlembeck.codegen.gui.action;
 
 import java.awt.Desktop;
 import java.awt.event.ActionEvent;
+import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
 
 import javax.swing.AbstractAction;
+import javax.swing.JFileChooser;
 import javax.swing.JOptionPane;
+import javax.swing.filechooser.FileNameExtensionFilter;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,6 +23,8 @@ import de.chrlembeck.codegen.generator.Generator;
 import de.chrlembeck.codegen.generator.GeneratorException;
 import de.chrlembeck.codegen.generator.ParserException;
 import de.chrlembeck.codegen.generator.SimpleTemplateResolver;
+import de.chrlembeck.codegen.generator.TemplateCache;
+import de.chrlembeck.codegen.generator.TemplateProfiler;
 import de.chrlembeck.codegen.generator.lang.TemplateFile;
 import de.chrlembeck.codegen.generator.lang.TemplateStatement;
 import de.chrlembeck.codegen.generator.output.BasicOutputPreferences;
@@ -126,14 +132,46 @@ public class GenerateAction extends AbstractAction {
                     throw new IllegalStateException();
 
             }
+            final TemplateProfiler profiler = generateDialog.profileEnabled() ? new TemplateProfiler() : null;
+            generator.setProfiler(profiler);
             final TemplateStatement selectedTemplate = generateDialog.getSelectedTemplate();
             generate(generator, templateFile, selectedTemplate.getName());
+            if (profiler != null) {
+                saveProfile(profiler);
+            }
             if (debugEnabled && outputSelection == OutputSelection.APPLICATION_OUTPUT) {
                 openDebugDialog(generator.getGeneratorOutput());
             }
         }
     }
 
+    /**
+     * Fragt nach einer Datei für das Laufzeitprofil und speichert dort die JSON-Zusammenfassung. Die Aufrufpfade für
+     * Flame-Graphs werden in eine gleichnamige Datei mit der Endung {@code .collapsed} geschrieben.
+     * 
+     * @param profiler
+     *            Profiler mit den Laufzeitdaten der Generierung.
+     */
+    private void saveProfile(final TemplateProfiler profiler) {
+        final FileNameExtensionFilter filter = new FileNameExtensionFilter("JSON-Dateien", "json");
+        final JFileChooser chooser = CodeGenGui.createFileChooser(new UserSettings().getLastOutputDirectory(),
+                filter, JFileChooser.FILES_ONLY);
+        chooser.setDialogTitle("Laufzeitprofil speichern");
+        chooser.setSelectedFile(new File(chooser.getCurrentDirectory(), "codegen-profile.json"));
+        if (chooser.showSaveDialog(codeGenGui) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        final String fileName = chooser.getSelectedFile().getAbsolutePath();
+        final String baseName = fileName.endsWith(".json") ? fileName.substring(0, fileName.length() - 5) : fileName;
+        try {
+            profiler.writeSummary(Paths.get(baseName + ".json"));
+            profiler.writeCollapsedStacks(Paths.get(baseName + ".collapsed"));
+        } catch (final IOException e) {
+            LOGGER.error("Das Laufzeitprofil konnte nicht gespeichert werden: " + e.getMessage(), e);
+            codeGenGui.showErrorMessage(e.getMessage(), "Laufzeitprofil nicht gespeichert");
+        }
+    }
+
     private void openDebugDialog(final GeneratorOutput generatorOutput) {
         final GuiDebugOutput debugOutput = (GuiDebugOutput) generatorOutput;
         new DebugDialog(codeGenGui, debugOutput).setVisible(true);
@@ -194,13 +232,14 @@ public class GenerateAction extends AbstractAction {
             final String tokenCSS = tokenStyles.toCSS();
             final FileOutput<HTMLDebugGeneratorWriter> debugOutput = new FileOutput<>(
                     debugOutputDirectory,
-                    (writer, channelName, path) -> new HTMLDebugGeneratorWriter(writer, channelName, path.toFile(),
+                    (writer, channelName, path) -> new HTMLDebugGeneratorWriter(writer, channelName, path,
                             tokenCSS));
             debugOutput.setSuffix(".html");
             out = new CombinedGeneratorOutput(out, debugOutput);
         }
 
-        final SimpleTemplateResolver templateResolver = new SimpleTemplateResolver(templateFile);
+        final SimpleTemplateResolver templateResolver = new SimpleTemplateResolver(templateFile,
+                TemplateCache.getSharedInstance());
         final BasicOutputPreferences outputPreferences = new BasicOutputPreferences();
         outputPreferences.setDefaultCharset(Charset.forName("UTF-8"));
         outputPreferences.setDefaultOverwritePreferences(overwritePreferences);
@@ -221,7 +260,8 @@ public class GenerateAction extends AbstractAction {
         final GeneratorOutput out = debugEnabled ? new GuiDebugOutput(codeGenGui) : new GuiOutput(codeGenGui);
         final URI templateResourceLocator = templateFile.getResourceIdentifier();
         LOGGER.debug("templateResourceLocator=" + templateResourceLocator);
-        final SimpleTemplateResolver templateResolver = new SimpleTemplateResolver(templateFile);
+        final SimpleTemplateResolver templateResolver = new SimpleTemplateResolver(templateFile,
+                TemplateCache.getSharedInstance());
         final Generator generator = new Generator(templateResolver, out,
                 new BasicOutputPreferences());
         codeGenGui.removeAllOutputPanels();
@@ -6,6 +6,8 @@ import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TreeMap;
@@ -28,10 +30,9 @@ public class GuiDebugOutput implements GeneratorOutput {
     @Override
     public HTMLDebugGeneratorWriter getWriter(final String channelName, final OutputPreferences prefs)
             throws IOException {
-        final File tempFile = File.createTempFile("codegen_debug_", ".html");
-        tempFile.deleteOnExit();
-        final Writer writer = new OutputStreamWriter(new FileOutputStream(tempFile),
-                prefs.getCharsetForChannel(channelName));
+        final Path tempFile = Files.createTempFile("codegen_debug_", ".html");
+        tempFile.toFile().deleteOnExit();
+        final Writer writer = Files.newBufferedWriter(tempFile, prefs.getCharsetForChannel(channelName));
         final String tokenCSS = codeGenGui.getTokenStyles().toCSS();
         final HTMLDebugGeneratorWriter debugWriter = new HTMLDebugGeneratorWriter(writer, channelName, tempFile,
                 tokenCSS);
@@ -68,7 +69,7 @@ public class GuiDebugOutput implements GeneratorOutput {
             for (final Entry<String, HTMLDebugGeneratorWriter> entry : getWriters().entrySet()) {
                 final HTMLDebugGeneratorWriter debugWriter = entry.getValue();
                 writer.append("<li><a href=\"");
-                writer.append(debugWriter.getOutputFile().toURI().toURL().toString());
+                writer.append(debugWriter.getOutputPath().toUri().toURL().toString());
                 writer.append("\">");
                 writer.append(entry.getKey() + " (" + debugWriter.getCharacterCount() + " Zeichen, "
                         + debugWriter.getLineCount() + " Zeilen)");
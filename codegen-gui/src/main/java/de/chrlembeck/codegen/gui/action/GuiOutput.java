@@ -6,8 +6,6 @@ import javax.swing.text.BadLocationException;
 import javax.swing.text.Document;
 import javax.swing.text.JTextComponent;
 
-import org.antlr.v4.runtime.ParserRuleContext;
-import org.antlr.v4.runtime.tree.TerminalNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -47,13 +45,7 @@ public class GuiOutput implements GeneratorOutput {
         }
 
         @Override
-        public void append(final String text, final Executable<?> sourceExecutable, final TerminalNode node)
-                throws IOException {
-            append(text);
-        }
-
-        @Override
-        public void append(final String text, final Executable<?> sourceExecutable, final ParserRuleContext context)
+        public void append(final String text, final Executable<?> sourceExecutable, final int sourceLocation)
                 throws IOException {
             append(text);
         }
@@ -4,9 +4,9 @@ import java.awt.BorderLayout;
 import java.awt.Dimension;
 import java.awt.event.ItemEvent;
 import java.awt.event.KeyEvent;
-import java.io.File;
 import java.io.Serial;
 import java.net.MalformedURLException;
+import java.nio.file.Path;
 import java.util.Map.Entry;
 
 import javax.swing.JComboBox;
@@ -83,10 +83,10 @@ public class DebugDialog extends AbstractDialog {
         final ToStringWrapper<Entry<String, HTMLDebugGeneratorWriter>> item = (ToStringWrapper<Entry<String, HTMLDebugGeneratorWriter>>) event
                 .getItem();
         final HTMLDebugGeneratorWriter writer = item.getObject().getValue();
-        final File file = writer.getOutputFile();
+        final Path file = writer.getOutputPath();
         Platform.runLater(() -> {
             try {
-                final String url = file.toURI().toURL().toString();
+                final String url = file.toUri().toURL().toString();
                 webView.getEngine().load(url);
             } catch (final MalformedURLException e) {
                 // TODO Auto-generated catch block
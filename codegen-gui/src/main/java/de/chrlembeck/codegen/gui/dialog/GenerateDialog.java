@@ -45,6 +45,8 @@ public class GenerateDialog extends AbstractDialog {
 
     private JCheckBox cbDebug;
 
+    private JCheckBox cbProfile;
+
     private JRadioButton rbFileOutput;
 
     private JRadioButton rbGuiOutput;
@@ -57,6 +59,8 @@ public class GenerateDialog extends AbstractDialog {
 
     private JRadioButton rbExistingReplace;
 
+    private JRadioButton rbExistingReplaceChanged;
+
     public GenerateDialog(final CodeGenGui codeGenGui, final List<TemplateStatement> templates,
             final Function<TemplateStatement, String> toStringFunction) {
         super(codeGenGui, "Generieren");
@@ -87,13 +91,16 @@ public class GenerateDialog extends AbstractDialog {
         tfDirectory = new DirectoryTextField();
         tfDebugDirectory = new DirectoryTextField();
         cbDebug = new JCheckBox("Debug-Ausgabe", false);
+        cbProfile = new JCheckBox("Laufzeitprofil erstellen", false);
         rbExistingException = new JRadioButton("Fehlermeldung erzeugen");
         rbExistingKeep = new JRadioButton("Behalten");
         rbExistingReplace = new JRadioButton("Überschreiben");
+        rbExistingReplaceChanged = new JRadioButton("Nur bei Änderungen überschreiben");
         final ButtonGroup bgExisting = new ButtonGroup();
         bgExisting.add(rbExistingException);
         bgExisting.add(rbExistingKeep);
         bgExisting.add(rbExistingReplace);
+        bgExisting.add(rbExistingReplaceChanged);
         rbExistingException.setSelected(true);
 
         lbDirectory.setLabelFor(tfDirectory);
@@ -125,8 +132,12 @@ public class GenerateDialog extends AbstractDialog {
                 GridBagConstraints.NONE, new Insets(5, 5, 5, 5), 0, 0));
         panel.add(rbExistingReplace, new GridBagConstraints(1, 7, 1, 1, 1, 0, GridBagConstraints.WEST,
                 GridBagConstraints.NONE, new Insets(0, 5, 5, 5), 0, 0));
-        panel.add(rbExistingKeep, new GridBagConstraints(1, 8, 1, 1, 1, 0, GridBagConstraints.WEST,
+        panel.add(rbExistingReplaceChanged, new GridBagConstraints(1, 8, 1, 1, 1, 0, GridBagConstraints.WEST,
                 GridBagConstraints.NONE, new Insets(0, 5, 5, 5), 0, 0));
+        panel.add(rbExistingKeep, new GridBagConstraints(1, 9, 1, 1, 1, 0, GridBagConstraints.WEST,
+                GridBagConstraints.NONE, new Insets(0, 5, 5, 5), 0, 0));
+        panel.add(cbProfile, new GridBagConstraints(1, 10, 1, 1, 1, 0, GridBagConstraints.WEST,
+                GridBagConstraints.NONE, new Insets(5, 5, 5, 5), 0, 0));
 
         rbFileOutput.addItemListener(this::fileOutputSelectionChanged);
         cbDebug.addItemListener(this::debugSelectionChanged);
@@ -136,6 +147,8 @@ public class GenerateDialog extends AbstractDialog {
         rbExistingException.setMnemonic(KeyEvent.VK_F);
         rbExistingKeep.setMnemonic(KeyEvent.VK_B);
         rbExistingReplace.setMnemonic(KeyEvent.VK_S);
+        rbExistingReplaceChanged.setMnemonic(KeyEvent.VK_N);
+        cbProfile.setMnemonic(KeyEvent.VK_L);
         lbDirectory.setDisplayedMnemonic(KeyEvent.VK_V);
         lbDebugDirectory.setDisplayedMnemonic(KeyEvent.VK_G);
         tfDirectory.setMnemonic(KeyEvent.VK_V);
@@ -163,6 +176,7 @@ public class GenerateDialog extends AbstractDialog {
         rbExistingException.setEnabled(enabled);
         rbExistingKeep.setEnabled(enabled);
         rbExistingReplace.setEnabled(enabled);
+        rbExistingReplaceChanged.setEnabled(enabled);
         tfDirectory.setEnabled(enabled);
         tfDebugDirectory.setEnabled(enabled && cbDebug.isSelected());
     }
@@ -201,6 +215,9 @@ public class GenerateDialog extends AbstractDialog {
         if (rbExistingReplace.isSelected()) {
             return OverwritePreferences.OVERWRITE;
         }
+        if (rbExistingReplaceChanged.isSelected()) {
+            return OverwritePreferences.WRITE_IF_CHANGED;
+        }
         if (rbExistingKeep.isSelected()) {
             return OverwritePreferences.KEEP_EXISTING;
         }
@@ -211,6 +228,10 @@ public class GenerateDialog extends AbstractDialog {
         return cbDebug.isSelected();
     }
 
+    public boolean profileEnabled() {
+        return cbProfile.isSelected();
+    }
+
     public Path getDebugOutputDirectory() {
         return tfDebugDirectory.getSelectedDirectory();
     }
@@ -5,8 +5,16 @@ import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.net.URI;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.ForkJoinPool;
 
+import org.apache.maven.artifact.Artifact;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
@@ -19,16 +27,21 @@ import org.apache.maven.plugins.annotations.ResolutionScope;
 import org.apache.maven.project.MavenProject;
 
 import de.chrlembeck.codegen.generator.AbstractCodeGenException;
+import de.chrlembeck.codegen.generator.GenerationManifest;
 import de.chrlembeck.codegen.generator.Generator;
+import de.chrlembeck.codegen.generator.ParseTreeStore;
 import de.chrlembeck.codegen.generator.SimpleTemplateResolver;
-import de.chrlembeck.codegen.generator.TemplateResolver;
+import de.chrlembeck.codegen.generator.TemplateProfiler;
 import de.chrlembeck.codegen.generator.model.ModelFactoryHelper;
+import de.chrlembeck.codegen.generator.output.AsyncGeneratorOutput;
 import de.chrlembeck.codegen.generator.output.BasicOutputPreferences;
 import de.chrlembeck.codegen.generator.output.CombinedGeneratorOutput;
 import de.chrlembeck.codegen.generator.output.FileOutput;
 import de.chrlembeck.codegen.generator.output.GeneratorOutput;
 import de.chrlembeck.codegen.generator.output.HTMLDebugGeneratorWriter;
+import de.chrlembeck.codegen.generator.output.JavaCompilerOutput;
 import de.chrlembeck.codegen.generator.output.OverwritePreferences;
+import de.chrlembeck.codegen.generator.output.TextGeneratorWriter;
 
 /**
  * Führt die angegebenen Templates aus und erzeugt daraus den entsprechenden Output.
@@ -37,12 +50,72 @@ import de.chrlembeck.codegen.generator.output.OverwritePreferences;
 @Execute()
 public class CodeGenMojo extends AbstractMojo {
 
+    /**
+     * Name des Verzeichnisses unterhalb des Build-Verzeichnisses, in dem die Syntaxbäume der Templates und die Manifeste
+     * der inkrementellen Generierung abgelegt werden.
+     */
+    private static final String CACHE_DIRECTORY = "codegen-cache";
+
+    /**
+     * Name des Verzeichnisses unterhalb des Build-Verzeichnisses, in dem die Laufzeitprofile abgelegt werden.
+     */
+    private static final String PROFILE_DIRECTORY = "codegen-profile";
+
     /**
      * Liste von Templates, die im Laufe des Builds ausgeführt werden sollen.
      */
     @Parameter(property = "generate.templates")
     private List<Template> templates;
 
+    /**
+     * Legt fest, ob die OUTPUT-Blöcke der Templates parallel ausgeführt werden sollen. Die erzeugten Artefakte sind in
+     * beiden Fällen identisch.
+     */
+    @Parameter(property = "generate.parallel", defaultValue = "false")
+    private boolean parallel;
+
+    /**
+     * Legt fest, ob die Syntaxbäume der Templates im Build-Verzeichnis zwischengespeichert werden, so dass unveränderte
+     * Templates bei späteren Builds nicht erneut geparst werden müssen.
+     */
+    @Parameter(property = "generate.parseTreeCache", defaultValue = "true")
+    private boolean parseTreeCache;
+
+    /**
+     * Legt fest, ob die Generierung inkrementell erfolgen soll. In diesem Fall wird für jedes Template ein Manifest
+     * mit den Prüfsummen der Templates, des Modells und der erzeugten Dateien im Build-Verzeichnis abgelegt. Hat sich
+     * seit dem letzten Build nichts geändert, wird die Generierung übersprungen. Andernfalls werden nur die Dateien
+     * geschrieben, deren Inhalt sich tatsächlich geändert hat, so dass alle anderen Dateien ihren Änderungszeitpunkt
+     * behalten.
+     */
+    @Parameter(property = "generate.incremental", defaultValue = "false")
+    private boolean incremental;
+
+    /**
+     * Legt fest, ob für jedes Template ein Laufzeitprofil erstellt werden soll. Das Profil wird im Build-Verzeichnis
+     * als Collapsed-Stack-Datei für Flame-Graphs ({@code profile-<n>.collapsed}) und als JSON-Zusammenfassung pro
+     * Template, Schleife, Template-Aufruf und Ausdruck ({@code profile-<n>.json}) abgelegt.
+     */
+    @Parameter(property = "generate.profile", defaultValue = "false")
+    private boolean profile;
+
+    /**
+     * Legt fest, ob die erzeugten Artefakte in einem eigenen Thread geschrieben werden, so dass die Auswertung der
+     * Templates nicht auf das Schreiben der Dateien warten muss.
+     */
+    @Parameter(property = "generate.asyncOutput", defaultValue = "false")
+    private boolean asyncOutput;
+
+    /**
+     * Legt fest, ob die erzeugten Java-Quelltexte direkt im Speicher übersetzt werden. Die Klassen werden in das
+     * Ausgabeverzeichnis des Scopes geschrieben, die Quelltexte selbst nicht. Fehler des Compilers werden auf die
+     * Stellen in den Templates zurückgeführt. Die Quelltexte dürfen dabei nur von den Abhängigkeiten des Projekts,
+     * nicht aber von seinen eigenen Quelltexten abhängen. Die Übersetzung ist nur für Templates mit dem Scope COMPILE
+     * möglich, da das Plugin die Abhängigkeiten im Scope test nicht auflöst.
+     */
+    @Parameter(property = "generate.compile", defaultValue = "false")
+    private boolean compile;
+
     /**
      * The current Maven project.
      */
@@ -76,19 +149,33 @@ public class CodeGenMojo extends AbstractMojo {
             final String outputPath = template.getOutputPath(project);
             final File outputBaseDir = new File(project.getBasedir(), outputPath);
             log.info("outputPath=" + outputPath + ". Ausgabe erfolgt in " + outputBaseDir.getAbsolutePath());
-            GeneratorOutput generatorOutput = FileOutput.simpleTextOutput(outputBaseDir.toPath());
+            final FileOutput<TextGeneratorWriter> textOutput = FileOutput.simpleTextOutput(outputBaseDir.toPath());
+            textOutput.setWriteOnlyChanged(incremental);
+            GeneratorOutput generatorOutput = textOutput;
+            FileOutput<HTMLDebugGeneratorWriter> debugOutput = null;
             if (template.isGenerateDebugHtml()) {
                 final String debugOutputPath = template.getDebugOutputPath();
                 final File debugOutputBaseDir = new File(project.getBasedir(), debugOutputPath);
                 log.info("debugOutputPath=" + debugOutputPath + ". Debug-Ausgabe erfolgt in "
                         + debugOutputBaseDir.getAbsolutePath());
-                final FileOutput<HTMLDebugGeneratorWriter> debugOutput = new FileOutput<>(
+                debugOutput = new FileOutput<>(
                         debugOutputBaseDir.toPath(),
-                        (writer, channelName, path) -> new HTMLDebugGeneratorWriter(writer, channelName,
-                                path.toFile(), null));
+                        (writer, channelName, path) -> new HTMLDebugGeneratorWriter(writer, channelName, path,
+                                null));
                 debugOutput.setSuffix(".html");
+                debugOutput.setWriteOnlyChanged(incremental);
                 generatorOutput = new CombinedGeneratorOutput(generatorOutput, debugOutput);
             }
+            JavaCompilerOutput compilerOutput = null;
+            if (compile) {
+                log.info("Die Java-Quelltexte werden direkt übersetzt.");
+                compilerOutput = createCompilerOutput(generatorOutput, template.getArtifactScope());
+                generatorOutput = compilerOutput;
+            }
+            if (asyncOutput) {
+                log.info("Die Ausgaben werden asynchron geschrieben.");
+                generatorOutput = new AsyncGeneratorOutput(generatorOutput);
+            }
 
             addSourceRoot(outputBaseDir, template.getArtifactScope());
 
@@ -96,7 +183,11 @@ public class CodeGenMojo extends AbstractMojo {
             log.info("templateFile=" + templateFile.getAbsolutePath());
             final URI rootResourceIdentifier = templateFile.toURI();
             log.info("rootResourceIdentifier=" + rootResourceIdentifier);
-            final TemplateResolver resolver = new SimpleTemplateResolver(rootResourceIdentifier);
+            final SimpleTemplateResolver resolver = new SimpleTemplateResolver(rootResourceIdentifier);
+            if (parseTreeCache) {
+                resolver.setParseTreeStore(
+                        new ParseTreeStore(Paths.get(project.getBuild().getDirectory(), CACHE_DIRECTORY)));
+            }
 
             final Object model = ladeModel(template);
             final BasicOutputPreferences preferences = new BasicOutputPreferences();
@@ -106,11 +197,177 @@ public class CodeGenMojo extends AbstractMojo {
             log.info("overwritePreferences=" + overwritePreferences);
             preferences.setDefaultOverwritePreferences(overwritePreferences);
             final Generator generator = new Generator(resolver, generatorOutput, preferences);
+            if (parallel) {
+                log.info("OUTPUT-Blöcke werden parallel ausgeführt.");
+                generator.setOutputExecutor(ForkJoinPool.commonPool());
+            }
+            final Path manifestFile = Paths.get(project.getBuild().getDirectory(), CACHE_DIRECTORY,
+                    "manifest-" + templateIndex + ".txt");
+            final GenerationManifest manifest = incremental
+                    ? new GenerationManifest(describeConfiguration(template, outputBaseDir, generator),
+                            GenerationManifest.fingerprint(model))
+                    : null;
+            if (incremental) {
+                final GenerationManifest previousManifest = GenerationManifest.read(manifestFile);
+                if (previousManifest != null && previousManifest.isUpToDate(manifest)) {
+                    log.info("Templates und Modell sind unverändert. Die Generierung wird übersprungen.");
+                    continue;
+                }
+                deleteManifest(manifestFile);
+            }
+            final TemplateProfiler profiler = profile ? new TemplateProfiler() : null;
+            generator.setProfiler(profiler);
             try {
-                generator.generate(rootResourceIdentifier, template.getTemplateName(), model);
+                generateAndClose(generator, generatorOutput, rootResourceIdentifier, template.getTemplateName(),
+                        model);
             } catch (IOException | AbstractCodeGenException e) {
                 fail("Bei der Codegenerierung ist ein Fehler aufgetreten.", e);
             }
+            if (profile) {
+                writeProfile(profiler, templateIndex);
+            }
+            if (incremental) {
+                writeManifest(manifest, manifestFile, resolver, compilerOutput, textOutput, debugOutput);
+            }
+        }
+    }
+
+    /**
+     * Führt die Generierung aus und schließt anschließend alle Ausgabekanäle. Die Kanäle werden auch dann geschlossen,
+     * wenn die Generierung mit einem Fehler abbricht, damit keine Dateien geöffnet bleiben und ein Schreib-Thread der
+     * asynchronen Ausgabe beendet wird. Ein Fehler beim Schließen wird in diesem Fall dem ursprünglichen Fehler als
+     * unterdrückte Exception angehängt.
+     * 
+     * @param generator
+     *            Konfigurierter Generator.
+     * @param generatorOutput
+     *            Ausgabeverwalter des Generators.
+     * @param rootResourceIdentifier
+     *            Identifier der Template-Datei mit dem Einstiegs-Template.
+     * @param templateName
+     *            Name des Einstiegs-Templates.
+     * @param model
+     *            Modell, für das generiert wird.
+     * @throws IOException
+     *             Falls bei der Ausgabe oder beim Schließen der Kanäle ein Fehler auftritt.
+     */
+    private static void generateAndClose(final Generator generator, final GeneratorOutput generatorOutput,
+            final URI rootResourceIdentifier, final String templateName, final Object model) throws IOException {
+        try {
+            generator.generate(rootResourceIdentifier, templateName, model);
+        } catch (final Throwable t) {
+            try {
+                generatorOutput.closeAll();
+            } catch (final IOException | RuntimeException closeException) {
+                t.addSuppressed(closeException);
+            }
+            throw t;
+        }
+        generatorOutput.closeAll();
+    }
+
+    /**
+     * Beschreibt alle Einstellungen eines Templates und des Plugins, die Einfluss darauf haben, was bei der Generierung
+     * geschrieben wird.
+     * 
+     * @param template
+     *            Konfiguration des Templates.
+     * @param outputBaseDir
+     *            Verzeichnis für die erzeugten Artefakte.
+     * @param generator
+     *            Für die Generierung konfigurierter Generator.
+     * @return Textuelle Beschreibung der Einstellungen.
+     */
+    private String describeConfiguration(final Template template, final File outputBaseDir,
+            final Generator generator) {
+        return template + ", outputBaseDir=" + outputBaseDir.getAbsolutePath() + ", outputEncoding="
+                + template.getOutputEncoding() + ", overwritePreferences=" + template.getOverwritePreferences()
+                + ", generateDebugHtml=" + template.isGenerateDebugHtml() + ", debugOutputPath="
+                + template.getDebugOutputPath() + ", compile=" + compile + ", asyncOutput=" + asyncOutput
+                + ", parallel=" + parallel + ", executionMode=" + generator.getExecutionMode();
+    }
+
+    /**
+     * Speichert das Laufzeitprofil eines Templates im Build-Verzeichnis.
+     * 
+     * @param profiler
+     *            Profiler mit den erfassten Laufzeitdaten.
+     * @param templateIndex
+     *            Index des Templates in der Konfiguration.
+     * @throws MojoExecutionException
+     *             Falls das Profil nicht geschrieben werden kann.
+     */
+    private void writeProfile(final TemplateProfiler profiler, final int templateIndex)
+            throws MojoExecutionException {
+        final Path profileDirectory = Paths.get(project.getBuild().getDirectory(), PROFILE_DIRECTORY);
+        final Path collapsedFile = profileDirectory.resolve("profile-" + templateIndex + ".collapsed");
+        final Path summaryFile = profileDirectory.resolve("profile-" + templateIndex + ".json");
+        try {
+            profiler.writeCollapsedStacks(collapsedFile);
+            profiler.writeSummary(summaryFile);
+        } catch (final IOException e) {
+            throw new MojoExecutionException("Das Laufzeitprofil kann nicht in " + profileDirectory
+                    + " geschrieben werden.", e);
+        }
+        getLog().info("Laufzeitprofil gespeichert in " + collapsedFile + " und " + summaryFile);
+    }
+
+    /**
+     * Löscht das Manifest einer vorherigen Generierung, damit nach einer abgebrochenen Generierung kein veraltetes
+     * Manifest zurückbleibt.
+     * 
+     * @param manifestFile
+     *            Datei mit dem Manifest.
+     * @throws MojoExecutionException
+     *             Falls die Datei nicht gelöscht werden kann.
+     */
+    private void deleteManifest(final Path manifestFile) throws MojoExecutionException {
+        try {
+            Files.deleteIfExists(manifestFile);
+        } catch (final IOException e) {
+            throw new MojoExecutionException("Das Manifest " + manifestFile + " kann nicht gelöscht werden.", e);
+        }
+    }
+
+    /**
+     * Vervollständigt das Manifest um die verwendeten Template-Dateien sowie die erzeugten Dateien und speichert es für
+     * den nächsten Build.
+     * 
+     * @param manifest
+     *            Manifest mit Konfiguration und Fingerabdruck des Modells.
+     * @param manifestFile
+     *            Datei für das Manifest.
+     * @param resolver
+     *            Resolver, über den die Template-Dateien geladen wurden.
+     * @param compilerOutput
+     *            Ausgabeverwalter für die Übersetzung der Java-Quelltexte oder null, falls nicht übersetzt wurde.
+     * @param outputs
+     *            Ausgabeverwalter der Generierung. Nicht verwendete Verwalter sind null.
+     * @throws MojoExecutionException
+     *             Falls das Manifest nicht geschrieben werden kann.
+     */
+    private void writeManifest(final GenerationManifest manifest, final Path manifestFile,
+            final SimpleTemplateResolver resolver, final JavaCompilerOutput compilerOutput,
+            final FileOutput<?>... outputs) throws MojoExecutionException {
+        try {
+            for (final URI templateResourceIdentifier : resolver.getLoadedResourceIdentifiers()) {
+                manifest.addTemplate(templateResourceIdentifier);
+            }
+            if (compilerOutput != null) {
+                for (final Entry<Path, byte[]> classFile : compilerOutput.getWrittenClassFiles().entrySet()) {
+                    manifest.addOutputContent(classFile.getKey(), classFile.getValue());
+                }
+            }
+            for (final FileOutput<?> output : outputs) {
+                if (output != null) {
+                    for (final Entry<Path, byte[]> entry : output.getContentHashes().entrySet()) {
+                        manifest.addOutput(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+            manifest.write(manifestFile);
+        } catch (final IOException e) {
+            throw new MojoExecutionException("Das Manifest " + manifestFile + " kann nicht geschrieben werden.", e);
         }
     }
 
@@ -186,6 +443,47 @@ public class CodeGenMojo extends AbstractMojo {
         throw new MojoFailureException(message, cause);
     }
 
+    /**
+     * Erstellt den Ausgabeverwalter für die direkte Übersetzung der Java-Quelltexte. Die Klassen werden in das
+     * Ausgabeverzeichnis des Projekts übersetzt, der Klassenpfad wird aus den aufgelösten Abhängigkeiten bestimmt.
+     *
+     * @param resourceOutput
+     *            Ausgabeverwalter für alle übrigen Artefakte.
+     * @param artifactScope
+     *            Scope, für den die Quelltexte erzeugt werden.
+     * @return Ausgabeverwalter für die Übersetzung.
+     * @throws MojoFailureException
+     *             Falls der Scope keine Übersetzung erlaubt. Das ist für alle Scopes außer COMPILE der Fall.
+     */
+    private JavaCompilerOutput createCompilerOutput(final GeneratorOutput resourceOutput,
+            final ArtifactScope artifactScope) throws MojoFailureException {
+        final List<String> classpath = new ArrayList<>();
+        final String classOutputDirectory;
+        switch (artifactScope) {
+            case COMPILE:
+                classOutputDirectory = project.getBuild().getOutputDirectory();
+                break;
+            case TEST:
+                throw new MojoFailureException("Für den Scope " + artifactScope
+                        + " können die Java-Quelltexte nicht übersetzt werden, da die Test-Abhängigkeiten des Projekts"
+                        + " nicht aufgelöst werden. Bitte generate.compile deaktivieren.");
+            default:
+                throw new MojoFailureException(
+                        "Für den Scope " + artifactScope + " können die Java-Quelltexte nicht übersetzt werden.");
+        }
+        for (final Object artifact : project.getArtifacts()) {
+            final File file = ((Artifact) artifact).getFile();
+            if (file != null) {
+                classpath.add(file.getAbsolutePath());
+            }
+        }
+        getLog().info("Klassen werden nach '" + classOutputDirectory + "' übersetzt.");
+        final JavaCompilerOutput compilerOutput = new JavaCompilerOutput(resourceOutput);
+        compilerOutput.setClassOutputDirectory(Paths.get(classOutputDirectory));
+        compilerOutput.setCompilerOptions(Arrays.asList("-classpath", String.join(File.pathSeparator, classpath)));
+        return compilerOutput;
+    }
+
     /**
      * Fügt das angegebene Verzeichnis zu einem Compile-Root des Build-Prozesses hinzu.
      * 
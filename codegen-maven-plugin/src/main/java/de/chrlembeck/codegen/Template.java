@@ -75,7 +75,7 @@ public class Template {
 
     /**
      * Legt das Verhalten des Generators beim Antreffen einer zu überschreibenden Datei fest. Mögliche Optionen sind
-     * KEEP_EXISTING, OVERWRITE und THROW_EXCEPTION.
+     * KEEP_EXISTING, OVERWRITE, WRITE_IF_CHANGED und THROW_EXCEPTION.
      */
     @Parameter(property = "generate.overwritePreferences", defaultValue = "THROW_EXCEPTION")
     private OverwritePreferences overwritePreferences = OverwritePreferences.THROW_EXCEPTION;
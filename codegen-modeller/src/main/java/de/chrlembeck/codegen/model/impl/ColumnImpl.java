@@ -131,6 +131,10 @@ public class ColumnImpl implements Column, Serializable {
     private Boolean primaryKeyColumn;
 
 
+    public void setTable(Table table) {
+        this.table = table;
+    }
+
     @Override
     public Table getTable() {
         return table;
@@ -6,10 +6,20 @@ import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.sql.DataSource;
 
@@ -25,50 +35,191 @@ public class GenericDBModelReader {
 
     private DataSource dataSource;
 
+    /**
+     * Anzahl der Verbindungen, über die die Metadaten der Tabellen gleichzeitig gelesen werden.
+     */
+    private int parallelism = 1;
+
+    /**
+     * Legt fest, ob die Spalten eines Schemas mit einer einzigen Abfrage gelesen werden.
+     */
+    private boolean bulkMetaData;
+
+    /**
+     * Wird über den Fortschritt beim Lesen der Tabellen informiert oder null.
+     */
+    private ProgressListener progressListener;
+
     public GenericDBModelReader(final DataSource dataSource) {
         this.dataSource = dataSource;
     }
 
+    /**
+     * Legt fest, über wie viele Verbindungen der DataSource die Spalten, Primärschlüssel und Referenzen der Tabellen
+     * gleichzeitig gelesen werden. Die Reihenfolge der Elemente im Modell hängt davon nicht ab.
+     *
+     * @param parallelism
+     *            Maximale Anzahl gleichzeitig geöffneter Verbindungen. Bei 1 wird das Modell über eine einzige
+     *            Verbindung gelesen.
+     */
+    public void setParallelism(final int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism muss mindestens 1 sein: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Legt fest, ob die Spalten aller Tabellen eines Schemas mit einem einzigen Aufruf von
+     * {@link DatabaseMetaData#getColumns(String, String, String, String)} gelesen und anschließend im Speicher auf die
+     * Tabellen verteilt werden. Das ist bei vielen Tabellen deutlich schneller, setzt aber einen Treiber voraus, der
+     * null als Muster für den Tabellennamen unterstützt.
+     *
+     * @param bulkMetaData
+     *            true, falls die Spalten schemaweise gelesen werden sollen.
+     */
+    public void setBulkMetaData(final boolean bulkMetaData) {
+        this.bulkMetaData = bulkMetaData;
+    }
+
+    /**
+     * Legt fest, wer über den Fortschritt beim Lesen der Tabellen informiert wird.
+     *
+     * @param progressListener
+     *            Empfänger der Fortschrittsmeldungen oder null.
+     */
+    public void setProgressListener(final ProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
     public Model readModel(final String schemaPattern) throws SQLException {
         LOGGER.debug("reading model.");
         try (final Connection con = dataSource.getConnection()) {
             final DatabaseMetaData metaData = con.getMetaData();
             final Model model = new ModelImpl();
             readCatalogs(model, metaData);
+            final List<Schema> schemas = new ArrayList<>();
+            final List<Table> tables = new ArrayList<>();
             for (final Catalog catalog : model.getCatalogs()) {
                 LOGGER.info("reading catalog: '" + catalog.getCatalogName() + "'.");
                 readSchemas(catalog, metaData, schemaPattern);
                 for (final Schema schema : catalog.getSchemas()) {
                     LOGGER.info("reading schema: '" + schema.getSchemaName() + "'.");
                     readTables(schema, metaData);
+                    schemas.add(schema);
                     for (final Table table : schema.getTables()) {
-                        LOGGER.info("reading table: '" + table.getTableName() + "'.");
-                        readColumns(table, metaData);
-                        LOGGER.info("reading primary keys");
-                        readPrimaryKeys(table, metaData);
+                        tables.add(table);
                     }
                 }
             }
 
-            for (final Catalog catalog : model.getCatalogs()) {
-                for (final Schema schema : catalog.getSchemas()) {
-                    for (final Table entity : schema.getTables()) {
-                        LOGGER.info("reading references for: " + entity.getSchema().getSchemaName() + "."
-                                + entity.getTableName());
-                        readReferences(model, entity, metaData);
-                    }
+            final MetaDataTaskRunner runner = parallelism > 1 ? new MetaDataTaskRunner(parallelism) : null;
+            try {
+                if (bulkMetaData) {
+                    runTasks(runner, metaData, "columns", schemas, this::readSchemaColumns);
+                    runTasks(runner, metaData, "primary keys", tables, this::readPrimaryKeys);
+                } else {
+                    runTasks(runner, metaData, "columns and primary keys", tables, (table, tableMetaData) -> {
+                        readColumns(table, tableMetaData);
+                        readPrimaryKeys(table, tableMetaData);
+                    });
+                }
+                final Map<List<String>, Column> columnIndex = createColumnIndex(tables);
+                runTasks(runner, metaData, "references", tables,
+                        (table, tableMetaData) -> readReferences(columnIndex, table, tableMetaData));
+            } finally {
+                if (runner != null) {
+                    runner.close();
                 }
             }
-
             return model;
         }
     }
 
-    private void readReferences(final Model model, final Table entity, final DatabaseMetaData metaData)
-            throws SQLException {
-        try (ResultSet rs = metaData.getCrossReference(entity.getSchema().getCatalog().getCatalogName(),
-                entity.getSchema().getSchemaName(), entity.getTableName(), null, null,
-                null)) {
+    /**
+     * Führt eine Aufgabe für jedes der übergebenen Elemente aus. Ohne runner werden die Aufgaben nacheinander über
+     * die übergebenen Metadaten ausgeführt, sonst verteilt über die Verbindungen des runners.
+     *
+     * @param runner
+     *            Verteilt die Aufgaben auf mehrere Verbindungen oder null.
+     * @param metaData
+     *            Metadaten der Hauptverbindung für die sequentielle Ausführung.
+     * @param phase
+     *            Bezeichnung der Aufgaben für die Fortschrittsmeldungen.
+     * @param elements
+     *            Elemente, für die die Aufgabe ausgeführt wird.
+     * @param task
+     *            Auszuführende Aufgabe.
+     * @param <T>
+     *            Typ der Elemente.
+     * @throws SQLException
+     *             Falls eine der Aufgaben fehlschlägt.
+     */
+    private <T> void runTasks(final MetaDataTaskRunner runner, final DatabaseMetaData metaData, final String phase,
+            final List<T> elements, final MetaDataTask<T> task) throws SQLException {
+        LOGGER.info("reading " + phase + " for " + elements.size() + " elements.");
+        final AtomicInteger done = new AtomicInteger();
+        final MetaDataTask<T> reportingTask = (element, elementMetaData) -> {
+            task.read(element, elementMetaData);
+            reportProgress(phase, done.incrementAndGet(), elements.size());
+        };
+        if (runner == null) {
+            for (final T element : elements) {
+                reportingTask.read(element, metaData);
+            }
+        } else {
+            runner.run(elements, reportingTask);
+        }
+    }
+
+    /**
+     * Meldet den Fortschritt an den Listener und in das Log.
+     *
+     * @param phase
+     *            Bezeichnung der laufenden Aufgaben.
+     * @param done
+     *            Anzahl der bereits erledigten Aufgaben.
+     * @param total
+     *            Gesamtzahl der Aufgaben.
+     */
+    private void reportProgress(final String phase, final int done, final int total) {
+        if (done == total || done % Math.max(1, total / 20) == 0) {
+            LOGGER.info("reading " + phase + ": " + done + " of " + total + ".");
+        }
+        if (progressListener != null) {
+            progressListener.progress(phase, done, total);
+        }
+    }
+
+    /**
+     * Erstellt ein Verzeichnis aller Spalten der übergebenen Tabellen für die Auflösung der Referenzen.
+     *
+     * @param tables
+     *            Tabellen des Modells.
+     * @return Zuordnung von Katalog, Schema, Tabelle und Spaltenname zu der jeweiligen Spalte.
+     */
+    private static Map<List<String>, Column> createColumnIndex(final List<Table> tables) {
+        final Map<List<String>, Column> columnIndex = new HashMap<>();
+        for (final Table table : tables) {
+            for (final Column column : table.getColumns()) {
+                columnIndex.putIfAbsent(columnKey(table.getSchema().getCatalog().getCatalogName(),
+                        table.getSchema().getSchemaName(), table.getTableName(), column.getColumnName()), column);
+            }
+        }
+        return columnIndex;
+    }
+
+    private static List<String> columnKey(final String catalogName, final String schemaName, final String tableName,
+            final String columnName) {
+        // manche Treiber liefern für Datenbanken ohne Kataloge einen Leerstring statt null
+        final String catalog = catalogName == null || catalogName.isEmpty() ? null : catalogName;
+        return Arrays.asList(catalog, schemaName, tableName, columnName);
+    }
+
+    private void readReferences(final Map<List<String>, Column> columnIndex, final Table entity,
+            final DatabaseMetaData metaData) throws SQLException {
+        try (ResultSet rs = metaData.getExportedKeys(entity.getSchema().getCatalog().getCatalogName(),
+                entity.getSchema().getSchemaName(), entity.getTableName())) {
             // final ConsoleTable table = extractData(rs);
             // System.out.println(table.toString());
 
@@ -98,8 +249,8 @@ public class GenericDBModelReader {
                     pkAttributes.clear();
                     fkAttributes.clear();
                 }
-                pkAttributes.add(getAttributeByNames(model, pkCatalogName, pkSchemaName, pkTableName, pkColumnName));
-                fkAttributes.add(getAttributeByNames(model, fkCatalogName, fkSchemaName, fkTableName, fkColumnName));
+                pkAttributes.add(columnIndex.get(columnKey(pkCatalogName, pkSchemaName, pkTableName, pkColumnName)));
+                fkAttributes.add(columnIndex.get(columnKey(fkCatalogName, fkSchemaName, fkTableName, fkColumnName)));
 
             }
             if (!pkAttributes.isEmpty()) {
@@ -114,28 +265,111 @@ public class GenericDBModelReader {
         try (ResultSet rs = metaData.getColumns(table.getSchema().getCatalog().getCatalogName(),
                 table.getSchema().getSchemaName(), table.getTableName(), null)) {
             while (rs.next()) {
-                Column column = new ColumnImpl();
-                column.setColumnName(rs.getString(4));
-                column.setDataType(rs.getInt(5));
-                column.setTypeName(rs.getString(6));
-                column.setColumnSize(rs.getInt(7));
-                column.setDecimalDigits(rs.getInt(9));
-                column.setNumPrecRadix(rs.getInt(10));
-                column.setNullable(rs.getInt(11));
-                column.setRemarks(rs.getString(12));
-                column.setColumnDef(rs.getString(13));
-                column.setCharOctetLength(rs.getInt(16));
-                column.setOrdinalPosition(rs.getInt(17));
-                column.setIsNullable(rs.getString(18));
-                column.setScopeCatalog(rs.getString(19));
-                column.setScopeSchema(rs.getString(20));
-                column.setScopeTable(rs.getString(21));
-                column.setSourceDataType(rs.getString(22));
-                column.setIsAutoincrement(rs.getString(23));
-                column.setIsGeneratedColumn(rs.getString(24));
-                table.addColumn(column);
+                addColumn(table, createColumn(rs));
+            }
+        }
+    }
+
+    /**
+     * Liest die Spalten aller Tabellen eines Schemas mit einer einzigen Abfrage und verteilt sie anhand des
+     * Tabellennamens auf die bereits gelesenen Tabellen. Spalten unbekannter Tabellen werden ignoriert. Da der
+     * Schemaname von {@link DatabaseMetaData#getColumns(String, String, String, String)} als Muster interpretiert wird,
+     * werden die Platzhalter im Namen maskiert und zusätzlich nur die Zeilen übernommen, deren Schema genau
+     * übereinstimmt.
+     *
+     * @param schema
+     *            Schema, dessen Spalten gelesen werden.
+     * @param metaData
+     *            Metadaten der Verbindung.
+     * @throws SQLException
+     *             Falls die Spalten nicht gelesen werden können.
+     */
+    protected void readSchemaColumns(final Schema schema, final DatabaseMetaData metaData) throws SQLException {
+        final Map<String, Table> tablesByName = new HashMap<>();
+        for (final Table table : schema.getTables()) {
+            tablesByName.put(table.getTableName(), table);
+        }
+        final String schemaName = schema.getSchemaName();
+        try (ResultSet rs = metaData.getColumns(schema.getCatalog().getCatalogName(),
+                escapePattern(schemaName, metaData), null, null)) {
+            while (rs.next()) {
+                if (schemaName != null && !schemaName.equals(rs.getString(2))) {
+                    continue;
+                }
+                final Table table = tablesByName.get(rs.getString(3));
+                if (table != null) {
+                    addColumn(table, createColumn(rs));
+                }
+            }
+        }
+    }
+
+    /**
+     * Maskiert die Platzhalter '_' und '%' in einem Namen, damit er in den Methoden der {@link DatabaseMetaData}, die
+     * Muster erwarten, nur sich selbst findet.
+     *
+     * @param name
+     *            Zu maskierender Name oder null.
+     * @param metaData
+     *            Metadaten der Verbindung, aus denen das Maskierungszeichen gelesen wird.
+     * @return Maskierter Name. Unterstützt der Treiber keine Maskierung, wird der Name unverändert zurückgegeben.
+     * @throws SQLException
+     *             Falls das Maskierungszeichen nicht gelesen werden kann.
+     */
+    private static String escapePattern(final String name, final DatabaseMetaData metaData) throws SQLException {
+        final String escape = metaData.getSearchStringEscape();
+        if (name == null || escape == null || escape.isEmpty()) {
+            return name;
+        }
+        final StringBuilder escaped = new StringBuilder(name.length() + 8);
+        for (int i = 0; i < name.length(); i++) {
+            final char c = name.charAt(i);
+            if (c == '_' || c == '%' || name.startsWith(escape, i)) {
+                escaped.append(escape);
             }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
+    private static void addColumn(final Table table, final Column column) {
+        if (column instanceof ColumnImpl) {
+            ((ColumnImpl) column).setTable(table);
         }
+        table.addColumn(column);
+    }
+
+    /**
+     * Erstellt eine Spalte aus der aktuellen Zeile eines Ergebnisses von
+     * {@link DatabaseMetaData#getColumns(String, String, String, String)}.
+     *
+     * @param rs
+     *            Ergebnis, das auf der zu lesenden Zeile steht.
+     * @return Neue Spalte.
+     * @throws SQLException
+     *             Falls die Zeile nicht gelesen werden kann.
+     */
+    protected Column createColumn(final ResultSet rs) throws SQLException {
+        final Column column = new ColumnImpl();
+        column.setColumnName(rs.getString(4));
+        column.setDataType(rs.getInt(5));
+        column.setTypeName(rs.getString(6));
+        column.setColumnSize(rs.getInt(7));
+        column.setDecimalDigits(rs.getInt(9));
+        column.setNumPrecRadix(rs.getInt(10));
+        column.setNullable(rs.getInt(11));
+        column.setRemarks(rs.getString(12));
+        column.setColumnDef(rs.getString(13));
+        column.setCharOctetLength(rs.getInt(16));
+        column.setOrdinalPosition(rs.getInt(17));
+        column.setIsNullable(rs.getString(18));
+        column.setScopeCatalog(rs.getString(19));
+        column.setScopeSchema(rs.getString(20));
+        column.setScopeTable(rs.getString(21));
+        column.setSourceDataType(rs.getString(22));
+        column.setIsAutoincrement(rs.getString(23));
+        column.setIsGeneratedColumn(rs.getString(24));
+        return column;
     }
 
     protected void readPrimaryKeys(final Table entity, final DatabaseMetaData metaData) throws SQLException {
@@ -163,7 +397,8 @@ public class GenericDBModelReader {
             while (rs.next()) {
                 final String tableName = rs.getString(3);
                 final String tableType = rs.getString(4);
-                final Table table = new TableImpl();
+                final TableImpl table = new TableImpl();
+                table.setSchema(schema);
                 table.setTableName(tableName);
                 table.setTableType(tableType);
                 schema.addTable(table);
@@ -189,7 +424,8 @@ public class GenericDBModelReader {
         try (ResultSet rs = metaData.getSchemas(catalog.getCatalogName(), schemaPattern)) {
             while (rs.next()) {
                 final String schemaName = rs.getString(1);
-                final Schema schema = new SchemaImpl();
+                final SchemaImpl schema = new SchemaImpl();
+                schema.setCatalog(catalog);
                 schema.setSchemaName(schemaName);
                 catalog.addSchema(schema);
             }
@@ -240,4 +476,130 @@ public class GenericDBModelReader {
         }
         return null;
     }
+
+    /**
+     * Empfänger für den Fortschritt beim Lesen der Metadaten.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+
+        /**
+         * Wird nach jeder gelesenen Tabelle bzw. jedem gelesenen Schema aufgerufen. Beim parallelen Lesen erfolgt der
+         * Aufruf aus den Threads, die die Metadaten lesen.
+         *
+         * @param phase
+         *            Bezeichnung der laufenden Aufgaben.
+         * @param done
+         *            Anzahl der bereits erledigten Aufgaben.
+         * @param total
+         *            Gesamtzahl der Aufgaben in dieser Phase.
+         */
+        void progress(String phase, int done, int total);
+    }
+
+    /**
+     * Aufgabe, die die Metadaten zu einem Element des Modells liest.
+     *
+     * @param <T>
+     *            Typ des Elements.
+     */
+    @FunctionalInterface
+    private interface MetaDataTask<T> {
+
+        void read(T element, DatabaseMetaData metaData) throws SQLException;
+    }
+
+    /**
+     * Verteilt Aufgaben auf einen Pool von Threads, von denen jeder höchstens eine Verbindung der DataSource belegt.
+     * Die Verbindungen werden erst bei Bedarf geöffnet und von den Aufgaben nacheinander wiederverwendet.
+     */
+    private final class MetaDataTaskRunner {
+
+        private final ExecutorService executor;
+
+        private final BlockingQueue<Connection> idleConnections;
+
+        private final List<Connection> connections = new ArrayList<>();
+
+        MetaDataTaskRunner(final int threads) {
+            this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+                final Thread thread = new Thread(runnable, "codegen-metadata-reader");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.idleConnections = new ArrayBlockingQueue<>(threads);
+        }
+
+        <T> void run(final List<T> elements, final MetaDataTask<T> task) throws SQLException {
+            final List<Future<Void>> futures = new ArrayList<>(elements.size());
+            for (final T element : elements) {
+                futures.add(executor.submit(() -> {
+                    final Connection con = acquire();
+                    try {
+                        task.read(element, con.getMetaData());
+                    } finally {
+                        idleConnections.add(con);
+                    }
+                    return null;
+                }));
+            }
+            try {
+                for (final Future<Void> future : futures) {
+                    future.get();
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("reading meta data interrupted.", e);
+            } catch (final ExecutionException e) {
+                futures.forEach(future -> future.cancel(false));
+                final Throwable cause = e.getCause();
+                if (cause instanceof SQLException) {
+                    throw (SQLException) cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new SQLException(cause.getMessage(), cause);
+            }
+        }
+
+        private Connection acquire() throws SQLException {
+            final Connection idle = idleConnections.poll();
+            if (idle != null) {
+                return idle;
+            }
+            final Connection con = dataSource.getConnection();
+            synchronized (connections) {
+                connections.add(con);
+            }
+            return con;
+        }
+
+        void close() throws SQLException {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            SQLException failure = null;
+            synchronized (connections) {
+                for (final Connection con : connections) {
+                    try {
+                        con.close();
+                    } catch (final SQLException e) {
+                        if (failure == null) {
+                            failure = e;
+                        } else {
+                            failure.addSuppressed(e);
+                        }
+                    }
+                }
+                connections.clear();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -12,7 +12,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import de.chrlembeck.codegen.model.Catalog;
-import de.chrlembeck.codegen.model.Table;
 
 public class OracleDBModelReader extends GenericDBModelReader {
 
@@ -23,26 +22,21 @@ public class OracleDBModelReader extends GenericDBModelReader {
     }
 
     @Override
-    protected void readColumns(final Table table, final DatabaseMetaData metaData) throws SQLException {
-        try (ResultSet rs = metaData.getColumns(table.getSchema().getCatalog().getCatalogName(),
-                table.getSchema().getSchemaName(), table.getTableName(), null)) {
-            while (rs.next()) {
-                final Column column = new ColumnImpl();
-                column.setColumnName(rs.getString(4));
-                column.setDataType(rs.getInt(5));
-                column.setTypeName(rs.getString(6));
-                column.setColumnSize(rs.getInt(7));
-                column.setDecimalDigits(rs.getInt(9));
-                column.setNumPrecRadix(rs.getInt(10));
-                column.setNullable(rs.getInt(11));
-                column.setRemarks(rs.getString(12));
-                column.setColumnDef(rs.getString(13));
-                column.setCharOctetLength(rs.getInt(16));
-                column.setOrdinalPosition(rs.getInt(17));
-                column.setIsNullable(rs.getString(18));
-                table.addColumn(column);
-            }
-        }
+    protected Column createColumn(final ResultSet rs) throws SQLException {
+        final Column column = new ColumnImpl();
+        column.setColumnName(rs.getString(4));
+        column.setDataType(rs.getInt(5));
+        column.setTypeName(rs.getString(6));
+        column.setColumnSize(rs.getInt(7));
+        column.setDecimalDigits(rs.getInt(9));
+        column.setNumPrecRadix(rs.getInt(10));
+        column.setNullable(rs.getInt(11));
+        column.setRemarks(rs.getString(12));
+        column.setColumnDef(rs.getString(13));
+        column.setCharOctetLength(rs.getInt(16));
+        column.setOrdinalPosition(rs.getInt(17));
+        column.setIsNullable(rs.getString(18));
+        return column;
     }
 
     @Override
@@ -0,0 +1,134 @@
+package de.chrlembeck.codegen.model.impl;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.derby.jdbc.EmbeddedDataSource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import de.chrlembeck.codegen.model.Catalog;
+import de.chrlembeck.codegen.model.Column;
+import de.chrlembeck.codegen.model.Model;
+import de.chrlembeck.codegen.model.Reference;
+import de.chrlembeck.codegen.model.ReferenceMapping;
+import de.chrlembeck.codegen.model.Schema;
+import de.chrlembeck.codegen.model.Table;
+
+/**
+ * Vergleicht das sequentielle, das parallele und das schemaweise Lesen der Metadaten an einer Derby-Datenbank im
+ * Speicher.
+ */
+public class GenericDBModelReaderTest {
+
+    private static final int TABLE_COUNT = 30;
+
+    private static EmbeddedDataSource dataSource;
+
+    @BeforeAll
+    public static void createDatabase() throws SQLException {
+        dataSource = new EmbeddedDataSource();
+        dataSource.setDatabaseName("memory:modelReaderTest");
+        dataSource.setCreateDatabase("create");
+        try (Connection con = dataSource.getConnection(); Statement statement = con.createStatement()) {
+            statement.executeUpdate("CREATE SCHEMA CGTEST");
+            statement.executeUpdate("CREATE TABLE CGTEST.PARENT (ID INT NOT NULL, SUB_ID INT NOT NULL, "
+                    + "NAME VARCHAR(20), CONSTRAINT PK_PARENT PRIMARY KEY (ID, SUB_ID))");
+            for (int i = 0; i < TABLE_COUNT; i++) {
+                statement.executeUpdate("CREATE TABLE CGTEST.CHILD" + i + " (ID INT NOT NULL PRIMARY KEY, "
+                        + "PARENT_ID INT, PARENT_SUB_ID INT, VALUE" + i + " DECIMAL(10, 2), "
+                        + "CONSTRAINT FK_CHILD" + i + " FOREIGN KEY (PARENT_ID, PARENT_SUB_ID) "
+                        + "REFERENCES CGTEST.PARENT (ID, SUB_ID))");
+            }
+            statement.executeUpdate("CREATE SCHEMA CG_A");
+            statement.executeUpdate("CREATE SCHEMA CGXA");
+            statement.executeUpdate("CREATE TABLE CG_A.T (A_ID INT)");
+            statement.executeUpdate("CREATE TABLE CGXA.T (X_ID INT)");
+        }
+    }
+
+    @Test
+    public void testParallelReadEqualsSequentialRead() throws SQLException {
+        final String sequential = describe(createReader().readModel("CGTEST"));
+        Assertions.assertTrue(sequential.contains("FK_CHILD7"), sequential);
+        Assertions.assertTrue(sequential.contains("PK_PARENT[ID, SUB_ID]"), sequential);
+
+        final GenericDBModelReader parallelReader = createReader();
+        parallelReader.setParallelism(4);
+        final AtomicInteger progress = new AtomicInteger();
+        parallelReader.setProgressListener((phase, done, total) -> progress.incrementAndGet());
+        Assertions.assertEquals(sequential, describe(parallelReader.readModel("CGTEST")));
+        Assertions.assertEquals(2 * (TABLE_COUNT + 1), progress.get());
+
+        final GenericDBModelReader bulkReader = createReader();
+        bulkReader.setParallelism(4);
+        bulkReader.setBulkMetaData(true);
+        Assertions.assertEquals(sequential, describe(bulkReader.readModel("CGTEST")));
+    }
+
+    @Test
+    public void testSchemaColumnsIgnoreSimilarSchemas() throws SQLException {
+        final CatalogImpl catalog = new CatalogImpl();
+        final SchemaImpl schema = new SchemaImpl();
+        schema.setSchemaName("CG_A");
+        schema.setCatalog(catalog);
+        catalog.addSchema(schema);
+        final TableImpl table = new TableImpl();
+        table.setTableName("T");
+        table.setSchema(schema);
+        schema.addTable(table);
+        try (Connection con = dataSource.getConnection()) {
+            createReader().readSchemaColumns(schema, con.getMetaData());
+        }
+        final StringBuilder columns = new StringBuilder();
+        table.getColumns().forEach(column -> columns.append(column.getColumnName()).append(' '));
+        Assertions.assertEquals("A_ID ", columns.toString());
+    }
+
+    private static GenericDBModelReader createReader() {
+        return new GenericDBModelReader(dataSource) {
+
+            @Override
+            protected void readCatalogs(final Model model, final DatabaseMetaData metaData) {
+                // Derby kennt keine Kataloge
+                model.addCatalog(new CatalogImpl());
+            }
+        };
+    }
+
+    private static String describe(final Model model) {
+        final StringBuilder builder = new StringBuilder();
+        for (final Catalog catalog : model.getCatalogs()) {
+            for (final Schema schema : catalog.getSchemas()) {
+                for (final Table table : schema.getTables()) {
+                    builder.append(schema.getSchemaName()).append('.').append(table.getTableName()).append(':');
+                    for (final Column column : table.getColumns()) {
+                        builder.append(' ').append(column.getColumnName()).append(' ').append(column.getTypeName())
+                                .append('(').append(column.getColumnSize()).append(')');
+                    }
+                    if (table.getPrimaryKey() != null) {
+                        builder.append("\n  ").append(table.getPrimaryKey().getPrimaryKeyName()).append('[');
+                        for (final Column key : table.getPrimaryKey().keys()) {
+                            builder.append(key == table.getPrimaryKey().keys().get(0) ? "" : ", ")
+                                    .append(key.getColumnName());
+                        }
+                        builder.append(']');
+                    }
+                    for (final Reference reference : table.getReferences()) {
+                        builder.append("\n  ").append(reference.getForeignKeyName());
+                        for (final ReferenceMapping mapping : reference.getReferenceMappings()) {
+                            builder.append(' ').append(mapping.getForeignKeyColumn().getColumnName()).append("->")
+                                    .append(mapping.getPrimaryKeyColumn().getColumnName());
+                        }
+                    }
+                    builder.append('\n');
+                }
+            }
+        }
+        return builder.toString();
+    }
+}